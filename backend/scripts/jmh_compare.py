@@ -0,0 +1,70 @@
+#!/usr/bin/env python3
+"""Compare two JMH JSON result files (mvn -Pjmh test-compile exec:exec -> target/jmh-result.json).
+
+Usage: scripts/jmh_compare.py BASELINE.json CURRENT.json [--threshold 10]
+
+A benchmark regresses when its score gets worse by more than the threshold (percent) AND the
+change is larger than the two runs' combined error margins. Exit code 1 if anything regressed.
+"""
+import argparse
+import json
+import math
+import sys
+
+
+def load(path):
+    with open(path, encoding="utf-8") as f:
+        results = {}
+        for run in json.load(f):
+            params = ",".join(f"{k}={v}" for k, v in sorted((run.get("params") or {}).items()))
+            name = run["benchmark"].replace("com.iheartev.api.", "") + (f" [{params}]" if params else "")
+            metric = run["primaryMetric"]
+            error = metric.get("scoreError")
+            results[name] = {
+                "mode": run["mode"],
+                "score": metric["score"],
+                # JMH writes NaN when there are too few iterations to estimate the error
+                "error": error if isinstance(error, (int, float)) and not math.isnan(error) else 0.0,
+                "unit": metric["scoreUnit"],
+            }
+        return results
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__, formatter_class=argparse.RawDescriptionHelpFormatter)
+    parser.add_argument("baseline")
+    parser.add_argument("current")
+    parser.add_argument("--threshold", type=float, default=10.0, help="allowed slowdown in percent (default 10)")
+    args = parser.parse_args()
+
+    baseline, current = load(args.baseline), load(args.current)
+    regressions = 0
+    print(f"{'benchmark':<70} {'baseline':>14} {'current':>14} {'change':>9}")
+    for name in sorted(set(baseline) | set(current)):
+        old, new = baseline.get(name), current.get(name)
+        if old is None or new is None:
+            print(f"{name:<70} {'-' if old is None else format(old['score'], '.3f'):>14} "
+                  f"{'-' if new is None else format(new['score'], '.3f'):>14} {'new' if old is None else 'gone':>9}")
+            continue
+        # Throughput modes: higher is better; time modes (avgt, sample, ss): lower is better
+        higher_is_better = old["mode"] == "thrpt"
+        delta = new["score"] - old["score"]
+        change = delta / old["score"] * 100 if old["score"] else 0.0
+        worse = -change if higher_is_better else change
+        significant = abs(delta) > old["error"] + new["error"]
+        flag = ""
+        if worse > args.threshold and significant:
+            flag = "  REGRESSION"
+            regressions += 1
+        elif worse < -args.threshold and significant:
+            flag = "  improved"
+        print(f"{name:<70} {old['score']:>14.3f} {new['score']:>14.3f} {change:>+8.1f}%{flag}  {new['unit']}")
+
+    if regressions:
+        print(f"\n{regressions} benchmark(s) regressed by more than {args.threshold}%")
+        return 1
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
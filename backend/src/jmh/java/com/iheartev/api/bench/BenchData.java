@@ -0,0 +1,133 @@
+package com.iheartev.api.bench;
+
+import com.iheartev.api.listing.Listing;
+import com.iheartev.api.payment.PaymentInfo;
+import com.iheartev.api.social.Review;
+import com.iheartev.api.transaction.Order;
+import com.iheartev.api.user.User;
+import com.iheartev.api.user.UserRole;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+// Deterministic in-memory entity graphs for the benchmarks (no database involved)
+public final class BenchData {
+    private static final Instant ANCHOR = Instant.parse("2025-06-01T00:00:00Z");
+    private static final String[] BRANDS = {"VinFast", "VinFast", "VinFast", "Dat Bike", "Yadea", "BYD", "Hyundai", "Tesla"};
+    private static final String[] STATUSES = {"APPROVED", "APPROVED", "ACTIVE", "SOLD", "PENDING"};
+
+    public final List<User> users = new ArrayList<>();
+    public final List<Listing> listings = new ArrayList<>();
+    public final List<Order> orders = new ArrayList<>();
+    public final List<Review> reviews = new ArrayList<>();
+
+    private BenchData() {}
+
+    // Sellers are users 1..userCount; every SOLD listing gets a closed order and a review of its seller
+    public static BenchData create(int userCount, int listingCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        BenchData data = new BenchData();
+        for (int i = 1; i <= userCount; i++) {
+            data.users.add(user(i));
+        }
+        for (int i = 1; i <= listingCount; i++) {
+            // Squared uniform skews activity toward the first sellers
+            double u = random.nextDouble();
+            User seller = data.users.get((int) (u * u * userCount));
+            Listing listing = listing(i, seller, STATUSES[random.nextInt(STATUSES.length)], random);
+            data.listings.add(listing);
+            if ("SOLD".equals(listing.getStatus())) {
+                User buyer = data.users.get(random.nextInt(userCount));
+                Order order = Order.builder()
+                        .id((long) data.orders.size() + 1)
+                        .listing(listing)
+                        .buyer(buyer)
+                        .amount(listing.getPrice())
+                        .status("CLOSED")
+                        .createdAt(listing.getCreatedAt().plusSeconds(86_400))
+                        .updatedAt(listing.getCreatedAt().plusSeconds(3 * 86_400))
+                        .buyerPaymentConfirmed(true)
+                        .sellerPaymentReceived(true)
+                        .closedAt(listing.getCreatedAt().plusSeconds(3 * 86_400))
+                        .build();
+                data.orders.add(order);
+                Review review = new Review();
+                review.setId((long) data.reviews.size() + 1);
+                review.setReviewer(buyer);
+                review.setReviewee(seller);
+                review.setOrderId(order.getId());
+                review.setRating(3 + random.nextInt(3));
+                review.setComment("Giao dịch nhanh, xe đúng mô tả.");
+                review.setCreatedAt(order.getClosedAt().plusSeconds(3600));
+                review.setUpdatedAt(review.getCreatedAt());
+                data.reviews.add(review);
+            }
+        }
+        return data;
+    }
+
+    public static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("bench-" + id + "@iheartev.local");
+        user.setPhone("0900000" + String.format("%03d", id % 1000));
+        user.setPassword("$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq");
+        user.setFullName("Nguyễn Văn " + id);
+        user.setRole(UserRole.MEMBER);
+        return user;
+    }
+
+    public static Listing listing(long id, User seller, String status, SplittableRandom random) {
+        PaymentInfo paymentInfo = new PaymentInfo();
+        paymentInfo.setId(id);
+        paymentInfo.setPaymentMethod("VIETQR");
+        paymentInfo.setBankCode("VCB");
+        paymentInfo.setBankName("Vietcombank");
+        paymentInfo.setAccountNumber("1234567890");
+        paymentInfo.setTransactionContent("IHEARTEV " + id);
+
+        Listing listing = new Listing();
+        listing.setId(id);
+        listing.setSeller(seller);
+        listing.setType("EV");
+        listing.setBrand(BRANDS[random.nextInt(BRANDS.length)]);
+        listing.setModel("VF " + (5 + random.nextInt(5)));
+        listing.setYear(2019 + random.nextInt(7));
+        listing.setMileageKm(random.nextInt(80_000));
+        listing.setBatteryCapacityKWh(40 + random.nextInt(60));
+        listing.setConditionLabel("used");
+        listing.setDescription("Xe gia đình, bảo dưỡng định kỳ tại hãng, pin còn tốt.");
+        listing.setPrice(10_000.0 + random.nextInt(40_000));
+        listing.setStatus(status);
+        listing.setCreatedAt(ANCHOR.minusSeconds(random.nextLong(365 * 86_400L)));
+        listing.setEditedAfterRejection(false);
+        listing.setPaymentInfo(paymentInfo);
+        paymentInfo.setAmount(listing.getPrice());
+        return listing;
+    }
+
+    // Repository stand-in: each interface method is answered by the function registered under its
+    // name; anything else fails loudly so a changed controller shows up as a broken benchmark
+    @SuppressWarnings("unchecked")
+    public static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            Function<Object[], Object> answer = methods.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException("No stub for " + type.getSimpleName() + "." + method.getName());
+            }
+            return answer.apply(args);
+        });
+    }
+}
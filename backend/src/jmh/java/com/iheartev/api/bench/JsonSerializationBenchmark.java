@@ -0,0 +1,58 @@
+package com.iheartev.api.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.iheartev.api.listing.Listing;
+import com.iheartev.api.transaction.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Response bodies as Spring MVC writes them: one page of GET /api/listings (listing + seller +
+// payment info) and a user's order list (order + listing graph + buyer)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    private ObjectMapper objectMapper;
+    private Page<Listing> listingPage;
+    private List<Order> orders;
+
+    @Setup
+    public void setUp() {
+        // Same defaults as Spring Boot's auto-configured mapper
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        BenchData data = BenchData.create(50, 200, 42);
+        listingPage = new PageImpl<>(data.listings.subList(0, 20), PageRequest.of(0, 20), data.listings.size());
+        orders = data.orders.subList(0, Math.min(20, data.orders.size()));
+    }
+
+    @Benchmark
+    public byte[] listingPage() throws Exception {
+        return objectMapper.writeValueAsBytes(listingPage);
+    }
+
+    @Benchmark
+    public byte[] orderList() throws Exception {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+}
@@ -0,0 +1,70 @@
+package com.iheartev.api.bench;
+
+import com.iheartev.api.listing.ListingRepository;
+import com.iheartev.api.social.ReviewRepository;
+import com.iheartev.api.transaction.Order;
+import com.iheartev.api.transaction.OrderRepository;
+import com.iheartev.api.user.SellerProfileController;
+import com.iheartev.api.user.User;
+import com.iheartev.api.user.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// GET /api/sellers/{id}/profile assembly with in-memory repositories, so only the controller's own
+// work is measured (filtering, averaging, map building) as the listing/review tables grow
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SellerProfileBenchmark {
+    @Param({"1000", "50000"})
+    public int listings;
+
+    private SellerProfileController controller;
+
+    @Setup
+    public void setUp() {
+        BenchData data = BenchData.create(500, listings, 42);
+        Map<Long, User> users = data.users.stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, Order> orders = data.orders.stream().collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        UserRepository userRepository = BenchData.repository(UserRepository.class,
+                Map.of("findById", args -> Optional.ofNullable(users.get((Long) args[0]))));
+        ListingRepository listingRepository = BenchData.repository(ListingRepository.class,
+                Map.of("findAll", args -> data.listings));
+        ReviewRepository reviewRepository = BenchData.repository(ReviewRepository.class,
+                Map.of("findAll", args -> data.reviews));
+        OrderRepository orderRepository = BenchData.repository(OrderRepository.class,
+                Map.of("findByIdWithRelations", args -> Optional.ofNullable(orders.get((Long) args[0]))));
+        controller = new SellerProfileController(userRepository, listingRepository, reviewRepository, orderRepository);
+    }
+
+    // User 1 is the most active seller in BenchData
+    @Benchmark
+    public ResponseEntity<?> topSellerProfile() {
+        return controller.getSellerProfile(1L);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> typicalSellerProfile() {
+        return controller.getSellerProfile(250L);
+    }
+}
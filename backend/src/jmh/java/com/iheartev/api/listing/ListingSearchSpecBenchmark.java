@@ -0,0 +1,93 @@
+package com.iheartev.api.listing;
+
+import com.iheartev.api.payment.PaymentInfo;
+import com.iheartev.api.user.User;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.query.Query;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// GET /api/listings filter building: the Specification itself, and turning it into a Hibernate query
+// (criteria -> SQM), which is where the "id NOT IN (listings with active orders)" list gets expensive.
+// The SessionFactory runs on an empty in-memory H2; no SQL is executed.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListingSearchSpecBenchmark {
+    @Param({"0", "1000", "20000"})
+    public int activeOrders;
+
+    private SessionFactory sessionFactory;
+    private Session session;
+    private Set<Long> excluded;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Listing.class)
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(PaymentInfo.class)
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:bench")
+                .setProperty("hibernate.connection.username", "sa")
+                .setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect")
+                .setProperty("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .setProperty("hibernate.physical_naming_strategy",
+                        "org.hibernate.boot.model.naming.PhysicalNamingStrategyStandardImpl")
+                .buildSessionFactory();
+        session = sessionFactory.openSession();
+        excluded = new HashSet<>();
+        for (long id = 1; id <= activeOrders; id++) {
+            excluded.add(id * 7);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        session.close();
+        sessionFactory.close();
+    }
+
+    private Specification<Listing> spec() {
+        return ListingController.searchSpec(Optional.of("EV"), Optional.of("vin"), Optional.empty(),
+                Optional.of(2020), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(50_000.0), excluded);
+    }
+
+    @Benchmark
+    public Specification<Listing> buildSpecification() {
+        return spec();
+    }
+
+    @Benchmark
+    public Query<Listing> buildQuery() {
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        CriteriaQuery<Listing> query = cb.createQuery(Listing.class);
+        Root<Listing> root = query.from(Listing.class);
+        query.where(spec().toPredicate(root, query, cb));
+        query.orderBy(cb.desc(root.get("createdAt")));
+        return session.createQuery(query);
+    }
+}
@@ -0,0 +1,44 @@
+package com.iheartev.api.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// JwtFilter.skipsTokenProcessing over a mix of request paths (public, docs and authenticated)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterPathBenchmark {
+    private final String[] paths = {
+            "/api/listings",
+            "/api/listings/1234",
+            "/api/attachments/listing/1234",
+            "/api/auth/login",
+            "/api/me/orders",
+            "/api/sellers/42/profile",
+            "/swagger-ui/index.html",
+            "/v3/api-docs/swagger-config",
+    };
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public int skipsTokenProcessing() {
+        int skipped = 0;
+        for (String path : paths) {
+            if (JwtFilter.skipsTokenProcessing(path)) skipped++;
+        }
+        return skipped;
+    }
+}
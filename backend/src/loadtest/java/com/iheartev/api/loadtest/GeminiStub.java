@@ -0,0 +1,54 @@
+package com.iheartev.api.loadtest;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Answers generateContent calls like Gemini does (candidates[0].content.parts[0].text) after a
+// configurable delay, so the AI endpoints can be load-tested without a key or network access
+final class GeminiStub implements AutoCloseable {
+    private static final byte[] RESPONSE = ("{\"candidates\":[{\"content\":{\"parts\":[{\"text\":"
+            + "\"Giá đề xuất: 650.000.000 VNĐ. Xe đời mới, pin còn tốt, giá phù hợp thị trường.\"}]}}]}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final AtomicLong calls = new AtomicLong();
+
+    GeminiStub(int port, long latencyMs, long jitterMs, ExecutorService executor) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 256);
+        server.setExecutor(executor);
+        server.createContext("/v1beta/models/", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.readAllBytes();
+            }
+            calls.incrementAndGet();
+            try {
+                Thread.sleep(latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs) : 0));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(RESPONSE);
+            }
+        });
+        server.start();
+    }
+
+    long calls() {
+        return calls.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,248 @@
+package com.iheartev.api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Scenario-based HTTP load test against a locally running backend (SPRING_PROFILES_ACTIVE=perf).
+// Workers pick journeys from the configured mix for duration-seconds after a warm-up, latencies go
+// into HdrHistograms per request name, and the run fails (exit code 1) when any request name misses
+// its p99 or error-rate SLO. Configuration: src/loadtest/resources/loadtest.properties.
+public final class LoadTest {
+    private static final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    // 1 microsecond .. 2 minutes at 3 significant digits
+    private static final long MAX_LATENCY_US = TimeUnit.MINUTES.toMicros(2);
+
+    @FunctionalInterface
+    interface Expected {
+        boolean test(int status);
+    }
+
+    private static final class Stats {
+        final Histogram latencyUs = new ConcurrentHistogram(MAX_LATENCY_US, 3);
+        final LongAdder errors = new LongAdder();
+        final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    }
+
+    // Sends a request and records it under a name, once the measurement window has started
+    static final class Recorder {
+        private final HttpClient client;
+        private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+        private volatile long measureFrom = Long.MAX_VALUE;
+
+        Recorder(HttpClient client) {
+            this.client = client;
+        }
+
+        HttpResponse<byte[]> send(String name, HttpRequest request, long startNanos, Expected expected) {
+            HttpResponse<byte[]> response = null;
+            String outcome;
+            boolean error;
+            try {
+                response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                outcome = String.valueOf(response.statusCode());
+                error = !expected.test(response.statusCode());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (Exception e) {
+                outcome = e.getClass().getSimpleName();
+                error = true;
+            }
+            if (startNanos >= measureFrom) {
+                Stats s = stats.computeIfAbsent(name, k -> new Stats());
+                long us = Math.max(1, (System.nanoTime() - startNanos) / 1_000);
+                s.latencyUs.recordValue(Math.min(us, MAX_LATENCY_US));
+                s.outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+                if (error) s.errors.increment();
+            }
+            return response;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Properties config = new Properties();
+        try (InputStream in = LoadTest.class.getResourceAsStream("/loadtest.properties")) {
+            config.load(in);
+        }
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) config.setProperty(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+        }
+        System.exit(new LoadTest().run(config) ? 0 : 1);
+    }
+
+    boolean run(Properties config) throws Exception {
+        String baseUrl = config.getProperty("base-url");
+        int concurrency = intValue(config, "concurrency");
+        double rate = Double.parseDouble(config.getProperty("rate", "0"));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(intValue(config, "warmup-seconds"));
+        long durationNanos = TimeUnit.SECONDS.toNanos(intValue(config, "duration-seconds"));
+
+        ExecutorService workers = newWorkerExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(workers)
+                .build();
+        Recorder recorder = new Recorder(client);
+        Scenarios scenarios = new Scenarios(baseUrl, intValue(config, "users"), intValue(config, "listings"));
+
+        try (GeminiStub stub = new GeminiStub(intValue(config, "stub.port"), intValue(config, "stub.latency-ms"),
+                intValue(config, "stub.jitter-ms"), workers)) {
+            scenarios.prepare(recorder, intValue(config, "token-pool"));
+
+            List<Scenarios.Scenario> journeys = new ArrayList<>();
+            List<Double> weights = new ArrayList<>();
+            scenarios.all().forEach((name, scenario) -> {
+                double weight = Double.parseDouble(config.getProperty("mix." + name, "0"));
+                if (weight > 0) {
+                    journeys.add(scenario);
+                    weights.add(weight);
+                }
+            });
+            double totalWeight = weights.stream().mapToDouble(Double::doubleValue).sum();
+
+            long start = System.nanoTime();
+            recorder.measureFrom = start + warmupNanos;
+            long end = recorder.measureFrom + durationNanos;
+            // With a target rate every worker owns an evenly spaced schedule of intended start times
+            long period = rate > 0 ? (long) (1e9 * concurrency / rate) : 0;
+            System.out.printf("Load test: %d workers (%s), %s, %ds warm-up + %ds against %s%n", concurrency,
+                    isVirtual(workers) ? "virtual threads" : "platform threads",
+                    rate > 0 ? rate + " iterations/s" : "closed loop",
+                    TimeUnit.NANOSECONDS.toSeconds(warmupNanos), TimeUnit.NANOSECONDS.toSeconds(durationNanos), baseUrl);
+
+            List<Future<?>> running = new ArrayList<>();
+            for (int w = 0; w < concurrency; w++) {
+                long offset = period > 0 ? period * w / concurrency : 0;
+                running.add(workers.submit(() -> {
+                    long next = start + offset;
+                    while (!Thread.currentThread().isInterrupted()) {
+                        long now = System.nanoTime();
+                        if (now >= end) return null;
+                        long intended = now;
+                        if (period > 0) {
+                            if (next > now) TimeUnit.NANOSECONDS.sleep(next - now);
+                            intended = next;
+                            next += period;
+                            if (intended >= end) return null;
+                        }
+                        double r = ThreadLocalRandom.current().nextDouble() * totalWeight;
+                        int pick = 0;
+                        while (pick < weights.size() - 1 && (r -= weights.get(pick)) >= 0) pick++;
+                        try {
+                            journeys.get(pick).run(recorder, intended);
+                        } catch (InterruptedException e) {
+                            return null;
+                        } catch (Exception e) {
+                            // Response parsing inside a journey; the request itself is already recorded
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : running) {
+                f.get();
+            }
+            System.out.printf("Gemini stub served %d calls%n", stub.calls());
+            return report(config, recorder, durationNanos);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private boolean report(Properties config, Recorder recorder, long durationNanos) throws Exception {
+        double seconds = durationNanos / 1e9;
+        boolean pass = true;
+        Map<String, Object> results = new LinkedHashMap<>();
+        System.out.printf("%n%-22s %8s %8s %7s %8s %8s %8s %8s %8s  %s%n",
+                "request", "count", "req/s", "err%", "p50 ms", "p90 ms", "p99 ms", "p99.9", "max ms", "SLO");
+        for (Map.Entry<String, Stats> entry : new TreeMap<>(recorder.stats).entrySet()) {
+            String name = entry.getKey();
+            if (name.startsWith("setup.")) continue;
+            Histogram h = entry.getValue().latencyUs;
+            long count = h.getTotalCount();
+            double errorPct = count == 0 ? 0 : entry.getValue().errors.sum() * 100.0 / count;
+            double p99 = h.getValueAtPercentile(99) / 1000.0;
+            double sloP99 = slo(config, name, "p99-ms");
+            double sloErrors = slo(config, name, "error-pct");
+            boolean ok = p99 <= sloP99 && errorPct <= sloErrors;
+            pass &= ok;
+            System.out.printf("%-22s %8d %8.1f %7.2f %8.1f %8.1f %8.1f %8.1f %8.1f  %s%n", name, count, count / seconds,
+                    errorPct, h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(90) / 1000.0, p99,
+                    h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0,
+                    ok ? "pass" : String.format("FAIL (p99 <= %.0f ms, errors <= %.1f%%)", sloP99, sloErrors));
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("count", count);
+            row.put("throughputPerSecond", count / seconds);
+            row.put("errorPct", errorPct);
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            for (double p : new double[] {50, 90, 95, 99, 99.9}) {
+                percentiles.put("p" + (p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p)), h.getValueAtPercentile(p) / 1000.0);
+            }
+            percentiles.put("max", h.getMaxValue() / 1000.0);
+            row.put("latencyMs", percentiles);
+            Map<String, Long> outcomes = new TreeMap<>();
+            entry.getValue().outcomes.forEach((k, v) -> outcomes.put(k, v.sum()));
+            row.put("outcomes", outcomes);
+            row.put("slo", Map.of("p99Ms", sloP99, "errorPct", sloErrors, "pass", ok));
+            results.put(name, row);
+        }
+        System.out.println(pass ? "\nRESULT: PASS" : "\nRESULT: FAIL");
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("config", new TreeMap<>(config));
+        document.put("durationSeconds", seconds);
+        document.put("pass", pass);
+        document.put("requests", results);
+        File output = new File(config.getProperty("output"));
+        if (output.getParentFile() != null) output.getParentFile().mkdirs();
+        objectMapper.writeValue(output, document);
+        System.out.println("Results written to " + output.getPath());
+        return pass;
+    }
+
+    private static double slo(Properties config, String name, String key) {
+        return Double.parseDouble(config.getProperty("slo." + name + "." + key, config.getProperty("slo.default." + key)));
+    }
+
+    private static int intValue(Properties config, String key) {
+        return Integer.parseInt(config.getProperty(key).trim());
+    }
+
+    // Virtual threads on JDK 21+, otherwise a cached pool of platform threads (the project targets 17)
+    private static ExecutorService newWorkerExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private static boolean isVirtual(ExecutorService executor) {
+        return executor.getClass().getName().contains("ThreadPerTask");
+    }
+}
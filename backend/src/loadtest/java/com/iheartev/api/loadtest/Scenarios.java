@@ -0,0 +1,148 @@
+package com.iheartev.api.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// User journeys against the perf profile data set. Each journey records one or more named requests;
+// the names are what the report and the slo.* keys refer to.
+final class Scenarios {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String PASSWORD = "Password123!";
+    private static final String[] BRANDS = {"vinfast", "dat bike", "yadea", "byd", "hyundai", "tesla", "catl"};
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    interface Scenario {
+        void run(LoadTest.Recorder recorder, long intendedStart) throws Exception;
+    }
+
+    private final String baseUrl;
+    private final int users;
+    private final int listings;
+    private final List<String> tokens = new ArrayList<>();
+    private final List<Long> buyableListings = new ArrayList<>();
+    private final AtomicInteger hotListing = new AtomicInteger();
+
+    Scenarios(String baseUrl, int users, int listings) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        this.listings = listings;
+    }
+
+    // Logs in the token pool and picks the ACTIVE listings the buy-now journey fights over
+    void prepare(LoadTest.Recorder recorder, int tokenPool) throws Exception {
+        for (int i = 0; i < tokenPool; i++) {
+            HttpResponse<byte[]> response = recorder.send("setup.login", login(2 + i * 97 % (users - 1)), System.nanoTime(), ok());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login failed with " + response.statusCode() + "; is the app running with the perf profile?");
+            }
+            tokens.add(objectMapper.readTree(response.body()).get("token").asText());
+        }
+        HttpResponse<byte[]> page = recorder.send("setup.listings",
+                get("/api/listings?status=ACTIVE&size=200", null), System.nanoTime(), ok());
+        for (JsonNode listing : objectMapper.readTree(page.body()).path("content")) {
+            buyableListings.add(listing.get("id").asLong());
+        }
+    }
+
+    Map<String, Scenario> all() {
+        Map<String, Scenario> scenarios = new LinkedHashMap<>();
+        scenarios.put("browse", this::browse);
+        scenarios.put("detail", this::detail);
+        scenarios.put("profile", this::profile);
+        scenarios.put("login", this::loginBurst);
+        scenarios.put("buy-now", this::buyNow);
+        scenarios.put("ai", this::ai);
+        return scenarios;
+    }
+
+    // Anonymous home page: first pages, sometimes with a brand filter
+    private void browse(LoadTest.Recorder recorder, long start) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String query = "/api/listings?page=" + (random.nextInt(10) < 8 ? 0 : random.nextInt(1, 20)) + "&size=20"
+                + (random.nextInt(10) < 3 ? "&brand=" + BRANDS[random.nextInt(BRANDS.length)].replace(" ", "%20") : "");
+        recorder.send("browse", get(query, null), start, ok());
+    }
+
+    // Listing detail page: the listing, then its attachments (soft-deleted ids answer 404)
+    private void detail(LoadTest.Recorder recorder, long start) throws Exception {
+        long id = ThreadLocalRandom.current().nextLong(1, listings + 1);
+        recorder.send("detail.listing", get("/api/listings/" + id, null), start, status -> status == 200 || status == 404);
+        recorder.send("detail.attachments", get("/api/attachments/listing/" + id, token()), System.nanoTime(), ok());
+    }
+
+    private void profile(LoadTest.Recorder recorder, long start) throws Exception {
+        long id = ThreadLocalRandom.current().nextLong(2, users + 1);
+        if (ThreadLocalRandom.current().nextBoolean()) {
+            recorder.send("profile.seller", get("/api/sellers/" + id + "/profile", token()), start, ok());
+        } else {
+            recorder.send("profile.buyer", get("/api/buyers/" + id + "/profile", token()), start, ok());
+        }
+    }
+
+    // BCrypt-bound; every worker that lands here logs in a different user
+    private void loginBurst(LoadTest.Recorder recorder, long start) throws Exception {
+        recorder.send("login", login(ThreadLocalRandom.current().nextLong(2, users + 1)), start, ok());
+    }
+
+    // Everyone tries to buy the same listing; one 200 moves the crowd on to the next, the rest get 400
+    private void buyNow(LoadTest.Recorder recorder, long start) throws Exception {
+        if (buyableListings.isEmpty()) return;
+        int index = hotListing.get();
+        long listingId = buyableListings.get(index % buyableListings.size());
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/orders/buy-now/" + listingId))
+                .header("Authorization", "Bearer " + token())
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .timeout(TIMEOUT)
+                .build();
+        HttpResponse<byte[]> response = recorder.send("buy-now", request, start, status -> status == 200 || status == 400);
+        if (response != null && response.statusCode() == 200) {
+            hotListing.compareAndSet(index, index + 1);
+        }
+    }
+
+    // Listing overview (anonymous, loaded by every detail page) or price suggestion, both via the Gemini stub
+    private void ai(LoadTest.Recorder recorder, long start) throws Exception {
+        boolean overview = ThreadLocalRandom.current().nextBoolean();
+        String body = "{\"brand\":\"VinFast\",\"model\":\"VF 8\",\"year\":2023,\"mileageKm\":12000,\"batteryCapacityKWh\":87,\"price\":32000}";
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + (overview ? "/api/ai/overview" : "/api/ai/suggest-price")))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .timeout(TIMEOUT);
+        if (!overview) request.header("Authorization", "Bearer " + token());
+        recorder.send(overview ? "ai.overview" : "ai.suggest-price", request.build(), start, ok());
+    }
+
+    private HttpRequest login(long userId) {
+        String body = "{\"email\":\"perf-user-" + userId + "@iheartev.local\",\"password\":\"" + PASSWORD + "\"}";
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .timeout(TIMEOUT)
+                .build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().timeout(TIMEOUT);
+        if (token != null) request.header("Authorization", "Bearer " + token);
+        return request.build();
+    }
+
+    private String token() {
+        return tokens.get(ThreadLocalRandom.current().nextInt(tokens.size()));
+    }
+
+    private static LoadTest.Expected ok() {
+        return status -> status >= 200 && status < 300;
+    }
+}
@@ -0,0 +1,173 @@
+package com.iheartev.api.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Concurrent video streams against /api/attachments/{id}/download on a running perf-profile backend.
+// Uploads one stream.file-mb video, then stream.concurrency clients read it for stream.duration-seconds,
+// either whole (stream.mode=full) or the way a player does, in sequential stream.chunk-kb Range requests
+// from a random start (stream.mode=range). The server's CPU time, heap allocation and peak heap come
+// from its Prometheus endpoint before and after, reported per GB served.
+// mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.iheartev.api.loadtest.StreamBench -Dloadtest.args="stream.mode=full"
+public final class StreamBench {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Pattern SAMPLE = Pattern.compile("^([a-zA-Z_:][a-zA-Z0-9_:]*)(\\{[^}]*})? ([-0-9.eE+]+|NaN)$", Pattern.MULTILINE);
+
+    public static void main(String[] args) throws Exception {
+        Properties config = new Properties();
+        try (InputStream in = StreamBench.class.getResourceAsStream("/loadtest.properties")) {
+            config.load(in);
+        }
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) config.setProperty(arg.substring(0, eq).trim(), arg.substring(eq + 1).trim());
+        }
+        new StreamBench().run(config);
+    }
+
+    void run(Properties config) throws Exception {
+        String baseUrl = config.getProperty("base-url");
+        String managementUrl = config.getProperty("stream.management-url");
+        String mode = config.getProperty("stream.mode");
+        int concurrency = Integer.parseInt(config.getProperty("stream.concurrency"));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(config.getProperty("stream.duration-seconds")));
+        int fileBytes = Integer.parseInt(config.getProperty("stream.file-mb")) * 1024 * 1024;
+        int chunkBytes = Integer.parseInt(config.getProperty("stream.chunk-kb")) * 1024;
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5)).build();
+        try {
+            String token = login(client, baseUrl);
+            long attachmentId = upload(client, baseUrl, token, fileBytes);
+            URI download = URI.create(baseUrl + "/api/attachments/" + attachmentId + "/download");
+            // Warm-up so JIT compilation does not count against either mode
+            for (int i = 0; i < 20; i++) fetch(client, download, null);
+
+            Histogram latencyUs = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(2), 3);
+            AtomicLong bytes = new AtomicLong();
+            AtomicLong errors = new AtomicLong();
+            Map<String, Double> before = scrape(client, managementUrl);
+            long start = System.nanoTime();
+            long end = start + durationNanos;
+            List<Future<?>> running = new ArrayList<>();
+            for (int w = 0; w < concurrency; w++) {
+                running.add(workers.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        long offset = "range".equals(mode) ? ThreadLocalRandom.current().nextLong(fileBytes / 2) : 0;
+                        do {
+                            String range = "range".equals(mode)
+                                    ? "bytes=" + offset + "-" + Math.min(fileBytes - 1, offset + chunkBytes - 1) : null;
+                            long t0 = System.nanoTime();
+                            long[] result = fetch(client, download, range);
+                            latencyUs.recordValue(Math.max(1, (System.nanoTime() - t0) / 1_000));
+                            if (result[0] != ("range".equals(mode) ? 206 : 200)) errors.incrementAndGet();
+                            bytes.addAndGet(result[1]);
+                            offset += chunkBytes;
+                        } while ("range".equals(mode) && offset < fileBytes && System.nanoTime() < end);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : running) f.get();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Map<String, Double> after = scrape(client, managementUrl);
+
+            double gb = bytes.get() / 1e9;
+            System.out.printf("%nmode=%s streams=%d file=%dMB chunk=%dKB duration=%.0fs%n", mode, concurrency,
+                    fileBytes >> 20, chunkBytes >> 10, seconds);
+            System.out.printf("requests          %d (%d errors)%n", latencyUs.getTotalCount(), errors.get());
+            System.out.printf("served            %.2f GB, %.1f MB/s%n", gb, bytes.get() / 1e6 / seconds);
+            System.out.printf("latency ms        p50 %.1f  p99 %.1f  max %.1f%n", latencyUs.getValueAtPercentile(50) / 1000.0,
+                    latencyUs.getValueAtPercentile(99) / 1000.0, latencyUs.getMaxValue() / 1000.0);
+            System.out.printf("server CPU        %.2f s per GB%n", delta(before, after, "process_cpu_time_ns_total") / 1e9 / gb);
+            System.out.printf("heap allocated    %.1f MB per GB%n", delta(before, after, "jvm_gc_memory_allocated_bytes_total") / 1e6 / gb);
+            System.out.printf("heap used (end)   %.1f MB%n", after.getOrDefault("jvm_memory_used_bytes{area=\"heap\"}", 0.0) / 1e6);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    // status, body bytes
+    private static long[] fetch(HttpClient client, URI uri, String range) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).GET().timeout(Duration.ofSeconds(60));
+        if (range != null) request.header("Range", range);
+        HttpResponse<InputStream> response = client.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            return new long[] {response.statusCode(), body.transferTo(OutputStream.nullOutputStream())};
+        }
+    }
+
+    private static String login(HttpClient client, String baseUrl) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"perf-user-2@iheartev.local\",\"password\":\"Password123!\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with " + response.statusCode() + "; is the app running with the perf profile?");
+        }
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private static long upload(HttpClient client, String baseUrl, String token, int size) throws Exception {
+        byte[] video = new byte[size];
+        new SplittableRandom(42).nextBytes(video);
+        String boundary = "bench" + System.nanoTime();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(size + 512);
+        body.write(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"listingId\"\r\n\r\n1\r\n--" + boundary
+                + "\r\nContent-Disposition: form-data; name=\"files\"; filename=\"bench.mp4\"\r\nContent-Type: video/mp4\r\n\r\n")
+                .getBytes(StandardCharsets.UTF_8));
+        body.write(video);
+        body.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/attachments"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) throw new IllegalStateException("Upload failed: " + response.body());
+        return objectMapper.readTree(response.body()).get(0).get("id").asLong();
+    }
+
+    // Prometheus text format, labels kept in the key (sums series of the same name+labels)
+    private static Map<String, Double> scrape(HttpClient client, String managementUrl) throws Exception {
+        String text = client.send(HttpRequest.newBuilder(URI.create(managementUrl + "/actuator/prometheus")).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Map<String, Double> values = new java.util.HashMap<>();
+        Matcher m = SAMPLE.matcher(text);
+        while (m.find()) {
+            double v = Double.parseDouble(m.group(3));
+            values.merge(m.group(1), v, Double::sum);
+            String labels = m.group(2);
+            if (labels != null && labels.contains("area=\"heap\"")) values.merge(m.group(1) + "{area=\"heap\"}", v, Double::sum);
+        }
+        return values;
+    }
+
+    private static double delta(Map<String, Double> before, Map<String, Double> after, String name) {
+        return after.getOrDefault(name, 0.0) - before.getOrDefault(name, 0.0);
+    }
+}
@@ -2,23 +2,43 @@ package com.iheartev.api.admin;
 
 import com.iheartev.api.listing.Listing;
 import com.iheartev.api.listing.ListingRepository;
+import com.iheartev.api.metrics.QueryBudget;
 import com.iheartev.api.user.UserRole;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 @RestController
+@QueryBudget(5)
 @RequestMapping("/api/admin")
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminController {
+    private static final int MAX_PENDING_PAGE_SIZE = 200;
+    // Each decision is a parameter of the bulk IN lists (plus one for the time), and SQL Server takes at
+    // most 2100 per statement, so bulk-max-decisions is capped here
+    static final int MAX_BULK_DECISIONS = 2000;
+
     private final ListingRepository listings;
-    public AdminController(ListingRepository listings) { this.listings = listings; }
+    private final int maxBulkDecisions;
+
+    public AdminController(ListingRepository listings,
+                           @Value("${app.admin.bulk-max-decisions:200}") int maxBulkDecisions) {
+        this.listings = listings;
+        this.maxBulkDecisions = Math.min(maxBulkDecisions, MAX_BULK_DECISIONS);
+    }
 
     @PostMapping("/listings/{id}/verify")
     public Listing verify(@PathVariable Long id) {
@@ -29,24 +49,114 @@ public class AdminController {
 
     @GetMapping("/reports/summary")
     public Map<String, Object> summary() {
-        List<Listing> all = listings.findAll();
-        long sold = all.stream().filter(l -> "SOLD".equals(l.getStatus())).count();
-        long approved = all.stream().filter(l -> "APPROVED".equals(l.getStatus()) && l.getDeletedAt() == null).count();
-        long pending = all.stream().filter(l -> "PENDING".equals(l.getStatus()) && l.getDeletedAt() == null).count();
-        long rejected = all.stream().filter(l -> "REJECTED".equals(l.getStatus()) && l.getDeletedAt() == null).count();
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : listings.countForSummary()) {
+            counts.put((String) row[0], (Long) row[1]);
+        }
         Map<String, Object> m = new HashMap<>();
-        m.put("approvedListings", approved);
-        m.put("pendingListings", pending);
-        m.put("rejectedListings", rejected);
-        m.put("soldListings", sold);
+        m.put("approvedListings", counts.getOrDefault("APPROVED", 0L));
+        m.put("pendingListings", counts.getOrDefault("PENDING", 0L));
+        m.put("rejectedListings", counts.getOrDefault("REJECTED", 0L));
+        m.put("soldListings", counts.getOrDefault("SOLD", 0L));
         return m;
     }
 
+    // Keyset-paginated moderation queue, oldest first.
+    // Pass the createdAt/id of the last listing received to fetch the next page.
     @GetMapping("/listings/pending")
-    public List<Listing> getPendingListings() {
-        return listings.findAll().stream()
-                .filter(l -> "PENDING".equals(l.getStatus()) && l.getDeletedAt() == null)
-                .toList();
+    public ResponseEntity<?> getPendingListings(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Optional<Instant> afterCreatedAt,
+            @RequestParam Optional<Long> afterId,
+            @RequestParam(defaultValue = "50") int size) {
+        // Half a cursor would silently restart the queue from the first page
+        if (afterCreatedAt.isPresent() != afterId.isPresent()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "afterCreatedAt and afterId must be given together"));
+        }
+        PageRequest page = PageRequest.of(0, Math.max(1, Math.min(size, MAX_PENDING_PAGE_SIZE)));
+        if (afterCreatedAt.isPresent()) {
+            return ResponseEntity.ok(listings.findPendingQueueAfter(afterCreatedAt.get(), afterId.get(), page));
+        }
+        return ResponseEntity.ok(listings.findPendingQueue(page));
+    }
+
+    @PostMapping("/listings/bulk")
+    @Transactional
+    public ResponseEntity<?> bulkModerate(@Valid @RequestBody BulkModerationRequest request) {
+        if (request.decisions().size() > maxBulkDecisions) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "At most " + maxBulkDecisions + " decisions per request"));
+        }
+
+        // Last decision wins if the same listing appears twice
+        Map<Long, String> actions = new LinkedHashMap<>();
+        for (BulkModerationRequest.Decision d : request.decisions()) {
+            actions.put(d.id(), d.action().trim().toUpperCase());
+        }
+
+        Map<Long, Object[]> states = new HashMap<>();
+        for (Object[] row : listings.findModerationStates(actions.keySet())) {
+            states.put((Long) row[0], row);
+        }
+
+        Map<Long, String> outcomes = new LinkedHashMap<>();
+        List<Long> toApprove = new ArrayList<>();
+        List<Long> toReject = new ArrayList<>();
+        List<Long> toDelete = new ArrayList<>();
+        actions.forEach((id, action) -> {
+            Object[] state = states.get(id);
+            if (!"APPROVE".equals(action) && !"REJECT".equals(action)) {
+                outcomes.put(id, "INVALID_ACTION");
+            } else if (state == null) {
+                outcomes.put(id, "NOT_FOUND");
+            } else if (state[2] != null) {
+                outcomes.put(id, "SOFT_DELETED");
+            } else if (!"PENDING".equals(state[1])) {
+                outcomes.put(id, "NOT_PENDING");
+            } else if ("APPROVE".equals(action)) {
+                toApprove.add(id);
+                outcomes.put(id, "APPROVED");
+            } else if (Boolean.TRUE.equals(state[3])) {
+                // Second rejection after edit - soft delete
+                toDelete.add(id);
+                outcomes.put(id, "DELETED");
+            } else {
+                // First rejection - just reject, allow one edit
+                toReject.add(id);
+                outcomes.put(id, "REJECTED");
+            }
+        });
+
+        boolean conflicted = false;
+        if (!toApprove.isEmpty()) conflicted |= listings.approvePending(toApprove, Instant.now()) != toApprove.size();
+        if (!toReject.isEmpty()) conflicted |= listings.rejectPending(toReject) != toReject.size();
+        if (!toDelete.isEmpty()) conflicted |= listings.softDeletePending(toDelete, Instant.now()) != toDelete.size();
+
+        // Another moderator or an edit changed some rows between the read and the update;
+        // re-read so the report reflects what actually happened in this transaction
+        if (conflicted) {
+            List<Long> touched = new ArrayList<>(toApprove);
+            touched.addAll(toReject);
+            touched.addAll(toDelete);
+            for (Object[] row : listings.findModerationStates(touched)) {
+                Long id = (Long) row[0];
+                String expected = outcomes.get(id);
+                boolean applied = "APPROVED".equals(expected) ? "APPROVED".equals(row[1])
+                        : "REJECTED".equals(expected) ? "REJECTED".equals(row[1])
+                        : row[2] != null;
+                if (!applied) outcomes.put(id, "CONFLICT");
+            }
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        outcomes.forEach((id, outcome) -> results.add(Map.of("id", id, "outcome", outcome)));
+        Map<String, Object> response = new HashMap<>();
+        response.put("requested", actions.size());
+        response.put("approved", outcomes.values().stream().filter("APPROVED"::equals).count());
+        response.put("rejected", outcomes.values().stream().filter("REJECTED"::equals).count());
+        response.put("deleted", outcomes.values().stream().filter("DELETED"::equals).count());
+        response.put("results", results);
+        return ResponseEntity.ok(response);
     }
 
     @PostMapping("/listings/{id}/approve")
@@ -65,6 +175,7 @@ public class AdminController {
                     .body(Map.of("error", "Can only approve PENDING listings"));
         }
         listing.setStatus("APPROVED");
+        listing.setApprovedAt(Instant.now());
         listings.save(listing);
         return ResponseEntity.ok(listing);
     }
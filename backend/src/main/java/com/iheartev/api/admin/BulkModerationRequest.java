@@ -0,0 +1,12 @@
+package com.iheartev.api.admin;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record BulkModerationRequest(@NotEmpty List<@Valid Decision> decisions) {
+    // action: APPROVE or REJECT
+    public record Decision(@NotNull Long id, @NotNull String action) {}
+}
@@ -0,0 +1,69 @@
+package com.iheartev.api.admin;
+
+import com.iheartev.api.metrics.QueryBudget;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Hit/miss counters of the Hibernate second-level cache regions (see ehcache.xml), since startup
+@RestController
+@QueryBudget(0)
+@RequestMapping("/api/admin/cache")
+@PreAuthorize("hasRole('ADMIN')")
+public class CacheStatsController {
+    private final Statistics statistics;
+
+    public CacheStatsController(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> stats() {
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String name : new TreeSet<>(Arrays.asList(statistics.getSecondLevelCacheRegionNames()))) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region == null) continue;
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("hits", region.getHitCount());
+            r.put("misses", region.getMissCount());
+            r.put("puts", region.getPutCount());
+            r.put("hitRatio", ratio(region.getHitCount(), region.getMissCount()));
+            r.put("elementsInMemory", region.getElementCountInMemory());
+            regions.put(name, r);
+        }
+
+        Map<String, Object> queryCache = new LinkedHashMap<>();
+        queryCache.put("hits", statistics.getQueryCacheHitCount());
+        queryCache.put("misses", statistics.getQueryCacheMissCount());
+        queryCache.put("puts", statistics.getQueryCachePutCount());
+        queryCache.put("hitRatio", ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("enabled", statistics.isStatisticsEnabled());
+        response.put("since", statistics.getStart());
+        response.put("regions", regions);
+        response.put("queryCache", queryCache);
+        response.put("updateTimestamps", Map.of(
+                "hits", statistics.getUpdateTimestampsCacheHitCount(),
+                "misses", statistics.getUpdateTimestampsCacheMissCount(),
+                "puts", statistics.getUpdateTimestampsCachePutCount()));
+        response.put("entityLoads", statistics.getEntityLoadCount());
+        response.put("entityFetches", statistics.getEntityFetchCount());
+        return response;
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
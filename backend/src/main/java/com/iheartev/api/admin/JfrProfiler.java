@@ -0,0 +1,268 @@
+package com.iheartev.api.admin;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// One Java Flight Recorder session at a time, started from the admin API. Uses JFR's "default"
+// settings (the low-overhead production profile: execution samples every 20 ms, throttled allocation
+// samples, monitor/park events over 20 ms). A recording stops by itself after its duration, keeps at
+// most maxSize on disk (oldest chunks are dropped first) and is written to app.profiling.dir, where
+// only the newest app.profiling.keep files are kept.
+@Service
+public class JfrProfiler {
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    private static final Pattern FILE_NAME = Pattern.compile("jfr-\\d{8}-\\d{6}-\\d{3}\\.jfr");
+    private static final String APP_PACKAGE = "com.iheartev.";
+    // Wrappers around every repository/request call; attributing samples to them says nothing
+    private static final List<String> INSTRUMENTATION_PACKAGES = List.of("com.iheartev.api.tracing.", "com.iheartev.api.metrics.");
+
+    private final Path dir;
+    private final Duration maxDuration;
+    private final DataSize maxSize;
+    private final int keep;
+
+    private Recording active;
+    private Path activeFile;
+
+    public JfrProfiler(@Value("${app.profiling.dir:profiling}") String dir,
+                       @Value("${app.profiling.max-duration:5m}") Duration maxDuration,
+                       @Value("${app.profiling.max-size:50MB}") DataSize maxSize,
+                       @Value("${app.profiling.keep:5}") int keep) {
+        this.dir = Path.of(dir);
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+        this.keep = keep;
+    }
+
+    public Duration maxDuration() {
+        return maxDuration;
+    }
+
+    public DataSize maxSize() {
+        return maxSize;
+    }
+
+    // Durations and sizes above the configured caps are clamped to them
+    public synchronized Map<String, Object> start(Duration duration, DataSize size) throws IOException, ParseException {
+        refresh();
+        if (active != null) {
+            throw new IllegalStateException("A recording is already running: " + activeFile.getFileName());
+        }
+        Duration d = duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+        long bytes = Math.min(size.toBytes(), maxSize.toBytes());
+        Files.createDirectories(dir);
+        Path file = dir.resolve("jfr-" + FILE_TIME.format(Instant.now()) + ".jfr");
+
+        Recording recording = new Recording(Configuration.getConfiguration("default"));
+        recording.setName("admin-profiling");
+        recording.setToDisk(true);
+        recording.setDuration(d);
+        recording.setMaxSize(bytes);
+        recording.setDestination(file);
+        recording.start();
+        active = recording;
+        activeFile = file;
+        prune();
+        return describeActive();
+    }
+
+    // Stops the running recording early; empty when nothing is running
+    public synchronized Optional<Map<String, Object>> stop() {
+        refresh();
+        if (active == null) return Optional.empty();
+        active.stop();
+        Map<String, Object> stopped = describeActive();
+        refresh();
+        return Optional.of(stopped);
+    }
+
+    public synchronized Map<String, Object> status() throws IOException {
+        refresh();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", active == null ? null : describeActive());
+        List<Map<String, Object>> recordings = new ArrayList<>();
+        for (Path file : recordingFiles()) {
+            Map<String, Object> r = new LinkedHashMap<>();
+            r.put("name", file.getFileName().toString());
+            r.put("sizeBytes", Files.size(file));
+            r.put("modifiedAt", Files.getLastModifiedTime(file).toInstant());
+            recordings.add(r);
+        }
+        status.put("recordings", recordings);
+        status.put("maxDurationSeconds", maxDuration.toSeconds());
+        status.put("maxSizeBytes", maxSize.toBytes());
+        return status;
+    }
+
+    // A finished recording by file name; never the one still being written
+    public synchronized Optional<Path> recording(String name) {
+        refresh();
+        if (!FILE_NAME.matcher(name).matches()) return Optional.empty();
+        Path file = dir.resolve(name);
+        if (!Files.isRegularFile(file) || file.equals(activeFile)) return Optional.empty();
+        return Optional.of(file);
+    }
+
+    // Hot methods (top frame of execution samples, plus the first frame in our own code), allocation
+    // sites weighted by sampled bytes, and contended monitors by total blocked time
+    public Map<String, Object> summarize(Path file, int top) throws IOException {
+        Map<String, Long> selfSamples = new HashMap<>();
+        Map<String, Long> appSamples = new HashMap<>();
+        Map<String, Long> allocatedBytes = new HashMap<>();
+        Map<String, Long> blockedNanos = new HashMap<>();
+        Map<String, Long> blockedCount = new HashMap<>();
+        long samples = 0;
+        long sampledBytes = 0;
+        Instant first = null;
+        Instant last = null;
+
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                if (first == null || event.getStartTime().isBefore(first)) first = event.getStartTime();
+                if (last == null || event.getEndTime().isAfter(last)) last = event.getEndTime();
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> {
+                        samples++;
+                        selfSamples.merge(frame(event.getStackTrace(), false), 1L, Long::sum);
+                        appSamples.merge(frame(event.getStackTrace(), true), 1L, Long::sum);
+                    }
+                    case "jdk.ObjectAllocationSample" -> {
+                        long weight = event.getLong("weight");
+                        sampledBytes += weight;
+                        String type = event.getClass("objectClass") == null ? "?" : event.getClass("objectClass").getName();
+                        allocatedBytes.merge(frame(event.getStackTrace(), false) + " [" + type + "]", weight, Long::sum);
+                    }
+                    case "jdk.JavaMonitorEnter" -> {
+                        String monitor = event.getClass("monitorClass") == null ? "?" : event.getClass("monitorClass").getName();
+                        String key = monitor + " at " + frame(event.getStackTrace(), false);
+                        blockedNanos.merge(key, event.getDuration().toNanos(), Long::sum);
+                        blockedCount.merge(key, 1L, Long::sum);
+                    }
+                    default -> { }
+                }
+            }
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("name", file.getFileName().toString());
+        summary.put("startedAt", first);
+        summary.put("durationSeconds", first == null ? 0 : Duration.between(first, last).toMillis() / 1000.0);
+        summary.put("executionSamples", samples);
+        summary.put("hotMethods", topShares(selfSamples, samples, top, "method", "samples"));
+        summary.put("hotApplicationMethods", topShares(appSamples, samples, top, "method", "samples"));
+        summary.put("allocationSites", topShares(allocatedBytes, sampledBytes, top, "site", "sampledBytes"));
+        List<Map<String, Object>> locks = new ArrayList<>();
+        blockedNanos.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(top)
+                .forEach(e -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("monitor", e.getKey());
+                    row.put("count", blockedCount.get(e.getKey()));
+                    row.put("blockedMs", e.getValue() / 1e6);
+                    locks.add(row);
+                });
+        summary.put("lockContention", locks);
+        return summary;
+    }
+
+    private static List<Map<String, Object>> topShares(Map<String, Long> counts, long total, int top, String keyName, String valueName) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(top)
+                .forEach(e -> {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put(keyName, e.getKey());
+                    row.put(valueName, e.getValue());
+                    row.put("percent", total == 0 ? 0 : Math.round(e.getValue() * 1000.0 / total) / 10.0);
+                    rows.add(row);
+                });
+        return rows;
+    }
+
+    private static String frame(RecordedStackTrace stack, boolean applicationOnly) {
+        if (stack == null || stack.getFrames().isEmpty()) return "(no stack)";
+        for (RecordedFrame frame : stack.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!applicationOnly || (type.startsWith(APP_PACKAGE) && INSTRUMENTATION_PACKAGES.stream().noneMatch(type::startsWith))) {
+                return type + "." + frame.getMethod().getName() + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+            }
+        }
+        return "(outside " + APP_PACKAGE + "*)";
+    }
+
+    // A recording that hit its duration stops (and is written out) by itself; release it here
+    private void refresh() {
+        if (active != null && active.getState() != RecordingState.RUNNING && active.getState() != RecordingState.DELAYED
+                && active.getState() != RecordingState.NEW) {
+            active.close();
+            active = null;
+            activeFile = null;
+        }
+    }
+
+    private Map<String, Object> describeActive() {
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("name", activeFile.getFileName().toString());
+        r.put("state", active.getState().name());
+        r.put("startedAt", active.getStartTime());
+        r.put("durationSeconds", active.getDuration() == null ? null : active.getDuration().toSeconds());
+        r.put("maxSizeBytes", active.getMaxSize());
+        return r;
+    }
+
+    private List<Path> recordingFiles() throws IOException {
+        if (!Files.isDirectory(dir)) return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> FILE_NAME.matcher(p.getFileName().toString()).matches())
+                    .filter(p -> !p.equals(activeFile))
+                    .sorted(Comparator.comparing((Path p) -> p.getFileName().toString()).reversed())
+                    .toList();
+        }
+    }
+
+    private void prune() throws IOException {
+        List<Path> files = recordingFiles();
+        // The running recording will be the newest once written, so keep - 1 of the finished ones
+        for (int i = Math.max(0, keep - 1); i < files.size(); i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    // Write out what was recorded so far instead of losing it with the JVM
+    @PreDestroy
+    synchronized void shutdown() {
+        if (active == null) return;
+        if (active.getState() == RecordingState.RUNNING) active.stop();
+        active.close();
+    }
+}
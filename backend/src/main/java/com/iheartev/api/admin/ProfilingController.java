@@ -0,0 +1,74 @@
+package com.iheartev.api.admin;
+
+import com.iheartev.api.metrics.QueryBudget;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Map;
+
+// On-demand JFR profiling (see JfrProfiler). Typical use during a latency spike:
+// POST /start?durationSeconds=120, wait, GET /{name}/summary, or download /{name} into JDK Mission Control.
+@RestController
+@QueryBudget(0)
+@RequestMapping("/api/admin/profiling")
+@PreAuthorize("hasRole('ADMIN')")
+public class ProfilingController {
+    private final JfrProfiler profiler;
+
+    public ProfilingController(JfrProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @GetMapping
+    public Map<String, Object> status() throws IOException {
+        return profiler.status();
+    }
+
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestParam(defaultValue = "60") long durationSeconds,
+                                   @RequestParam(required = false) Long maxSizeMb) throws IOException, ParseException {
+        if (durationSeconds <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "durationSeconds must be positive"));
+        }
+        // Recording.setMaxSize rejects a negative size and takes 0 as unlimited
+        if (maxSizeMb != null && maxSizeMb <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "maxSizeMb must be positive"));
+        }
+        DataSize size = maxSizeMb == null ? profiler.maxSize() : DataSize.ofMegabytes(maxSizeMb);
+        try {
+            return ResponseEntity.accepted().body(profiler.start(Duration.ofSeconds(durationSeconds), size));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<?> stop() {
+        return profiler.stop().<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(404).body(Map.of("error", "No recording is running")));
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<?> download(@PathVariable String name) {
+        return profiler.recording(name).<ResponseEntity<?>>map(file -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "\"")
+                        .body(new FileSystemResource(file)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{name}/summary")
+    public ResponseEntity<?> summary(@PathVariable String name, @RequestParam(defaultValue = "20") int top) throws IOException {
+        var file = profiler.recording(name);
+        if (file.isEmpty()) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(profiler.summarize(file.get(), Math.max(1, Math.min(top, 100))));
+    }
+}
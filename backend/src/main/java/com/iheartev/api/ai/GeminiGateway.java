@@ -0,0 +1,67 @@
+package com.iheartev.api.ai;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+// Single place where the backend calls Gemini generateContent. Shares one HttpClient (and its
+// connection pool) across calls and observes every call as ai.gateway.requests{operation,status}: a timer
+// in Prometheus and a span in the request's trace.
+@Component
+public class GeminiGateway {
+    private static final String MODEL = "gemini-2.0-flash-lite";
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final ObservationRegistry observationRegistry;
+
+    @Value("${gemini.api.key:}")
+    private String apiKey;
+
+    @Value("${gemini.base-url:https://generativelanguage.googleapis.com}")
+    private String baseUrl;
+
+    public GeminiGateway(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    public HttpResponse<String> generateContent(String operation, String prompt) throws IOException, InterruptedException {
+        String body = "{\"contents\":[{\"parts\":[{\"text\": " + quote(prompt) + "}]}]}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/v1beta/models/" + MODEL + ":generateContent?key=" + apiKey))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        Observation observation = Observation.createNotStarted("ai.gateway.requests", observationRegistry)
+                .contextualName("gemini " + operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .lowCardinalityKeyValue("status", "IO_ERROR")
+                .highCardinalityKeyValue("ai.model", MODEL)
+                .start();
+        try (Observation.Scope ignored = observation.openScope()) {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            observation.lowCardinalityKeyValue("status", String.valueOf(response.statusCode()));
+            return response;
+        } catch (IOException | RuntimeException e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+
+    private static String quote(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+}
@@ -2,6 +2,7 @@ package com.iheartev.api.ai;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iheartev.api.metrics.QueryBudget;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,31 +10,32 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
  
 
 @RestController
+@QueryBudget(0)
 @RequestMapping("/api/ai")
 public class PriceSuggestController {
     private static final Logger logger = LoggerFactory.getLogger(PriceSuggestController.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
     
-    @Value("${gemini.api.key:}")
-    private String geminiApiKey;
-
     @Value("${gemini.model:gemini-1.5-flash}")
     private String model;
 
+    private final GeminiGateway geminiGateway;
+
+    public PriceSuggestController(GeminiGateway geminiGateway) {
+        this.geminiGateway = geminiGateway;
+    }
+
 
     @PostMapping(value = "/suggest-price", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<String> suggest(@RequestBody String featuresJson) {
         logger.info("=== AI PRICE SUGGESTION ENDPOINT CALLED ===");
         logger.info("Request received at /api/ai/suggest-price");
         
-        if (geminiApiKey == null || geminiApiKey.isBlank()) {
+        if (!geminiGateway.isConfigured()) {
             logger.error("Gemini API key is not configured");
             return ResponseEntity.status(503).body("Gemini API key is not configured");
         }
@@ -47,17 +49,8 @@ public class PriceSuggestController {
         
         try {
             // Use the same Gemini model as overview endpoint for consistency
-            String url = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash-lite:generateContent?key=" + geminiApiKey;
-            String body = "{\"contents\":[{\"parts\":[{\"text\": " + quote(prompt) + "}]}]}";
-            logger.info("Calling Gemini API for price suggestion: {}", url.replace(geminiApiKey, "***"));
-            
-            HttpRequest req = HttpRequest.newBuilder(URI.create(url))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(body))
-                    .timeout(java.time.Duration.ofSeconds(30))
-                    .build();
-            
-            HttpResponse<String> resp = HttpClient.newHttpClient().send(req, HttpResponse.BodyHandlers.ofString());
+            logger.info("Calling Gemini API for price suggestion");
+            HttpResponse<String> resp = geminiGateway.generateContent("suggest-price", prompt);
             logger.info("Gemini API response status: {}", resp.statusCode());
             
             if (resp.statusCode() == 200) {
@@ -88,9 +81,9 @@ public class PriceSuggestController {
         logger.info("=== AI OVERVIEW ENDPOINT CALLED ===");
         logger.info("Request received at /api/ai/overview");
         logger.info("Request body length: {}", listingJson != null ? listingJson.length() : 0);
-        logger.info("Gemini API key configured: {}", geminiApiKey != null && !geminiApiKey.isBlank());
+        logger.info("Gemini API key configured: {}", geminiGateway.isConfigured());
         
-        if (geminiApiKey == null || geminiApiKey.isBlank()) {
+        if (!geminiGateway.isConfigured()) {
             logger.error("Gemini API key is not configured");
             return ResponseEntity.status(503).body("Gemini API key is not configured");
         }
@@ -103,17 +96,8 @@ public class PriceSuggestController {
                 "Hãy trả lời một cách chuyên nghiệp, chi tiết và dễ hiểu. Định dạng đầu ra: văn bản thuần túy, không cần JSON.";
 
         try {
-            String url = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash-lite:generateContent?key=" + geminiApiKey;
-            String body = "{\"contents\":[{\"parts\":[{\"text\": " + quote(prompt) + "}]}]}";
-            logger.info("Calling Gemini API: {}", url.replace(geminiApiKey, "***"));
-            
-            HttpRequest req = HttpRequest.newBuilder(URI.create(url))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(body))
-                    .timeout(java.time.Duration.ofSeconds(30))
-                    .build();
-            
-            HttpResponse<String> resp = HttpClient.newHttpClient().send(req, HttpResponse.BodyHandlers.ofString());
+            logger.info("Calling Gemini API for listing overview");
+            HttpResponse<String> resp = geminiGateway.generateContent("overview", prompt);
             logger.info("Gemini API response status: {}", resp.statusCode());
             
             if (resp.statusCode() == 200) {
@@ -175,9 +159,6 @@ public class PriceSuggestController {
         }
     }
 
-    private String quote(String s) {
-        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
-    }
 }
 
 
@@ -1,20 +1,30 @@
 package com.iheartev.api.attachment;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.Instant;
+import java.util.Map;
 
 @Entity
 @Table(name = "attachments")
+@Cacheable
+// Rows are written once and only ever deleted, so downloads can look them up without the database
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "attachment")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Attachment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "attachments_seq")
+    @SequenceGenerator(name = "attachments_seq", sequenceName = "attachments_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -29,8 +39,21 @@ public class Attachment {
     @Column(nullable = false)
     private Long fileSize; // in bytes
 
+    @Column(length = 100)
+    private String contentType; // as uploaded; null for rows the V5 backfill could not classify
+
+    @Column(length = 64)
+    private String contentHash; // SHA-256 of the stored bytes (hex); null for files uploaded before V6
+
+    private Instant uploadedAt; // null for files uploaded before V6
+
     private Long listingId; // Foreign key to listing
 
+    // Signed download URLs by variant (see SignedUrls), set on responses for callers who may see the listing
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, String> urls;
+
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -42,7 +65,15 @@ public class Attachment {
     public void setFilePath(String filePath) { this.filePath = filePath; }
     public Long getFileSize() { return fileSize; }
     public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+    public String getContentType() { return contentType; }
+    public void setContentType(String contentType) { this.contentType = contentType; }
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    public Instant getUploadedAt() { return uploadedAt; }
+    public void setUploadedAt(Instant uploadedAt) { this.uploadedAt = uploadedAt; }
     public Long getListingId() { return listingId; }
     public void setListingId(Long listingId) { this.listingId = listingId; }
+    public Map<String, String> getUrls() { return urls; }
+    public void setUrls(Map<String, String> urls) { this.urls = urls; }
 }
 
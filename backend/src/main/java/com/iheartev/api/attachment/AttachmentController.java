@@ -1,41 +1,53 @@
 package com.iheartev.api.attachment;
 
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import com.iheartev.api.listing.ListingAccess;
+import com.iheartev.api.metrics.QueryBudget;
+import com.iheartev.api.user.User;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
+@QueryBudget(4)
 @RequestMapping("/api/attachments")
 public class AttachmentController {
     private final AttachmentRepository attachmentRepository;
     private final com.iheartev.api.listing.ListingRepository listingRepository;
-    private static final String UPLOAD_DIR = "uploads";
+    private final ObservationRegistry observationRegistry;
+    private final ImageDerivatives imageDerivatives;
+    private final AttachmentStorage attachmentStorage;
+    private final AttachmentSender attachmentSender;
+    private final SignedUrls signedUrls;
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    // Stored files are never modified (named by their content hash, or a UUID before that), so clients may keep them
+    private static final String CACHE_FOREVER = "public, max-age=31536000, immutable";
     
     public AttachmentController(AttachmentRepository attachmentRepository, 
-                                com.iheartev.api.listing.ListingRepository listingRepository) {
+                                com.iheartev.api.listing.ListingRepository listingRepository,
+                                ObservationRegistry observationRegistry,
+                                ImageDerivatives imageDerivatives,
+                                AttachmentStorage attachmentStorage,
+                                AttachmentSender attachmentSender,
+                                SignedUrls signedUrls) {
         this.attachmentRepository = attachmentRepository;
         this.listingRepository = listingRepository;
-        // Create upload directory if it doesn't exist
-        try {
-            Path uploadPath = Paths.get(UPLOAD_DIR);
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-        } catch (IOException e) {
-            System.err.println("Failed to create upload directory: " + e.getMessage());
-        }
+        this.observationRegistry = observationRegistry;
+        this.imageDerivatives = imageDerivatives;
+        this.attachmentStorage = attachmentStorage;
+        this.attachmentSender = attachmentSender;
+        this.signedUrls = signedUrls;
     }
 
     @PostMapping
@@ -55,119 +67,212 @@ public class AttachmentController {
 
         int imageCount = 0;
         int videoCount = 0;
-        List<Attachment> savedAttachments = new ArrayList<>();
+        List<MultipartFile> accepted = new ArrayList<>();
+        List<String> contentTypes = new ArrayList<>();
         List<String> errors = new ArrayList<>();
 
+        // Sort the files out by what their first bytes say they are, so the limits hold before anything is written
         for (MultipartFile file : files) {
-            try {
-                // Validate file size
-                if (file.getSize() > MAX_FILE_SIZE) {
-                    errors.add("File " + file.getOriginalFilename() + " exceeds 10MB limit");
+            // Validate file size
+            if (file.getSize() > MAX_FILE_SIZE) {
+                errors.add("File " + file.getOriginalFilename() + " exceeds 10MB limit");
+                continue;
+            }
+
+            String contentType;
+            try (InputStream in = file.getInputStream()) {
+                contentType = ContentSniffer.sniff(in);
+            } catch (IOException e) {
+                errors.add("Failed to upload " + file.getOriginalFilename() + ": " + e.getMessage());
+                continue;
+            }
+            if (contentType == null) {
+                errors.add("File " + file.getOriginalFilename() + " is not an image or video");
+                continue;
+            }
+            if ("IMAGE".equals(ContentSniffer.typeOf(contentType))) {
+                imageCount++;
+                if (imageCount > 5) {
+                    errors.add("Maximum 5 images allowed");
                     continue;
                 }
-
-                // Determine file type
-                String contentType = file.getContentType();
-                String fileType;
-                if (contentType != null && contentType.startsWith("image/")) {
-                    fileType = "IMAGE";
-                    imageCount++;
-                    if (imageCount > 5) {
-                        errors.add("Maximum 5 images allowed");
-                        continue;
-                    }
-                } else if (contentType != null && contentType.startsWith("video/")) {
-                    fileType = "VIDEO";
-                    videoCount++;
-                    if (videoCount > 1) {
-                        errors.add("Maximum 1 video allowed");
-                        continue;
-                    }
-                } else {
-                    errors.add("File " + file.getOriginalFilename() + " is not an image or video");
+            } else {
+                videoCount++;
+                if (videoCount > 1) {
+                    errors.add("Maximum 1 video allowed");
                     continue;
                 }
+            }
+            accepted.add(file);
+            contentTypes.add(contentType);
+        }
 
-                // Generate unique filename
-                String originalFilename = file.getOriginalFilename();
-                String extension = originalFilename != null && originalFilename.contains(".") 
-                    ? originalFilename.substring(originalFilename.lastIndexOf(".")) 
-                    : "";
-                String uniqueFilename = UUID.randomUUID().toString() + extension;
-                Path filePath = Paths.get(UPLOAD_DIR, uniqueFilename);
+        if (accepted.isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", String.join("; ", errors)));
+        }
 
-                // Save file
-                Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        // Hash every file into a temp file at once; each is moved to its content address once the rows are saved
+        List<CompletableFuture<AttachmentStorage.Stored>> writes = new ArrayList<>();
+        for (int i = 0; i < accepted.size(); i++) {
+            MultipartFile file = accepted.get(i);
+            String contentType = contentTypes.get(i);
+            Observation write = fileIo("write", attachmentStorage.temp().toString());
+            writes.add(attachmentStorage.async(() -> write.observeChecked(() -> attachmentStorage.write(file, contentType))));
+        }
+
+        List<Attachment> savedAttachments = new ArrayList<>();
+        List<AttachmentStorage.Stored> storedFiles = new ArrayList<>();
+        try {
+            for (int i = 0; i < accepted.size(); i++) {
+                MultipartFile file = accepted.get(i);
+                AttachmentStorage.Stored stored;
+                try {
+                    stored = join(writes.get(i));
+                } catch (IOException e) {
+                    errors.add("Failed to upload " + file.getOriginalFilename() + ": " + e.getMessage());
+                    continue;
+                }
+                storedFiles.add(stored);
 
-                // Save attachment record
                 Attachment attachment = new Attachment();
-                attachment.setType(fileType);
-                attachment.setFileName(originalFilename);
-                attachment.setFilePath(filePath.toString());
-                attachment.setFileSize(file.getSize());
+                attachment.setType(ContentSniffer.typeOf(stored.contentType()));
+                attachment.setFileName(file.getOriginalFilename());
+                attachment.setFilePath(stored.key());
+                attachment.setFileSize(stored.size());
+                attachment.setContentType(stored.contentType());
+                attachment.setContentHash(stored.hash());
+                attachment.setUploadedAt(Instant.now());
                 attachment.setListingId(listingId);
-                savedAttachments.add(attachmentRepository.save(attachment));
+                savedAttachments.add(attachment);
+            }
 
-            } catch (IOException e) {
-                errors.add("Failed to upload " + file.getOriginalFilename() + ": " + e.getMessage());
+            if (savedAttachments.isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", String.join("; ", errors)));
             }
-        }
 
-        if (savedAttachments.isEmpty()) {
-            return ResponseEntity.badRequest().body(Map.of("error", 
-                errors.isEmpty() ? "Failed to upload files" : String.join("; ", errors)));
+            // One saveAll so the rows go out as a single JDBC batch
+            savedAttachments = attachmentRepository.saveAll(savedAttachments);
+            List<CompletableFuture<Boolean>> commits = new ArrayList<>();
+            for (AttachmentStorage.Stored stored : storedFiles) {
+                Observation commit = fileIo("commit", stored.key());
+                commits.add(attachmentStorage.async(() -> commit.observeChecked(() -> attachmentStorage.commit(stored))));
+            }
+            // Every commit is waited for, so none is still reading its temp file when the finally below runs
+            IOException failed = null;
+            for (int i = 0; i < commits.size(); i++) {
+                try {
+                    // Thumbnails and resized copies are made in the background; downloads serve the original until then.
+                    // Content that was already stored has them already.
+                    if (join(commits.get(i)) && "IMAGE".equals(savedAttachments.get(i).getType())) {
+                        imageDerivatives.submit(storedFiles.get(i).key());
+                    }
+                } catch (IOException e) {
+                    failed = e;
+                }
+            }
+            if (failed != null) {
+                // The client sees the whole upload fail, so no row may stay behind pointing at a missing file;
+                // files that did get committed are left to OrphanCollector
+                attachmentRepository.deleteAll(savedAttachments);
+                return ResponseEntity.status(500).body(Map.of("error", "Failed to store files"));
+            }
+        } finally {
+            for (AttachmentStorage.Stored stored : storedFiles) {
+                try {
+                    attachmentStorage.discard(stored);
+                } catch (IOException ignored) {
+                    // Left for the temp directory cleanup
+                }
+            }
         }
         
         // Return the saved attachments directly (array)
+        savedAttachments.forEach(a -> a.setUrls(signedUrls.urlsOf(a)));
         return ResponseEntity.ok(savedAttachments);
     }
 
+    // With signed URLs (see SignedUrls) only for callers who may see the listing itself
     @GetMapping("/listing/{listingId}")
-    public ResponseEntity<List<Attachment>> getAttachmentsByListing(@PathVariable Long listingId) {
+    public ResponseEntity<List<Attachment>> getAttachmentsByListing(@PathVariable Long listingId,
+                                                                    @AuthenticationPrincipal User user) {
         List<Attachment> attachments = attachmentRepository.findByListingId(listingId);
+        if (!attachments.isEmpty() && listingRepository.findById(listingId)
+                .filter(listing -> ListingAccess.canView(listing, user)).isPresent()) {
+            attachments.forEach(a -> a.setUrls(signedUrls.urlsOf(a)));
+        }
         return ResponseEntity.ok(attachments);
     }
 
+    // Supports Range requests so players can start and seek without the whole file (see RangeFileSender).
+    // The attachment row comes from the second-level cache, and If-None-Match / If-Modified-Since are
+    // checked against its stored hash and upload time, so a 304 never touches the disk. The listing is read
+    // every time: files of listings the caller may not see (ListingAccess) are a 404, as the listing is.
+    // ?variant=thumb|medium|large serves a resized JPEG of an image (see ImageDerivatives), or the
+    // original with Cache-Control: no-cache while the variant is not generated yet.
+    // When the BlobStore hands out download URLs (S3), the file itself is a redirect to one.
     @GetMapping("/{id}/download")
-    public ResponseEntity<?> downloadFile(@PathVariable Long id) {
-        return attachmentRepository.findById(id).map(attachment -> {
-            try {
-                Path filePath = Paths.get(attachment.getFilePath());
-                Resource resource = new UrlResource(filePath.toUri());
-                
-                if (resource.exists() && resource.isReadable()) {
-                    String contentType = attachment.getType().equals("IMAGE") 
-                        ? MediaType.IMAGE_JPEG_VALUE 
-                        : "video/mp4";
-                    
-                    return ResponseEntity.ok()
-                            .contentType(MediaType.parseMediaType(contentType))
-                            .header(HttpHeaders.CONTENT_DISPOSITION, 
-                                "inline; filename=\"" + attachment.getFileName() + "\"")
-                            .body(resource);
-                } else {
-                    return ResponseEntity.<Resource>notFound().build();
-                }
-            } catch (Exception e) {
-                return ResponseEntity.<Resource>notFound().build();
-            }
-        }).orElse(ResponseEntity.<Resource>notFound().build());
+    public void downloadFile(@PathVariable Long id, @RequestParam(required = false) String variant,
+                             @AuthenticationPrincipal User user,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageDerivatives.Variant requested = variant == null ? null : ImageDerivatives.Variant.fromParam(variant);
+        if (variant != null && requested == null) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        Attachment attachment = attachmentRepository.findById(id).orElse(null);
+        if (attachment == null || attachment.getListingId() == null || listingRepository.findById(attachment.getListingId())
+                .filter(listing -> ListingAccess.canView(listing, user)).isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String etag = etagOf(attachment);
+        long lastModified = attachment.getUploadedAt() == null ? -1 : attachment.getUploadedAt().toEpochMilli();
+        attachmentSender.send(request, response, attachment.getFilePath(),
+                "IMAGE".equals(attachment.getType()) ? requested : null, AttachmentSender.contentTypeOf(attachment),
+                attachment.getFileName(), etag, lastModified, CACHE_FOREVER);
+    }
+
+    // Strong ETag from the content hash; rows uploaded before V6 have none, but their file never changes
+    // either, so id and size identify the bytes just as well
+    private static String etagOf(Attachment attachment) {
+        if (attachment.getContentHash() != null) {
+            return "\"" + attachment.getContentHash() + "\"";
+        }
+        return "\"a" + attachment.getId() + "-" + attachment.getFileSize() + "\"";
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteAttachment(@PathVariable Long id) {
         return attachmentRepository.findById(id).map(attachment -> {
             try {
-                // Delete file
-                Path filePath = Paths.get(attachment.getFilePath());
-                Files.deleteIfExists(filePath);
-                // Delete record
-                attachmentRepository.delete(attachment);
+                // Deletes the record, and the file once no other attachment shares it
+                fileIo("delete", attachment.getFilePath())
+                        .observeChecked(() -> attachmentStorage.delete(attachment));
                 return ResponseEntity.noContent().build();
             } catch (IOException e) {
                 return ResponseEntity.status(500).body(Map.of("error", "Failed to delete file"));
             }
         }).orElse(ResponseEntity.notFound().build());
     }
-}
 
+    // Span (and attachment.file.io timer) around storage work, so slow storage shows up in traces. The parent
+    // is the request's span, also when the work runs on the I/O pool.
+    private Observation fileIo(String operation, String path) {
+        return Observation.createNotStarted("attachment.file.io", observationRegistry)
+                .parentObservation(observationRegistry.getCurrentObservation())
+                .contextualName("file " + operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .highCardinalityKeyValue("file.path", path);
+    }
+
+    // The result of work run with AttachmentStorage.async, with the IOException it failed with rethrown as is
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw e;
+        }
+    }
+}
@@ -1,13 +1,28 @@
 package com.iheartev.api.attachment;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.time.Instant;
 import java.util.List;
 
 public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
     List<Attachment> findByListingId(Long listingId);
+
+    // Rows sharing a stored file (its reference count), locked until the transaction ends. On SQL Server
+    // this is UPDLOCK, HOLDLOCK on ix_attachments_file_path, so inserts of the same path wait too.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Attachment a WHERE a.filePath = :filePath")
+    List<Attachment> lockByFilePath(@Param("filePath") String filePath);
+
+    // Attachments of listings soft-deleted (INACTIVE with deletedAt, which is never undone) before the given time
+    @Query("SELECT a FROM Attachment a WHERE a.listingId IN " +
+           "(SELECT l.id FROM Listing l WHERE l.status = 'INACTIVE' AND l.deletedAt < :before)")
+    List<Attachment> findOfListingsDeletedBefore(@Param("before") Instant before, Pageable pageable);
     
     @Modifying
     @Query("DELETE FROM Attachment a WHERE a.listingId = :listingId")
@@ -0,0 +1,104 @@
+package com.iheartev.api.attachment;
+
+import com.iheartev.api.storage.BlobStore;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+// Sends a stored file (or a variant of an image) once the caller has decided the request may have it:
+// AttachmentController by attachment id, SignedFileFilter by signed URL. Conditional requests are
+// answered before the store is touched; stores that hand out download URLs (S3) get a redirect to one.
+@Component
+public class AttachmentSender {
+    // Stands in for a variant that is not generated yet: clients keep it but check back
+    static final String CACHE_REVALIDATE = "no-cache";
+
+    private final BlobStore blobStore;
+    private final ObservationRegistry observationRegistry;
+
+    public AttachmentSender(BlobStore blobStore, ObservationRegistry observationRegistry) {
+        this.blobStore = blobStore;
+        this.observationRegistry = observationRegistry;
+    }
+
+    // variant is null for the file itself (and for anything that is not an image). cacheControl is for
+    // the file asked for; the original sent while a variant is not ready is revalidated instead.
+    void send(HttpServletRequest request, HttpServletResponse response, String key, ImageDerivatives.Variant variant,
+              MediaType contentType, String fileName, String etag, long lastModified, String cacheControl) throws IOException {
+        if (variant != null) {
+            String variantEtag = etag.substring(0, etag.length() - 1) + "-" + variant.param() + "\"";
+            String variantKey = ImageDerivatives.keyOf(key, variant);
+            // Only a client that was sent the variant holds its tag, so that revalidation needs no lookup either.
+            // Variants carry no Last-Modified: the original's date must not validate them.
+            if (variantEtag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH)) || blobStore.exists(variantKey)) {
+                serve(request, response, variantKey, MediaType.IMAGE_JPEG, variantFileName(fileName, variant),
+                        variantEtag, -1, cacheControl);
+                return;
+            }
+            serve(request, response, key, contentType, fileName, etag, lastModified, CACHE_REVALIDATE);
+            return;
+        }
+        serve(request, response, key, contentType, fileName, etag, lastModified, cacheControl);
+    }
+
+    private void serve(HttpServletRequest request, HttpServletResponse response, String key, MediaType contentType,
+                       String fileName, String etag, long lastModified, String cacheControl) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        Optional<BlobStore.DownloadUrl> url = blobStore.downloadUrl(key, contentType.toString(),
+                RangeFileSender.contentDisposition(fileName));
+        if (url.isPresent()) {
+            // The redirect may be reused while the URL is still good for a while; Range and the
+            // conditional headers are then handled by the store
+            response.reset();
+            response.setStatus(HttpServletResponse.SC_FOUND);
+            response.setHeader(HttpHeaders.LOCATION, url.get().uri().toString());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=" + url.get().validFor().toSeconds() / 2);
+            return;
+        }
+        Path filePath = blobStore.localFile(key).orElseThrow();
+        if (!Files.isReadable(filePath)) {
+            // Drop the validators and Cache-Control set above so the 404 is not cached
+            response.reset();
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // With sendfile the bytes are written after this returns, so the span covers opening the file
+        Observation.createNotStarted("attachment.file.io", observationRegistry)
+                .contextualName("file read")
+                .lowCardinalityKeyValue("operation", "read")
+                .highCardinalityKeyValue("file.path", key)
+                .observeChecked(() -> RangeFileSender.send(request, response, filePath, contentType, fileName, etag, lastModified));
+    }
+
+    static MediaType contentTypeOf(Attachment attachment) {
+        if (attachment.getContentType() != null) {
+            try {
+                return MediaType.parseMediaType(attachment.getContentType());
+            } catch (InvalidMediaTypeException ignored) {
+                // Fall through to the file name
+            }
+        }
+        return MediaTypeFactory.getMediaType(attachment.getFileName())
+                .orElse("IMAGE".equals(attachment.getType()) ? MediaType.IMAGE_JPEG : MediaType.parseMediaType("video/mp4"));
+    }
+
+    private static String variantFileName(String fileName, ImageDerivatives.Variant variant) {
+        int dot = fileName.lastIndexOf('.');
+        return (dot > 0 ? fileName.substring(0, dot) : fileName) + "-" + variant.param() + ".jpg";
+    }
+}
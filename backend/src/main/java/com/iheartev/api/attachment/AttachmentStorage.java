@@ -0,0 +1,168 @@
+package com.iheartev.api.attachment;
+
+import com.iheartev.api.storage.BlobStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Content-addressed attachment files: stored once per SHA-256 in the BlobStore under <dir>/ab/cd/<hash>, so
+// the same photo uploaded to several listings is stored once, and no directory (or key prefix) grows past
+// a few thousand entries. Several attachment rows may point at one blob; their count (rows with that
+// filePath) is the reference count, and the blob goes when the last row does. Rows from before this
+// layout have a blob of their own.
+//
+// An upload is hashed into a local temp file (write), its row saved, then the file put into the store
+// unless it is already there (commit). delete re-counts the references under a key-range lock on
+// filePath, which holds back a concurrent insert of the same blob until the blob is gone; that insert's
+// commit then finds it missing and puts it back.
+//
+// The files of one request are written and committed side by side on a bounded I/O pool (async); when
+// it and its queue are full the request thread does the work itself, so busy times slow uploads down
+// instead of failing them.
+@Service
+public class AttachmentStorage {
+    private final AttachmentRepository attachmentRepository;
+    private final ImageDerivatives imageDerivatives;
+    private final BlobStore blobStore;
+    private final String dir;
+    private final Path temp;
+    private final Counter deduplicated;
+    private final ThreadPoolExecutor io;
+
+    public record Stored(String hash, long size, String key, String contentType, Path temp) {
+    }
+
+    public AttachmentStorage(AttachmentRepository attachmentRepository, ImageDerivatives imageDerivatives,
+                             BlobStore blobStore, @Value("${app.attachments.dir:uploads}") String dir,
+                             @Value("${app.attachments.io.threads:8}") int ioThreads,
+                             @Value("${app.attachments.io.queue-size:32}") int ioQueueSize,
+                             MeterRegistry meterRegistry) {
+        this.attachmentRepository = attachmentRepository;
+        this.imageDerivatives = imageDerivatives;
+        this.blobStore = blobStore;
+        this.dir = dir.endsWith("/") ? dir.substring(0, dir.length() - 1) : dir;
+        this.temp = Paths.get(dir, "tmp");
+        this.deduplicated = Counter.builder("attachment.storage.deduplicated")
+                .description("Uploads whose content was already stored, so nothing was written")
+                .register(meterRegistry);
+        AtomicInteger n = new AtomicInteger();
+        this.io = new ThreadPoolExecutor(ioThreads, ioThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(ioQueueSize), r -> {
+                    Thread thread = new Thread(r, "attachment-io-" + n.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            Files.createDirectories(temp);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create upload directory " + temp.toAbsolutePath(), e);
+        }
+    }
+
+    public Path temp() {
+        return temp;
+    }
+
+    // Runs task on the I/O pool; an exception it throws completes the future (wrapped in a CompletionException)
+    public <T> CompletableFuture<T> async(Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, io);
+    }
+
+    // Copies the upload to a temp file, hashing it on the way. contentType is what the file was sniffed as.
+    public Stored write(MultipartFile file, String contentType) throws IOException {
+        MessageDigest sha256 = sha256();
+        Path part = Files.createTempFile(temp, "upload-", ".part");
+        try (InputStream in = new DigestInputStream(file.getInputStream(), sha256)) {
+            long size = Files.copy(in, part, StandardCopyOption.REPLACE_EXISTING);
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            return new Stored(hash, size, keyOf(hash), contentType, part);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+    }
+
+    // What every attachment key starts with
+    public String keyPrefix() {
+        return dir + "/";
+    }
+
+    public String keyOf(String hash) {
+        return dir + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+
+    // After the row is saved: puts the temp file into the store, or drops it when the content is already
+    // stored. true when the blob was written (and its image variants still need to be made).
+    public boolean commit(Stored stored) throws IOException {
+        if (blobStore.exists(stored.key())) {
+            Files.deleteIfExists(stored.temp());
+            deduplicated.increment();
+            return false;
+        }
+        // Two uploads of the same new content may both get here; either put leaves the same bytes
+        blobStore.put(stored.key(), stored.temp(), stored.contentType());
+        return true;
+    }
+
+    // When the row could not be saved
+    public void discard(Stored stored) throws IOException {
+        Files.deleteIfExists(stored.temp());
+    }
+
+    // Deletes the row, and the blob (with its image variants) once no other row references it. true when
+    // the blob went too.
+    @Transactional
+    public boolean delete(Attachment attachment) throws IOException {
+        attachmentRepository.delete(attachment);
+        attachmentRepository.flush();
+        if (!attachmentRepository.lockByFilePath(attachment.getFilePath()).isEmpty()) return false;
+        blobStore.delete(attachment.getFilePath());
+        imageDerivatives.delete(attachment.getFilePath());
+        return true;
+    }
+
+    // Deletes a blob that no row seemed to reference (see OrphanCollector) unless one does by now, under the
+    // same lock as delete. lockKey is the filePath a row would have: key itself, or the original of a variant.
+    @Transactional
+    public boolean deleteUnreferenced(String key, String lockKey) throws IOException {
+        if (!attachmentRepository.lockByFilePath(lockKey).isEmpty()) return false;
+        blobStore.delete(key);
+        return true;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.iheartev.api.attachment;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+// Content type of an upload from its first bytes, for the image and video formats phones and cameras
+// produce. The client's Content-Type is not trusted: it decides what a file counts against (5 images,
+// 1 video) and what it is served as.
+final class ContentSniffer {
+    static final int HEAD_SIZE = 16;
+
+    // ISO base media files (MP4, MOV, HEIF, ...) by the major brand in their ftyp box
+    private static final Map<String, String> FTYP_BRANDS = Map.ofEntries(
+            Map.entry("heic", "image/heic"), Map.entry("heix", "image/heic"),
+            Map.entry("heim", "image/heic"), Map.entry("heis", "image/heic"),
+            Map.entry("mif1", "image/heif"), Map.entry("msf1", "image/heif"),
+            Map.entry("avif", "image/avif"),
+            Map.entry("qt  ", "video/quicktime"),
+            Map.entry("3gp4", "video/3gpp"), Map.entry("3gp5", "video/3gpp"),
+            Map.entry("3gp6", "video/3gpp"), Map.entry("3g2a", "video/3gpp2"),
+            Map.entry("M4V ", "video/x-m4v"), Map.entry("M4VP", "video/x-m4v"));
+
+    private ContentSniffer() {
+    }
+
+    static String sniff(InputStream in) throws IOException {
+        return sniff(in.readNBytes(HEAD_SIZE));
+    }
+
+    // null for anything that is not a known image or video format
+    static String sniff(byte[] head) {
+        if (startsWith(head, 0, 0xFF, 0xD8, 0xFF)) return "image/jpeg";
+        if (startsWith(head, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) return "image/png";
+        if (startsWith(head, 0, 'G', 'I', 'F', '8')) return "image/gif";
+        if (startsWith(head, 0, 'R', 'I', 'F', 'F')) {
+            if (startsWith(head, 8, 'W', 'E', 'B', 'P')) return "image/webp";
+            if (startsWith(head, 8, 'A', 'V', 'I', ' ')) return "video/x-msvideo";
+            return null;
+        }
+        if (startsWith(head, 0, 0x1A, 0x45, 0xDF, 0xA3)) return "video/webm"; // Matroska/WebM
+        if (startsWith(head, 4, 'f', 't', 'y', 'p') && head.length >= 12) {
+            String brand = new String(head, 8, 4, StandardCharsets.ISO_8859_1);
+            // Everything else in an ftyp box (isom, mp41, mp42, avc1, dash, ...) is played as MP4
+            return FTYP_BRANDS.getOrDefault(brand, "video/mp4");
+        }
+        return null;
+    }
+
+    // IMAGE or VIDEO, as Attachment.type
+    static String typeOf(String contentType) {
+        return contentType.startsWith("image/") ? "IMAGE" : "VIDEO";
+    }
+
+    private static boolean startsWith(byte[] head, int offset, int... magic) {
+        if (head.length < offset + magic.length) return false;
+        for (int i = 0; i < magic.length; i++) {
+            if ((head[offset + i] & 0xFF) != magic[i]) return false;
+        }
+        return true;
+    }
+}
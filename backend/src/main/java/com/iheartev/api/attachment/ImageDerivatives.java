@@ -0,0 +1,323 @@
+package com.iheartev.api.attachment;
+
+import com.iheartev.api.storage.BlobStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Resized JPEG copies of uploaded images, generated off the request thread on a small bounded pool
+// (decoding a full-size photo takes tens of MB of heap). Each variant is stored in the BlobStore next to
+// the original as <name>.<variant>.jpg (a remote original is fetched to a temp file first); until then
+// downloads fall back to the original. Pixels are re-encoded, so EXIF/GPS/ICC metadata is not copied;
+// the EXIF orientation is applied to the pixels first. A full queue skips generation (counted) rather
+// than blocking the upload.
+@Component
+public class ImageDerivatives {
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivatives.class);
+    private static final int APP1 = 0xFFE1;
+    private static final int SOS = 0xFFDA;
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    // Largest first: each one is scaled down from the previous
+    public enum Variant {
+        LARGE(1600), MEDIUM(800), THUMB(320);
+
+        private final int maxSize;
+
+        Variant(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public String param() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        // null for an unknown name
+        public static Variant fromParam(String param) {
+            for (Variant variant : values()) {
+                if (variant.param().equalsIgnoreCase(param)) return variant;
+            }
+            return null;
+        }
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final BlobStore blobStore;
+    private final float quality;
+    private final Timer generated;
+    private final Timer failed;
+    private final Counter rejected;
+
+    public ImageDerivatives(@Value("${app.attachments.derivatives.threads:2}") int threads,
+                            @Value("${app.attachments.derivatives.queue-size:200}") int queueSize,
+                            @Value("${app.attachments.derivatives.jpeg-quality:0.8}") float quality,
+                            BlobStore blobStore, MeterRegistry meterRegistry) {
+        AtomicInteger n = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), r -> {
+                    Thread thread = new Thread(r, "image-derivatives-" + n.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.blobStore = blobStore;
+        this.quality = quality;
+        this.generated = timer(meterRegistry, "generated");
+        this.failed = timer(meterRegistry, "failed");
+        this.rejected = Counter.builder("attachment.derivatives.rejected")
+                .description("Images left without variants because the derivative queue was full")
+                .register(meterRegistry);
+        Gauge.builder("attachment.derivatives.queued", executor, e -> e.getQueue().size())
+                .description("Images waiting for variant generation")
+                .register(meterRegistry);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("attachment.derivatives")
+                .description("Generation of all variants of one uploaded image")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    public static String keyOf(String original, Variant variant) {
+        int slash = original.lastIndexOf('/');
+        int dot = original.lastIndexOf('.');
+        String base = dot > slash + 1 ? original.substring(0, dot) : original;
+        return base + "." + variant.param() + ".jpg";
+    }
+
+    public void submit(String original) {
+        try {
+            executor.execute(() -> generate(original));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+        }
+    }
+
+    public void delete(String original) throws IOException {
+        for (Variant variant : Variant.values()) {
+            blobStore.delete(keyOf(original, variant));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    void generate(String original) {
+        long start = System.nanoTime();
+        Path fetched = null;
+        try {
+            Path source = blobStore.localFile(original).orElse(null);
+            if (source == null) {
+                fetched = Files.createTempFile("derivative-", ".src");
+                try (InputStream in = blobStore.open(original)) {
+                    Files.copy(in, fetched, StandardCopyOption.REPLACE_EXISTING);
+                }
+                source = fetched;
+            }
+            BufferedImage image = read(source);
+            if (image == null) {
+                // Not a format ImageIO decodes (HEIC, for one): the original is all there is
+                failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return;
+            }
+            for (Variant variant : Variant.values()) {
+                image = scale(image, variant.maxSize);
+                store(image, keyOf(original, variant));
+            }
+            generated.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (IOException | RuntimeException e) {
+            failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.warn("Could not generate variants of {}: {}", original, e.toString());
+        } finally {
+            if (fetched != null) fetched.toFile().delete();
+        }
+    }
+
+    // Decodes at the smallest integer subsampling that still leaves the large variant full size,
+    // oriented and flattened to opaque RGB. null when no reader understands the file.
+    private BufferedImage read(Path original) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / Variant.LARGE.maxSize);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return orient(rgb(reader.read(0, param)), orientation(original));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves with bilinear filtering until within 2x of the target, then one last bilinear step:
+    // close to area averaging in quality, much cheaper than SCALE_AREA_AVERAGING
+    private static BufferedImage scale(BufferedImage image, int maxSize) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+        while (width != targetWidth || height != targetHeight) {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            image = draw(image, width, height, new AffineTransform());
+        }
+        return image;
+    }
+
+    private static BufferedImage rgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) return image;
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            // Transparent areas (PNG, GIF) become white instead of JPEG black
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.setComposite(AlphaComposite.SrcOver);
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    private static BufferedImage draw(BufferedImage image, int width, int height, AffineTransform transform) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (transform.isIdentity()) {
+                g.drawImage(image, 0, 0, width, height, null);
+            } else {
+                g.drawImage(image, transform, null);
+            }
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    // EXIF orientation (1..8) applied to the pixels, since the tag itself is not carried over
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform t = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { t.scale(-1, 1); t.translate(-w, 0); }
+            case 3 -> { t.translate(w, h); t.rotate(Math.PI); }
+            case 4 -> { t.scale(1, -1); t.translate(0, -h); }
+            case 5 -> { t.rotate(-Math.PI / 2); t.scale(-1, 1); }
+            case 6 -> { t.translate(h, 0); t.rotate(Math.PI / 2); }
+            case 7 -> { t.scale(-1, 1); t.translate(-h, 0); t.translate(0, w); t.rotate(3 * Math.PI / 2); }
+            case 8 -> { t.translate(0, w); t.rotate(3 * Math.PI / 2); }
+            default -> { return image; }
+        }
+        return orientation >= 5 ? draw(image, h, w, t) : draw(image, w, h, t);
+    }
+
+    // Orientation tag from the EXIF APP1 segment of a JPEG (IFD0), 1 when absent or not a JPEG. Read from
+    // the raw markers: ImageIO's metadata parser rejects files whose markers are not in JFIF order.
+    private static int orientation(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readUnsignedShort() != 0xFFD8) return 1;
+            while (true) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == SOS) return 1;
+                int length = in.readUnsignedShort() - 2;
+                if (marker == APP1) {
+                    byte[] data = in.readNBytes(length);
+                    int orientation = exifOrientation(data);
+                    if (orientation > 0) return orientation;
+                } else {
+                    in.skipNBytes(length);
+                }
+            }
+        } catch (EOFException e) {
+            return 1;
+        }
+    }
+
+    private static int exifOrientation(byte[] data) {
+        try {
+            if (data.length < 14 || data[0] != 'E' || data[1] != 'x' || data[2] != 'i' || data[3] != 'f') return 0;
+            ByteBuffer tiff = ByteBuffer.wrap(data, 6, data.length - 6).slice();
+            tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            int ifd = tiff.getInt(4);
+            int entries = tiff.getShort(ifd) & 0xFFFF;
+            for (int i = 0; i < entries; i++) {
+                int entry = ifd + 2 + i * 12;
+                if ((tiff.getShort(entry) & 0xFFFF) == ORIENTATION_TAG) {
+                    int value = tiff.getShort(entry + 8) & 0xFFFF;
+                    return value >= 1 && value <= 8 ? value : 0;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // Truncated or malformed EXIF: treat as unrotated
+        }
+        return 0;
+    }
+
+    private void store(BufferedImage image, String key) throws IOException {
+        Path temp = Files.createTempFile("derivative-", ".jpg");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality);
+                param.setProgressiveMode(ImageWriteParam.MODE_DISABLED);
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            blobStore.put(key, temp, "image/jpeg");
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.iheartev.api.attachment;
+
+import com.iheartev.api.storage.BlobStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Deletes attachment files no row references any more: left behind when rows go without
+// AttachmentStorage.delete (AttachmentRepository.deleteByListingId, manual cleanups), by a commit that
+// failed halfway, or in the temp directory by requests and upload sessions that never finished.
+// Attachments of listings soft-deleted longer than deleted-listing-retention ago are deleted here too.
+//
+// Each run handles one page of batch-size keys, in key order from where the last one stopped, so a pass
+// over a large store is spread over many runs and the store and database only see a trickle of work.
+// A pass starts by reading every row's filePath once into a sorted array of 64-bit fingerprints (8 bytes
+// a row, binary-searched; a collision only keeps a file). A key that is not in it (a variant counts as its
+// original) and is older than the grace period is quarantined: remembered with when it was first seen.
+// Still unreferenced in a pass after the grace period, it is deleted under the filePath lock
+// AttachmentStorage.delete takes, so an upload of the same content meanwhile either keeps it or puts it
+// back. Quarantine is in memory; a restart only delays deletes.
+@Component
+public class OrphanCollector {
+    private static final Logger logger = LoggerFactory.getLogger(OrphanCollector.class);
+    // Beyond this, orphans wait for a later pass
+    private static final int MAX_QUARANTINED = 100_000;
+
+    private final AttachmentStorage attachmentStorage;
+    private final AttachmentRepository attachmentRepository;
+    private final BlobStore blobStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration gracePeriod;
+    private final Duration tempExpiry;
+    private final Duration deletedListingRetention;
+    private final int batchSize;
+    private final Map<String, Quarantined> quarantined = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    // Set for the duration of a pass; cursor is the last key handled
+    private long[] referenced;
+    private String cursor;
+    private int pass;
+
+    private record Quarantined(Instant since, int pass) {
+    }
+
+    public OrphanCollector(AttachmentStorage attachmentStorage, AttachmentRepository attachmentRepository,
+                           BlobStore blobStore, JdbcTemplate jdbcTemplate,
+                           @Value("${app.attachments.gc.grace-period:24h}") Duration gracePeriod,
+                           @Value("${app.attachments.uploads.expire-after:24h}") Duration uploadExpiry,
+                           @Value("${app.attachments.gc.deleted-listing-retention:30d}") Duration deletedListingRetention,
+                           @Value("${app.attachments.gc.batch-size:500}") int batchSize,
+                           MeterRegistry meterRegistry) {
+        this.attachmentStorage = attachmentStorage;
+        this.attachmentRepository = attachmentRepository;
+        this.blobStore = blobStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.gracePeriod = gracePeriod;
+        // Upload sessions idle this long are expired already
+        this.tempExpiry = uploadExpiry.plus(gracePeriod);
+        this.deletedListingRetention = deletedListingRetention;
+        this.batchSize = batchSize;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("attachment.gc.quarantined", quarantined, Map::size)
+                .description("Unreferenced attachment files waiting out the grace period")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.attachments.gc.interval-ms:10000}",
+               initialDelayString = "${app.attachments.gc.initial-delay-ms:60000}")
+    public synchronized void collect() throws IOException {
+        Instant now = Instant.now();
+        if (referenced == null) {
+            pass++;
+            deleteOfDeletedListings(now);
+            sweepTemp(now);
+            referenced = referencedFingerprints();
+        }
+        List<BlobStore.Blob> page = blobStore.list(attachmentStorage.keyPrefix(), cursor, batchSize);
+        String temp = attachmentStorage.keyPrefix() + "tmp/";
+        for (BlobStore.Blob blob : page) {
+            // Handled by sweepTemp
+            if (!blob.key().startsWith(temp)) check(blob, now);
+        }
+        if (page.size() < batchSize) {
+            // Keys quarantined but not seen this pass are gone already
+            quarantined.values().removeIf(q -> q.pass() != pass);
+            referenced = null;
+            cursor = null;
+        } else {
+            cursor = page.get(page.size() - 1).key();
+        }
+    }
+
+    private void check(BlobStore.Blob blob, Instant now) throws IOException {
+        String key = blob.key();
+        String original = originalOf(key);
+        if (Arrays.binarySearch(referenced, fingerprint(withoutExtension(original))) >= 0) {
+            quarantined.remove(key);
+            return;
+        }
+        // Still being written, or committed moments ago
+        if (blob.lastModified().isAfter(now.minus(gracePeriod))) return;
+        Quarantined q = quarantined.get(key);
+        if (q == null) {
+            if (quarantined.size() < MAX_QUARANTINED) quarantined.put(key, new Quarantined(now, pass));
+            return;
+        }
+        if (q.since().isAfter(now.minus(gracePeriod))) {
+            quarantined.put(key, new Quarantined(q.since(), pass));
+            return;
+        }
+        quarantined.remove(key);
+        if (attachmentStorage.deleteUnreferenced(key, original)) {
+            reclaimed("orphan", blob.size());
+            logger.info("Deleted orphaned attachment file {} ({} bytes)", key, blob.size());
+        }
+    }
+
+    // A page per pass, so a backlog is spread out like the walk
+    private void deleteOfDeletedListings(Instant now) throws IOException {
+        if (deletedListingRetention.isZero()) return;
+        List<Attachment> attachments = attachmentRepository.findOfListingsDeletedBefore(
+                now.minus(deletedListingRetention), PageRequest.of(0, batchSize));
+        for (Attachment attachment : attachments) {
+            // Counted when this was the last row with the file (its variants go with it)
+            if (attachmentStorage.delete(attachment)) reclaimed("deleted-listing", attachment.getFileSize());
+        }
+    }
+
+    // upload-*.part of requests that died mid-write and session-*.part of sessions that were never completed
+    private void sweepTemp(Instant now) throws IOException {
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(attachmentStorage.temp(), "*.part")) {
+            for (Path part : parts) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(part, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                if (attributes.lastModifiedTime().toInstant().isBefore(now.minus(tempExpiry)) && Files.deleteIfExists(part)) {
+                    reclaimed("temp", attributes.size());
+                }
+            }
+        }
+    }
+
+    private long[] referencedFingerprints() {
+        Fingerprints fingerprints = new Fingerprints();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("SELECT filePath FROM attachments",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(10_000);
+            return ps;
+        }, fingerprints);
+        return fingerprints.sorted();
+    }
+
+    private void reclaimed(String source, long bytes) {
+        Counter.builder("attachment.gc.reclaimed")
+                .description("Bytes of orphaned attachment files deleted")
+                .baseUnit("bytes")
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment(bytes);
+        Counter.builder("attachment.gc.deleted")
+                .description("Orphaned attachment files deleted")
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // The filePath a blob belongs to: the key itself, or for an image variant its original's (as far as the
+    // variant key tells: without the extension, which is all the fingerprints keep)
+    static String originalOf(String key) {
+        for (ImageDerivatives.Variant variant : ImageDerivatives.Variant.values()) {
+            String suffix = "." + variant.param() + ".jpg";
+            if (key.endsWith(suffix)) return key.substring(0, key.length() - suffix.length());
+        }
+        return key;
+    }
+
+    private static String withoutExtension(String key) {
+        int slash = key.lastIndexOf('/');
+        int dot = key.lastIndexOf('.');
+        return dot > slash + 1 ? key.substring(0, dot) : key;
+    }
+
+    // FNV-1a, 64 bits
+    private static long fingerprint(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static final class Fingerprints implements RowCallbackHandler {
+        private long[] values = new long[1024];
+        private int size;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            String filePath = rs.getString(1);
+            if (filePath == null) return;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = fingerprint(withoutExtension(filePath));
+        }
+
+        long[] sorted() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.iheartev.api.attachment;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Writes a stored file as an HTTP response with byte-range support: 200 with Accept-Ranges, 206 with
+// Content-Range for a single range, 206 multipart/byteranges for several, 416 when none is satisfiable.
+// Full and single-range bodies go out through Tomcat's sendfile (FileChannel.transferTo into the socket,
+// done by the connector after the handler returns), so file bytes never enter the Java heap. Where
+// sendfile is unavailable (TLS connector, other containers, MockMvc) and for multipart bodies the file
+// is copied with FileChannel.transferTo into the response stream in small chunks.
+final class RangeFileSender {
+    // Tomcat request attributes (org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private record Range(long start, long end) {
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    private RangeFileSender() {
+    }
+
+    // etag and lastModified are the validators already sent by the caller (conditional GET); lastModified
+    // is -1 when unknown, then the file's modification time is used
+    static void send(HttpServletRequest request, HttpServletResponse response, Path file, MediaType contentType,
+                     String fileName, String etag, long lastModified) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        if (lastModified < 0) {
+            lastModified = attributes.lastModifiedTime().toMillis();
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition(fileName));
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        List<Range> ranges = rangeHeader == null || !ifRangeMatches(request, etag, lastModified) ? List.of() : satisfiable(rangeHeader, length);
+        if (ranges == null) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+        boolean head = "HEAD".equals(request.getMethod());
+
+        if (ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType.toString());
+            response.setContentLengthLong(length);
+            if (!head) sendFile(request, response, file, 0, length);
+        } else if (ranges.size() == 1) {
+            Range range = ranges.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(contentType.toString());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range.start() + "-" + range.end() + "/" + length);
+            response.setContentLengthLong(range.length());
+            if (!head) sendFile(request, response, file, range.start(), range.length());
+        } else {
+            sendMultipart(response, file, contentType, ranges, length, head);
+        }
+    }
+
+    // null when the header cannot be satisfied (or is malformed), else the ranges to send
+    static String contentDisposition(String fileName) {
+        ContentDisposition.Builder disposition = ContentDisposition.inline();
+        // filename* only when needed; Spring would otherwise RFC 2047-encode plain ASCII names too
+        if (StandardCharsets.US_ASCII.newEncoder().canEncode(fileName)) disposition.filename(fileName);
+        else disposition.filename(fileName, StandardCharsets.UTF_8);
+        return disposition.build().toString();
+    }
+
+    private static List<Range> satisfiable(String header, long length) {
+        List<HttpRange> requested;
+        try {
+            requested = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        List<Range> ranges = new ArrayList<>();
+        long total = 0;
+        for (HttpRange range : requested) {
+            long start = range.getRangeStart(length);
+            long end = range.getRangeEnd(length);
+            // A range starting past the end of the file is skipped; the others may still be served
+            if (start >= length || start > end) continue;
+            ranges.add(new Range(start, end));
+            total += end - start + 1;
+        }
+        // Overlapping ranges adding up to more than the file are refused rather than amplified
+        return ranges.isEmpty() || total > length ? null : ranges;
+    }
+
+    // If-Range: ranges only apply while the representation is unchanged. An entity tag must match
+    // strongly (a weak tag never does), a date must equal Last-Modified; otherwise the full file is sent.
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("W/")) return false;
+        if (ifRange.startsWith("\"")) return ifRange.equals(etag);
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void sendFile(HttpServletRequest request, HttpServletResponse response, Path file,
+                                 long start, long count) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(channel, start, count, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private static void sendMultipart(HttpServletResponse response, Path file, MediaType contentType,
+                                      List<Range> ranges, long length, boolean head) throws IOException {
+        String boundary = UUID.randomUUID().toString();
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (Range range : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\nContent-Type: " + contentType + "\r\nContent-Range: bytes "
+                    + range.start() + "-" + range.end() + "/" + length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(header);
+            contentLength += header.length + range.length();
+        }
+        byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += end.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) return;
+        var out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders.get(i));
+                transfer(channel, ranges.get(i).start(), ranges.get(i).length(), target);
+            }
+        }
+        out.write(end);
+    }
+
+    private static void transfer(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        while (count > 0) {
+            long sent = channel.transferTo(position, count, target);
+            if (sent <= 0) throw new IOException("File shrank while it was being sent");
+            position += sent;
+            count -= sent;
+        }
+    }
+}
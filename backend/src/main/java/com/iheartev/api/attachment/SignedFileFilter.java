@@ -0,0 +1,64 @@
+package com.iheartev.api.attachment;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+// Serves the URLs from SignedUrls. Registered for /files/* ahead of the Spring Security chain (see
+// SecurityConfig) and never passes the request on: no JWT parsing, user or attachment lookup, and no
+// dispatcher. The signature is the authorization, checked when the URL was minted.
+@Component
+public class SignedFileFilter extends OncePerRequestFilter {
+    private final SignedUrls signedUrls;
+    private final AttachmentSender attachmentSender;
+
+    public SignedFileFilter(SignedUrls signedUrls, AttachmentSender attachmentSender) {
+        this.signedUrls = signedUrls;
+        this.attachmentSender = attachmentSender;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // No handler mapping names the route, so http.server.requests would say uri=UNKNOWN
+        ServerHttpObservationFilter.findObservationContext(request)
+                .ifPresent(context -> context.setPathPattern(SignedUrls.PATH + "{token}"));
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            response.setHeader(HttpHeaders.ALLOW, "GET, HEAD");
+            response.setStatus(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            return;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        SignedUrls.Grant grant = path.startsWith(SignedUrls.PATH)
+                ? signedUrls.verify(path.substring(SignedUrls.PATH.length())).orElse(null)
+                : null;
+        if (grant == null) {
+            // Forged, altered and expired URLs alike; the client fetches the attachment again for a new one
+            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        // Private: the URL may be for a listing only its seller can see. The file never changes, but the
+        // grant ends with the URL.
+        long maxAge = Math.max(0, Duration.between(Instant.now(), grant.expires()).toSeconds());
+        attachmentSender.send(request, response, grant.key(), grant.variant(), MediaType.parseMediaType(grant.contentType()),
+                grant.fileName(), etagOf(grant.key()), -1, "private, max-age=" + maxAge + ", immutable");
+    }
+
+    // Stored files are named by their content hash (or a UUID before that), so the name is a strong tag;
+    // for content-addressed files it is the one AttachmentController sends too
+    private static String etagOf(String key) {
+        String name = key.substring(Math.max(key.lastIndexOf('/'), key.lastIndexOf('\\')) + 1);
+        int dot = name.lastIndexOf('.');
+        return "\"" + (dot > 0 ? name.substring(0, dot) : name) + "\"";
+    }
+}
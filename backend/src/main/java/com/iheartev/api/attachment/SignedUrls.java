@@ -0,0 +1,112 @@
+package com.iheartev.api.attachment;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Short-lived download URLs for attachment files, /files/<payload>.<signature>: the payload carries the
+// storage key, variant, expiry, content type and file name, and the signature is an HMAC-SHA256 of it.
+// SignedFileFilter serves them with no database or user lookup, so whoever mints one decides who may
+// see the file. Expiries are rounded up to a quarter of the TTL, so a listing fetched again a little
+// later gets the same URLs and images come from the client's cache.
+@Component
+public class SignedUrls {
+    static final String PATH = "/files/";
+    private static final String ORIGINAL = "original";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final ThreadLocal<Mac> mac;
+
+    // What a valid URL grants; variant is null for the file itself
+    record Grant(String key, ImageDerivatives.Variant variant, Instant expires, String contentType, String fileName) {
+    }
+
+    public SignedUrls(@Value("${app.attachments.signed-urls.key}") String secret,
+                      @Value("${app.attachments.signed-urls.ttl:1h}") Duration ttl) {
+        // Derived, so the configured secret (by default the JWT one) is never used as is
+        this.key = new SecretKeySpec(hmac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"),
+                "attachment-urls".getBytes(StandardCharsets.UTF_8)), "HmacSHA256");
+        this.ttl = ttl;
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac m = Mac.getInstance("HmacSHA256");
+                m.init(key);
+                return m;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    // original, plus thumb/medium/large for images
+    public Map<String, String> urlsOf(Attachment attachment) {
+        long step = Math.max(1, ttl.toSeconds() / 4);
+        long expires = (Instant.now().plus(ttl).getEpochSecond() / step + 1) * step;
+        String contentType = AttachmentSender.contentTypeOf(attachment).toString();
+        Map<String, String> urls = new LinkedHashMap<>();
+        urls.put(ORIGINAL, sign(attachment.getFilePath(), ORIGINAL, expires, contentType, attachment.getFileName()));
+        if ("IMAGE".equals(attachment.getType())) {
+            for (ImageDerivatives.Variant variant : ImageDerivatives.Variant.values()) {
+                urls.put(variant.param(), sign(attachment.getFilePath(), variant.param(), expires, contentType,
+                        attachment.getFileName()));
+            }
+        }
+        return urls;
+    }
+
+    // Empty unless the token is one of ours and has not expired
+    Optional<Grant> verify(String token) {
+        int dot = token.lastIndexOf('.');
+        if (dot < 0) return Optional.empty();
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        // Constant time, so the signature cannot be guessed a byte at a time
+        if (!MessageDigest.isEqual(mac(payload), signature)) return Optional.empty();
+        String[] fields = new String(payload, StandardCharsets.UTF_8).split("\n", 5);
+        if (fields.length != 5) return Optional.empty();
+        Instant expires = Instant.ofEpochSecond(Long.parseLong(fields[2]));
+        if (!Instant.now().isBefore(expires)) return Optional.empty();
+        ImageDerivatives.Variant variant = ORIGINAL.equals(fields[1]) ? null : ImageDerivatives.Variant.fromParam(fields[1]);
+        return Optional.of(new Grant(fields[0], variant, expires, fields[3], fields[4]));
+    }
+
+    private String sign(String key, String variant, long expires, String contentType, String fileName) {
+        byte[] payload = (key + "\n" + variant + "\n" + expires + "\n" + contentType + "\n" + fileName)
+                .getBytes(StandardCharsets.UTF_8);
+        return PATH + ENCODER.encodeToString(payload) + "." + ENCODER.encodeToString(mac(payload));
+    }
+
+    private byte[] mac(byte[] payload) {
+        return mac.get().doFinal(payload);
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac m = Mac.getInstance("HmacSHA256");
+            m.init(key);
+            return m.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.iheartev.api.attachment;
+
+import com.iheartev.api.listing.ListingRepository;
+import com.iheartev.api.metrics.QueryBudget;
+import com.iheartev.api.user.User;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Resumable alternative to POST /api/attachments for one file at a time (see UploadSessions):
+//   POST   /api/attachments/uploads              {listingId, fileName, contentType, size} -> 201 + status
+//   PUT    /api/attachments/uploads/{id}         Content-Range: bytes <start>-<end>/<size>, raw bytes
+//   GET    /api/attachments/uploads/{id}         byte ranges received so far, to resume from
+//   POST   /api/attachments/uploads/{id}/complete -> the attachment, as POST /api/attachments returns it
+//   DELETE /api/attachments/uploads/{id}
+// Videos may be larger here (app.attachments.max-video-size) than a multipart request allows.
+@RestController
+@QueryBudget(4)
+@RequestMapping("/api/attachments/uploads")
+public class UploadSessionController {
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d{1,18})-(\\d{1,18})/(\\d{1,18})");
+    private static final long MAX_IMAGE_SIZE = 10 * 1024 * 1024; // 10MB, as for multipart uploads
+
+    private final UploadSessions uploadSessions;
+    private final AttachmentStorage attachmentStorage;
+    private final AttachmentRepository attachmentRepository;
+    private final ListingRepository listingRepository;
+    private final ImageDerivatives imageDerivatives;
+    private final SignedUrls signedUrls;
+    private final long maxVideoSize;
+
+    public record CreateUpload(Long listingId, String fileName, String contentType, Long size) {
+    }
+
+    public UploadSessionController(UploadSessions uploadSessions, AttachmentStorage attachmentStorage,
+                                   AttachmentRepository attachmentRepository, ListingRepository listingRepository,
+                                   ImageDerivatives imageDerivatives, SignedUrls signedUrls,
+                                   @Value("${app.attachments.max-video-size:200MB}") DataSize maxVideoSize) {
+        this.uploadSessions = uploadSessions;
+        this.attachmentStorage = attachmentStorage;
+        this.attachmentRepository = attachmentRepository;
+        this.listingRepository = listingRepository;
+        this.imageDerivatives = imageDerivatives;
+        this.signedUrls = signedUrls;
+        this.maxVideoSize = maxVideoSize.toBytes();
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(@AuthenticationPrincipal User user, @RequestBody CreateUpload upload) throws IOException {
+        if (upload.listingId() == null || upload.fileName() == null || upload.size() == null || upload.size() <= 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "listingId, fileName and size are required"));
+        }
+        String contentType = upload.contentType();
+        String type;
+        long maxSize;
+        if (contentType != null && contentType.startsWith("image/")) {
+            type = "IMAGE";
+            maxSize = MAX_IMAGE_SIZE;
+        } else if (contentType != null && contentType.startsWith("video/")) {
+            type = "VIDEO";
+            maxSize = maxVideoSize;
+        } else {
+            return ResponseEntity.badRequest().body(Map.of("error", "File " + upload.fileName() + " is not an image or video"));
+        }
+        if (upload.size() > maxSize) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "File " + upload.fileName() + " exceeds " + DataSize.ofBytes(maxSize).toMegabytes() + "MB limit"));
+        }
+        if (!listingRepository.existsById(upload.listingId())) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Listing not found"));
+        }
+        // The declared type picks the limit; completing checks the file really is one
+        UploadSessions.Status status = uploadSessions.create(user.getId(), upload.listingId(), upload.fileName(),
+                type, upload.size());
+        return ResponseEntity.created(URI.create("/api/attachments/uploads/" + status.uploadId())).body(status);
+    }
+
+    @GetMapping("/{id}")
+    public UploadSessions.Status status(@AuthenticationPrincipal User user, @PathVariable String id) {
+        return uploadSessions.status(id, user.getId());
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> writeChunk(@AuthenticationPrincipal User user, @PathVariable String id,
+                                        @RequestHeader(HttpHeaders.CONTENT_RANGE) String contentRange,
+                                        HttpServletRequest request) throws IOException {
+        Matcher range = CONTENT_RANGE.matcher(contentRange);
+        if (!range.matches()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Content-Range must be bytes <start>-<end>/<size>"));
+        }
+        return ResponseEntity.ok(uploadSessions.write(id, user.getId(), Long.parseLong(range.group(1)),
+                Long.parseLong(range.group(2)), Long.parseLong(range.group(3)), request.getInputStream()));
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<?> complete(@AuthenticationPrincipal User user, @PathVariable String id) throws IOException {
+        UploadSessions.Completed completed = uploadSessions.complete(id, user.getId());
+        AttachmentStorage.Stored stored = completed.stored();
+        try {
+            Attachment attachment = new Attachment();
+            attachment.setType(completed.type());
+            attachment.setFileName(completed.fileName());
+            attachment.setFilePath(stored.key());
+            attachment.setFileSize(stored.size());
+            attachment.setContentType(stored.contentType());
+            attachment.setContentHash(stored.hash());
+            attachment.setUploadedAt(Instant.now());
+            attachment.setListingId(completed.listingId());
+            attachment = attachmentRepository.save(attachment);
+            boolean committed;
+            try {
+                committed = attachmentStorage.commit(stored);
+            } catch (IOException e) {
+                // No row may point at a file that was never stored
+                attachmentRepository.delete(attachment);
+                throw e;
+            }
+            if (committed && "IMAGE".equals(attachment.getType())) {
+                imageDerivatives.submit(stored.key());
+            }
+            attachment.setUrls(signedUrls.urlsOf(attachment));
+            return ResponseEntity.ok(attachment);
+        } finally {
+            attachmentStorage.discard(stored);
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> abort(@AuthenticationPrincipal User user, @PathVariable String id) throws IOException {
+        uploadSessions.abort(id, user.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(UploadSessions.UploadException.class)
+    public ResponseEntity<?> uploadFailed(UploadSessions.UploadException e) {
+        return ResponseEntity.status(e.status()).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(IOException.class)
+    public ResponseEntity<?> storageFailed(IOException e) {
+        return ResponseEntity.status(500).body(Map.of("error", "Failed to store upload"));
+    }
+}
@@ -0,0 +1,368 @@
+package com.iheartev.api.attachment;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Resumable uploads: a session is created with the file's size, its chunks are PUT with Content-Range
+// in any order (several at once if the client likes) and written straight into one temp file with
+// positional FileChannel writes, then the session is completed into an attachment. Request bodies are
+// read through a 64KB buffer, so neither heap nor Tomcat's multipart temp files grow with the file.
+// The SHA-256 follows the contiguous prefix received so far (read back from the page cache), so
+// completing only hashes what is left, usually nothing.
+// Sessions live on the node that created them (state in memory, file in <dir>/tmp): with several nodes,
+// /api/attachments/uploads/{id} has to reach the same one. Idle sessions are dropped after expire-after.
+// Every open session holds a file descriptor and temp disk, so they are capped per user and per node.
+@Service
+public class UploadSessions {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AttachmentStorage attachmentStorage;
+    private final long maxChunkSize;
+    private final long expireAfterNanos;
+    private final int maxPerUser;
+    private final int maxOpen;
+    // Open sessions per user and in all, reserved before a session is created and released when it is removed
+    private final Map<Long, Integer> openPerUser = new ConcurrentHashMap<>();
+    private final AtomicInteger open = new AtomicInteger();
+
+    public record Range(long start, long end) {
+    }
+
+    public record Status(String uploadId, long size, long chunkSize, List<Range> received) {
+    }
+
+    public record Completed(AttachmentStorage.Stored stored, String fileName, String type, Long listingId) {
+    }
+
+    public static class UploadException extends RuntimeException {
+        private final int status;
+
+        UploadException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public int status() {
+            return status;
+        }
+    }
+
+    private static final class Session {
+        final String id;
+        final Long userId;
+        final Long listingId;
+        final String fileName;
+        final String type;
+        final long size;
+        final Path file;
+        final FileChannel channel;
+        // start -> end (inclusive) of the bytes written so far, merged; guarded by this
+        final TreeMap<Long, Long> received = new TreeMap<>();
+        final ReentrantLock hashing = new ReentrantLock();
+        final MessageDigest sha256 = sha256();
+        long hashed; // guarded by hashing
+        int writing; // guarded by this
+        boolean closed; // guarded by this
+        volatile long lastActive = System.nanoTime();
+
+        Session(String id, Long userId, Long listingId, String fileName, String type, long size, Path file) throws IOException {
+            this.id = id;
+            this.userId = userId;
+            this.listingId = listingId;
+            this.fileName = fileName;
+            this.type = type;
+            this.size = size;
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        synchronized long contiguous() {
+            Map.Entry<Long, Long> first = received.firstEntry();
+            return first == null || first.getKey() > 0 ? 0 : first.getValue() + 1;
+        }
+
+        synchronized List<Range> ranges() {
+            List<Range> ranges = new ArrayList<>(received.size());
+            received.forEach((start, end) -> ranges.add(new Range(start, end)));
+            return ranges;
+        }
+
+        synchronized boolean covers(long start, long end) {
+            Map.Entry<Long, Long> before = received.floorEntry(start);
+            return before != null && before.getValue() >= end;
+        }
+
+        synchronized void add(long start, long end) {
+            Map.Entry<Long, Long> before = received.floorEntry(start);
+            if (before != null && before.getValue() >= start - 1) {
+                start = before.getKey();
+                end = Math.max(end, before.getValue());
+            }
+            Map.Entry<Long, Long> next = received.ceilingEntry(start);
+            while (next != null && next.getKey() <= end + 1) {
+                end = Math.max(end, next.getValue());
+                received.remove(next.getKey());
+                next = received.higherEntry(start);
+            }
+            received.put(start, end);
+        }
+    }
+
+    public UploadSessions(AttachmentStorage attachmentStorage,
+                          @Value("${app.attachments.uploads.max-chunk-size:8MB}") DataSize maxChunkSize,
+                          @Value("${app.attachments.uploads.expire-after:24h}") Duration expireAfter,
+                          @Value("${app.attachments.uploads.max-per-user:10}") int maxPerUser,
+                          @Value("${app.attachments.uploads.max-open:1000}") int maxOpen,
+                          MeterRegistry meterRegistry) {
+        this.attachmentStorage = attachmentStorage;
+        this.maxChunkSize = maxChunkSize.toBytes();
+        this.expireAfterNanos = expireAfter.toNanos();
+        this.maxPerUser = maxPerUser;
+        this.maxOpen = maxOpen;
+        Gauge.builder("attachment.uploads.active", sessions, Map::size)
+                .description("Resumable upload sessions not completed or expired yet")
+                .register(meterRegistry);
+    }
+
+    public Status create(Long userId, Long listingId, String fileName, String type, long size)
+            throws IOException {
+        reserve(userId);
+        String id = UUID.randomUUID().toString();
+        Path file = null;
+        try {
+            file = Files.createTempFile(attachmentStorage.temp(), "session-", ".part");
+            Session session = new Session(id, userId, listingId, fileName, type, size, file);
+            sessions.put(id, session);
+            return status(session);
+        } catch (IOException | RuntimeException e) {
+            if (file != null) Files.deleteIfExists(file);
+            release(userId);
+            throw e;
+        }
+    }
+
+    public Status status(String id, Long userId) {
+        return status(session(id, userId));
+    }
+
+    // Writes bytes start..end (inclusive) of the file from body. A chunk that is already there is not
+    // read again, so retrying one whose response was lost costs nothing.
+    public Status write(String id, Long userId, long start, long end, long total, InputStream body) throws IOException {
+        Session session = session(id, userId);
+        if (total != session.size || start < 0 || end < start || end >= session.size) {
+            throw new UploadException(416, "Range " + start + "-" + end + "/" + total + " is outside the file (" + session.size + " bytes)");
+        }
+        if (end - start + 1 > maxChunkSize) {
+            throw new UploadException(413, "Chunks are at most " + maxChunkSize + " bytes");
+        }
+        if (session.covers(start, end)) {
+            return status(session);
+        }
+        synchronized (session) {
+            if (session.closed) throw new UploadException(404, "Upload not found");
+            session.writing++;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long position = start;
+            long limit = end + 1;
+            while (position < limit) {
+                int n = body.read(buffer.array(), 0, (int) Math.min(BUFFER_SIZE, limit - position));
+                if (n < 0) {
+                    throw new UploadException(400, "Chunk ended after " + (position - start) + " of " + (limit - start) + " bytes");
+                }
+                buffer.limit(n).position(0);
+                while (buffer.hasRemaining()) {
+                    position += session.channel.write(buffer, position);
+                }
+            }
+            if (body.read() >= 0) {
+                throw new UploadException(400, "Chunk is longer than its Content-Range");
+            }
+            session.add(start, end);
+        } finally {
+            release(session);
+        }
+        session.lastActive = System.nanoTime();
+        // Another chunk's thread may be at it already; whatever is left is hashed on completion
+        if (session.hashing.tryLock()) {
+            try {
+                hash(session, session.contiguous());
+            } catch (IOException e) {
+                // Aborted meanwhile; the chunk itself was written
+            } finally {
+                session.hashing.unlock();
+            }
+        }
+        return status(session);
+    }
+
+    // Closes a fully received session; the caller saves the attachment and commits (or discards) the file.
+    // The content type is sniffed from the file, as for multipart uploads.
+    public Completed complete(String id, Long userId) throws IOException {
+        Session session = session(id, userId);
+        synchronized (session) {
+            if (session.closed) throw new UploadException(404, "Upload not found");
+            if (session.writing > 0 || session.contiguous() < session.size) {
+                throw new UploadException(409, "Upload is missing bytes");
+            }
+            session.closed = true;
+        }
+        remove(session);
+        String contentType;
+        session.hashing.lock();
+        // Closed before the file is deleted or handed on, also when hashing or reading fails
+        try (FileChannel channel = session.channel) {
+            hash(session, session.size);
+            ByteBuffer head = ByteBuffer.allocate(ContentSniffer.HEAD_SIZE);
+            channel.read(head, 0);
+            // The size limit was picked by the declared type, so the file must turn out to be one
+            contentType = ContentSniffer.sniff(Arrays.copyOf(head.array(), head.position()));
+            if (contentType == null || !ContentSniffer.typeOf(contentType).equals(session.type)) {
+                throw new UploadException(415, "File " + session.fileName + " is not " + (session.type.equals("IMAGE") ? "an image" : "a video"));
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(session.file);
+            throw e;
+        } finally {
+            session.hashing.unlock();
+        }
+        String hash = HexFormat.of().formatHex(session.sha256.digest());
+        AttachmentStorage.Stored stored = new AttachmentStorage.Stored(hash, session.size, attachmentStorage.keyOf(hash),
+                contentType, session.file);
+        return new Completed(stored, session.fileName, session.type, session.listingId);
+    }
+
+    public void abort(String id, Long userId) throws IOException {
+        Session session = session(id, userId);
+        close(session);
+    }
+
+    @Scheduled(fixedDelayString = "${app.attachments.uploads.expire-check-interval-ms:600000}")
+    public void expire() {
+        long now = System.nanoTime();
+        for (Session session : sessions.values()) {
+            if (now - session.lastActive >= expireAfterNanos) {
+                try {
+                    close(session);
+                } catch (IOException ignored) {
+                    // Left for the temp directory cleanup
+                }
+            }
+        }
+    }
+
+    private Session session(String id, Long userId) {
+        Session session = sessions.get(id);
+        // Someone else's session is as good as missing
+        if (session == null || !session.userId.equals(userId)) {
+            throw new UploadException(404, "Upload not found");
+        }
+        return session;
+    }
+
+    private Status status(Session session) {
+        return new Status(session.id, session.size, maxChunkSize, session.ranges());
+    }
+
+    // Counted against the caps until removed; the per-user check and increment are one atomic compute, so
+    // concurrent creates cannot both take the last slot
+    private void reserve(Long userId) {
+        if (open.incrementAndGet() > maxOpen) {
+            open.decrementAndGet();
+            throw new UploadException(503, "Too many uploads in progress, try again later");
+        }
+        try {
+            openPerUser.compute(userId, (user, count) -> {
+                if (count != null && count >= maxPerUser) throw new UploadException(429, "Too many unfinished uploads");
+                return count == null ? 1 : count + 1;
+            });
+        } catch (UploadException e) {
+            open.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private void release(Long userId) {
+        openPerUser.computeIfPresent(userId, (user, count) -> count > 1 ? count - 1 : null);
+        open.decrementAndGet();
+    }
+
+    // Releases the session's slots once, whoever removes it first (complete, abort, expiry)
+    private void remove(Session session) {
+        if (sessions.remove(session.id, session)) release(session.userId);
+    }
+
+    private void close(Session session) throws IOException {
+        remove(session);
+        boolean idle;
+        synchronized (session) {
+            if (session.closed) return;
+            session.closed = true;
+            idle = session.writing == 0;
+        }
+        // Otherwise the last chunk still being written deletes the file
+        if (idle) delete(session);
+    }
+
+    private void release(Session session) throws IOException {
+        boolean delete;
+        synchronized (session) {
+            session.writing--;
+            delete = session.closed && session.writing == 0;
+        }
+        if (delete) delete(session);
+    }
+
+    private static void delete(Session session) throws IOException {
+        session.channel.close();
+        Files.deleteIfExists(session.file);
+    }
+
+    // Feeds bytes [hashed, upTo) to the digest; caller holds session.hashing
+    private static void hash(Session session, long upTo) throws IOException {
+        if (session.hashed >= upTo) return;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (session.hashed < upTo) {
+            buffer.clear().limit((int) Math.min(BUFFER_SIZE, upTo - session.hashed));
+            int n = session.channel.read(buffer, session.hashed);
+            if (n < 0) throw new IOException("Upload file " + session.file + " is shorter than received");
+            session.sha256.update(buffer.array(), 0, n);
+            session.hashed += n;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
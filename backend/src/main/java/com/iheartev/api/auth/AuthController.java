@@ -1,5 +1,6 @@
 package com.iheartev.api.auth;
 
+import com.iheartev.api.metrics.QueryBudget;
 import com.iheartev.api.security.JwtService;
 import com.iheartev.api.user.User;
 import com.iheartev.api.user.UserRepository;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.Map;
 
 @RestController
+@QueryBudget(3)
 @RequestMapping("/api/auth")
 public class AuthController {
 
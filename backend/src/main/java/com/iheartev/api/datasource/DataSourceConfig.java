@@ -0,0 +1,71 @@
+package com.iheartev.api.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+// Read replica routing, only active when app.datasource.replica.url (DB_REPLICA_URL) is set. Without it Spring Boot
+// auto-configures the single primary pool exactly as before.
+// Everything that injects a DataSource (JPA, Flyway, JdbcTemplate) gets the lazy routing
+// proxy; work outside a read-only transaction, including migrations, always lands on the primary.
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.url:}'.isBlank()")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:${spring.datasource.username}}") String username,
+                                              @Value("${app.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class).url(url).username(username).password(password).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${app.datasource.replica.max-lag-ms:2000}") long maxLagMs) {
+        // Starts out of rotation; the first scheduled check brings the replica in
+        return new ReplicaLagMonitor(primary, replica, maxLagMs);
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${app.datasource.replica.sticky-window-ms:5000}") long windowMs) {
+        return new ReadYourWrites(windowMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor monitor, ReadYourWrites readYourWrites) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, monitor, readYourWrites));
+        // Known defaults, so the proxy does not open a connection up front just to look them up
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+}
@@ -0,0 +1,64 @@
+package com.iheartev.api.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+// Sends connections for @Transactional(readOnly = true) work to the replica and everything else to
+// the primary. Must sit behind a LazyConnectionDataSourceProxy: the transaction's read-only flag is
+// only published after the transaction manager asked for a connection, so the physical connection
+// has to be fetched lazily, on the first statement.
+public class ReadWriteRoutingDataSource extends AbstractDataSource {
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor monitor;
+    private final ReadYourWrites readYourWrites;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica,
+                                      ReplicaLagMonitor monitor, ReadYourWrites readYourWrites) {
+        this.primary = primary;
+        this.replica = replica;
+        this.monitor = monitor;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    // Same routing; whether explicit credentials are supported is up to the target pool
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(target -> target.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWrites.onWriteTransaction();
+            }
+            return source.connect(primary);
+        }
+        if (monitor.isUsable() && !readYourWrites.isSticky()) {
+            try {
+                return source.connect(replica);
+            } catch (SQLFeatureNotSupportedException e) {
+                // Not a sign of a replica being down (Hikari refuses explicit credentials)
+                throw e;
+            } catch (SQLException e) {
+                monitor.markDown(e);
+            }
+        }
+        return source.connect(primary);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection connect(DataSource target) throws SQLException;
+    }
+}
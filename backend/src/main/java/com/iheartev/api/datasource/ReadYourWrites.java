@@ -0,0 +1,68 @@
+package com.iheartev.api.datasource;
+
+import com.iheartev.api.user.User;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Remembers which users committed a write recently, so their next reads go to the primary until
+// the replica has had time to catch up. State is per node: with several nodes behind a load
+// balancer the window should cover the time a request may land on another node as well.
+public class ReadYourWrites {
+    private static final Object MARKER = new Object();
+
+    private final Map<Object, Long> lastWrite = new ConcurrentHashMap<>();
+    private final long windowNanos;
+
+    public ReadYourWrites(long windowMs) {
+        this.windowNanos = windowMs * 1_000_000L;
+    }
+
+    // True while the current user is inside the stickiness window after their own write
+    public boolean isSticky() {
+        Object user = currentUser();
+        if (user == null) return false;
+        Long at = lastWrite.get(user);
+        return at != null && System.nanoTime() - at < windowNanos;
+    }
+
+    // Called for each connection a read-write transaction takes; the user is marked once it commits
+    void onWriteTransaction() {
+        Object user = currentUser();
+        if (user == null || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(MARKER)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(MARKER, user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lastWrite.put(user, System.nanoTime());
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(MARKER);
+            }
+        });
+    }
+
+    // Drops users whose window has passed so the map stays small
+    @Scheduled(fixedDelayString = "${app.datasource.replica.sticky-window-ms:5000}")
+    public void expire() {
+        long now = System.nanoTime();
+        lastWrite.values().removeIf(at -> now - at >= windowNanos);
+    }
+
+    private static Object currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) return null;
+        if (auth.getPrincipal() instanceof User user) return user.getId();
+        return null;
+    }
+}
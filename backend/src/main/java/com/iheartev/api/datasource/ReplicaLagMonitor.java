@@ -0,0 +1,97 @@
+package com.iheartev.api.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+// Decides whether the replica may serve reads. Every check writes the application clock into
+// replication_heartbeat on the primary and reads the row back from the replica: the age of the
+// value the replica returns is its lag, independent of how replication is set up and of clock skew
+// between the two servers. A replica that is unreachable or further behind than the budget is
+// taken out of rotation until a later check sees it healthy again.
+public class ReplicaLagMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    private static final String WRITE_BEAT =
+            "UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1; " +
+            "IF @@ROWCOUNT = 0 INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)";
+    private static final String READ_BEAT = "SELECT beat_at FROM replication_heartbeat WHERE id = 1";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagMs;
+
+    private volatile boolean usable;
+    private volatile long lagMs = -1;
+
+    // maxLagMs < 0 disables the heartbeat: the replica is used whenever it answers
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMs) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+    }
+
+    public boolean isUsable() { return usable; }
+
+    public long getLagMs() { return lagMs; }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            if (maxLagMs < 0) {
+                try (Connection con = replica.getConnection()) {
+                    usable = con.isValid(2);
+                }
+            } else {
+                writeBeat();
+                Instant beat = readBeat();
+                lagMs = beat == null ? Long.MAX_VALUE : Math.max(0, Duration.between(beat, Instant.now()).toMillis());
+                usable = lagMs <= maxLagMs;
+            }
+        } catch (SQLException e) {
+            usable = false;
+            logger.debug("Replica check failed: {}", e.getMessage());
+        }
+        if (wasUsable != usable) {
+            logger.warn("Replica {} (lag {} ms, budget {} ms)", usable ? "back in rotation" : "out of rotation", lagMs, maxLagMs);
+        }
+    }
+
+    // Called when handing out a replica connection failed, so reads stop trying until the next check
+    void markDown(SQLException cause) {
+        if (usable) {
+            logger.warn("Replica connection failed, falling back to primary: {}", cause.getMessage());
+        }
+        usable = false;
+    }
+
+    private void writeBeat() throws SQLException {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        try (Connection con = primary.getConnection();
+             PreparedStatement ps = con.prepareStatement(WRITE_BEAT)) {
+            ps.setObject(1, now);
+            ps.setObject(2, now);
+            ps.execute();
+        }
+    }
+
+    private Instant readBeat() throws SQLException {
+        try (Connection con = replica.getConnection();
+             PreparedStatement ps = con.prepareStatement(READ_BEAT);
+             ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) return null;
+            OffsetDateTime beat = rs.getObject(1, OffsetDateTime.class);
+            return beat != null ? beat.toInstant() : null;
+        }
+    }
+}
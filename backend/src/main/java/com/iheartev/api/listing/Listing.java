@@ -4,15 +4,21 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.iheartev.api.user.User;
 import com.iheartev.api.payment.PaymentInfo;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.Instant;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "listing")
 @Table(name = "listings")
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Listing {
+    // Pooled sequence (not IDENTITY) so inserts can be JDBC-batched; see db/migration/V2__legacy_columns_and_sequences.sql
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "listings_seq")
+    @SequenceGenerator(name = "listings_seq", sequenceName = "listings_seq", allocationSize = 50)
     private Long id;
 
     private String type; // EV or BATTERY
@@ -35,6 +41,8 @@ public class Listing {
     private Boolean editedAfterRejection;
     @Column(name = "deleted_at")
     private Instant deletedAt;
+    @Column(name = "approved_at")
+    private Instant approvedAt;
 
     @ManyToOne(fetch = FetchType.EAGER)
     private User seller;
@@ -76,6 +84,8 @@ public class Listing {
     public void setEditedAfterRejection(Boolean editedAfterRejection) { this.editedAfterRejection = editedAfterRejection; }
     public Instant getDeletedAt() { return deletedAt; }
     public void setDeletedAt(Instant deletedAt) { this.deletedAt = deletedAt; }
+    public Instant getApprovedAt() { return approvedAt; }
+    public void setApprovedAt(Instant approvedAt) { this.approvedAt = approvedAt; }
 }
 
 
@@ -0,0 +1,26 @@
+package com.iheartev.api.listing;
+
+import com.iheartev.api.user.User;
+
+// Who may see a listing, and so its attachments: soft-deleted ones nobody, PENDING and REJECTED ones
+// only their seller and admins, all others anyone (including anonymous users)
+public final class ListingAccess {
+
+    private ListingAccess() {
+    }
+
+    public static boolean canView(Listing listing, User user) {
+        if (listing.getDeletedAt() != null) {
+            return false;
+        }
+        if (!"PENDING".equals(listing.getStatus()) && !"REJECTED".equals(listing.getStatus())) {
+            return true;
+        }
+        if (listing.getSeller() == null || user == null) {
+            return false;
+        }
+        boolean isSeller = listing.getSeller().getId() != null && listing.getSeller().getId().equals(user.getId());
+        boolean isAdmin = user.getRole() != null && user.getRole().name().equals("ADMIN");
+        return isSeller || isAdmin;
+    }
+}
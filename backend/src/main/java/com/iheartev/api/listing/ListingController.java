@@ -7,6 +7,8 @@ import com.iheartev.api.transaction.OrderRepository;
 import com.iheartev.api.user.User;
 import com.iheartev.api.social.FavoriteRepository;
 import com.iheartev.api.attachment.AttachmentRepository;
+import com.iheartev.api.metrics.QueryBudget;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -18,13 +20,15 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @RestController
+@QueryBudget(4)
 @RequestMapping("/api/listings")
 public class ListingController {
     private final ListingRepository repository;
@@ -32,18 +36,21 @@ public class ListingController {
     private final OrderRepository orderRepository;
     private final FavoriteRepository favoriteRepository;
     private final AttachmentRepository attachmentRepository;
+    private final ListingImportService importService;
 
     public ListingController(ListingRepository repository, PaymentInfoRepository paymentInfoRepository,
                             OrderRepository orderRepository, FavoriteRepository favoriteRepository,
-                            AttachmentRepository attachmentRepository) {
+                            AttachmentRepository attachmentRepository, ListingImportService importService) {
         this.repository = repository;
         this.paymentInfoRepository = paymentInfoRepository;
         this.orderRepository = orderRepository;
         this.favoriteRepository = favoriteRepository;
         this.attachmentRepository = attachmentRepository;
+        this.importService = importService;
     }
 
     @GetMapping
+    @Transactional(readOnly = true)
     public Page<Listing> search(
             @RequestParam Optional<String> type,
             @RequestParam Optional<String> brand,
@@ -58,12 +65,21 @@ public class ListingController {
             @AuthenticationPrincipal User user
     ) {
         // Get all listing IDs with active orders
-        Set<Long> listingsWithActiveOrders = orderRepository.findAll().stream()
-                .filter(o -> !"CANCELLED".equals(o.getStatus()) && !"CLOSED".equals(o.getStatus()))
-                .map(o -> o.getListing().getId())
-                .collect(Collectors.toSet());
+        Set<Long> listingsWithActiveOrders = new HashSet<>(orderRepository.findListingIdsWithActiveOrders());
         
-        final Set<Long> excludedListings = listingsWithActiveOrders;
+        Specification<Listing> spec = searchSpec(type, brand, status, minYear, maxYear, minCapacity,
+                minPrice, maxPrice, listingsWithActiveOrders);
+
+        // Sort by createdAt descending (newest first)
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt");
+        return repository.findAll(spec, PageRequest.of(page, size, sort));
+    }
+
+    // Filters for GET /api/listings; static so it can be benchmarked without a database
+    static Specification<Listing> searchSpec(Optional<String> type, Optional<String> brand, Optional<String> status,
+                                             Optional<Integer> minYear, Optional<Integer> maxYear,
+                                             Optional<Integer> minCapacity, Optional<Double> minPrice,
+                                             Optional<Double> maxPrice, Set<Long> excludedListings) {
         Specification<Listing> spec = null;
         
         // Default to showing only APPROVED/ACTIVE listings unless status is explicitly provided
@@ -122,13 +138,11 @@ public class ListingController {
                 : spec.and((r, q, cb) -> 
                     cb.not(r.get("id").in(excludedListings)));
         }
-        
-        // Sort by createdAt descending (newest first)
-        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt");
-        return repository.findAll(spec, PageRequest.of(page, size, sort));
+        return spec;
     }
 
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<Listing> get(@PathVariable Long id, @AuthenticationPrincipal User user) {
         Optional<Listing> listingOpt = repository.findById(id);
         if (listingOpt.isEmpty()) {
@@ -155,19 +169,7 @@ public class ListingController {
             }
         }
         // If listing is PENDING or REJECTED, only allow seller and admin to view it
-        if ("PENDING".equals(listing.getStatus()) || "REJECTED".equals(listing.getStatus())) {
-            if (listing.getSeller() == null) {
-                return ResponseEntity.notFound().build();
-            }
-            // Allow seller or admin to view - seller should always be able to view their own listings
-            if (user != null) {
-                boolean isSeller = listing.getSeller().getId() != null && 
-                                  listing.getSeller().getId().equals(user.getId());
-                boolean isAdmin = user.getRole() != null && user.getRole().name().equals("ADMIN");
-                if (isSeller || isAdmin) {
-                    return ResponseEntity.ok(listing);
-                }
-            }
+        if (!ListingAccess.canView(listing, user)) {
             // Not seller or admin - return 404
             // Log for debugging (only in dev, could use proper logger)
             System.out.println("Access denied to listing " + id + 
@@ -185,13 +187,9 @@ public class ListingController {
         // Validate payment info if provided
         if (listing.getPaymentInfo() != null) {
             PaymentInfo paymentInfo = listing.getPaymentInfo();
-            if ("VIETQR".equals(paymentInfo.getPaymentMethod())) {
-                if (paymentInfo.getBankCode() == null || paymentInfo.getBankName() == null ||
-                    paymentInfo.getAccountNumber() == null || paymentInfo.getAmount() == null ||
-                    paymentInfo.getTransactionContent() == null) {
-                    return ResponseEntity.badRequest().body(java.util.Map.of("error", 
-                        "All VietQR payment fields are required: bankCode, bankName, accountNumber, amount, transactionContent"));
-                }
+            String paymentError = ListingValidator.validatePaymentInfo(paymentInfo);
+            if (paymentError != null) {
+                return ResponseEntity.badRequest().body(java.util.Map.of("error", paymentError));
             }
             // Save payment info separately first
             paymentInfo.setId(null);
@@ -209,6 +207,17 @@ public class ListingController {
         return ResponseEntity.ok(saved);
     }
 
+    // Bulk import for dealers: text/csv (header row with Listing/PaymentInfo field names, flattened)
+    // or application/x-ndjson (one POST /api/listings body per line). Returns a per-row report.
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    // Grows with the row count up to app.import.max-rows: per chunk two batched inserts, plus a
+    // sequence fetch every 50 ids
+    @QueryBudget(1000)
+    public ResponseEntity<?> importListings(@AuthenticationPrincipal User seller, HttpServletRequest request) throws IOException {
+        boolean csv = request.getContentType() != null && request.getContentType().startsWith("text/csv");
+        return ResponseEntity.ok(importService.importListings(request.getInputStream(), csv, seller));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<?> update(@PathVariable Long id, @AuthenticationPrincipal User user, @Valid @RequestBody Listing dto) {
         return repository.findById(id).map(existing -> {
@@ -235,13 +244,9 @@ public class ListingController {
             // Validate payment info if provided
             if (dto.getPaymentInfo() != null) {
                 PaymentInfo paymentInfo = dto.getPaymentInfo();
-                if ("VIETQR".equals(paymentInfo.getPaymentMethod())) {
-                    if (paymentInfo.getBankCode() == null || paymentInfo.getBankName() == null ||
-                        paymentInfo.getAccountNumber() == null || paymentInfo.getAmount() == null ||
-                        paymentInfo.getTransactionContent() == null) {
-                        return ResponseEntity.badRequest().body(java.util.Map.of("error", 
-                            "All VietQR payment fields are required: bankCode, bankName, accountNumber, amount, transactionContent"));
-                    }
+                String paymentError = ListingValidator.validatePaymentInfo(paymentInfo);
+                if (paymentError != null) {
+                    return ResponseEntity.badRequest().body(java.util.Map.of("error", paymentError));
                 }
                 
                 // Update or create payment info
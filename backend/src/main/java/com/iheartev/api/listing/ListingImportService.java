@@ -0,0 +1,237 @@
+package com.iheartev.api.listing;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iheartev.api.payment.PaymentInfo;
+import com.iheartev.api.user.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Bulk listing import for dealers. The body is read line by line (CSV with a header row, or NDJSON
+// in the same shape as POST /api/listings), validated with the same rules as a single create, and
+// inserted in chunks: one transaction per chunk, JDBC-batched thanks to the pooled sequence ids.
+@Service
+public class ListingImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ListingImportService.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.import.max-rows:20000}")
+    private int maxRows;
+
+    public ListingImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public Map<String, Object> importListings(InputStream body, boolean csv, User seller) throws IOException {
+        List<Map<String, Object>> report = new ArrayList<>();
+        List<Row> chunk = new ArrayList<>(batchSize);
+        int created = 0;
+        int rowNumber = 0;
+        boolean truncated = false;
+        long started = System.nanoTime();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String[] header = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                if (csv && header == null) {
+                    header = parseCsvLine(line).toArray(new String[0]);
+                    continue;
+                }
+                rowNumber++;
+                if (rowNumber > maxRows) {
+                    truncated = true;
+                    break;
+                }
+                Row row = new Row(rowNumber);
+                try {
+                    row.listing = csv ? fromCsv(header, parseCsvLine(line)) : objectMapper.readValue(line, Listing.class);
+                    row.error = ListingValidator.validatePaymentInfo(row.listing.getPaymentInfo());
+                } catch (Exception e) {
+                    row.error = "Cannot parse row: " + e.getMessage();
+                }
+                if (row.error != null) {
+                    report.add(result(row.number, "INVALID", null, row.error));
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() >= batchSize) {
+                    created += flushChunk(chunk, seller, report);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            created += flushChunk(chunk, seller, report);
+        }
+
+        report.sort((a, b) -> Integer.compare((Integer) a.get("row"), (Integer) b.get("row")));
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        logger.info("Imported {} of {} listing rows for seller {} in {} ms", created, Math.min(rowNumber, maxRows), seller.getId(), elapsedMs);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("totalRows", Math.min(rowNumber, maxRows));
+        response.put("created", created);
+        response.put("failed", report.stream().filter(r -> !"CREATED".equals(r.get("status"))).count());
+        response.put("truncated", truncated);
+        response.put("elapsedMs", elapsedMs);
+        response.put("results", report);
+        return response;
+    }
+
+    // Inserts one chunk in its own transaction. If the database rejects it, the whole chunk is
+    // reported as FAILED and the import carries on with the next chunk.
+    private int flushChunk(List<Row> chunk, User seller, List<Map<String, Object>> report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                User sellerRef = entityManager.getReference(User.class, seller.getId());
+                Instant now = Instant.now();
+                // Payment infos first, then listings, so each table goes out as one batch
+                for (Row row : chunk) {
+                    PaymentInfo paymentInfo = row.listing.getPaymentInfo();
+                    if (paymentInfo != null) {
+                        paymentInfo.setId(null);
+                        entityManager.persist(paymentInfo);
+                    }
+                }
+                for (Row row : chunk) {
+                    Listing listing = row.listing;
+                    listing.setId(null);
+                    listing.setSeller(sellerRef);
+                    listing.setStatus("PENDING");
+                    listing.setCreatedAt(now);
+                    listing.setEditedAfterRejection(false);
+                    listing.setDeletedAt(null);
+                    listing.setApprovedAt(null);
+                    entityManager.persist(listing);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            for (Row row : chunk) {
+                report.add(result(row.number, "CREATED", row.listing.getId(), null));
+            }
+            return chunk.size();
+        } catch (Exception e) {
+            logger.warn("Listing import chunk of {} rows failed: {}", chunk.size(), e.getMessage());
+            for (Row row : chunk) {
+                report.add(result(row.number, "FAILED", null, "Database error: " + e.getMessage()));
+            }
+            return 0;
+        }
+    }
+
+    private static Listing fromCsv(String[] header, List<String> values) {
+        if (header == null) throw new IllegalArgumentException("missing header row");
+        Map<String, String> v = new HashMap<>();
+        for (int i = 0; i < header.length && i < values.size(); i++) {
+            String value = values.get(i).trim();
+            v.put(header[i].trim(), value.isEmpty() ? null : value);
+        }
+        Listing l = new Listing();
+        l.setType(v.get("type"));
+        l.setBrand(v.get("brand"));
+        l.setModel(v.get("model"));
+        l.setYear(toInt(v.get("year")));
+        l.setMileageKm(toInt(v.get("mileageKm")));
+        l.setBatteryCapacityKWh(toInt(v.get("batteryCapacityKWh")));
+        l.setConditionLabel(v.get("conditionLabel"));
+        l.setDescription(v.get("description"));
+        l.setPrice(toDouble(v.get("price")));
+        if (v.get("paymentMethod") != null) {
+            PaymentInfo p = new PaymentInfo();
+            p.setPaymentMethod(v.get("paymentMethod"));
+            p.setBankCode(v.get("bankCode"));
+            p.setBankName(v.get("bankName"));
+            p.setAccountNumber(v.get("accountNumber"));
+            p.setAmount(toDouble(v.get("amount")));
+            p.setTransactionContent(v.get("transactionContent"));
+            l.setPaymentInfo(p);
+        }
+        return l;
+    }
+
+    // Minimal RFC 4180 line parser: commas, double-quoted fields and "" escapes (no embedded newlines)
+    static List<String> parseCsvLine(String line) {
+        List<String> out = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        out.add(field.toString());
+        return out;
+    }
+
+    private static Integer toInt(String s) {
+        return s == null ? null : (int) Math.round(Double.parseDouble(s));
+    }
+
+    private static Double toDouble(String s) {
+        return s == null ? null : Double.valueOf(s);
+    }
+
+    private static Map<String, Object> result(int row, String status, Long id, String error) {
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("row", row);
+        r.put("status", status);
+        if (id != null) r.put("id", id);
+        if (error != null) r.put("error", error);
+        return r;
+    }
+
+    private static final class Row {
+        final int number;
+        Listing listing;
+        String error;
+
+        Row(int number) { this.number = number; }
+    }
+}
@@ -1,8 +1,86 @@
 package com.iheartev.api.listing;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ListingRepository extends JpaRepository<Listing, Long>, JpaSpecificationExecutor<Listing> {}
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
+public interface ListingRepository extends JpaRepository<Listing, Long>, JpaSpecificationExecutor<Listing> {
+    // Listing serializes its seller and payment info; the entity graphs below fetch both in the same
+    // statement instead of one select each per listing (GET /api/listings etc.)
+    @Override
+    @EntityGraph(attributePaths = {"seller", "paymentInfo"})
+    Page<Listing> findAll(Specification<Listing> spec, Pageable pageable);
 
+    @EntityGraph(attributePaths = {"seller", "paymentInfo"})
+    List<Listing> findBySellerIdOrderById(Long sellerId);
+
+    @EntityGraph(attributePaths = {"seller", "paymentInfo"})
+    List<Listing> findBySellerIdAndStatusOrderById(Long sellerId, String status);
+
+    long countBySellerId(Long sellerId);
+
+    long countBySellerIdAndStatus(Long sellerId, String status);
+
+    // [status, count] for the admin summary; soft-deleted listings only count once SOLD
+    @Query("SELECT l.status, COUNT(l) FROM Listing l " +
+           "WHERE l.status IN ('SOLD', 'APPROVED', 'PENDING', 'REJECTED') AND (l.status = 'SOLD' OR l.deletedAt IS NULL) " +
+           "GROUP BY l.status")
+    List<Object[]> countForSummary();
+
+    // Moderation queue, oldest first. Keyset on (createdAt, id) so deep pages cost the same as the first one.
+    @EntityGraph(attributePaths = {"seller", "paymentInfo"})
+    @Query("SELECT l FROM Listing l WHERE l.status = 'PENDING' AND l.deletedAt IS NULL " +
+           "ORDER BY l.createdAt ASC, l.id ASC")
+    List<Listing> findPendingQueue(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"seller", "paymentInfo"})
+    @Query("SELECT l FROM Listing l WHERE l.status = 'PENDING' AND l.deletedAt IS NULL " +
+           "AND (l.createdAt > :afterCreatedAt OR (l.createdAt = :afterCreatedAt AND l.id > :afterId)) " +
+           "ORDER BY l.createdAt ASC, l.id ASC")
+    List<Listing> findPendingQueueAfter(@Param("afterCreatedAt") Instant afterCreatedAt,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    // Returns [id, status, deletedAt, editedAfterRejection] rows without loading seller/payment joins
+    @Query("SELECT l.id, l.status, l.deletedAt, l.editedAfterRejection FROM Listing l WHERE l.id IN :ids")
+    List<Object[]> findModerationStates(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Listing l SET l.status = 'APPROVED', l.approvedAt = :now " +
+           "WHERE l.id IN :ids AND l.status = 'PENDING' AND l.deletedAt IS NULL")
+    int approvePending(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    // First rejection: listing may still be edited once and resubmitted
+    @Modifying
+    @Query("UPDATE Listing l SET l.status = 'REJECTED' " +
+           "WHERE l.id IN :ids AND l.status = 'PENDING' AND l.deletedAt IS NULL " +
+           "AND (l.editedAfterRejection IS NULL OR l.editedAfterRejection = false)")
+    int rejectPending(@Param("ids") Collection<Long> ids);
+
+    // Second rejection after an edit: soft delete
+    @Modifying
+    @Query("UPDATE Listing l SET l.status = 'INACTIVE', l.deletedAt = :now " +
+           "WHERE l.id IN :ids AND l.status = 'PENDING' AND l.deletedAt IS NULL " +
+           "AND l.editedAfterRejection = true")
+    int softDeletePending(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    // Report rollup sources: [timestamp, brand, type] for events inside [from, to)
+    @Query("SELECT l.createdAt, l.brand, l.type FROM Listing l WHERE l.createdAt >= :from AND l.createdAt < :to")
+    List<Object[]> findCreatedBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT l.approvedAt, l.brand, l.type FROM Listing l WHERE l.approvedAt >= :from AND l.approvedAt < :to")
+    List<Object[]> findApprovedBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT MIN(l.createdAt) FROM Listing l")
+    Instant findEarliestCreatedAt();
+}
@@ -0,0 +1,21 @@
+package com.iheartev.api.listing;
+
+import com.iheartev.api.payment.PaymentInfo;
+
+// Validation shared by single create/update and bulk import
+public final class ListingValidator {
+    private ListingValidator() {}
+
+    // Returns an error message, or null if the payment info is acceptable
+    public static String validatePaymentInfo(PaymentInfo paymentInfo) {
+        if (paymentInfo == null) return null;
+        if ("VIETQR".equals(paymentInfo.getPaymentMethod())) {
+            if (paymentInfo.getBankCode() == null || paymentInfo.getBankName() == null ||
+                paymentInfo.getAccountNumber() == null || paymentInfo.getAmount() == null ||
+                paymentInfo.getTransactionContent() == null) {
+                return "All VietQR payment fields are required: bankCode, bankName, accountNumber, amount, transactionContent";
+            }
+        }
+        return null;
+    }
+}
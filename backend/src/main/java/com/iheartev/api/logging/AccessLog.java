@@ -0,0 +1,135 @@
+package com.iheartev.api.logging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// One structured record per request on the "access" logger. Request threads only run the sampling
+// check and a lock-free offer into a ring buffer; a single background thread formats and writes.
+// Errors (status >= 400) and slow requests are always kept; other requests are capped per route at
+// samplePerSecond, and the next kept record of the route carries how many were skipped (sampledOut).
+// When the buffer is full records are dropped and counted rather than slowing requests down.
+@Component
+public class AccessLog {
+    private static final Logger accessLogger = LoggerFactory.getLogger("access");
+
+    record Entry(Instant time, String method, String route, String path, int status, long latencyNanos,
+                 Long userId, long queries, long jdbcNanos, String traceId) {
+    }
+
+    private record Pending(Entry entry, long sampledOut) {
+    }
+
+    private static final class RouteWindow {
+        final AtomicLong second = new AtomicLong();
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicLong sampledOut = new AtomicLong();
+    }
+
+    private final boolean enabled;
+    private final int samplePerSecond;
+    private final long slowNanos;
+    private final MpscRingBuffer<Pending> buffer;
+    private final Map<String, RouteWindow> windows = new ConcurrentHashMap<>();
+    private final Counter dropped;
+    private final Counter sampled;
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public AccessLog(@Value("${app.access-log.enabled:true}") boolean enabled,
+                     @Value("${app.access-log.buffer-size:8192}") int bufferSize,
+                     @Value("${app.access-log.sample-per-second:20}") int samplePerSecond,
+                     @Value("${app.access-log.slow-threshold:500ms}") Duration slowThreshold,
+                     MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.samplePerSecond = samplePerSecond;
+        this.slowNanos = slowThreshold.toNanos();
+        this.buffer = new MpscRingBuffer<>(bufferSize);
+        this.dropped = Counter.builder("access.log.dropped")
+                .description("Access log records dropped because the buffer was full")
+                .register(meterRegistry);
+        this.sampled = Counter.builder("access.log.sampled.out")
+                .description("Access log records skipped by per-route sampling")
+                .register(meterRegistry);
+    }
+
+    public boolean enabled() {
+        return enabled && accessLogger.isInfoEnabled();
+    }
+
+    void submit(Entry entry) {
+        long sampledOut = 0;
+        if (entry.status() < 400 && entry.latencyNanos() < slowNanos) {
+            RouteWindow window = windows.computeIfAbsent(entry.method() + " " + entry.route(), k -> new RouteWindow());
+            long now = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+            long current = window.second.get();
+            if (current != now && window.second.compareAndSet(current, now)) window.count.set(0);
+            if (window.count.incrementAndGet() > samplePerSecond) {
+                window.sampledOut.incrementAndGet();
+                sampled.increment();
+                return;
+            }
+            sampledOut = window.sampledOut.getAndSet(0);
+        }
+        if (!buffer.offer(new Pending(entry, sampledOut))) dropped.increment();
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        writer = new Thread(() -> {
+            while (running) {
+                if (buffer.drain(AccessLog::write) == 0) LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            }
+            buffer.drain(AccessLog::write);
+        }, "access-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) writer.join(1000);
+    }
+
+    // Message for plain-text consoles, key-value pairs for structured (JSON) logging
+    private static void write(Pending pending) {
+        Entry e = pending.entry();
+        double latencyMs = e.latencyNanos() / 1e6;
+        var event = accessLogger.atInfo()
+                .setMessage("{} {} {} {}ms user={} queries={}")
+                .addArgument(e.method())
+                .addArgument(e.path())
+                .addArgument(e.status())
+                .addArgument(Math.round(latencyMs * 10) / 10.0)
+                .addArgument(e.userId() == null ? "-" : e.userId())
+                .addArgument(e.queries())
+                .addKeyValue("time", e.time())
+                .addKeyValue("method", e.method())
+                .addKeyValue("route", e.route())
+                .addKeyValue("path", e.path())
+                .addKeyValue("status", e.status())
+                .addKeyValue("latencyMs", latencyMs)
+                .addKeyValue("queries", e.queries())
+                .addKeyValue("jdbcMs", e.jdbcNanos() / 1e6);
+        if (e.userId() != null) event = event.addKeyValue("userId", e.userId());
+        if (e.traceId() != null) event = event.addKeyValue("traceId", e.traceId());
+        if (pending.sampledOut() > 0) event = event.addKeyValue("sampledOut", pending.sampledOut());
+        event.log();
+    }
+}
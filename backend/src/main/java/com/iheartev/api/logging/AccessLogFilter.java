@@ -0,0 +1,97 @@
+package com.iheartev.api.logging;
+
+import com.iheartev.api.metrics.QueryStats;
+import com.iheartev.api.metrics.RequestMetricsInterceptor;
+import com.iheartev.api.user.User;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Instant;
+
+// Feeds AccessLog. Runs in the security filter chain ahead of JwtFilter so the latency covers token
+// checks and the authenticated user is still in the security context when the chain returns.
+// queries/jdbcMs are the handler's statements, as in http.server.requests.jdbc.*.
+@Component
+public class AccessLogFilter extends OncePerRequestFilter {
+    private final AccessLog accessLog;
+
+    public AccessLogFilter(AccessLog accessLog) {
+        this.accessLog = accessLog;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !accessLog.enabled() || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Instant time = Instant.now();
+        long started = System.nanoTime();
+        QueryStats.current().reset();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            Long userId = userId(SecurityContextHolder.getContext().getAuthentication());
+            long queries = handlerStat(request, RequestMetricsInterceptor.STATEMENTS_ATTRIBUTE, QueryStats.current().statements());
+            long jdbcNanos = handlerStat(request, RequestMetricsInterceptor.JDBC_NANOS_ATTRIBUTE, QueryStats.current().jdbcNanos());
+            String traceId = MDC.get("traceId");
+            if (!failed && request.isAsyncStarted()) {
+                // Streaming responses (CSV exports) finish later on another thread
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        accessLog.submit(entry(request, response.getStatus(), time, started, userId, queries, jdbcNanos, traceId));
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                int status = failed ? HttpServletResponse.SC_INTERNAL_SERVER_ERROR : response.getStatus();
+                accessLog.submit(entry(request, status, time, started, userId, queries, jdbcNanos, traceId));
+            }
+        }
+    }
+
+    // Left on the request by RequestMetricsInterceptor, which resets QueryStats before the chain returns here;
+    // the thread's own count when no handler completed (unmatched routes, requests rejected by a filter)
+    private static long handlerStat(HttpServletRequest request, String attribute, long fallback) {
+        return request.getAttribute(attribute) instanceof Long value ? value : fallback;
+    }
+
+    private static AccessLog.Entry entry(HttpServletRequest request, int status, Instant time, long started,
+                                         Long userId, long queries, long jdbcNanos, String traceId) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern instanceof String s ? s : "UNMATCHED";
+        return new AccessLog.Entry(time, request.getMethod(), route, request.getRequestURI(), status,
+                System.nanoTime() - started, userId, queries, jdbcNanos, traceId);
+    }
+
+    private static Long userId(Authentication authentication) {
+        return authentication != null && authentication.getPrincipal() instanceof User user ? user.getId() : null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.iheartev.api.logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+// Bounded multi-producer / single-consumer queue over a fixed array. Producers claim a slot with one
+// CAS and never block or take a lock; when the buffer is full offer() returns false and the caller
+// drops the item. Only one thread may call drain().
+final class MpscRingBuffer<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    // Next slot to claim (producers) and next slot to read (consumer only)
+    private final AtomicLong head = new AtomicLong();
+    private volatile long tail;
+
+    MpscRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1) << 1);
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    boolean offer(T item) {
+        while (true) {
+            long h = head.get();
+            if (h - tail >= slots.length()) return false;
+            if (head.compareAndSet(h, h + 1)) {
+                slots.lazySet((int) h & mask, item);
+                return true;
+            }
+        }
+    }
+
+    // Hands every published item to sink in claim order; stops at a slot that is claimed but not yet
+    // written, which the next call picks up
+    int drain(Consumer<T> sink) {
+        long t = tail;
+        int drained = 0;
+        while (true) {
+            int i = (int) t & mask;
+            T item = slots.get(i);
+            if (item == null) break;
+            slots.lazySet(i, null);
+            tail = ++t;
+            sink.accept(item);
+            drained++;
+        }
+        return drained;
+    }
+}
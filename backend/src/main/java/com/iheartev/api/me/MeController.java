@@ -2,6 +2,7 @@ package com.iheartev.api.me;
 
 import com.iheartev.api.listing.Listing;
 import com.iheartev.api.listing.ListingRepository;
+import com.iheartev.api.metrics.QueryBudget;
 import com.iheartev.api.social.Favorite;
 import com.iheartev.api.social.FavoriteRepository;
 import com.iheartev.api.social.Review;
@@ -11,14 +12,17 @@ import com.iheartev.api.transaction.OrderRepository;
 import com.iheartev.api.user.User;
 import com.iheartev.api.user.UserRepository;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
+@QueryBudget(3)
 @RequestMapping("/api/me")
 public class MeController {
     private final ListingRepository listings;
@@ -37,16 +41,17 @@ public class MeController {
     }
 
     @GetMapping("/profile")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getMyProfile(@org.springframework.security.core.annotation.AuthenticationPrincipal User user) {
         // Get reviews I gave
-        List<Review> reviewsIGave = reviewRepository.findAll().stream()
-                .filter(r -> r.getReviewer().getId().equals(user.getId()))
-                .collect(Collectors.toList());
+        List<Review> reviewsIGave = reviewRepository.findByReviewerIdWithUsers(user.getId());
         
         // Get reviews I received
-        List<Review> reviewsIReceived = reviewRepository.findAll().stream()
-                .filter(r -> r.getReviewee().getId().equals(user.getId()))
-                .collect(Collectors.toList());
+        List<Review> reviewsIReceived = reviewRepository.findByRevieweeIdWithUsers(user.getId());
+
+        // Orders of both lists in one query
+        Map<Long, Order> ordersById = orders.mapByIdWithRelations(Stream.concat(reviewsIGave.stream(), reviewsIReceived.stream())
+                .map(Review::getOrderId).toList());
 
         double avgRating = reviewsIReceived.stream()
                 .mapToInt(Review::getRating)
@@ -88,7 +93,7 @@ public class MeController {
                     
                     // Include order information if orderId exists
                     if (r.getOrderId() != null) {
-                        Order order = orders.findById(r.getOrderId()).orElse(null);
+                        Order order = ordersById.get(r.getOrderId());
                         if (order != null) {
                             Map<String, Object> orderInfo = new HashMap<>();
                             orderInfo.put("id", order.getId());
@@ -129,7 +134,7 @@ public class MeController {
                     
                     // Include order information if orderId exists
                     if (r.getOrderId() != null) {
-                        Order order = orders.findById(r.getOrderId()).orElse(null);
+                        Order order = ordersById.get(r.getOrderId());
                         if (order != null) {
                             Map<String, Object> orderInfo = new HashMap<>();
                             orderInfo.put("id", order.getId());
@@ -182,29 +187,23 @@ public class MeController {
     }
 
     @GetMapping("/listings")
+    @Transactional(readOnly = true)
     public List<Listing> myListings(@org.springframework.security.core.annotation.AuthenticationPrincipal User user) {
-        return listings.findAll().stream()
-                .filter(l -> l.getSeller() != null && l.getSeller().getId().equals(user.getId()))
-                // Include soft-deleted listings so user can see them in their list
-                // but they won't be accessible when clicked
-                .collect(Collectors.toList());
+        // Include soft-deleted listings so user can see them in their list
+        // but they won't be accessible when clicked
+        return listings.findBySellerIdOrderById(user.getId());
     }
 
     @GetMapping("/orders")
+    @Transactional(readOnly = true)
     public List<Order> myOrders(@org.springframework.security.core.annotation.AuthenticationPrincipal User user) {
-        return orders.findAll().stream()
-                .filter(o -> (o.getBuyer() != null && o.getBuyer().getId().equals(user.getId())) ||
-                           (o.getListing() != null && o.getListing().getSeller() != null && 
-                            o.getListing().getSeller().getId().equals(user.getId())))
-                .collect(Collectors.toList());
+        return orders.findAllByUserIdWithRelations(user.getId());
     }
 
     @GetMapping("/favorites")
+    @Transactional(readOnly = true)
     public List<Favorite> myFavorites(@org.springframework.security.core.annotation.AuthenticationPrincipal User user) {
-        return favorites.findAll().stream()
-                .filter(f -> f.getUser() != null && f.getUser().getId().equals(user.getId()))
-                .filter(f -> f.getListing() != null && !"INACTIVE".equals(f.getListing().getStatus()))
-                .collect(Collectors.toList());
+        return favorites.findVisibleByUserId(user.getId());
     }
 }
 
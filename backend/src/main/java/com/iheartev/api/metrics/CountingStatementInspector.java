@@ -0,0 +1,14 @@
+package com.iheartev.api.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Registered through hibernate.session_factory.statement_inspector; sees every SQL string Hibernate
+// prepares (queries, lazy loads, inserts/updates) and leaves it unchanged
+public class CountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryStats.current().statementPrepared(sql);
+        return sql;
+    }
+}
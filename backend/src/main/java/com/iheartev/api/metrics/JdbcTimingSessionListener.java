@@ -0,0 +1,28 @@
+package com.iheartev.api.metrics;
+
+import org.hibernate.BaseSessionEventListener;
+
+// Registered through hibernate.session.events.auto (one stateless instance per session); adds the
+// time of every JDBC execute and batch execute to the thread's QueryStats
+public class JdbcTimingSessionListener extends BaseSessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        QueryStats.current().executeStarted();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryStats.current().executeFinished();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        QueryStats.current().executeStarted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryStats.current().executeFinished();
+    }
+}
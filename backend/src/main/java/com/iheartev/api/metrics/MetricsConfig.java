@@ -0,0 +1,27 @@
+package com.iheartev.api.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Metrics beyond what Actuator binds on its own (http.server.requests, hikaricp.*, hibernate.*, jvm.*):
+// per-request JDBC work, fed by the Hibernate hooks configured in application.properties, checked
+// against each handler's @QueryBudget
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+    private final MeterRegistry meterRegistry;
+    private final RequestMetricsInterceptor.BudgetMode budgetMode;
+
+    public MetricsConfig(MeterRegistry meterRegistry,
+                         @Value("${app.metrics.query-budget:log}") RequestMetricsInterceptor.BudgetMode budgetMode) {
+        this.meterRegistry = meterRegistry;
+        this.budgetMode = budgetMode;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestMetricsInterceptor(meterRegistry, budgetMode)).addPathPatterns("/api/**");
+    }
+}
@@ -0,0 +1,17 @@
+package com.iheartev.api.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Most JDBC statements a request to this handler may run (as counted by QueryStats). On a controller
+// class it is the default for all its handlers, on a method it overrides that. What happens when a
+// request goes over it is app.metrics.query-budget (log, fail or off).
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface QueryBudget {
+    int value();
+}
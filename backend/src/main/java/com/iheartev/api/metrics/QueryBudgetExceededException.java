@@ -0,0 +1,9 @@
+package com.iheartev.api.metrics;
+
+// Thrown from the statement that goes over the request's @QueryBudget when app.metrics.query-budget=fail
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(int budget, String sql) {
+        super("Query budget of " + budget + " statements exceeded by: " + sql);
+    }
+}
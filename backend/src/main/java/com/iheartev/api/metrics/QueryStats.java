@@ -0,0 +1,73 @@
+package com.iheartev.api.metrics;
+
+// JDBC work done by Hibernate on the current thread since the last reset(): statements prepared
+// (CountingStatementInspector) and time spent executing them (JdbcTimingSessionListener), plus the
+// @QueryBudget of the request in progress. One mutable instance per thread, reset at the start of
+// every request, so counting never allocates.
+public final class QueryStats {
+    public static final int NO_BUDGET = -1;
+    private static final ThreadLocal<QueryStats> CURRENT = ThreadLocal.withInitial(QueryStats::new);
+
+    private long statements;
+    private long jdbcNanos;
+    private long executeStartedAt;
+    private int budget = NO_BUDGET;
+    private boolean failOverBudget;
+
+    private QueryStats() {
+    }
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    public void reset() {
+        statements = 0;
+        jdbcNanos = 0;
+        executeStartedAt = 0;
+        budget = NO_BUDGET;
+        failOverBudget = false;
+    }
+
+    // Budget for the work that follows; with fail set, the statement that goes over it throws
+    public void limit(int budget, boolean fail) {
+        this.budget = budget;
+        this.failOverBudget = fail;
+    }
+
+    public int budget() {
+        return budget;
+    }
+
+    public boolean overBudget() {
+        return budget != NO_BUDGET && statements > budget;
+    }
+
+    public long statements() {
+        return statements;
+    }
+
+    public long jdbcNanos() {
+        return jdbcNanos;
+    }
+
+    void statementPrepared(String sql) {
+        statements++;
+        if (failOverBudget && overBudget()) {
+            // Only the first offending statement throws, so error handling can still use the session
+            failOverBudget = false;
+            throw new QueryBudgetExceededException(budget, sql);
+        }
+    }
+
+    void executeStarted() {
+        executeStartedAt = System.nanoTime();
+    }
+
+    void executeFinished() {
+        if (executeStartedAt != 0) {
+            jdbcNanos += System.nanoTime() - executeStartedAt;
+            executeStartedAt = 0;
+        }
+    }
+}
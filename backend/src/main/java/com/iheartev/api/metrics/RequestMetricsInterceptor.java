@@ -0,0 +1,117 @@
+package com.iheartev.api.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Per-route JDBC statement count and JDBC time of each request, tagged like http.server.requests
+// (method + route template), and enforcement of the handler's @QueryBudget. Meters are looked up in
+// nested maps keyed by the strings the request already carries, so a request to a known route only
+// bumps counters.
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+    private static final Logger logger = LoggerFactory.getLogger(RequestMetricsInterceptor.class);
+
+    public enum BudgetMode { LOG, FAIL, OFF }
+
+    // The request's statement count, JDBC time and budget, left on the request because QueryStats is reset
+    // once it completes (AccessLogFilter reads them after that)
+    public static final String STATEMENTS_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".statements";
+    public static final String JDBC_NANOS_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".jdbcNanos";
+    public static final String BUDGET_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".budget";
+
+    private record Meters(DistributionSummary statements, Timer jdbcTime, Counter overBudget) {
+    }
+
+    private final MeterRegistry registry;
+    private final BudgetMode budgetMode;
+    private final Map<String, Map<String, Meters>> meters = new ConcurrentHashMap<>();
+    private final Map<Method, Integer> budgets = new ConcurrentHashMap<>();
+
+    public RequestMetricsInterceptor(MeterRegistry registry, BudgetMode budgetMode) {
+        this.registry = registry;
+        this.budgetMode = budgetMode;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryStats stats = QueryStats.current();
+        stats.reset();
+        if (budgetMode != BudgetMode.OFF && handler instanceof HandlerMethod method) {
+            stats.limit(budgets.computeIfAbsent(method.getMethod(), RequestMetricsInterceptor::budgetOf),
+                    budgetMode == BudgetMode.FAIL);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        QueryStats stats = QueryStats.current();
+        try {
+            request.setAttribute(STATEMENTS_ATTRIBUTE, stats.statements());
+            request.setAttribute(JDBC_NANOS_ATTRIBUTE, stats.jdbcNanos());
+            request.setAttribute(BUDGET_ATTRIBUTE, stats.budget());
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (!(pattern instanceof String route)) return;
+            Meters m = meters.computeIfAbsent(route, r -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(request.getMethod(), method -> register(method, route));
+            m.statements().record(stats.statements());
+            m.jdbcTime().record(stats.jdbcNanos(), TimeUnit.NANOSECONDS);
+            if (stats.overBudget()) {
+                m.overBudget().increment();
+                logger.warn("{} {} ran {} statements, over its query budget of {}",
+                        request.getMethod(), route, stats.statements(), stats.budget());
+            }
+        } finally {
+            // Filters of the thread's next request (the JWT user lookup) run before preHandle, and must
+            // neither count against this budget nor fail on it
+            stats.reset();
+        }
+    }
+
+    static int budgetOf(Method method) {
+        QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(method, QueryBudget.class);
+        if (budget == null) budget = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), QueryBudget.class);
+        return budget != null ? budget.value() : QueryStats.NO_BUDGET;
+    }
+
+    private Meters register(String method, String route) {
+        DistributionSummary statements = DistributionSummary.builder("http.server.requests.jdbc.statements")
+                .description("JDBC statements prepared by Hibernate per request")
+                .baseUnit("statements")
+                .tag("method", method)
+                .tag("uri", route)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1000.0)
+                .register(registry);
+        Timer jdbcTime = Timer.builder("http.server.requests.jdbc.time")
+                .description("Time spent executing JDBC statements per request")
+                .tag("method", method)
+                .tag("uri", route)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+        Counter overBudget = Counter.builder("http.server.requests.query.budget.exceeded")
+                .description("Requests that ran more statements than their @QueryBudget")
+                .tag("method", method)
+                .tag("uri", route)
+                .register(registry);
+        return new Meters(statements, jdbcTime, overBudget);
+    }
+}
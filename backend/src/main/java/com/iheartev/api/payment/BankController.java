@@ -1,5 +1,6 @@
 package com.iheartev.api.payment;
 
+import com.iheartev.api.metrics.QueryBudget;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -7,6 +8,7 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.List;
 
 @RestController
+@QueryBudget(0)
 @RequestMapping("/api/banks")
 public class BankController {
     private final BankService bankService;
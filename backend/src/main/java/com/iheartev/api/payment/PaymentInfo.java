@@ -5,16 +5,24 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+// Written once with the listing and only changed when the seller edits payment details, so the
+// lighter nonstrict strategy is enough (an update just evicts the entry)
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "payment-info")
 @Table(name = "payment_info")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class PaymentInfo {
+    // Pooled sequence so inserts can be JDBC-batched. Starts at 100 because R__seed_data.sql seeds ids 1-9 explicitly.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_info_seq")
+    @SequenceGenerator(name = "payment_info_seq", sequenceName = "payment_info_seq", initialValue = 100, allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,176 @@
+package com.iheartev.api.report;
+
+import com.iheartev.api.metrics.QueryBudget;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// CSV exports for finance/ops. Each export is a single joined query read through a forward-only
+// cursor and written straight to the response, so heap use does not grow with the row count.
+// The zero query budget covers Hibernate only; JdbcTemplate reads are not counted by QueryStats.
+@RestController
+@QueryBudget(0)
+@RequestMapping("/api/admin/export")
+@PreAuthorize("hasRole('ADMIN')")
+public class ExportController {
+    private static final String ORDERS_SQL =
+            "SELECT o.id, o.status, o.amount, o.created_at, o.updated_at, o.closed_at, o.cancelled_at, " +
+            "o.cancelled_by, o.buyer_payment_confirmed, o.seller_payment_received, " +
+            "l.id AS listing_id, l.type AS listing_type, l.brand, l.model, l.year, " +
+            "b.id AS buyer_id, b.email AS buyer_email, b.fullName AS buyer_name, " +
+            "s.id AS seller_id, s.email AS seller_email, s.fullName AS seller_name " +
+            "FROM orders o " +
+            "JOIN listings l ON l.id = o.listing_id " +
+            "JOIN users b ON b.id = o.buyer_id " +
+            "LEFT JOIN users s ON s.id = l.seller_id";
+
+    private static final String LISTINGS_SQL =
+            "SELECT l.id, l.type, l.brand, l.model, l.year, l.mileage_km, l.battery_capacitykwh, " +
+            "l.condition_label, l.price, l.status, l.created_at, l.approved_at, l.deleted_at, " +
+            "l.edited_after_rejection, s.id AS seller_id, s.email AS seller_email, s.fullName AS seller_name, " +
+            "p.paymentMethod AS payment_method " +
+            "FROM listings l " +
+            "LEFT JOIN users s ON s.id = l.seller_id " +
+            "LEFT JOIN payment_info p ON p.id = l.payment_info_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    public ExportController(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @GetMapping(value = "/orders.csv", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Optional<Instant> from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Optional<Instant> to,
+            @RequestParam Optional<String> status) {
+        return csv("orders.csv", ORDERS_SQL, "o", from, to, status);
+    }
+
+    @GetMapping(value = "/listings.csv", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportListings(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Optional<Instant> from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Optional<Instant> to,
+            @RequestParam Optional<String> status) {
+        return csv("listings.csv", LISTINGS_SQL, "l", from, to, status);
+    }
+
+    private ResponseEntity<StreamingResponseBody> csv(String fileName, String baseSql, String alias,
+                                                      Optional<Instant> from, Optional<Instant> to,
+                                                      Optional<String> status) {
+        StringBuilder sql = new StringBuilder(baseSql).append(" WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        from.ifPresent(f -> { sql.append(" AND ").append(alias).append(".created_at >= ?"); params.add(Timestamp.from(f)); });
+        to.ifPresent(t -> { sql.append(" AND ").append(alias).append(".created_at < ?"); params.add(Timestamp.from(t)); });
+        status.ifPresent(s -> { sql.append(" AND ").append(alias).append(".status = ?"); params.add(s); });
+        sql.append(" ORDER BY ").append(alias).append(".id");
+
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql.toString(),
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                for (int i = 0; i < params.size(); i++) {
+                    ps.setObject(i + 1, params.get(i));
+                }
+                return ps;
+            }, new CsvWriter(writer));
+            writer.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    // Writes the header from the result set metadata (so an export without rows still names its columns),
+    // then one line per row
+    private static final class CsvWriter implements ResultSetExtractor<Void> {
+        private final Writer writer;
+        private static final int MSSQL_DATETIMEOFFSET = -155;
+
+        CsvWriter(Writer writer) { this.writer = writer; }
+
+        @Override
+        public Void extractData(ResultSet rs) throws SQLException {
+            try {
+                ResultSetMetaData meta = rs.getMetaData();
+                boolean[] timestamps = new boolean[meta.getColumnCount() + 1];
+                for (int i = 1; i < timestamps.length; i++) {
+                    int t = meta.getColumnType(i);
+                    timestamps[i] = t == Types.TIMESTAMP || t == Types.TIMESTAMP_WITH_TIMEZONE || t == MSSQL_DATETIMEOFFSET;
+                    if (i > 1) writer.write(',');
+                    writer.write(meta.getColumnLabel(i));
+                }
+                writer.write('\n');
+                while (rs.next()) {
+                    for (int i = 1; i < timestamps.length; i++) {
+                        if (i > 1) writer.write(',');
+                        if (timestamps[i]) {
+                            Timestamp ts = rs.getTimestamp(i);
+                            if (ts != null) writer.write(ts.toInstant().toString());
+                        } else {
+                            Object value = rs.getObject(i);
+                            if (value instanceof String text) writeEscaped(defused(text));
+                            else if (value != null) writeEscaped(value.toString());
+                        }
+                    }
+                    writer.write('\n');
+                }
+                return null;
+            } catch (IOException e) {
+                // Client went away; abort the query instead of reading the rest of the cursor
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // Text a spreadsheet would run as a formula (user-entered names, brands, ...) is prefixed with ' so
+        // it shows as typed. Numbers are not text, so negative amounts stay numbers.
+        static String defused(String s) {
+            if (s.isEmpty()) return s;
+            char first = s.charAt(0);
+            boolean formula = first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r';
+            return formula ? "'" + s : s;
+        }
+
+        private void writeEscaped(String s) throws IOException {
+            boolean quote = s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(s);
+                return;
+            }
+            writer.write('"');
+            writer.write(s.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
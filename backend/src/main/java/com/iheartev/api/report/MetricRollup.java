@@ -0,0 +1,48 @@
+package com.iheartev.api.report;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "metric_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"granularity", "bucket_start", "brand", "type"}),
+       indexes = @Index(name = "ix_metric_rollups_bucket", columnList = "granularity, bucket_start"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class MetricRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "metric_rollups_seq")
+    @SequenceGenerator(name = "metric_rollups_seq", sequenceName = "metric_rollups_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 8)
+    private String granularity; // HOUR or DAY
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+    private String brand;
+    private String type; // EV or BATTERY
+
+    @Column(name = "new_listings")
+    private long newListings;
+    @Column(name = "approved_listings")
+    private long approvedListings;
+    @Column(name = "new_orders")
+    private long newOrders;
+    @Column(name = "closed_orders")
+    private long closedOrders;
+    @Column(name = "cancelled_orders")
+    private long cancelledOrders;
+    private double gmv; // sum of amounts of orders closed in the bucket
+
+    public MetricRollup(String granularity, Instant bucketStart, String brand, String type) {
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.brand = brand;
+        this.type = type;
+    }
+}
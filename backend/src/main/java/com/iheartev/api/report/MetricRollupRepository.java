@@ -0,0 +1,41 @@
+package com.iheartev.api.report;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MetricRollupRepository extends JpaRepository<MetricRollup, Long> {
+    @Modifying
+    @Query("DELETE FROM MetricRollup r WHERE r.granularity = :granularity " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to")
+    void deleteBuckets(@Param("granularity") String granularity, @Param("from") Instant from, @Param("to") Instant to);
+
+    // Returns [brand, type, newListings, approvedListings, newOrders, closedOrders, cancelledOrders, gmv]
+    @Query("SELECT r.brand, r.type, SUM(r.newListings), SUM(r.approvedListings), SUM(r.newOrders), " +
+           "SUM(r.closedOrders), SUM(r.cancelledOrders), SUM(r.gmv) FROM MetricRollup r " +
+           "WHERE r.granularity = 'HOUR' AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "GROUP BY r.brand, r.type")
+    List<Object[]> sumHourly(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT r FROM MetricRollup r WHERE r.granularity = :granularity " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "AND (:brand IS NULL OR r.brand = :brand) AND (:type IS NULL OR r.type = :type) " +
+           "ORDER BY r.bucketStart ASC, r.brand ASC, r.type ASC")
+    List<MetricRollup> findSeries(@Param("granularity") String granularity,
+                                  @Param("from") Instant from, @Param("to") Instant to,
+                                  @Param("brand") String brand, @Param("type") String type);
+
+    // Returns [bucketStart, newListings, approvedListings, newOrders, closedOrders, cancelledOrders, gmv]
+    @Query("SELECT r.bucketStart, SUM(r.newListings), SUM(r.approvedListings), SUM(r.newOrders), " +
+           "SUM(r.closedOrders), SUM(r.cancelledOrders), SUM(r.gmv) FROM MetricRollup r " +
+           "WHERE r.granularity = :granularity AND r.bucketStart >= :from AND r.bucketStart < :to " +
+           "AND (:brand IS NULL OR r.brand = :brand) AND (:type IS NULL OR r.type = :type) " +
+           "GROUP BY r.bucketStart ORDER BY r.bucketStart ASC")
+    List<Object[]> sumSeries(@Param("granularity") String granularity,
+                             @Param("from") Instant from, @Param("to") Instant to,
+                             @Param("brand") String brand, @Param("type") String type);
+}
@@ -0,0 +1,93 @@
+package com.iheartev.api.report;
+
+import com.iheartev.api.metrics.QueryBudget;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@QueryBudget(3)
+@RequestMapping("/api/admin/reports")
+@PreAuthorize("hasRole('ADMIN')")
+public class ReportController {
+    private static final Duration MAX_HOURLY_RANGE = Duration.ofDays(31);
+    private static final Duration MAX_DAILY_RANGE = Duration.ofDays(3660);
+
+    private final MetricRollupRepository rollups;
+    private final RollupService rollupService;
+
+    public ReportController(MetricRollupRepository rollups, RollupService rollupService) {
+        this.rollups = rollups;
+        this.rollupService = rollupService;
+    }
+
+    // Served entirely from metric_rollups; data is as fresh as the last rollup run (processedUntil)
+    @GetMapping("/timeseries")
+    public ResponseEntity<?> timeseries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam Optional<String> brand,
+            @RequestParam Optional<String> type,
+            @RequestParam(defaultValue = "false") boolean breakdown) {
+        String g = granularity.toUpperCase();
+        if (!"HOUR".equals(g) && !"DAY".equals(g)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "granularity must be HOUR or DAY"));
+        }
+        if (!from.isBefore(to)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "from must be before to"));
+        }
+        Duration maxRange = "HOUR".equals(g) ? MAX_HOURLY_RANGE : MAX_DAILY_RANGE;
+        if (Duration.between(from, to).compareTo(maxRange) > 0) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Range too large for " + g + " granularity (max " + maxRange.toDays() + " days)"));
+        }
+
+        List<Map<String, Object>> points = new ArrayList<>();
+        if (breakdown) {
+            for (MetricRollup r : rollups.findSeries(g, from, to, brand.orElse(null), type.orElse(null))) {
+                Map<String, Object> p = new HashMap<>();
+                p.put("bucketStart", r.getBucketStart());
+                p.put("brand", r.getBrand());
+                p.put("type", r.getType());
+                p.put("newListings", r.getNewListings());
+                p.put("approvedListings", r.getApprovedListings());
+                p.put("newOrders", r.getNewOrders());
+                p.put("closedOrders", r.getClosedOrders());
+                p.put("cancelledOrders", r.getCancelledOrders());
+                p.put("gmv", r.getGmv());
+                points.add(p);
+            }
+        } else {
+            for (Object[] row : rollups.sumSeries(g, from, to, brand.orElse(null), type.orElse(null))) {
+                Map<String, Object> p = new HashMap<>();
+                p.put("bucketStart", row[0]);
+                p.put("newListings", row[1]);
+                p.put("approvedListings", row[2]);
+                p.put("newOrders", row[3]);
+                p.put("closedOrders", row[4]);
+                p.put("cancelledOrders", row[5]);
+                p.put("gmv", row[6]);
+                points.add(p);
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("granularity", g);
+        response.put("zone", rollupService.getZone().getId());
+        response.put("from", from);
+        response.put("to", to);
+        response.put("processedUntil", rollupService.getProcessedUntil().orElse(null));
+        response.put("points", points);
+        return ResponseEntity.ok(response);
+    }
+}
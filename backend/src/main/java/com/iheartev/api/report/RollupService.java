@@ -0,0 +1,179 @@
+package com.iheartev.api.report;
+
+import com.iheartev.api.listing.ListingRepository;
+import com.iheartev.api.transaction.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Hourly and daily rollups of listing/order activity for admin reports.
+// Each run re-reads only events newer than the watermark, less the lag window (floored to the hour),
+// rebuilds those hourly buckets from raw rows, then rebuilds the touched daily buckets from the hourly
+// ones. Hours inside the lag window are rebuilt on every run, so rows that commit late with an earlier
+// timestamp (long transactions, retries, clock skew between nodes) are still counted.
+// Each chunk commits on its own and moves the watermark, so the watermark row lock is held for one
+// chunk at a time and a failed backfill resumes where it stopped.
+@Service
+public class RollupService {
+    private static final Logger logger = LoggerFactory.getLogger(RollupService.class);
+    static final String WATERMARK = "metric_rollups";
+    private static final Duration MAX_CHUNK = Duration.ofDays(1);
+
+    private final ListingRepository listingRepository;
+    private final OrderRepository orderRepository;
+    private final MetricRollupRepository rollupRepository;
+    private final RollupWatermarkRepository watermarkRepository;
+    private final ZoneId zone;
+    private final Duration lag;
+    private final TransactionTemplate transactionTemplate;
+
+    public RollupService(ListingRepository listingRepository, OrderRepository orderRepository,
+                         MetricRollupRepository rollupRepository, RollupWatermarkRepository watermarkRepository,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.reports.zone:Asia/Ho_Chi_Minh}") String zone,
+                         @Value("${app.reports.rollup-lag:2h}") Duration lag) {
+        this.listingRepository = listingRepository;
+        this.orderRepository = orderRepository;
+        this.rollupRepository = rollupRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.zone = ZoneId.of(zone);
+        this.lag = lag;
+    }
+
+    public ZoneId getZone() { return zone; }
+
+    public Optional<Instant> getProcessedUntil() {
+        return watermarkRepository.findById(WATERMARK).map(RollupWatermark::getProcessedUntil);
+    }
+
+    @Scheduled(fixedDelayString = "${app.reports.rollup-interval-ms:300000}",
+               initialDelayString = "${app.reports.rollup-initial-delay-ms:60000}")
+    public void refresh() {
+        ensureWatermark();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant processedUntil = getProcessedUntil().orElse(null);
+        Instant from = processedUntil != null
+                ? (processedUntil.isBefore(now.minus(lag)) ? processedUntil : now.minus(lag))
+                : listingRepository.findEarliestCreatedAt();
+        if (from == null) {
+            inChunk(() -> { }, now);
+            return;
+        }
+
+        from = from.truncatedTo(ChronoUnit.HOURS);
+        int chunks = 0;
+        // Backfills are processed a day at a time so memory stays bounded
+        while (from.isBefore(now)) {
+            Instant chunkFrom = from;
+            Instant to = from.plus(MAX_CHUNK).isBefore(now) ? from.plus(MAX_CHUNK) : now;
+            Instant hoursEnd = ceilHour(to);
+            inChunk(() -> {
+                rebuildHours(chunkFrom, hoursEnd);
+                rebuildDays(chunkFrom, hoursEnd);
+            }, to);
+            from = to;
+            chunks++;
+        }
+        logger.debug("Rebuilt metric rollups in {} chunk(s) up to {}", chunks, now);
+    }
+
+    // The row every chunk locks, so it has to exist before the first one: nodes starting together would
+    // otherwise both insert it under the same key
+    private void ensureWatermark() {
+        if (watermarkRepository.existsById(WATERMARK)) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> watermarkRepository.insertIfAbsent(WATERMARK));
+        } catch (DataIntegrityViolationException e) {
+            // Inserted by another node meanwhile
+        }
+    }
+
+    // One transaction under the watermark row lock; the watermark never moves back, as the lag
+    // window re-runs chunks behind it
+    private void inChunk(Runnable rebuild, Instant processedUntil) {
+        transactionTemplate.executeWithoutResult(status -> {
+            RollupWatermark watermark = watermarkRepository.findForUpdate(WATERMARK)
+                    .orElseThrow(() -> new IllegalStateException("Rollup watermark " + WATERMARK + " is missing"));
+            rebuild.run();
+            if (watermark.getProcessedUntil() == null || watermark.getProcessedUntil().isBefore(processedUntil)) {
+                watermark.setProcessedUntil(processedUntil);
+                watermarkRepository.save(watermark);
+            }
+        });
+    }
+
+    private void rebuildHours(Instant from, Instant to) {
+        Map<BucketKey, MetricRollup> buckets = new LinkedHashMap<>();
+        Function<Object[], MetricRollup> bucketOf = row -> buckets.computeIfAbsent(
+                new BucketKey(((Instant) row[0]).truncatedTo(ChronoUnit.HOURS), (String) row[1], (String) row[2]),
+                k -> new MetricRollup("HOUR", k.start(), k.brand(), k.type()));
+
+        for (Object[] row : listingRepository.findCreatedBetween(from, to)) {
+            MetricRollup r = bucketOf.apply(row);
+            r.setNewListings(r.getNewListings() + 1);
+        }
+        for (Object[] row : listingRepository.findApprovedBetween(from, to)) {
+            MetricRollup r = bucketOf.apply(row);
+            r.setApprovedListings(r.getApprovedListings() + 1);
+        }
+        for (Object[] row : orderRepository.findCreatedBetween(from, to)) {
+            MetricRollup r = bucketOf.apply(row);
+            r.setNewOrders(r.getNewOrders() + 1);
+        }
+        for (Object[] row : orderRepository.findClosedBetween(from, to)) {
+            MetricRollup r = bucketOf.apply(row);
+            r.setClosedOrders(r.getClosedOrders() + 1);
+            r.setGmv(r.getGmv() + (row[3] != null ? (Double) row[3] : 0.0));
+        }
+        for (Object[] row : orderRepository.findCancelledBetween(from, to)) {
+            MetricRollup r = bucketOf.apply(row);
+            r.setCancelledOrders(r.getCancelledOrders() + 1);
+        }
+
+        rollupRepository.deleteBuckets("HOUR", from, to);
+        rollupRepository.saveAll(buckets.values());
+        rollupRepository.flush();
+    }
+
+    private void rebuildDays(Instant from, Instant to) {
+        Instant day = from.atZone(zone).truncatedTo(ChronoUnit.DAYS).toInstant();
+        while (day.isBefore(to)) {
+            Instant next = day.atZone(zone).plusDays(1).toInstant();
+            rollupRepository.deleteBuckets("DAY", day, next);
+            for (Object[] row : rollupRepository.sumHourly(day, next)) {
+                MetricRollup r = new MetricRollup("DAY", day, (String) row[0], (String) row[1]);
+                r.setNewListings((Long) row[2]);
+                r.setApprovedListings((Long) row[3]);
+                r.setNewOrders((Long) row[4]);
+                r.setClosedOrders((Long) row[5]);
+                r.setCancelledOrders((Long) row[6]);
+                r.setGmv((Double) row[7]);
+                rollupRepository.save(r);
+            }
+            day = next;
+        }
+        rollupRepository.flush();
+    }
+
+    private static Instant ceilHour(Instant t) {
+        Instant floor = t.truncatedTo(ChronoUnit.HOURS);
+        return floor.equals(t) ? t : floor.plus(1, ChronoUnit.HOURS);
+    }
+
+    private record BucketKey(Instant start, String brand, String type) {}
+}
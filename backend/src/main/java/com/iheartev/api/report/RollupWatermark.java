@@ -0,0 +1,24 @@
+package com.iheartev.api.report;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "rollup_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupWatermark {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "processed_until")
+    private Instant processedUntil;
+}
@@ -0,0 +1,24 @@
+package com.iheartev.api.report;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface RollupWatermarkRepository extends JpaRepository<RollupWatermark, String> {
+    // Row lock so only one node runs a given rollup at a time
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM RollupWatermark w WHERE w.name = :name")
+    Optional<RollupWatermark> findForUpdate(@Param("name") String name);
+
+    // Seeded by V8; this covers schemas without it (the perf profile) and a deleted row. Two nodes can
+    // still both insert: the loser gets a duplicate key (DataIntegrityViolationException)
+    @Modifying
+    @Query(value = "INSERT INTO rollup_watermarks (name) SELECT :name WHERE NOT EXISTS " +
+            "(SELECT 1 FROM rollup_watermarks WHERE name = :name)", nativeQuery = true)
+    int insertIfAbsent(@Param("name") String name);
+}
@@ -32,22 +32,10 @@ public class JwtFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
+        // Requests themselves are logged once, after completion, by AccessLogFilter
         String path = request.getRequestURI();
-        String method = request.getMethod();
-        
-        logger.info("=== JWT FILTER - Request: {} {} ===", method, path);
-        
-        // Endpoints that don't need authentication at all (no token processing)
-        boolean skipTokenProcessing = path.startsWith("/v3/api-docs") || 
-            path.startsWith("/swagger-ui") || 
-            path.startsWith("/swagger-resources") || 
-            path.startsWith("/webjars") ||
-            path.equals("/api/ai/overview") ||
-            path.equals("/api/auth/login") ||
-            path.equals("/api/auth/register");
-        
-        if (skipTokenProcessing) {
-            logger.info("Skipping JWT validation for endpoint: {} {}", method, path);
+
+        if (skipsTokenProcessing(path)) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -77,28 +65,37 @@ public class JwtFilter extends OncePerRequestFilter {
                                 userDetails, null, userDetails.getAuthorities());
                         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         SecurityContextHolder.getContext().setAuthentication(authToken);
-                        logger.debug("Successfully authenticated user: " + username);
+                        logger.debug("Successfully authenticated user: {}", username);
                     } else {
-                        logger.warn("Token validation failed for user: " + username);
+                        logger.warn("Token validation failed for user: {}", username);
                     }
                 } catch (org.springframework.security.core.userdetails.UsernameNotFoundException e) {
-                    logger.warn("User not found: " + username);
+                    logger.warn("User not found: {}", username);
                 } catch (Exception e) {
                     // User not found or token invalid - continue without authentication
-                    logger.warn("Failed to authenticate user: " + username + ", error: " + e.getMessage());
+                    logger.warn("Failed to authenticate user: {}, error: {}", username, e.getMessage());
                 }
             }
         } catch (io.jsonwebtoken.ExpiredJwtException e) {
-            logger.warn("Token expired: " + e.getMessage());
+            logger.warn("Token expired: {}", e.getMessage());
         } catch (io.jsonwebtoken.security.SignatureException e) {
-            logger.warn("Token signature invalid: " + e.getMessage());
+            logger.warn("Token signature invalid: {}", e.getMessage());
         } catch (Exception e) {
             // Token extraction failed (expired, malformed, etc.) - continue without authentication
-            logger.warn("Failed to extract username from token: " + e.getClass().getSimpleName() + " - " + e.getMessage());
+            logger.warn("Failed to extract username from token: {} - {}", e.getClass().getSimpleName(), e.getMessage());
         }
         
         filterChain.doFilter(request, response);
     }
-}
-
 
+    // Endpoints that don't need authentication at all (no token processing)
+    static boolean skipsTokenProcessing(String path) {
+        return path.startsWith("/v3/api-docs") ||
+            path.startsWith("/swagger-ui") ||
+            path.startsWith("/swagger-resources") ||
+            path.startsWith("/webjars") ||
+            path.equals("/api/ai/overview") ||
+            path.equals("/api/auth/login") ||
+            path.equals("/api/auth/register");
+    }
+}
@@ -1,5 +1,10 @@
 package com.iheartev.api.security;
 
+import com.iheartev.api.attachment.SignedFileFilter;
+import com.iheartev.api.logging.AccessLogFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -21,10 +26,12 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtFilter jwtFilter;
+    private final AccessLogFilter accessLogFilter;
     private final UserDetailsService userDetailsService;
 
-    public SecurityConfig(JwtFilter jwtFilter, UserDetailsService userDetailsService) {
+    public SecurityConfig(JwtFilter jwtFilter, AccessLogFilter accessLogFilter, UserDetailsService userDetailsService) {
         this.jwtFilter = jwtFilter;
+        this.accessLogFilter = accessLogFilter;
         this.userDetailsService = userDetailsService;
     }
 
@@ -33,7 +40,12 @@ public class SecurityConfig {
         http.csrf(csrf -> csrf.disable())
             .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Streaming responses (CSV exports) complete on an async dispatch; the original
+                // request was already authorized and the stateless JWT is not re-read there
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/ai/overview").permitAll()
+                // Actuator only listens on management.server.port, which is not exposed publicly
+                .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
                 .requestMatchers("/api/auth/login", "/api/auth/register").permitAll()
                 .requestMatchers("/api/auth/validate").authenticated()
                 .requestMatchers(
@@ -49,15 +61,28 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/listings/**").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/favorites/listing/*/check").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/banks/**").permitAll()
+                // Files of listings the caller may not see are a 404 there (ListingAccess)
                 .requestMatchers(HttpMethod.GET, "/api/attachments/*/download").permitAll()
+                .requestMatchers(HttpMethod.HEAD, "/api/attachments/*/download").permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/attachments/**").authenticated()
                 .anyRequest().authenticated()
             )
             .authenticationProvider(authenticationProvider())
-            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(accessLogFilter, JwtFilter.class);
         return http.build();
     }
 
+    // Signed attachment URLs are served by their own filter just ahead of the security chain (and after
+    // the observation filter, so they still show up in http.server.requests and traces)
+    @Bean
+    public FilterRegistrationBean<SignedFileFilter> signedFileFilterRegistration(SignedFileFilter signedFileFilter) {
+        FilterRegistrationBean<SignedFileFilter> registration = new FilterRegistrationBean<>(signedFileFilter);
+        registration.addUrlPatterns("/files/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
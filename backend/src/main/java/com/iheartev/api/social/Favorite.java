@@ -8,7 +8,9 @@ import lombok.*;
 @Entity
 @Table(name = "favorites", uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "listing_id"}))
 public class Favorite {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "favorites_seq")
+    @SequenceGenerator(name = "favorites_seq", sequenceName = "favorites_seq", allocationSize = 50)
     private Long id;
     @ManyToOne(optional = false)
     private User user;
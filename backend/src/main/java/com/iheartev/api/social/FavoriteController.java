@@ -2,6 +2,7 @@ package com.iheartev.api.social;
 
 import com.iheartev.api.listing.Listing;
 import com.iheartev.api.listing.ListingRepository;
+import com.iheartev.api.metrics.QueryBudget;
 import com.iheartev.api.user.User;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -11,6 +12,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 @RestController
+@QueryBudget(5)
 @RequestMapping("/api/favorites")
 public class FavoriteController {
     private final FavoriteRepository repo;
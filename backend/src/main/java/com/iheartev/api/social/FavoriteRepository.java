@@ -10,6 +10,11 @@ import java.util.Optional;
 public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     @Query("SELECT f FROM Favorite f WHERE f.user.id = :userId AND f.listing.id = :listingId")
     Optional<Favorite> findByUserAndListingId(@Param("userId") Long userId, @Param("listingId") Long listingId);
+
+    // A user's favorites whose listing is still visible, with the listing's relations in the same statement
+    @Query("SELECT f FROM Favorite f JOIN FETCH f.user JOIN FETCH f.listing l JOIN FETCH l.seller LEFT JOIN FETCH l.paymentInfo " +
+           "WHERE f.user.id = :userId AND (l.status IS NULL OR l.status <> 'INACTIVE') ORDER BY f.id")
+    java.util.List<Favorite> findVisibleByUserId(@Param("userId") Long userId);
     
     @Query("SELECT f FROM Favorite f WHERE f.listing.id = :listingId")
     java.util.List<Favorite> findByListingId(@Param("listingId") Long listingId);
@@ -9,7 +9,9 @@ import java.time.Instant;
 @Entity
 @Table(name = "reviews")
 public class Review {
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reviews_seq")
+    @SequenceGenerator(name = "reviews_seq", sequenceName = "reviews_seq", allocationSize = 50)
     private Long id;
     @ManyToOne(optional = false)
     private User reviewer;
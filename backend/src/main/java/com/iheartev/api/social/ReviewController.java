@@ -1,10 +1,12 @@
 package com.iheartev.api.social;
 
+import com.iheartev.api.metrics.QueryBudget;
 import com.iheartev.api.transaction.Order;
 import com.iheartev.api.transaction.OrderRepository;
 import com.iheartev.api.user.User;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
@@ -12,6 +14,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.Map;
 
 @RestController
+@QueryBudget(5)
 @RequestMapping("/api/reviews")
 public class ReviewController {
     private final ReviewRepository repo;
@@ -23,6 +26,7 @@ public class ReviewController {
     }
 
     @GetMapping("/{id}")
+    @Transactional(readOnly = true)
     public ResponseEntity<?> getReview(@PathVariable Long id, @AuthenticationPrincipal User user) {
         return repo.findById(id).map(review -> {
             // Only allow reviewer to view their own review
@@ -58,10 +62,7 @@ public class ReviewController {
         }
         
         // Check if review already exists for this order and reviewer
-        boolean reviewExists = repo.findAll().stream()
-            .anyMatch(existing -> existing.getOrderId() != null && 
-                     existing.getOrderId().equals(r.getOrderId()) &&
-                     existing.getReviewer().getId().equals(reviewer.getId()));
+        boolean reviewExists = repo.existsByOrderIdAndReviewerId(r.getOrderId(), reviewer.getId());
         
         if (reviewExists) {
             return ResponseEntity.badRequest().body(Map.of("error", "Bạn đã đánh giá đơn hàng này rồi. Vui lòng sử dụng chức năng cập nhật đánh giá."));
@@ -1,7 +1,23 @@
 package com.iheartev.api.social;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ReviewRepository extends JpaRepository<Review, Long> {}
+import java.util.List;
+import java.util.Optional;
 
+public interface ReviewRepository extends JpaRepository<Review, Long> {
+    // Reviews a user received / wrote, oldest first, with both users fetched in the same query
+    @Query("SELECT r FROM Review r JOIN FETCH r.reviewer JOIN FETCH r.reviewee " +
+           "WHERE r.reviewee.id = :userId ORDER BY r.id")
+    List<Review> findByRevieweeIdWithUsers(@Param("userId") Long userId);
 
+    @Query("SELECT r FROM Review r JOIN FETCH r.reviewer JOIN FETCH r.reviewee " +
+           "WHERE r.reviewer.id = :userId ORDER BY r.id")
+    List<Review> findByReviewerIdWithUsers(@Param("userId") Long userId);
+
+    boolean existsByOrderIdAndReviewerId(Long orderId, Long reviewerId);
+
+    Optional<Review> findFirstByOrderIdAndReviewerIdOrderById(Long orderId, Long reviewerId);
+}
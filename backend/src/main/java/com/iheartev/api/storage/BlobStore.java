@@ -0,0 +1,50 @@
+package com.iheartev.api.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+// Where attachment files live, picked with app.attachments.store (see StorageConfig). Keys are the
+// attachments.filePath values ("uploads/ab/cd/<sha256>", or "uploads/<uuid>.<ext>" for older files):
+// paths relative to the working directory on the local store and object keys on S3, so moving to S3 is
+// copying the uploads directory into the bucket as it is.
+// Every store either has the file on this node's disk (localFile) or can hand out a download URL.
+public interface BlobStore {
+
+    record DownloadUrl(URI uri, Duration validFor) {
+    }
+
+    record Blob(String key, long size, Instant lastModified) {
+    }
+
+    // Stores source under key, replacing what is there. source is consumed: moved or uploaded, then gone.
+    // Readers never see a partly written blob.
+    void put(String key, Path source, String contentType) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    // NoSuchFileException when there is no such blob
+    InputStream open(String key) throws IOException;
+
+    // Nothing happens when there is no such blob
+    void delete(String key) throws IOException;
+
+    // Up to limit blobs whose keys start with prefix and sort after startAfter (null for the first page), in
+    // key order (String.compareTo), so a walk over the store can stop anywhere and carry on from the last key
+    List<Blob> list(String prefix, String startAfter, int limit) throws IOException;
+
+    // The file behind key when it is on this node's disk, so it can go out with sendfile
+    default Optional<Path> localFile(String key) {
+        return Optional.empty();
+    }
+
+    // A short-lived URL the client downloads from directly, so the bytes do not pass through the API
+    default Optional<DownloadUrl> downloadUrl(String key, String contentType, String contentDisposition) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,105 @@
+package com.iheartev.api.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+// Blobs as files on this node's disk, keys resolved against the working directory (how attachments have
+// always been stored). Only works with a single API node, or a directory shared between nodes.
+public class LocalBlobStore implements BlobStore {
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        Path target = Paths.get(key);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // source is on another file system: copy next to the target first, then rename
+            Path part = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+            try {
+                Files.copy(source, part, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(part);
+            }
+            Files.delete(source);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(Paths.get(key));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(Paths.get(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(Paths.get(key));
+    }
+
+    // Walks the tree depth first, each directory in key order, skipping directories that are wholly before
+    // startAfter; a page costs the directories on the path to it, not the whole tree
+    @Override
+    public List<Blob> list(String prefix, String startAfter, int limit) throws IOException {
+        List<Blob> blobs = new ArrayList<>();
+        String dirKey = prefix.substring(0, prefix.lastIndexOf('/') + 1);
+        Path dir = Paths.get(dirKey.isEmpty() ? "." : dirKey);
+        if (Files.isDirectory(dir)) collect(dir, dirKey, prefix, startAfter, limit, blobs);
+        return blobs;
+    }
+
+    // false once limit is reached
+    private static boolean collect(Path dir, String dirKey, String prefix, String startAfter, int limit,
+                                   List<Blob> blobs) throws IOException {
+        // A directory's keys go on with '/', so it sorts by its name plus '/' (after "name.jpg", say)
+        TreeMap<String, Path> children = new TreeMap<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path entry : entries) {
+                children.put(dirKey + entry.getFileName() + (Files.isDirectory(entry) ? "/" : ""), entry);
+            }
+        } catch (NoSuchFileException e) {
+            return true;
+        }
+        for (Map.Entry<String, Path> child : children.entrySet()) {
+            String key = child.getKey();
+            if (key.endsWith("/")) {
+                if (!key.startsWith(prefix) && !prefix.startsWith(key)) continue;
+                if (startAfter != null && startAfter.compareTo(key) >= 0 && !startAfter.startsWith(key)) continue;
+                if (!collect(child.getValue(), key, prefix, startAfter, limit, blobs)) return false;
+            } else {
+                if (!key.startsWith(prefix) || startAfter != null && key.compareTo(startAfter) <= 0) continue;
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(child.getValue(), BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                blobs.add(new Blob(key, attributes.size(), attributes.lastModifiedTime().toInstant()));
+                if (blobs.size() >= limit) return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Optional<Path> localFile(String key) {
+        return Optional.of(Paths.get(key));
+    }
+}
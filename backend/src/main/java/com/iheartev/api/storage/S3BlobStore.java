@@ -0,0 +1,226 @@
+package com.iheartev.api.storage;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Blobs as objects in an S3 bucket (AWS, or an S3-compatible store such as MinIO through an endpoint
+// override), so every API node sees every file. Files from multipartThreshold up go as a multipart
+// upload whose parts are sent in parallel on a shared pool, each read straight from the file with
+// positional reads. Downloads are redirects to presigned GET URLs, so the bytes do not pass through the API.
+public class S3BlobStore implements BlobStore, AutoCloseable {
+    // S3 refuses uploads of more parts
+    private static final int MAX_PARTS = 10_000;
+    // Objects never change under a key; the URL itself expires after presignTtl
+    private static final String OBJECT_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final S3Client client;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final long partSize;
+    private final long multipartThreshold;
+    private final Duration presignTtl;
+    private final ExecutorService uploads;
+
+    public S3BlobStore(S3Client client, S3Presigner presigner, String bucket, long partSize, long multipartThreshold,
+                       int uploadThreads, Duration presignTtl) {
+        this.client = client;
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.partSize = partSize;
+        this.multipartThreshold = multipartThreshold;
+        this.presignTtl = presignTtl;
+        AtomicInteger n = new AtomicInteger();
+        this.uploads = Executors.newFixedThreadPool(uploadThreads, r -> {
+            Thread thread = new Thread(r, "s3-upload-" + n.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void put(String key, Path source, String contentType) throws IOException {
+        long size = Files.size(source);
+        try {
+            if (size < multipartThreshold) {
+                client.putObject(b -> b.bucket(bucket).key(key).contentType(contentType), RequestBody.fromFile(source));
+            } else {
+                putMultipart(key, source, contentType, size);
+            }
+        } catch (SdkException e) {
+            throw new IOException("Upload of " + key + " to bucket " + bucket + " failed", e);
+        }
+        Files.delete(source);
+    }
+
+    private void putMultipart(String key, Path source, String contentType, long size) throws IOException {
+        long part = Math.max(partSize, (size + MAX_PARTS - 1) / MAX_PARTS);
+        String uploadId = client.createMultipartUpload(b -> b.bucket(bucket).key(key).contentType(contentType)).uploadId();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            List<Future<CompletedPart>> parts = new ArrayList<>();
+            for (long offset = 0; offset < size; offset += part) {
+                int number = parts.size() + 1;
+                long start = offset;
+                long length = Math.min(part, size - offset);
+                parts.add(uploads.submit(() -> {
+                    String etag = client.uploadPart(b -> b.bucket(bucket).key(key).uploadId(uploadId)
+                                    .partNumber(number).contentLength(length),
+                            RequestBody.fromContentProvider(() -> new PartStream(channel, start, length), length, contentType)).eTag();
+                    return CompletedPart.builder().partNumber(number).eTag(etag).build();
+                }));
+            }
+            List<CompletedPart> completed = new ArrayList<>(parts.size());
+            try {
+                for (Future<CompletedPart> f : parts) {
+                    completed.add(f.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while uploading " + key, e);
+            } catch (ExecutionException e) {
+                throw new IOException("Upload of a part of " + key + " failed", e.getCause());
+            } finally {
+                parts.forEach(f -> f.cancel(true));
+            }
+            client.completeMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(m -> m.parts(completed)));
+        } catch (IOException | RuntimeException e) {
+            try {
+                client.abortMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId));
+            } catch (SdkException abort) {
+                e.addSuppressed(abort);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        try {
+            client.headObject(b -> b.bucket(bucket).key(key));
+            return true;
+        } catch (AwsServiceException e) {
+            if (e.statusCode() == 404) return false;
+            throw new IOException("Lookup of " + key + " in bucket " + bucket + " failed", e);
+        } catch (SdkException e) {
+            throw new IOException("Lookup of " + key + " in bucket " + bucket + " failed", e);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        try {
+            return client.getObject(b -> b.bucket(bucket).key(key));
+        } catch (AwsServiceException e) {
+            if (e.statusCode() == 404) throw new NoSuchFileException(key);
+            throw new IOException("Download of " + key + " from bucket " + bucket + " failed", e);
+        } catch (SdkException e) {
+            throw new IOException("Download of " + key + " from bucket " + bucket + " failed", e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            client.deleteObject(b -> b.bucket(bucket).key(key));
+        } catch (SdkException e) {
+            throw new IOException("Delete of " + key + " from bucket " + bucket + " failed", e);
+        }
+    }
+
+    // One ListObjectsV2 call (limit is at most 1000); S3 sorts keys by their UTF-8 bytes, the same order as
+    // String.compareTo for the ASCII keys attachments have
+    @Override
+    public List<Blob> list(String prefix, String startAfter, int limit) throws IOException {
+        try {
+            ListObjectsV2Response response = client.listObjectsV2(b -> b.bucket(bucket).prefix(prefix)
+                    .startAfter(startAfter).maxKeys(limit));
+            return response.contents().stream()
+                    .map(object -> new Blob(object.key(), object.size(), object.lastModified()))
+                    .toList();
+        } catch (SdkException e) {
+            throw new IOException("Listing of " + prefix + " in bucket " + bucket + " failed", e);
+        }
+    }
+
+    @Override
+    public Optional<DownloadUrl> downloadUrl(String key, String contentType, String contentDisposition) {
+        GetObjectRequest request = GetObjectRequest.builder().bucket(bucket).key(key)
+                .responseContentType(contentType)
+                .responseContentDisposition(contentDisposition)
+                .responseCacheControl(OBJECT_CACHE_CONTROL)
+                .build();
+        try {
+            URI uri = presigner.presignGetObject(b -> b.signatureDuration(presignTtl).getObjectRequest(request)).url().toURI();
+            return Optional.of(new DownloadUrl(uri, presignTtl));
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        uploads.shutdownNow();
+        presigner.close();
+        client.close();
+    }
+
+    // One part of the file, read with positional reads so all parts can share the channel. Closing it
+    // leaves the channel open for the other parts (and SDK retries, which ask for a new stream).
+    private static final class PartStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        PartStream(FileChannel channel, long start, long length) {
+            this.channel = channel;
+            this.position = start;
+            this.end = start + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (position >= end) return -1;
+            int n = channel.read(ByteBuffer.wrap(buffer, offset, (int) Math.min(length, end - position)), position);
+            if (n < 0) return -1;
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.iheartev.api.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.checksums.ResponseChecksumValidation;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.net.URI;
+import java.time.Duration;
+
+// The attachment BlobStore, picked with app.attachments.store: local (files on this node, the default)
+// or s3 (a bucket on AWS, or any S3-compatible store when app.attachments.s3.endpoint is set; MinIO and
+// most others also need path-style=true). Credentials come from access-key/secret-key when set, else
+// from the default AWS chain (environment, profile, instance role).
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.attachments.store", havingValue = "local", matchIfMissing = true)
+    BlobStore localBlobStore() {
+        return new LocalBlobStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.attachments.store", havingValue = "s3")
+    S3BlobStore s3BlobStore(@Value("${app.attachments.s3.bucket}") String bucket,
+                            @Value("${app.attachments.s3.region:ap-southeast-1}") String region,
+                            @Value("${app.attachments.s3.endpoint:}") String endpoint,
+                            @Value("${app.attachments.s3.path-style:false}") boolean pathStyle,
+                            @Value("${app.attachments.s3.access-key:}") String accessKey,
+                            @Value("${app.attachments.s3.secret-key:}") String secretKey,
+                            @Value("${app.attachments.s3.part-size:8MB}") DataSize partSize,
+                            @Value("${app.attachments.s3.multipart-threshold:16MB}") DataSize multipartThreshold,
+                            @Value("${app.attachments.s3.upload-threads:4}") int uploadThreads,
+                            @Value("${app.attachments.s3.max-connections:64}") int maxConnections,
+                            @Value("${app.attachments.s3.presign-ttl:10m}") Duration presignTtl) {
+        AwsCredentialsProvider credentials = accessKey.isBlank()
+                ? DefaultCredentialsProvider.builder().build()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey));
+        var client = S3Client.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .forcePathStyle(pathStyle)
+                .httpClientBuilder(ApacheHttpClient.builder().maxConnections(maxConnections))
+                // Checksums only where S3 requires them: many S3-compatible stores reject the aws-chunked
+                // trailers the SDK would otherwise add to every upload
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .responseChecksumValidation(ResponseChecksumValidation.WHEN_REQUIRED);
+        var presigner = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyle).build());
+        if (!endpoint.isBlank()) {
+            client.endpointOverride(URI.create(endpoint));
+            presigner.endpointOverride(URI.create(endpoint));
+        }
+        return new S3BlobStore(client.build(), presigner.build(), bucket, partSize.toBytes(), multipartThreshold.toBytes(),
+                uploadThreads, presignTtl);
+    }
+}
@@ -0,0 +1,84 @@
+package com.iheartev.api.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+
+// Appends one JSON object per span to a local file; when the file passes maxBytes it is moved to
+// <file>.1 (replacing the previous one) and a new file is started
+public class JsonLinesSpanExporter implements SpanExporter {
+    private static final Logger log = LoggerFactory.getLogger(JsonLinesSpanExporter.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path file;
+    private final long maxBytes;
+    private BufferedWriter writer;
+    private long written;
+
+    public JsonLinesSpanExporter(Path file, long maxBytes) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> batch) {
+        try {
+            for (SpanData span : batch) {
+                if (writer == null || written >= maxBytes) open();
+                String line = objectMapper.writeValueAsString(SpanView.of(span));
+                writer.write(line);
+                writer.newLine();
+                written += line.length() + 1;
+            }
+            writer.flush();
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            log.warn("Could not write {} spans to {}: {}", batch.size(), file, e.getMessage());
+            closeWriter();
+            return CompletableResultCode.ofFailure();
+        }
+    }
+
+    private void open() throws IOException {
+        closeWriter();
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        if (Files.exists(file) && Files.size(file) >= maxBytes) {
+            Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        written = Files.exists(file) ? Files.size(file) : 0;
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void closeWriter() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // Nothing left to flush to
+        }
+        writer = null;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        closeWriter();
+        return CompletableResultCode.ofSuccess();
+    }
+}
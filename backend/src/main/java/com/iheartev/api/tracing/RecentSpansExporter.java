@@ -0,0 +1,44 @@
+package com.iheartev.api.tracing;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Keeps the last maxSpans sampled spans in memory, read by TraceController. No collector needed.
+public class RecentSpansExporter implements SpanExporter {
+    private final int maxSpans;
+    private final ArrayDeque<SpanView> spans;
+
+    public RecentSpansExporter(int maxSpans) {
+        this.maxSpans = maxSpans;
+        this.spans = new ArrayDeque<>(maxSpans);
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> batch) {
+        for (SpanData span : batch) {
+            if (spans.size() == maxSpans) spans.removeFirst();
+            spans.addLast(SpanView.of(span));
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    public synchronized List<SpanView> snapshot() {
+        return new ArrayList<>(spans);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+}
@@ -0,0 +1,49 @@
+package com.iheartev.api.tracing;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+// Adds a span around every Spring Data repository call ("ListingRepository.findById"), but only inside
+// an existing trace so startup, schedulers and the perf data generator do not start traces of their own.
+// Timings per repository method are already recorded as spring.data.repository.invocations.
+class RepositoryTracing implements BeanPostProcessor {
+    private final ObjectProvider<Tracer> tracer;
+
+    RepositoryTracing(ObjectProvider<Tracer> tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+            factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                    (proxyFactory, information) -> proxyFactory.addAdvice(
+                            new SpanInterceptor(tracer, information.getRepositoryInterface().getSimpleName()))));
+        }
+        return bean;
+    }
+
+    private record SpanInterceptor(ObjectProvider<Tracer> tracerProvider, String repository) implements MethodInterceptor {
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Tracer tracer = tracerProvider.getIfAvailable(() -> Tracer.NOOP);
+            if (tracer.currentSpan() == null) return invocation.proceed();
+            Span span = tracer.nextSpan().name(repository + "." + invocation.getMethod().getName())
+                    .tag("db.repository", repository)
+                    .start();
+            try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                span.error(e);
+                throw e;
+            } finally {
+                span.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.iheartev.api.tracing;
+
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Flat, JSON-friendly copy of a finished span, shared by the in-memory and file exporters
+public record SpanView(String traceId, String spanId, String parentSpanId, String name, String kind,
+                       long startEpochMicros, double durationMs, String status, Map<String, String> attributes) {
+
+    static SpanView of(SpanData span) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), String.valueOf(value)));
+        String parent = span.getParentSpanContext().isValid() ? span.getParentSpanId() : null;
+        return new SpanView(span.getTraceId(), span.getSpanId(), parent, span.getName(), span.getKind().name(),
+                span.getStartEpochNanos() / 1_000, (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1e6,
+                span.getStatus().getStatusCode().name(), attributes);
+    }
+}
@@ -0,0 +1,62 @@
+package com.iheartev.api.tracing;
+
+import com.iheartev.api.metrics.QueryBudget;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Recent sampled traces from the in-memory exporter (app.tracing.exporter=memory), newest first,
+// optionally only the slow ones: GET /api/admin/traces?minDurationMs=500
+@RestController
+@QueryBudget(0)
+@RequestMapping("/api/admin/traces")
+@PreAuthorize("hasRole('ADMIN')")
+public class TraceController {
+    private final ObjectProvider<RecentSpansExporter> exporter;
+
+    public TraceController(ObjectProvider<RecentSpansExporter> exporter) {
+        this.exporter = exporter;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> traces(@RequestParam(defaultValue = "0") double minDurationMs,
+                                    @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "limit must not be negative"));
+        }
+        RecentSpansExporter recent = exporter.getIfAvailable();
+        if (recent == null) {
+            return ResponseEntity.status(404).body(Map.of("error", "In-memory trace exporter is not enabled"));
+        }
+
+        Map<String, List<SpanView>> byTrace = recent.snapshot().stream()
+                .collect(Collectors.groupingBy(SpanView::traceId, LinkedHashMap::new, Collectors.toList()));
+        List<Map<String, Object>> traces = new ArrayList<>();
+        for (List<SpanView> spans : byTrace.values()) {
+            spans.sort(Comparator.comparingLong(SpanView::startEpochMicros));
+            // The root may still be in flight or evicted; the earliest span stands in for it
+            SpanView root = spans.stream().filter(s -> s.parentSpanId() == null).findFirst().orElse(spans.get(0));
+            if (root.durationMs() < minDurationMs) continue;
+            Map<String, Object> trace = new LinkedHashMap<>();
+            trace.put("traceId", root.traceId());
+            trace.put("name", root.name());
+            trace.put("startEpochMicros", root.startEpochMicros());
+            trace.put("durationMs", root.durationMs());
+            trace.put("spans", spans);
+            traces.add(trace);
+        }
+        traces.sort(Comparator.comparingLong((Map<String, Object> t) -> (Long) t.get("startEpochMicros")).reversed());
+        return ResponseEntity.ok(traces.subList(0, Math.min(limit, traces.size())));
+    }
+}
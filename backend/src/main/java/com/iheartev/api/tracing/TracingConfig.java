@@ -0,0 +1,47 @@
+package com.iheartev.api.tracing;
+
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.tracing.Tracer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+// Tracing on top of what Actuator instruments by itself (HTTP server requests, log correlation):
+// repository spans plus the span exporter picked with app.tracing.exporter (memory, file or none).
+// An OTLP collector is added on top by setting management.otlp.tracing.endpoint; the share of traces
+// kept is management.tracing.sampling.probability.
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    static RepositoryTracing repositoryTracing(ObjectProvider<Tracer> tracer) {
+        return new RepositoryTracing(tracer);
+    }
+
+    // Prometheus scrapes and Spring Security's per-filter observations would otherwise make up most spans
+    @Bean
+    ObservationPredicate skipActuatorAndSecurityObservations() {
+        return (name, context) -> !name.startsWith("spring.security.")
+                && !(context instanceof ServerRequestObservationContext request
+                        && request.getCarrier().getRequestURI().startsWith("/actuator"));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.exporter", havingValue = "memory", matchIfMissing = true)
+    RecentSpansExporter recentSpansExporter(@Value("${app.tracing.memory.max-spans:2000}") int maxSpans) {
+        return new RecentSpansExporter(maxSpans);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.exporter", havingValue = "file")
+    JsonLinesSpanExporter jsonLinesSpanExporter(@Value("${app.tracing.file.path:logs/spans.jsonl}") String path,
+                                                @Value("${app.tracing.file.max-size:100MB}") DataSize maxSize) {
+        return new JsonLinesSpanExporter(Path.of(path), maxSize.toBytes());
+    }
+}
@@ -2,6 +2,7 @@ package com.iheartev.api.transaction;
 
 import com.iheartev.api.listing.Listing;
 import com.iheartev.api.listing.ListingRepository;
+import com.iheartev.api.metrics.QueryBudget;
 import com.iheartev.api.social.Review;
 import com.iheartev.api.social.ReviewRepository;
 import com.iheartev.api.user.User;
@@ -15,6 +16,7 @@ import java.util.List;
 import java.util.Map;
 
 @RestController
+@QueryBudget(5)
 @RequestMapping("/api/orders")
 public class OrderController {
     private final OrderRepository orders;
@@ -40,9 +42,7 @@ public class OrderController {
         }
         
         // Check if there's already an order for this listing
-        boolean hasExistingOrder = orders.findAll().stream()
-                .anyMatch(o -> o.getListing().getId().equals(listingId) && 
-                             !"CANCELLED".equals(o.getStatus()));
+        boolean hasExistingOrder = orders.existsByListingIdAndStatusNot(listingId, "CANCELLED");
         if (hasExistingOrder) {
             return ResponseEntity.badRequest().body(Map.of("error", "Listing already has an active order"));
         }
@@ -66,7 +66,7 @@ public class OrderController {
 
     @GetMapping("/{orderId}")
     public ResponseEntity<?> getOrderDetail(@PathVariable Long orderId, @AuthenticationPrincipal User user) {
-        return orders.findById(orderId).map(order -> {
+        return orders.findByIdWithRelations(orderId).map(order -> {
             // Check if user is buyer or seller (with null safety)
             boolean isBuyer = order.getBuyer() != null && 
                             order.getBuyer().getId() != null && 
@@ -126,10 +126,8 @@ public class OrderController {
             // Sync review IDs if they exist but aren't set in order
             boolean needsUpdate = false;
             if (order.getBuyerReviewId() == null) {
-                Review buyerReview = reviewRepository.findAll().stream()
-                    .filter(r -> r.getOrderId() != null && r.getOrderId().equals(order.getId()) &&
-                               r.getReviewer().getId().equals(order.getBuyer().getId()))
-                    .findFirst()
+                Review buyerReview = reviewRepository
+                    .findFirstByOrderIdAndReviewerIdOrderById(order.getId(), order.getBuyer().getId())
                     .orElse(null);
                 if (buyerReview != null) {
                     order.setBuyerReviewId(buyerReview.getId());
@@ -137,10 +135,8 @@ public class OrderController {
                 }
             }
             if (order.getSellerReviewId() == null) {
-                Review sellerReview = reviewRepository.findAll().stream()
-                    .filter(r -> r.getOrderId() != null && r.getOrderId().equals(order.getId()) &&
-                               r.getReviewer().getId().equals(order.getListing().getSeller().getId()))
-                    .findFirst()
+                Review sellerReview = reviewRepository
+                    .findFirstByOrderIdAndReviewerIdOrderById(order.getId(), order.getListing().getSeller().getId())
                     .orElse(null);
                 if (sellerReview != null) {
                     order.setSellerReviewId(sellerReview.getId());
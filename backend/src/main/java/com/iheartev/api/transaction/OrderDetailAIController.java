@@ -2,49 +2,46 @@ package com.iheartev.api.transaction;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.iheartev.api.ai.GeminiGateway;
 import com.iheartev.api.listing.Listing;
 import com.iheartev.api.listing.ListingRepository;
+import com.iheartev.api.metrics.QueryBudget;
 import com.iheartev.api.social.Review;
 import com.iheartev.api.social.ReviewRepository;
 import com.iheartev.api.user.User;
 import com.iheartev.api.user.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
+@QueryBudget(4)
 @RequestMapping("/api/orders/{orderId}/ai")
 public class OrderDetailAIController {
     private static final Logger logger = LoggerFactory.getLogger(OrderDetailAIController.class);
     private static final ObjectMapper objectMapper = new ObjectMapper();
     
-    @Value("${gemini.api.key:}")
-    private String geminiApiKey;
-
     private final OrderRepository orderRepository;
     private final ListingRepository listingRepository;
     private final ReviewRepository reviewRepository;
+    private final GeminiGateway geminiGateway;
 
     public OrderDetailAIController(OrderRepository orderRepository, ListingRepository listingRepository,
-                                   ReviewRepository reviewRepository) {
+                                   ReviewRepository reviewRepository, GeminiGateway geminiGateway) {
         this.orderRepository = orderRepository;
         this.listingRepository = listingRepository;
         this.reviewRepository = reviewRepository;
+        this.geminiGateway = geminiGateway;
     }
 
     @GetMapping("/insights")
     public ResponseEntity<?> getAIInsights(@PathVariable Long orderId, @AuthenticationPrincipal User user) {
-        return orderRepository.findById(orderId).map(order -> {
+        return orderRepository.findByIdWithRelations(orderId).map(order -> {
             // Verify access
             boolean isBuyer = order.getBuyer().getId().equals(user.getId());
             boolean isSeller = order.getListing().getSeller().getId().equals(user.getId());
@@ -56,22 +53,15 @@ public class OrderDetailAIController {
             User seller = listing.getSeller();
 
             // Gather seller statistics
-            List<Review> sellerReviews = reviewRepository.findAll().stream()
-                    .filter(r -> r.getReviewee().getId().equals(seller.getId()))
-                    .collect(Collectors.toList());
-            
-            List<Listing> sellerListings = listingRepository.findAll().stream()
-                    .filter(l -> l.getSeller().getId().equals(seller.getId()))
-                    .collect(Collectors.toList());
+            List<Review> sellerReviews = reviewRepository.findByRevieweeIdWithUsers(seller.getId());
+            long listingCount = listingRepository.countBySellerId(seller.getId());
 
             double avgRating = sellerReviews.stream()
                     .mapToInt(Review::getRating)
                     .average()
                     .orElse(0.0);
 
-            long soldCount = sellerListings.stream()
-                    .filter(l -> "SOLD".equals(l.getStatus()))
-                    .count();
+            long soldCount = listingRepository.countBySellerIdAndStatus(seller.getId(), "SOLD");
 
             // Build AI prompt
             StringBuilder promptBuilder = new StringBuilder();
@@ -93,7 +83,7 @@ public class OrderDetailAIController {
             promptBuilder.append("- Đánh giá trung bình: ").append(String.format("%.1f", avgRating)).append("/5\n");
             promptBuilder.append("- Tổng số đánh giá: ").append(sellerReviews.size()).append("\n");
             promptBuilder.append("- Số tin đã bán: ").append(soldCount).append("\n");
-            promptBuilder.append("- Tổng số tin đăng: ").append(sellerListings.size()).append("\n");
+            promptBuilder.append("- Tổng số tin đăng: ").append(listingCount).append("\n");
             
             if (!sellerReviews.isEmpty()) {
                 promptBuilder.append("- Đánh giá gần đây:\n");
@@ -112,16 +102,7 @@ public class OrderDetailAIController {
             String prompt = promptBuilder.toString();
 
             try {
-                String url = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash-lite:generateContent?key=" + geminiApiKey;
-                String body = "{\"contents\":[{\"parts\":[{\"text\": " + quote(prompt) + "}]}]}";
-
-                HttpRequest req = HttpRequest.newBuilder(URI.create(url))
-                        .header("Content-Type", "application/json")
-                        .POST(HttpRequest.BodyPublishers.ofString(body))
-                        .timeout(java.time.Duration.ofSeconds(30))
-                        .build();
-
-                HttpResponse<String> resp = HttpClient.newHttpClient().send(req, HttpResponse.BodyHandlers.ofString());
+                HttpResponse<String> resp = geminiGateway.generateContent("order-insights", prompt);
 
                 if (resp.statusCode() == 200) {
                     String responseBody = resp.body();
@@ -133,7 +114,7 @@ public class OrderDetailAIController {
                                 "averageRating", avgRating,
                                 "totalReviews", sellerReviews.size(),
                                 "soldListings", soldCount,
-                                "totalListings", sellerListings.size()
+                                "totalListings", listingCount
                         ));
                         return ResponseEntity.ok(result);
                     } else {
@@ -149,10 +130,6 @@ public class OrderDetailAIController {
         }).orElse(ResponseEntity.notFound().build());
     }
 
-    private String quote(String text) {
-        return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
-    }
-
     private String extractTextFromResponse(String responseBody) {
         try {
             JsonNode root = objectMapper.readTree(responseBody);
@@ -4,25 +4,84 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+    int IN_LIST_CHUNK = 1000;
+
     @Query("SELECT o FROM Order o WHERE o.listing.id = :listingId AND o.status NOT IN ('CANCELLED', 'CLOSED')")
     List<Order> findActiveOrdersByListingId(@Param("listingId") Long listingId);
-    
+
+    @Query("SELECT o.listing.id FROM Order o WHERE o.status NOT IN ('CANCELLED', 'CLOSED')")
+    List<Long> findListingIdsWithActiveOrders();
+
+    boolean existsByListingIdAndStatusNot(Long listingId, String status);
+
+    // The *WithRelations queries fetch everything an Order serializes (buyer, listing, seller,
+    // payment info) in one statement
+
     @Query("SELECT DISTINCT o FROM Order o " +
            "JOIN FETCH o.buyer " +
            "JOIN FETCH o.listing l " +
            "JOIN FETCH l.seller " +
-           "WHERE o.buyer.id = :userId OR l.seller.id = :userId")
+           "LEFT JOIN FETCH l.paymentInfo " +
+           "WHERE o.buyer.id = :userId OR l.seller.id = :userId ORDER BY o.id")
     List<Order> findAllByUserIdWithRelations(@Param("userId") Long userId);
     
     @Query("SELECT o FROM Order o " +
+           "JOIN FETCH o.buyer " +
            "JOIN FETCH o.listing l " +
            "JOIN FETCH l.seller " +
+           "LEFT JOIN FETCH l.paymentInfo " +
            "WHERE o.id = :orderId")
     Optional<Order> findByIdWithRelations(@Param("orderId") Long orderId);
-}
 
+    @Query("SELECT o FROM Order o " +
+           "JOIN FETCH o.buyer " +
+           "JOIN FETCH o.listing l " +
+           "JOIN FETCH l.seller " +
+           "LEFT JOIN FETCH l.paymentInfo " +
+           "WHERE o.id IN :orderIds")
+    List<Order> findAllByIdWithRelations(@Param("orderIds") Collection<Long> orderIds);
+
+    // For views that show each review with its order: one query per IN_LIST_CHUNK ids (null ids are skipped),
+    // as SQL Server takes at most 2100 parameters per statement
+    default Map<Long, Order> mapByIdWithRelations(Collection<Long> orderIds) {
+        List<Long> ids = orderIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) return Map.of();
+        Map<Long, Order> orders = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += IN_LIST_CHUNK) {
+            for (Order order : findAllByIdWithRelations(ids.subList(i, Math.min(i + IN_LIST_CHUNK, ids.size())))) {
+                orders.put(order.getId(), order);
+            }
+        }
+        return orders;
+    }
+
+    @Query("SELECT o FROM Order o " +
+           "JOIN FETCH o.buyer " +
+           "JOIN FETCH o.listing l " +
+           "JOIN FETCH l.seller " +
+           "LEFT JOIN FETCH l.paymentInfo " +
+           "WHERE o.buyer.id = :buyerId AND o.status = :status ORDER BY o.id")
+    List<Order> findByBuyerIdAndStatusWithRelations(@Param("buyerId") Long buyerId, @Param("status") String status);
+
+    // Report rollup sources: [timestamp, brand, type, amount] for events inside [from, to)
+    @Query("SELECT o.createdAt, l.brand, l.type, o.amount FROM Order o JOIN o.listing l " +
+           "WHERE o.createdAt >= :from AND o.createdAt < :to")
+    List<Object[]> findCreatedBetween(@Param("from") Instant from, @Param("to") Instant to);
 
+    @Query("SELECT o.closedAt, l.brand, l.type, o.amount FROM Order o JOIN o.listing l " +
+           "WHERE o.closedAt >= :from AND o.closedAt < :to")
+    List<Object[]> findClosedBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT o.cancelledAt, l.brand, l.type, o.amount FROM Order o JOIN o.listing l " +
+           "WHERE o.cancelledAt >= :from AND o.cancelledAt < :to")
+    List<Object[]> findCancelledBetween(@Param("from") Instant from, @Param("to") Instant to);
+}
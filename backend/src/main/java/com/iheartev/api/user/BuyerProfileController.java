@@ -1,10 +1,12 @@
 package com.iheartev.api.user;
 
+import com.iheartev.api.metrics.QueryBudget;
 import com.iheartev.api.social.Review;
 import com.iheartev.api.social.ReviewRepository;
 import com.iheartev.api.transaction.Order;
 import com.iheartev.api.transaction.OrderRepository;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -13,6 +15,8 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
+@QueryBudget(3)
+@Transactional(readOnly = true)
 @RequestMapping("/api/buyers")
 public class BuyerProfileController {
     private final UserRepository userRepository;
@@ -34,9 +38,7 @@ public class BuyerProfileController {
         }
 
         // Get all reviews for buyer (reviews they received as a buyer)
-        List<Review> reviews = reviewRepository.findAll().stream()
-                .filter(r -> r.getReviewee().getId().equals(buyerId))
-                .collect(Collectors.toList());
+        List<Review> reviews = reviewRepository.findByRevieweeIdWithUsers(buyerId);
 
         // Calculate average rating
         double avgRating = reviews.stream()
@@ -45,11 +47,11 @@ public class BuyerProfileController {
                 .orElse(0.0);
 
         // Get successful purchases (CLOSED orders)
-        List<Order> successfulPurchases = orderRepository.findAll().stream()
-                .filter(o -> o.getBuyer() != null && 
-                           o.getBuyer().getId().equals(buyerId) &&
-                           "CLOSED".equals(o.getStatus()))
-                .collect(Collectors.toList());
+        List<Order> successfulPurchases = orderRepository.findByBuyerIdAndStatusWithRelations(buyerId, "CLOSED");
+
+        List<Review> latestReviews = reviews.stream().limit(5).collect(Collectors.toList());
+        Map<Long, Order> ordersById = orderRepository.mapByIdWithRelations(
+                latestReviews.stream().map(Review::getOrderId).toList());
 
         Map<String, Object> profile = new HashMap<>();
         
@@ -86,8 +88,7 @@ public class BuyerProfileController {
                 .collect(Collectors.toList()));
         
         // Reviews with order information
-        profile.put("reviews", reviews.stream()
-                .limit(5)
+        profile.put("reviews", latestReviews.stream()
                 .map(r -> {
                     Map<String, Object> review = new HashMap<>();
                     review.put("id", r.getId());
@@ -108,7 +109,7 @@ public class BuyerProfileController {
                     
                     // Order info if available
                     if (r.getOrderId() != null) {
-                        Order order = orderRepository.findByIdWithRelations(r.getOrderId()).orElse(null);
+                        Order order = ordersById.get(r.getOrderId());
                         if (order != null) {
                             Map<String, Object> orderInfo = new HashMap<>();
                             orderInfo.put("id", order.getId());
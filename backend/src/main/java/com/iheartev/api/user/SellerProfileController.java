@@ -2,11 +2,13 @@ package com.iheartev.api.user;
 
 import com.iheartev.api.listing.Listing;
 import com.iheartev.api.listing.ListingRepository;
+import com.iheartev.api.metrics.QueryBudget;
 import com.iheartev.api.social.Review;
 import com.iheartev.api.social.ReviewRepository;
 import com.iheartev.api.transaction.Order;
 import com.iheartev.api.transaction.OrderRepository;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -15,6 +17,8 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
+@QueryBudget(4)
+@Transactional(readOnly = true)
 @RequestMapping("/api/sellers")
 public class SellerProfileController {
     private final UserRepository userRepository;
@@ -38,9 +42,7 @@ public class SellerProfileController {
         }
 
         // Get all reviews for seller
-        List<Review> reviews = reviewRepository.findAll().stream()
-                .filter(r -> r.getReviewee().getId().equals(sellerId))
-                .collect(Collectors.toList());
+        List<Review> reviews = reviewRepository.findByRevieweeIdWithUsers(sellerId);
 
         // Calculate average rating
         double avgRating = reviews.stream()
@@ -49,14 +51,14 @@ public class SellerProfileController {
                 .orElse(0.0);
 
         // Get current listings
-        List<Listing> currentListings = listingRepository.findAll().stream()
-                .filter(l -> l.getSeller().getId().equals(sellerId) && "ACTIVE".equals(l.getStatus()))
-                .collect(Collectors.toList());
+        List<Listing> currentListings = listingRepository.findBySellerIdAndStatusOrderById(sellerId, "ACTIVE");
 
         // Get sold listings
-        List<Listing> soldListings = listingRepository.findAll().stream()
-                .filter(l -> l.getSeller().getId().equals(sellerId) && "SOLD".equals(l.getStatus()))
-                .collect(Collectors.toList());
+        List<Listing> soldListings = listingRepository.findBySellerIdAndStatusOrderById(sellerId, "SOLD");
+
+        List<Review> latestReviews = reviews.stream().limit(5).collect(Collectors.toList());
+        Map<Long, Order> ordersById = orderRepository.mapByIdWithRelations(
+                latestReviews.stream().map(Review::getOrderId).toList());
 
         Map<String, Object> profile = new HashMap<>();
         
@@ -71,8 +73,7 @@ public class SellerProfileController {
         profile.put("totalReviews", reviews.size());
         profile.put("activeListings", currentListings);
         profile.put("soldListings", soldListings);
-        profile.put("reviews", reviews.stream()
-                .limit(5)
+        profile.put("reviews", latestReviews.stream()
                 .map(r -> {
                     Map<String, Object> review = new HashMap<>();
                     review.put("id", r.getId());
@@ -93,7 +94,7 @@ public class SellerProfileController {
                     
                     // Order info if available
                     if (r.getOrderId() != null) {
-                        Order order = orderRepository.findByIdWithRelations(r.getOrderId()).orElse(null);
+                        Order order = ordersById.get(r.getOrderId());
                         if (order != null) {
                             Map<String, Object> orderInfo = new HashMap<>();
                             orderInfo.put("id", order.getId());
@@ -121,25 +122,19 @@ public class SellerProfileController {
 
     @GetMapping("/{sellerId}/listings/current")
     public ResponseEntity<List<Listing>> getCurrentListings(@PathVariable Long sellerId) {
-        List<Listing> listings = listingRepository.findAll().stream()
-                .filter(l -> l.getSeller().getId().equals(sellerId) && "ACTIVE".equals(l.getStatus()))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(listings);
+        return ResponseEntity.ok(listingRepository.findBySellerIdAndStatusOrderById(sellerId, "ACTIVE"));
     }
 
     @GetMapping("/{sellerId}/listings/sold")
     public ResponseEntity<List<Listing>> getSoldListings(@PathVariable Long sellerId) {
-        List<Listing> listings = listingRepository.findAll().stream()
-                .filter(l -> l.getSeller().getId().equals(sellerId) && "SOLD".equals(l.getStatus()))
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(listings);
+        return ResponseEntity.ok(listingRepository.findBySellerIdAndStatusOrderById(sellerId, "SOLD"));
     }
 
     @GetMapping("/{sellerId}/reviews")
     public ResponseEntity<?> getAllReviews(@PathVariable Long sellerId) {
-        List<Review> reviews = reviewRepository.findAll().stream()
-                .filter(r -> r.getReviewee().getId().equals(sellerId))
-                .collect(Collectors.toList());
+        List<Review> reviews = reviewRepository.findByRevieweeIdWithUsers(sellerId);
+        Map<Long, Order> ordersById = orderRepository.mapByIdWithRelations(
+                reviews.stream().map(Review::getOrderId).toList());
         
         // Include order information with reviews
         List<Map<String, Object>> reviewsWithOrders = reviews.stream()
@@ -166,7 +161,7 @@ public class SellerProfileController {
                     // Order info if available - always include orderId for reference
                     if (r.getOrderId() != null) {
                         review.put("orderId", r.getOrderId());
-                        Order order = orderRepository.findByIdWithRelations(r.getOrderId()).orElse(null);
+                        Order order = ordersById.get(r.getOrderId());
                         if (order != null) {
                             Map<String, Object> orderInfo = new HashMap<>();
                             orderInfo.put("id", order.getId());
@@ -191,5 +186,5 @@ public class SellerProfileController {
         
         return ResponseEntity.ok(reviewsWithOrders);
     }
-}
 
+}
@@ -1,11 +1,18 @@
 package com.iheartev.api.user;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Runs on every authenticated request (JwtFilter -> UserService). Cached in the query cache; any
+    // write to users invalidates it, and the User itself comes from the "user" entity region.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-by-email")
+    })
     Optional<User> findByEmail(String email);
 }
-
-
@@ -1,5 +1,6 @@
 -- ============================================
 -- COMPREHENSIVE SEED DATA FOR iHeartEV PLATFORM
+-- Repeatable migration: every insert is guarded, so it is safe to re-run whenever this file changes
 -- ============================================
 
 -- ============================================
@@ -9,29 +10,29 @@
 -- ============================================
 
 -- Admin user (password: Password123!)
-INSERT INTO users (email, phone, password, full_name, role, enabled)
-SELECT 'admin@iheartev.local', '', '$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq', 'System Admin', 'ADMIN', 1
+INSERT INTO users (id, email, phone, password, fullName, role, enabled)
+SELECT NEXT VALUE FOR users_seq, 'admin@iheartev.local', '', '$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq', 'System Admin', 'ADMIN', 1
 WHERE NOT EXISTS (SELECT 1 FROM users WHERE email = 'admin@iheartev.local');
 
 -- Member users (password: Password123!)
-INSERT INTO users (email, phone, password, full_name, role, enabled)
-SELECT 'member@iheartev.local', '0901234567', '$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq', 'John Member', 'MEMBER', 1
+INSERT INTO users (id, email, phone, password, fullName, role, enabled)
+SELECT NEXT VALUE FOR users_seq, 'member@iheartev.local', '0901234567', '$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq', 'John Member', 'MEMBER', 1
 WHERE NOT EXISTS (SELECT 1 FROM users WHERE email = 'member@iheartev.local');
 
-INSERT INTO users (email, phone, password, full_name, role, enabled)
-SELECT 'seller1@iheartev.local', '0912345678', '$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq', 'Alice Seller', 'MEMBER', 1
+INSERT INTO users (id, email, phone, password, fullName, role, enabled)
+SELECT NEXT VALUE FOR users_seq, 'seller1@iheartev.local', '0912345678', '$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq', 'Alice Seller', 'MEMBER', 1
 WHERE NOT EXISTS (SELECT 1 FROM users WHERE email = 'seller1@iheartev.local');
 
-INSERT INTO users (email, phone, password, full_name, role, enabled)
-SELECT 'seller2@iheartev.local', '0923456789', '$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq', 'Bob Johnson', 'MEMBER', 1
+INSERT INTO users (id, email, phone, password, fullName, role, enabled)
+SELECT NEXT VALUE FOR users_seq, 'seller2@iheartev.local', '0923456789', '$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq', 'Bob Johnson', 'MEMBER', 1
 WHERE NOT EXISTS (SELECT 1 FROM users WHERE email = 'seller2@iheartev.local');
 
-INSERT INTO users (email, phone, password, full_name, role, enabled)
-SELECT 'buyer1@iheartev.local', '0934567890', '$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq', 'Charlie Buyer', 'MEMBER', 1
+INSERT INTO users (id, email, phone, password, fullName, role, enabled)
+SELECT NEXT VALUE FOR users_seq, 'buyer1@iheartev.local', '0934567890', '$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq', 'Charlie Buyer', 'MEMBER', 1
 WHERE NOT EXISTS (SELECT 1 FROM users WHERE email = 'buyer1@iheartev.local');
 
-INSERT INTO users (email, phone, password, full_name, role, enabled)
-SELECT 'buyer2@iheartev.local', '0945678901', '$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq', 'Diana Smith', 'MEMBER', 1
+INSERT INTO users (id, email, phone, password, fullName, role, enabled)
+SELECT NEXT VALUE FOR users_seq, 'buyer2@iheartev.local', '0945678901', '$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq', 'Diana Smith', 'MEMBER', 1
 WHERE NOT EXISTS (SELECT 1 FROM users WHERE email = 'buyer2@iheartev.local');
 
 -- ============================================
@@ -39,28 +40,28 @@ WHERE NOT EXISTS (SELECT 1 FROM users WHERE email = 'buyer2@iheartev.local');
 -- ============================================
 
 -- Payment Info for VinFast e34 (Cash)
-INSERT INTO payment_info (paymentMethod)
-SELECT 'CASH'
+INSERT INTO payment_info (id, paymentMethod)
+SELECT 1, 'CASH'
 WHERE NOT EXISTS (SELECT 1 FROM payment_info WHERE id = 1);
 
 -- Payment Info for Tesla Model 3 (VietQR)
-INSERT INTO payment_info (paymentMethod, bankCode, bankName, accountNumber, amount, transactionContent)
-SELECT 'VIETQR', 'VCB', 'Vietcombank', '001234567890', 32000.00, 'Mua xe Tesla Model 3 - Order #TSL001'
+INSERT INTO payment_info (id, paymentMethod, bankCode, bankName, accountNumber, amount, transactionContent)
+SELECT 2, 'VIETQR', 'VCB', 'Vietcombank', '001234567890', 32000.00, 'Mua xe Tesla Model 3 - Order #TSL001'
 WHERE NOT EXISTS (SELECT 1 FROM payment_info WHERE id = 2);
 
 -- Payment Info for Porsche Taycan (VietQR)
-INSERT INTO payment_info (paymentMethod, bankCode, bankName, accountNumber, amount, transactionContent)
-SELECT 'VIETQR', 'TCB', 'Techcombank', '987654321000', 85000.00, 'Mua xe Porsche Taycan - Order #POR001'
+INSERT INTO payment_info (id, paymentMethod, bankCode, bankName, accountNumber, amount, transactionContent)
+SELECT 3, 'VIETQR', 'TCB', 'Techcombank', '987654321000', 85000.00, 'Mua xe Porsche Taycan - Order #POR001'
 WHERE NOT EXISTS (SELECT 1 FROM payment_info WHERE id = 3);
 
 -- Payment Info for Nissan Leaf (Cash)
-INSERT INTO payment_info (paymentMethod)
-SELECT 'CASH'
+INSERT INTO payment_info (id, paymentMethod)
+SELECT 4, 'CASH'
 WHERE NOT EXISTS (SELECT 1 FROM payment_info WHERE id = 4);
 
 -- Payment Info for BMW iX3 (VietQR)
-INSERT INTO payment_info (paymentMethod, bankCode, bankName, accountNumber, amount, transactionContent)
-SELECT 'VIETQR', 'BIDV', 'BIDV', '555555555555', 45000.00, 'Mua xe BMW iX3 - Order #BMW001'
+INSERT INTO payment_info (id, paymentMethod, bankCode, bankName, accountNumber, amount, transactionContent)
+SELECT 5, 'VIETQR', 'BIDV', 'BIDV', '555555555555', 45000.00, 'Mua xe BMW iX3 - Order #BMW001'
 WHERE NOT EXISTS (SELECT 1 FROM payment_info WHERE id = 5);
 
 -- ============================================
@@ -68,60 +69,60 @@ WHERE NOT EXISTS (SELECT 1 FROM payment_info WHERE id = 5);
 -- ============================================
 
 -- EV Listings - Active
-INSERT INTO listings (type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
-SELECT 'EV', 'VinFast', 'VF e34', 2022, 15000, 42, 'used', 'Well-maintained VinFast e34 with low mileage. Single owner, regular maintenance. Perfect condition interior and exterior. Battery health at 95%.', 18000.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'member@iheartev.local'), 1
+INSERT INTO listings (id, type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
+SELECT NEXT VALUE FOR listings_seq, 'EV', 'VinFast', 'VF e34', 2022, 15000, 42, 'used', 'Well-maintained VinFast e34 with low mileage. Single owner, regular maintenance. Perfect condition interior and exterior. Battery health at 95%.', 18000.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'member@iheartev.local'), 1
 WHERE NOT EXISTS (SELECT 1 FROM listings WHERE brand = 'VinFast' AND model = 'VF e34' AND seller_id = (SELECT id FROM users WHERE email = 'member@iheartev.local'));
 
-INSERT INTO listings (type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
-SELECT 'EV', 'Tesla', 'Model 3', 2021, 25000, 60, 'verified', 'Tesla Model 3 Long Range. Fully loaded with autopilot. Excellent condition. All software updates installed. Clean title.', 32000.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'seller1@iheartev.local'), 2
+INSERT INTO listings (id, type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
+SELECT NEXT VALUE FOR listings_seq, 'EV', 'Tesla', 'Model 3', 2021, 25000, 60, 'verified', 'Tesla Model 3 Long Range. Fully loaded with autopilot. Excellent condition. All software updates installed. Clean title.', 32000.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'seller1@iheartev.local'), 2
 WHERE NOT EXISTS (SELECT 1 FROM listings WHERE brand = 'Tesla' AND model = 'Model 3' AND seller_id = (SELECT id FROM users WHERE email = 'seller1@iheartev.local'));
 
-INSERT INTO listings (type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
-SELECT 'EV', 'Porsche', 'Taycan', 2023, 5000, 93.4, 'used', 'Porsche Taycan Turbo S. Like new condition, garage kept. Full warranty remaining. Low mileage, perfect for luxury EV enthusiasts.', 85000.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'seller1@iheartev.local'), 3
+INSERT INTO listings (id, type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
+SELECT NEXT VALUE FOR listings_seq, 'EV', 'Porsche', 'Taycan', 2023, 5000, 93.4, 'used', 'Porsche Taycan Turbo S. Like new condition, garage kept. Full warranty remaining. Low mileage, perfect for luxury EV enthusiasts.', 85000.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'seller1@iheartev.local'), 3
 WHERE NOT EXISTS (SELECT 1 FROM listings WHERE brand = 'Porsche' AND model = 'Taycan' AND seller_id = (SELECT id FROM users WHERE email = 'seller1@iheartev.local'));
 
-INSERT INTO listings (type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
-SELECT 'EV', 'Nissan', 'Leaf', 2020, 35000, 40, 'used', 'Nissan Leaf reliable daily driver. Good battery health. Well maintained, ready to drive. Great for city commuting.', 14000.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'seller2@iheartev.local'), 4
+INSERT INTO listings (id, type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
+SELECT NEXT VALUE FOR listings_seq, 'EV', 'Nissan', 'Leaf', 2020, 35000, 40, 'used', 'Nissan Leaf reliable daily driver. Good battery health. Well maintained, ready to drive. Great for city commuting.', 14000.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'seller2@iheartev.local'), 4
 WHERE NOT EXISTS (SELECT 1 FROM listings WHERE brand = 'Nissan' AND model = 'Leaf' AND seller_id = (SELECT id FROM users WHERE email = 'seller2@iheartev.local'));
 
-INSERT INTO listings (type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
-SELECT 'EV', 'BMW', 'iX3', 2022, 18000, 80, 'verified', 'BMW iX3 in excellent condition. Premium package included. Low mileage, one owner. Full service history available.', 45000.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'seller2@iheartev.local'), 5
+INSERT INTO listings (id, type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
+SELECT NEXT VALUE FOR listings_seq, 'EV', 'BMW', 'iX3', 2022, 18000, 80, 'verified', 'BMW iX3 in excellent condition. Premium package included. Low mileage, one owner. Full service history available.', 45000.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'seller2@iheartev.local'), 5
 WHERE NOT EXISTS (SELECT 1 FROM listings WHERE brand = 'BMW' AND model = 'iX3' AND seller_id = (SELECT id FROM users WHERE email = 'seller2@iheartev.local'));
 
 -- Additional Payment Info entries for batteries
-INSERT INTO payment_info (paymentMethod)
-SELECT 'CASH'
+INSERT INTO payment_info (id, paymentMethod)
+SELECT 6, 'CASH'
 WHERE NOT EXISTS (SELECT 1 FROM payment_info WHERE id = 6);
 
-INSERT INTO payment_info (paymentMethod, bankCode, bankName, accountNumber, amount, transactionContent)
-SELECT 'VIETQR', 'ACB', 'ACB', '111222333444', 2800.00, 'Mua pin CATL - Order #BAT001'
+INSERT INTO payment_info (id, paymentMethod, bankCode, bankName, accountNumber, amount, transactionContent)
+SELECT 7, 'VIETQR', 'ACB', 'ACB', '111222333444', 2800.00, 'Mua pin CATL - Order #BAT001'
 WHERE NOT EXISTS (SELECT 1 FROM payment_info WHERE id = 7);
 
-INSERT INTO payment_info (paymentMethod)
-SELECT 'CASH'
+INSERT INTO payment_info (id, paymentMethod)
+SELECT 8, 'CASH'
 WHERE NOT EXISTS (SELECT 1 FROM payment_info WHERE id = 8);
 
 -- Battery Listings - Active
-INSERT INTO listings (type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
-SELECT 'BATTERY', 'LG Chem', 'LGX E63', 2021, NULL, 63, 'used', 'LG Chem battery pack from 2021 model. 85% capacity remaining. Good for EV conversion projects or replacement. Tested and verified.', 3500.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'seller1@iheartev.local'), 6
+INSERT INTO listings (id, type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
+SELECT NEXT VALUE FOR listings_seq, 'BATTERY', 'LG Chem', 'LGX E63', 2021, NULL, 63, 'used', 'LG Chem battery pack from 2021 model. 85% capacity remaining. Good for EV conversion projects or replacement. Tested and verified.', 3500.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'seller1@iheartev.local'), 6
 WHERE NOT EXISTS (SELECT 1 FROM listings WHERE type = 'BATTERY' AND brand = 'LG Chem' AND seller_id = (SELECT id FROM users WHERE email = 'seller1@iheartev.local'));
 
-INSERT INTO listings (type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
-SELECT 'BATTERY', 'CATL', 'NCM 811', 2022, NULL, 55, 'verified', 'CATL battery module from electric vehicle. High energy density. Excellent condition, 90% capacity. Perfect for energy storage or EV projects.', 2800.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'seller2@iheartev.local'), 7
+INSERT INTO listings (id, type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
+SELECT NEXT VALUE FOR listings_seq, 'BATTERY', 'CATL', 'NCM 811', 2022, NULL, 55, 'verified', 'CATL battery module from electric vehicle. High energy density. Excellent condition, 90% capacity. Perfect for energy storage or EV projects.', 2800.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'seller2@iheartev.local'), 7
 WHERE NOT EXISTS (SELECT 1 FROM listings WHERE type = 'BATTERY' AND brand = 'CATL' AND seller_id = (SELECT id FROM users WHERE email = 'seller2@iheartev.local'));
 
-INSERT INTO listings (type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
-SELECT 'BATTERY', 'Panasonic', '2170 Cell', 2020, NULL, 75, 'used', 'Panasonic 2170 cells from Tesla battery pack. Good capacity retention. Suitable for EV upgrades or home energy storage.', 4200.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'member@iheartev.local'), 8
+INSERT INTO listings (id, type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
+SELECT NEXT VALUE FOR listings_seq, 'BATTERY', 'Panasonic', '2170 Cell', 2020, NULL, 75, 'used', 'Panasonic 2170 cells from Tesla battery pack. Good capacity retention. Suitable for EV upgrades or home energy storage.', 4200.00, 'ACTIVE', SYSDATETIME(), (SELECT id FROM users WHERE email = 'member@iheartev.local'), 8
 WHERE NOT EXISTS (SELECT 1 FROM listings WHERE type = 'BATTERY' AND brand = 'Panasonic' AND seller_id = (SELECT id FROM users WHERE email = 'member@iheartev.local'));
 
 -- Additional Payment Info for sold listing
-INSERT INTO payment_info (paymentMethod)
-SELECT 'CASH'
+INSERT INTO payment_info (id, paymentMethod)
+SELECT 9, 'CASH'
 WHERE NOT EXISTS (SELECT 1 FROM payment_info WHERE id = 9);
 
 -- Sold Listings (for testing completed transactions)
-INSERT INTO listings (type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
-SELECT 'EV', 'Chevrolet', 'Bolt EV', 2019, 40000, 60, 'used', 'Chevrolet Bolt EV. Reliable commuter car. Well maintained, good battery health. SOLD.', 16000.00, 'SOLD', DATEADD(DAY, -30, SYSDATETIME()), (SELECT id FROM users WHERE email = 'seller1@iheartev.local'), 9
+INSERT INTO listings (id, type, brand, model, year, mileage_km, battery_capacitykwh, condition_label, description, price, status, created_at, seller_id, payment_info_id)
+SELECT NEXT VALUE FOR listings_seq, 'EV', 'Chevrolet', 'Bolt EV', 2019, 40000, 60, 'used', 'Chevrolet Bolt EV. Reliable commuter car. Well maintained, good battery health. SOLD.', 16000.00, 'SOLD', DATEADD(DAY, -30, SYSDATETIME()), (SELECT id FROM users WHERE email = 'seller1@iheartev.local'), 9
 WHERE NOT EXISTS (SELECT 1 FROM listings WHERE brand = 'Chevrolet' AND model = 'Bolt EV' AND status = 'SOLD');
 
 -- ============================================
@@ -129,8 +130,8 @@ WHERE NOT EXISTS (SELECT 1 FROM listings WHERE brand = 'Chevrolet' AND model = '
 -- ============================================
 
 -- Pending Order for Tesla Model 3
-INSERT INTO orders (listing_id, buyer_id, amount, status, created_at, updated_at, buyer_payment_confirmed, seller_payment_received)
-SELECT 
+INSERT INTO orders (id, listing_id, buyer_id, amount, status, created_at, updated_at, buyer_payment_confirmed, seller_payment_received)
+SELECT NEXT VALUE FOR orders_seq, 
     (SELECT id FROM listings WHERE brand = 'Tesla' AND model = 'Model 3' AND seller_id = (SELECT id FROM users WHERE email = 'seller1@iheartev.local')),
     (SELECT id FROM users WHERE email = 'buyer1@iheartev.local'),
     (SELECT price FROM listings WHERE brand = 'Tesla' AND model = 'Model 3' AND seller_id = (SELECT id FROM users WHERE email = 'seller1@iheartev.local')),
@@ -142,8 +143,8 @@ SELECT
 WHERE NOT EXISTS (SELECT 1 FROM orders WHERE buyer_id = (SELECT id FROM users WHERE email = 'buyer1@iheartev.local') AND listing_id = (SELECT id FROM listings WHERE brand = 'Tesla' AND model = 'Model 3'));
 
 -- Pending Order for BMW iX3
-INSERT INTO orders (listing_id, buyer_id, amount, status, created_at, updated_at, buyer_payment_confirmed, seller_payment_received)
-SELECT 
+INSERT INTO orders (id, listing_id, buyer_id, amount, status, created_at, updated_at, buyer_payment_confirmed, seller_payment_received)
+SELECT NEXT VALUE FOR orders_seq, 
     (SELECT id FROM listings WHERE brand = 'BMW' AND model = 'iX3' AND seller_id = (SELECT id FROM users WHERE email = 'seller2@iheartev.local')),
     (SELECT id FROM users WHERE email = 'buyer2@iheartev.local'),
     (SELECT price FROM listings WHERE brand = 'BMW' AND model = 'iX3' AND seller_id = (SELECT id FROM users WHERE email = 'seller2@iheartev.local')),
@@ -155,8 +156,8 @@ SELECT
 WHERE NOT EXISTS (SELECT 1 FROM orders WHERE buyer_id = (SELECT id FROM users WHERE email = 'buyer2@iheartev.local') AND listing_id = (SELECT id FROM listings WHERE brand = 'BMW' AND model = 'iX3'));
 
 -- Paid Order (buyer confirmed payment)
-INSERT INTO orders (listing_id, buyer_id, amount, status, created_at, updated_at, buyer_payment_confirmed, buyer_payment_confirmed_at, seller_payment_received)
-SELECT 
+INSERT INTO orders (id, listing_id, buyer_id, amount, status, created_at, updated_at, buyer_payment_confirmed, buyer_payment_confirmed_at, seller_payment_received)
+SELECT NEXT VALUE FOR orders_seq, 
     (SELECT id FROM listings WHERE brand = 'VinFast' AND model = 'VF e34' AND seller_id = (SELECT id FROM users WHERE email = 'member@iheartev.local')),
     (SELECT id FROM users WHERE email = 'buyer1@iheartev.local'),
     (SELECT price FROM listings WHERE brand = 'VinFast' AND model = 'VF e34' AND seller_id = (SELECT id FROM users WHERE email = 'member@iheartev.local')),
@@ -169,8 +170,8 @@ SELECT
 WHERE NOT EXISTS (SELECT 1 FROM orders WHERE buyer_id = (SELECT id FROM users WHERE email = 'buyer1@iheartev.local') AND listing_id = (SELECT id FROM listings WHERE brand = 'VinFast' AND model = 'VF e34'));
 
 -- Closed Order (completed transaction)
-INSERT INTO orders (listing_id, buyer_id, amount, status, created_at, updated_at, buyer_payment_confirmed, buyer_payment_confirmed_at, seller_payment_received, seller_payment_received_at, closed_at)
-SELECT 
+INSERT INTO orders (id, listing_id, buyer_id, amount, status, created_at, updated_at, buyer_payment_confirmed, buyer_payment_confirmed_at, seller_payment_received, seller_payment_received_at, closed_at)
+SELECT NEXT VALUE FOR orders_seq, 
     (SELECT id FROM listings WHERE brand = 'Chevrolet' AND model = 'Bolt EV' AND status = 'SOLD'),
     (SELECT id FROM users WHERE email = 'buyer1@iheartev.local'),
     16000.00,
@@ -185,8 +186,8 @@ SELECT
 WHERE NOT EXISTS (SELECT 1 FROM orders WHERE listing_id = (SELECT id FROM listings WHERE brand = 'Chevrolet' AND model = 'Bolt EV'));
 
 -- Cancelled Order  
-INSERT INTO orders (listing_id, buyer_id, amount, status, created_at, updated_at, buyer_payment_confirmed, seller_payment_received, cancelled_by, cancellation_reason, cancelled_at)
-SELECT 
+INSERT INTO orders (id, listing_id, buyer_id, amount, status, created_at, updated_at, buyer_payment_confirmed, seller_payment_received, cancelled_by, cancellation_reason, cancelled_at)
+SELECT NEXT VALUE FOR orders_seq, 
     (SELECT id FROM listings WHERE type = 'BATTERY' AND brand = 'LG Chem' AND seller_id = (SELECT id FROM users WHERE email = 'seller1@iheartev.local')),
     (SELECT id FROM users WHERE email = 'buyer2@iheartev.local'),
     3500.00,
@@ -205,8 +206,8 @@ WHERE NOT EXISTS (SELECT 1 FROM orders WHERE buyer_id = (SELECT id FROM users WH
 -- ============================================
 
 -- Review from buyer1 to seller1 (for closed order)
-INSERT INTO reviews (reviewer_id, reviewee_id, rating, comment, created_at, updated_at, edit_count, order_id)
-SELECT 
+INSERT INTO reviews (id, reviewer_id, reviewee_id, rating, comment, created_at, updated_at, edit_count, order_id)
+SELECT NEXT VALUE FOR reviews_seq, 
     (SELECT id FROM users WHERE email = 'buyer1@iheartev.local'),
     (SELECT id FROM users WHERE email = 'seller1@iheartev.local'),
     5,
@@ -218,8 +219,8 @@ SELECT
 WHERE NOT EXISTS (SELECT 1 FROM reviews WHERE reviewer_id = (SELECT id FROM users WHERE email = 'buyer1@iheartev.local') AND reviewee_id = (SELECT id FROM users WHERE email = 'seller1@iheartev.local') AND order_id IS NOT NULL);
 
 -- Review from seller1 to buyer1
-INSERT INTO reviews (reviewer_id, reviewee_id, rating, comment, created_at, updated_at, edit_count, order_id)
-SELECT 
+INSERT INTO reviews (id, reviewer_id, reviewee_id, rating, comment, created_at, updated_at, edit_count, order_id)
+SELECT NEXT VALUE FOR reviews_seq, 
     (SELECT id FROM users WHERE email = 'seller1@iheartev.local'),
     (SELECT id FROM users WHERE email = 'buyer1@iheartev.local'),
     5,
@@ -231,8 +232,8 @@ SELECT
 WHERE NOT EXISTS (SELECT 1 FROM reviews WHERE reviewer_id = (SELECT id FROM users WHERE email = 'seller1@iheartev.local') AND reviewee_id = (SELECT id FROM users WHERE email = 'buyer1@iheartev.local') AND order_id IS NOT NULL);
 
 -- Review from buyer2 to seller2
-INSERT INTO reviews (reviewer_id, reviewee_id, rating, comment, created_at, updated_at, edit_count)
-SELECT 
+INSERT INTO reviews (id, reviewer_id, reviewee_id, rating, comment, created_at, updated_at, edit_count)
+SELECT NEXT VALUE FOR reviews_seq, 
     (SELECT id FROM users WHERE email = 'buyer2@iheartev.local'),
     (SELECT id FROM users WHERE email = 'seller2@iheartev.local'),
     4,
@@ -243,8 +244,8 @@ SELECT
 WHERE NOT EXISTS (SELECT 1 FROM reviews WHERE reviewer_id = (SELECT id FROM users WHERE email = 'buyer2@iheartev.local') AND reviewee_id = (SELECT id FROM users WHERE email = 'seller2@iheartev.local') AND order_id IS NULL);
 
 -- Review from member to seller2
-INSERT INTO reviews (reviewer_id, reviewee_id, rating, comment, created_at, updated_at, edit_count)
-SELECT 
+INSERT INTO reviews (id, reviewer_id, reviewee_id, rating, comment, created_at, updated_at, edit_count)
+SELECT NEXT VALUE FOR reviews_seq, 
     (SELECT id FROM users WHERE email = 'member@iheartev.local'),
     (SELECT id FROM users WHERE email = 'seller2@iheartev.local'),
     3,
@@ -255,8 +256,8 @@ SELECT
 WHERE NOT EXISTS (SELECT 1 FROM reviews WHERE reviewer_id = (SELECT id FROM users WHERE email = 'member@iheartev.local') AND reviewee_id = (SELECT id FROM users WHERE email = 'seller2@iheartev.local'));
 
 -- Additional reviews for seller1 (to show rating diversity)
-INSERT INTO reviews (reviewer_id, reviewee_id, rating, comment, created_at, updated_at, edit_count)
-SELECT 
+INSERT INTO reviews (id, reviewer_id, reviewee_id, rating, comment, created_at, updated_at, edit_count)
+SELECT NEXT VALUE FOR reviews_seq, 
     (SELECT id FROM users WHERE email = 'member@iheartev.local'),
     (SELECT id FROM users WHERE email = 'seller1@iheartev.local'),
     5,
@@ -271,40 +272,40 @@ WHERE NOT EXISTS (SELECT 1 FROM reviews WHERE reviewer_id = (SELECT id FROM user
 -- ============================================
 
 -- Favorites for buyer1
-INSERT INTO favorites (user_id, listing_id)
-SELECT 
+INSERT INTO favorites (id, user_id, listing_id)
+SELECT NEXT VALUE FOR favorites_seq, 
     (SELECT id FROM users WHERE email = 'buyer1@iheartev.local'),
     (SELECT id FROM listings WHERE brand = 'Porsche' AND model = 'Taycan' AND seller_id = (SELECT id FROM users WHERE email = 'seller1@iheartev.local'))
 WHERE NOT EXISTS (SELECT 1 FROM favorites WHERE user_id = (SELECT id FROM users WHERE email = 'buyer1@iheartev.local') AND listing_id = (SELECT id FROM listings WHERE brand = 'Porsche' AND model = 'Taycan'));
 
-INSERT INTO favorites (user_id, listing_id)
-SELECT 
+INSERT INTO favorites (id, user_id, listing_id)
+SELECT NEXT VALUE FOR favorites_seq, 
     (SELECT id FROM users WHERE email = 'buyer1@iheartev.local'),
     (SELECT id FROM listings WHERE brand = 'BMW' AND model = 'iX3' AND seller_id = (SELECT id FROM users WHERE email = 'seller2@iheartev.local'))
 WHERE NOT EXISTS (SELECT 1 FROM favorites WHERE user_id = (SELECT id FROM users WHERE email = 'buyer1@iheartev.local') AND listing_id = (SELECT id FROM listings WHERE brand = 'BMW' AND model = 'iX3'));
 
 -- Favorites for buyer2
-INSERT INTO favorites (user_id, listing_id)
-SELECT 
+INSERT INTO favorites (id, user_id, listing_id)
+SELECT NEXT VALUE FOR favorites_seq, 
     (SELECT id FROM users WHERE email = 'buyer2@iheartev.local'),
     (SELECT id FROM listings WHERE brand = 'VinFast' AND model = 'VF e34' AND seller_id = (SELECT id FROM users WHERE email = 'member@iheartev.local'))
 WHERE NOT EXISTS (SELECT 1 FROM favorites WHERE user_id = (SELECT id FROM users WHERE email = 'buyer2@iheartev.local') AND listing_id = (SELECT id FROM listings WHERE brand = 'VinFast' AND model = 'VF e34'));
 
-INSERT INTO favorites (user_id, listing_id)
-SELECT 
+INSERT INTO favorites (id, user_id, listing_id)
+SELECT NEXT VALUE FOR favorites_seq, 
     (SELECT id FROM users WHERE email = 'buyer2@iheartev.local'),
     (SELECT id FROM listings WHERE type = 'BATTERY' AND brand = 'CATL' AND seller_id = (SELECT id FROM users WHERE email = 'seller2@iheartev.local'))
 WHERE NOT EXISTS (SELECT 1 FROM favorites WHERE user_id = (SELECT id FROM users WHERE email = 'buyer2@iheartev.local') AND listing_id = (SELECT id FROM listings WHERE type = 'BATTERY' AND brand = 'CATL'));
 
 -- Favorites for member
-INSERT INTO favorites (user_id, listing_id)
-SELECT 
+INSERT INTO favorites (id, user_id, listing_id)
+SELECT NEXT VALUE FOR favorites_seq, 
     (SELECT id FROM users WHERE email = 'member@iheartev.local'),
     (SELECT id FROM listings WHERE brand = 'Tesla' AND model = 'Model 3' AND seller_id = (SELECT id FROM users WHERE email = 'seller1@iheartev.local'))
 WHERE NOT EXISTS (SELECT 1 FROM favorites WHERE user_id = (SELECT id FROM users WHERE email = 'member@iheartev.local') AND listing_id = (SELECT id FROM listings WHERE brand = 'Tesla' AND model = 'Model 3'));
 
-INSERT INTO favorites (user_id, listing_id)
-SELECT 
+INSERT INTO favorites (id, user_id, listing_id)
+SELECT NEXT VALUE FOR favorites_seq, 
     (SELECT id FROM users WHERE email = 'member@iheartev.local'),
     (SELECT id FROM listings WHERE type = 'BATTERY' AND brand = 'Panasonic' AND seller_id = (SELECT id FROM users WHERE email = 'member@iheartev.local'))
 WHERE NOT EXISTS (SELECT 1 FROM favorites WHERE user_id = (SELECT id FROM users WHERE email = 'member@iheartev.local') AND listing_id = (SELECT id FROM listings WHERE type = 'BATTERY' AND brand = 'Panasonic'));
@@ -0,0 +1,179 @@
+-- Baseline schema, matching the JPA mappings (PhysicalNamingStrategyStandardImpl: column names are
+-- the field names unless @Column(name) says otherwise).
+-- Databases that were created by ddl-auto=update already have these tables, so every statement is
+-- guarded and this script only fills in what is missing.
+
+-- ============================================
+-- SEQUENCES (pooled, allocationSize = 50)
+-- ============================================
+IF NOT EXISTS (SELECT 1 FROM sys.sequences WHERE name = 'users_seq')
+    CREATE SEQUENCE users_seq AS BIGINT START WITH 1 INCREMENT BY 50;
+IF NOT EXISTS (SELECT 1 FROM sys.sequences WHERE name = 'payment_info_seq')
+    CREATE SEQUENCE payment_info_seq AS BIGINT START WITH 100 INCREMENT BY 50;
+IF NOT EXISTS (SELECT 1 FROM sys.sequences WHERE name = 'listings_seq')
+    CREATE SEQUENCE listings_seq AS BIGINT START WITH 1 INCREMENT BY 50;
+IF NOT EXISTS (SELECT 1 FROM sys.sequences WHERE name = 'orders_seq')
+    CREATE SEQUENCE orders_seq AS BIGINT START WITH 1 INCREMENT BY 50;
+IF NOT EXISTS (SELECT 1 FROM sys.sequences WHERE name = 'reviews_seq')
+    CREATE SEQUENCE reviews_seq AS BIGINT START WITH 1 INCREMENT BY 50;
+IF NOT EXISTS (SELECT 1 FROM sys.sequences WHERE name = 'favorites_seq')
+    CREATE SEQUENCE favorites_seq AS BIGINT START WITH 1 INCREMENT BY 50;
+IF NOT EXISTS (SELECT 1 FROM sys.sequences WHERE name = 'attachments_seq')
+    CREATE SEQUENCE attachments_seq AS BIGINT START WITH 1 INCREMENT BY 50;
+IF NOT EXISTS (SELECT 1 FROM sys.sequences WHERE name = 'metric_rollups_seq')
+    CREATE SEQUENCE metric_rollups_seq AS BIGINT START WITH 1 INCREMENT BY 50;
+GO
+
+-- ============================================
+-- TABLES
+-- ============================================
+IF OBJECT_ID(N'users') IS NULL
+    CREATE TABLE users (
+        id BIGINT NOT NULL,
+        email VARCHAR(255) NOT NULL,
+        phone VARCHAR(255),
+        password VARCHAR(255),
+        fullName VARCHAR(255),
+        role VARCHAR(255) CHECK (role IN ('GUEST', 'MEMBER', 'ADMIN')),
+        enabled BIT NOT NULL,
+        CONSTRAINT pk_users PRIMARY KEY (id),
+        CONSTRAINT uk_users_email UNIQUE (email)
+    );
+GO
+
+IF OBJECT_ID(N'payment_info') IS NULL
+    CREATE TABLE payment_info (
+        id BIGINT NOT NULL,
+        paymentMethod VARCHAR(255) NOT NULL,
+        bankCode VARCHAR(255),
+        bankName VARCHAR(255),
+        accountNumber VARCHAR(255),
+        amount FLOAT(53),
+        transactionContent VARCHAR(255),
+        CONSTRAINT pk_payment_info PRIMARY KEY (id)
+    );
+GO
+
+IF OBJECT_ID(N'listings') IS NULL
+BEGIN
+    CREATE TABLE listings (
+        id BIGINT NOT NULL,
+        seller_id BIGINT,
+        type VARCHAR(255),
+        brand VARCHAR(255),
+        model VARCHAR(255),
+        year INT,
+        mileage_km INT,
+        battery_capacitykwh INT,
+        condition_label VARCHAR(255),
+        description VARCHAR(2000),
+        price FLOAT(53),
+        status VARCHAR(255),
+        created_at DATETIMEOFFSET(6),
+        approved_at DATETIMEOFFSET(6),
+        deleted_at DATETIMEOFFSET(6),
+        edited_after_rejection BIT,
+        payment_info_id BIGINT,
+        CONSTRAINT pk_listings PRIMARY KEY (id),
+        CONSTRAINT fk_listings_seller FOREIGN KEY (seller_id) REFERENCES users (id),
+        CONSTRAINT fk_listings_payment_info FOREIGN KEY (payment_info_id) REFERENCES payment_info (id)
+    );
+    CREATE UNIQUE NONCLUSTERED INDEX uk_listings_payment_info ON listings (payment_info_id) WHERE payment_info_id IS NOT NULL;
+END
+GO
+
+IF OBJECT_ID(N'orders') IS NULL
+    CREATE TABLE orders (
+        id BIGINT NOT NULL,
+        listing_id BIGINT NOT NULL,
+        buyer_id BIGINT NOT NULL,
+        amount FLOAT(53),
+        status VARCHAR(255),
+        created_at DATETIMEOFFSET(6),
+        updated_at DATETIMEOFFSET(6),
+        cancelled_by VARCHAR(255),
+        cancellation_reason VARCHAR(255),
+        cancelled_at DATETIMEOFFSET(6),
+        buyer_payment_confirmed BIT,
+        buyer_payment_confirmed_at DATETIMEOFFSET(6),
+        seller_payment_received BIT,
+        seller_payment_received_at DATETIMEOFFSET(6),
+        closed_at DATETIMEOFFSET(6),
+        buyer_review_id BIGINT,
+        seller_review_id BIGINT,
+        CONSTRAINT pk_orders PRIMARY KEY (id),
+        CONSTRAINT fk_orders_listing FOREIGN KEY (listing_id) REFERENCES listings (id),
+        CONSTRAINT fk_orders_buyer FOREIGN KEY (buyer_id) REFERENCES users (id)
+    );
+GO
+
+IF OBJECT_ID(N'reviews') IS NULL
+    CREATE TABLE reviews (
+        id BIGINT NOT NULL,
+        reviewer_id BIGINT NOT NULL,
+        reviewee_id BIGINT NOT NULL,
+        order_id BIGINT,
+        rating INT NOT NULL,
+        comment VARCHAR(1000),
+        created_at DATETIMEOFFSET(6),
+        updated_at DATETIMEOFFSET(6),
+        edit_count INT,
+        CONSTRAINT pk_reviews PRIMARY KEY (id),
+        CONSTRAINT fk_reviews_reviewer FOREIGN KEY (reviewer_id) REFERENCES users (id),
+        CONSTRAINT fk_reviews_reviewee FOREIGN KEY (reviewee_id) REFERENCES users (id)
+    );
+GO
+
+IF OBJECT_ID(N'favorites') IS NULL
+    CREATE TABLE favorites (
+        id BIGINT NOT NULL,
+        user_id BIGINT NOT NULL,
+        listing_id BIGINT NOT NULL,
+        CONSTRAINT pk_favorites PRIMARY KEY (id),
+        CONSTRAINT uk_favorites_user_listing UNIQUE (user_id, listing_id),
+        CONSTRAINT fk_favorites_user FOREIGN KEY (user_id) REFERENCES users (id),
+        CONSTRAINT fk_favorites_listing FOREIGN KEY (listing_id) REFERENCES listings (id)
+    );
+GO
+
+IF OBJECT_ID(N'attachments') IS NULL
+    CREATE TABLE attachments (
+        id BIGINT NOT NULL,
+        listingId BIGINT,
+        fileName VARCHAR(255) NOT NULL,
+        filePath VARCHAR(255) NOT NULL,
+        type VARCHAR(255) NOT NULL,
+        fileSize BIGINT NOT NULL,
+        CONSTRAINT pk_attachments PRIMARY KEY (id)
+    );
+GO
+
+IF OBJECT_ID(N'metric_rollups') IS NULL
+BEGIN
+    CREATE TABLE metric_rollups (
+        id BIGINT NOT NULL,
+        granularity VARCHAR(8) NOT NULL,
+        bucket_start DATETIMEOFFSET(6) NOT NULL,
+        brand VARCHAR(255),
+        type VARCHAR(255),
+        new_listings BIGINT,
+        approved_listings BIGINT,
+        new_orders BIGINT,
+        closed_orders BIGINT,
+        cancelled_orders BIGINT,
+        gmv FLOAT(53) NOT NULL,
+        CONSTRAINT pk_metric_rollups PRIMARY KEY (id)
+    );
+    CREATE INDEX ix_metric_rollups_bucket ON metric_rollups (granularity, bucket_start);
+    CREATE UNIQUE NONCLUSTERED INDEX uk_metric_rollups_bucket ON metric_rollups (granularity, bucket_start, brand, type)
+        WHERE brand IS NOT NULL AND type IS NOT NULL;
+END
+GO
+
+IF OBJECT_ID(N'rollup_watermarks') IS NULL
+    CREATE TABLE rollup_watermarks (
+        name VARCHAR(64) NOT NULL,
+        processed_until DATETIMEOFFSET(6),
+        CONSTRAINT pk_rollup_watermarks PRIMARY KEY (name)
+    );
+GO
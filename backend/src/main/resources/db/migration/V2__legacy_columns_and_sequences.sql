@@ -0,0 +1,168 @@
+-- Folds in the scripts that used to be run by hand (migration_add_listing_approval.sql,
+-- migration_add_missing_columns.sql, migration_identity_to_sequence.sql) for databases that were
+-- created before the baseline. On a database created by V1 every step is a no-op.
+
+-- ============================================
+-- LISTINGS: approval workflow columns
+-- ============================================
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'listings') AND name = 'edited_after_rejection')
+    ALTER TABLE listings ADD edited_after_rejection BIT DEFAULT 0;
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'listings') AND name = 'deleted_at')
+    ALTER TABLE listings ADD deleted_at DATETIMEOFFSET(6) NULL;
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'listings') AND name = 'approved_at')
+    ALTER TABLE listings ADD approved_at DATETIMEOFFSET(6) NULL;
+GO
+
+UPDATE listings SET edited_after_rejection = 0 WHERE edited_after_rejection IS NULL;
+-- Listings that were ACTIVE before the approval workflow count as already approved
+UPDATE listings SET status = 'APPROVED' WHERE status = 'ACTIVE';
+GO
+
+-- ============================================
+-- REVIEWS
+-- ============================================
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'reviews') AND name = 'updated_at')
+    ALTER TABLE reviews ADD updated_at DATETIMEOFFSET(6);
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'reviews') AND name = 'edit_count')
+    ALTER TABLE reviews ADD edit_count INT DEFAULT 0;
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'reviews') AND name = 'order_id')
+    ALTER TABLE reviews ADD order_id BIGINT NULL;
+GO
+
+UPDATE reviews SET updated_at = created_at WHERE updated_at IS NULL;
+UPDATE reviews SET edit_count = 0 WHERE edit_count IS NULL;
+GO
+
+-- ============================================
+-- ORDERS
+-- ============================================
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'orders') AND name = 'updated_at')
+    ALTER TABLE orders ADD updated_at DATETIMEOFFSET(6);
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'orders') AND name = 'cancelled_by')
+    ALTER TABLE orders ADD cancelled_by VARCHAR(255) NULL;
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'orders') AND name = 'cancellation_reason')
+    ALTER TABLE orders ADD cancellation_reason VARCHAR(255) NULL;
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'orders') AND name = 'cancelled_at')
+    ALTER TABLE orders ADD cancelled_at DATETIMEOFFSET(6) NULL;
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'orders') AND name = 'buyer_payment_confirmed')
+    ALTER TABLE orders ADD buyer_payment_confirmed BIT DEFAULT 0;
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'orders') AND name = 'buyer_payment_confirmed_at')
+    ALTER TABLE orders ADD buyer_payment_confirmed_at DATETIMEOFFSET(6) NULL;
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'orders') AND name = 'seller_payment_received')
+    ALTER TABLE orders ADD seller_payment_received BIT DEFAULT 0;
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'orders') AND name = 'seller_payment_received_at')
+    ALTER TABLE orders ADD seller_payment_received_at DATETIMEOFFSET(6) NULL;
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'orders') AND name = 'closed_at')
+    ALTER TABLE orders ADD closed_at DATETIMEOFFSET(6) NULL;
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'orders') AND name = 'buyer_review_id')
+    ALTER TABLE orders ADD buyer_review_id BIGINT NULL;
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'orders') AND name = 'seller_review_id')
+    ALTER TABLE orders ADD seller_review_id BIGINT NULL;
+GO
+
+UPDATE orders SET updated_at = created_at WHERE updated_at IS NULL;
+UPDATE orders SET buyer_payment_confirmed = 0 WHERE buyer_payment_confirmed IS NULL;
+UPDATE orders SET seller_payment_received = 0 WHERE seller_payment_received IS NULL;
+GO
+
+-- ============================================
+-- IDENTITY -> pooled sequences
+-- Hibernate cannot batch inserts into IDENTITY columns. Tables still on IDENTITY are converted:
+--   1. (re)start <table>_seq at MAX(id) + 50 (the pooled optimizer hands out the 50 ids ending
+--      at the returned value, so this keeps new ids above MAX(id))
+--   2. copy id into a plain BIGINT column, drop the IDENTITY column, rename back
+--   3. recreate the primary key and every foreign key that referenced it
+-- ============================================
+CREATE OR ALTER PROCEDURE dbo.convert_identity_to_sequence
+    @table SYSNAME,
+    @sequence SYSNAME,
+    @increment INT = 50
+AS
+BEGIN
+    SET NOCOUNT ON;
+    DECLARE @sql NVARCHAR(MAX);
+    DECLARE @start BIGINT;
+
+    SET @sql = N'SELECT @s = ISNULL(MAX(id), 0) + ' + CAST(@increment AS NVARCHAR(10)) + N' FROM ' + QUOTENAME(@table);
+    EXEC sp_executesql @sql, N'@s BIGINT OUTPUT', @s = @start OUTPUT;
+
+    -- V1 (or ddl-auto=update before it) may have created the sequence at 1 on a table that already has rows
+    IF NOT EXISTS (SELECT 1 FROM sys.sequences WHERE name = @sequence)
+    BEGIN
+        SET @sql = N'CREATE SEQUENCE ' + QUOTENAME(@sequence) + N' AS BIGINT START WITH ' + CAST(@start AS NVARCHAR(20))
+                 + N' INCREMENT BY ' + CAST(@increment AS NVARCHAR(10));
+        EXEC sp_executesql @sql;
+        PRINT 'Created sequence ' + @sequence + ' starting at ' + CAST(@start AS VARCHAR(20));
+    END
+    ELSE IF (SELECT CAST(current_value AS BIGINT) FROM sys.sequences WHERE name = @sequence) < @start
+    BEGIN
+        SET @sql = N'ALTER SEQUENCE ' + QUOTENAME(@sequence) + N' RESTART WITH ' + CAST(@start AS NVARCHAR(20));
+        EXEC sp_executesql @sql;
+        PRINT 'Restarted sequence ' + @sequence + ' at ' + CAST(@start AS VARCHAR(20));
+    END
+
+    IF COLUMNPROPERTY(OBJECT_ID(@table), 'id', 'IsIdentity') <> 1
+    BEGIN
+        PRINT 'Column ' + @table + '.id is not IDENTITY, skipping';
+        RETURN;
+    END
+
+    BEGIN TRANSACTION;
+
+    -- Remember and drop foreign keys that reference this table (all single-column in this schema)
+    DECLARE @fks TABLE (name SYSNAME, parent SYSNAME, parent_column SYSNAME);
+    INSERT INTO @fks
+    SELECT fk.name, OBJECT_NAME(fk.parent_object_id), COL_NAME(fkc.parent_object_id, fkc.parent_column_id)
+    FROM sys.foreign_keys fk
+    JOIN sys.foreign_key_columns fkc ON fkc.constraint_object_id = fk.object_id
+    WHERE fk.referenced_object_id = OBJECT_ID(@table);
+
+    SET @sql = N'';
+    SELECT @sql = @sql + N'ALTER TABLE ' + QUOTENAME(parent) + N' DROP CONSTRAINT ' + QUOTENAME(name) + N';' FROM @fks;
+    EXEC sp_executesql @sql;
+
+    DECLARE @pk SYSNAME = (SELECT name FROM sys.key_constraints WHERE parent_object_id = OBJECT_ID(@table) AND type = 'PK');
+    SET @sql = N'ALTER TABLE ' + QUOTENAME(@table) + N' DROP CONSTRAINT ' + QUOTENAME(@pk) + N';';
+    EXEC sp_executesql @sql;
+
+    SET @sql = N'ALTER TABLE ' + QUOTENAME(@table) + N' ADD id_new BIGINT NULL;';
+    EXEC sp_executesql @sql;
+    SET @sql = N'UPDATE ' + QUOTENAME(@table) + N' SET id_new = id;';
+    EXEC sp_executesql @sql;
+    SET @sql = N'ALTER TABLE ' + QUOTENAME(@table) + N' DROP COLUMN id;';
+    EXEC sp_executesql @sql;
+    SET @sql = N'EXEC sp_rename ''' + @table + N'.id_new'', ''id'', ''COLUMN'';';
+    EXEC sp_executesql @sql;
+    SET @sql = N'ALTER TABLE ' + QUOTENAME(@table) + N' ALTER COLUMN id BIGINT NOT NULL;';
+    EXEC sp_executesql @sql;
+    SET @sql = N'ALTER TABLE ' + QUOTENAME(@table) + N' ADD CONSTRAINT ' + QUOTENAME(@pk) + N' PRIMARY KEY (id);';
+    EXEC sp_executesql @sql;
+
+    -- Raw SQL inserts (seed scripts, manual fixes) keep working without naming the sequence
+    SET @sql = N'ALTER TABLE ' + QUOTENAME(@table) + N' ADD CONSTRAINT ' + QUOTENAME('DF_' + @table + '_id')
+             + N' DEFAULT (NEXT VALUE FOR ' + QUOTENAME(@sequence) + N') FOR id;';
+    EXEC sp_executesql @sql;
+
+    SET @sql = N'';
+    SELECT @sql = @sql + N'ALTER TABLE ' + QUOTENAME(parent) + N' ADD CONSTRAINT ' + QUOTENAME(name)
+                + N' FOREIGN KEY (' + QUOTENAME(parent_column) + N') REFERENCES ' + QUOTENAME(@table) + N' (id);'
+    FROM @fks;
+    EXEC sp_executesql @sql;
+
+    COMMIT TRANSACTION;
+    PRINT 'Converted ' + @table + '.id from IDENTITY to sequence ' + @sequence;
+END
+GO
+
+EXEC dbo.convert_identity_to_sequence @table = 'users', @sequence = 'users_seq';
+EXEC dbo.convert_identity_to_sequence @table = 'payment_info', @sequence = 'payment_info_seq';
+EXEC dbo.convert_identity_to_sequence @table = 'listings', @sequence = 'listings_seq';
+EXEC dbo.convert_identity_to_sequence @table = 'orders', @sequence = 'orders_seq';
+EXEC dbo.convert_identity_to_sequence @table = 'reviews', @sequence = 'reviews_seq';
+EXEC dbo.convert_identity_to_sequence @table = 'favorites', @sequence = 'favorites_seq';
+EXEC dbo.convert_identity_to_sequence @table = 'attachments', @sequence = 'attachments_seq';
+EXEC dbo.convert_identity_to_sequence @table = 'metric_rollups', @sequence = 'metric_rollups_seq';
+GO
+
+DROP PROCEDURE dbo.convert_identity_to_sequence;
+GO
@@ -0,0 +1,79 @@
+-- Indexes for the columns the repositories and controllers filter on.
+-- Every index is created only if missing, so the script is safe to re-run by hand.
+
+-- ============================================
+-- LISTINGS
+-- ============================================
+-- Moderation queue / keyset paging (ListingRepository.findPendingQueue*) and public search by status.
+-- Filtered to live rows: soft-deleted listings never show up in these queries.
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_listings_live_status_created' AND object_id = OBJECT_ID(N'listings'))
+    CREATE INDEX ix_listings_live_status_created ON listings (status, created_at, id) WHERE deleted_at IS NULL;
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_listings_status_created' AND object_id = OBJECT_ID(N'listings'))
+    CREATE INDEX ix_listings_status_created ON listings (status, created_at);
+
+-- Seller profile / "my listings"
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_listings_seller_status' AND object_id = OBJECT_ID(N'listings'))
+    CREATE INDEX ix_listings_seller_status ON listings (seller_id, status);
+
+-- Report rollup sources (RollupService): range scans on the event time, covering brand/type
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_listings_created_at' AND object_id = OBJECT_ID(N'listings'))
+    CREATE INDEX ix_listings_created_at ON listings (created_at) INCLUDE (brand, type);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_listings_approved_at' AND object_id = OBJECT_ID(N'listings'))
+    CREATE INDEX ix_listings_approved_at ON listings (approved_at) INCLUDE (brand, type) WHERE approved_at IS NOT NULL;
+GO
+
+-- ============================================
+-- ORDERS
+-- ============================================
+-- Active orders for a listing (OrderRepository.findActiveOrdersByListingId)
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_orders_listing_status' AND object_id = OBJECT_ID(N'orders'))
+    CREATE INDEX ix_orders_listing_status ON orders (listing_id, status);
+
+-- Buyer side of OrderRepository.findAllByUserIdWithRelations
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_orders_buyer_id' AND object_id = OBJECT_ID(N'orders'))
+    CREATE INDEX ix_orders_buyer_id ON orders (buyer_id);
+
+-- Report rollup sources
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_orders_created_at' AND object_id = OBJECT_ID(N'orders'))
+    CREATE INDEX ix_orders_created_at ON orders (created_at) INCLUDE (listing_id, amount);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_orders_closed_at' AND object_id = OBJECT_ID(N'orders'))
+    CREATE INDEX ix_orders_closed_at ON orders (closed_at) INCLUDE (listing_id, amount) WHERE closed_at IS NOT NULL;
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_orders_cancelled_at' AND object_id = OBJECT_ID(N'orders'))
+    CREATE INDEX ix_orders_cancelled_at ON orders (cancelled_at) INCLUDE (listing_id, amount) WHERE cancelled_at IS NOT NULL;
+GO
+
+-- ============================================
+-- REVIEWS
+-- ============================================
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_reviews_reviewee_id' AND object_id = OBJECT_ID(N'reviews'))
+    CREATE INDEX ix_reviews_reviewee_id ON reviews (reviewee_id);
+
+-- "Has this user already reviewed this order?"
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_reviews_order_reviewer' AND object_id = OBJECT_ID(N'reviews'))
+    CREATE INDEX ix_reviews_order_reviewer ON reviews (order_id, reviewer_id);
+GO
+
+-- ============================================
+-- FAVORITES
+-- Lookups by user are served by the (user_id, listing_id) unique constraint; the listing side
+-- (FavoriteRepository.findByListingId / deleteByListingId) needs its own index.
+-- ============================================
+IF NOT EXISTS (SELECT 1 FROM sys.indexes i
+               JOIN sys.index_columns ic ON ic.object_id = i.object_id AND ic.index_id = i.index_id AND ic.key_ordinal = 1
+               WHERE i.object_id = OBJECT_ID(N'favorites') AND COL_NAME(ic.object_id, ic.column_id) = 'user_id')
+    CREATE INDEX ix_favorites_user_id ON favorites (user_id);
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_favorites_listing_id' AND object_id = OBJECT_ID(N'favorites'))
+    CREATE INDEX ix_favorites_listing_id ON favorites (listing_id);
+GO
+
+-- ============================================
+-- ATTACHMENTS (AttachmentRepository.findByListingId / deleteByListingId)
+-- ============================================
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_attachments_listing_id' AND object_id = OBJECT_ID(N'attachments'))
+    CREATE INDEX ix_attachments_listing_id ON attachments (listingId);
+GO
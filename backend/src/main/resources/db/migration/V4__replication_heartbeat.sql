@@ -0,0 +1,13 @@
+-- Heartbeat row for read-replica lag checks (datasource.ReplicaLagMonitor).
+-- The application writes its clock here on the primary and reads it back from the replica.
+IF OBJECT_ID(N'replication_heartbeat') IS NULL
+    CREATE TABLE replication_heartbeat (
+        id INT NOT NULL,
+        beat_at DATETIMEOFFSET(6) NOT NULL,
+        CONSTRAINT pk_replication_heartbeat PRIMARY KEY (id)
+    );
+GO
+
+IF NOT EXISTS (SELECT 1 FROM replication_heartbeat WHERE id = 1)
+    INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, SYSDATETIMEOFFSET());
+GO
@@ -0,0 +1,21 @@
+-- Content type as sent by the uploader, so downloads no longer assume image/jpeg or video/mp4.
+-- Existing rows get one from their file extension; rows it cannot tell stay NULL and fall back to
+-- the old guess by type in AttachmentController.
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'attachments') AND name = 'contentType')
+    ALTER TABLE attachments ADD contentType VARCHAR(100) NULL;
+GO
+
+UPDATE attachments SET contentType =
+    CASE LOWER(RIGHT(fileName, CHARINDEX('.', REVERSE(fileName))))
+        WHEN '.jpg' THEN 'image/jpeg'
+        WHEN '.jpeg' THEN 'image/jpeg'
+        WHEN '.png' THEN 'image/png'
+        WHEN '.gif' THEN 'image/gif'
+        WHEN '.webp' THEN 'image/webp'
+        WHEN '.heic' THEN 'image/heic'
+        WHEN '.mp4' THEN 'video/mp4'
+        WHEN '.mov' THEN 'video/quicktime'
+        WHEN '.webm' THEN 'video/webm'
+    END
+WHERE contentType IS NULL AND CHARINDEX('.', fileName) > 0;
+GO
@@ -0,0 +1,10 @@
+-- SHA-256 of the stored bytes and the upload time, the validators for attachment downloads (strong
+-- ETag and Last-Modified) so conditional requests are answered without reading the file. Existing rows
+-- stay NULL: AttachmentController falls back to an id-based ETag and the file's modification time.
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'attachments') AND name = 'contentHash')
+    ALTER TABLE attachments ADD contentHash CHAR(64) NULL;
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.columns WHERE object_id = OBJECT_ID(N'attachments') AND name = 'uploadedAt')
+    ALTER TABLE attachments ADD uploadedAt DATETIMEOFFSET(6) NULL;
+GO
@@ -0,0 +1,7 @@
+-- Attachment files are content-addressed (uploads/ab/cd/<sha256>) and shared by every row with the same
+-- bytes; the rows with a given filePath are the file's reference count. AttachmentRepository.lockByFilePath
+-- reads them with UPDLOCK, HOLDLOCK when a row is deleted, and this index keeps that a key-range lock on
+-- one path instead of a scan that locks the table.
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'ix_attachments_file_path' AND object_id = OBJECT_ID(N'attachments'))
+    CREATE INDEX ix_attachments_file_path ON attachments (filePath);
+GO
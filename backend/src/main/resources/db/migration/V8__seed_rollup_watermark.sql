@@ -0,0 +1,5 @@
+-- RollupService locks this row for every chunk it rolls up. Seeded here so nodes starting together
+-- never race to insert it on their first run.
+IF NOT EXISTS (SELECT 1 FROM rollup_watermarks WHERE name = 'metric_rollups')
+    INSERT INTO rollup_watermarks (name, processed_until) VALUES ('metric_rollups', NULL);
+GO
@@ -0,0 +1,360 @@
+package com.iheartev.api;
+
+import com.iheartev.api.attachment.AttachmentRepository;
+import com.iheartev.api.attachment.AttachmentStorage;
+import com.iheartev.api.attachment.ImageDerivatives;
+import com.iheartev.api.attachment.OrphanCollector;
+import com.iheartev.api.attachment.UploadSessions;
+import com.iheartev.api.security.JwtService;
+import com.iheartev.api.storage.BlobStore;
+import com.iheartev.api.user.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static com.iheartev.api.QueryBudgetAssertions.assertMaxQueries;
+import static com.iheartev.api.QueryBudgetAssertions.assertWithinQueryBudget;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Attachment uploads, downloads and garbage collection against the perf profile data set. Same
+// configuration as QueryBudgetTests, so both run in one application context.
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.javax.cache.uri=ehcache.xml",
+		"app.perf.users=2000",
+		"app.perf.listings=20000",
+		"app.perf.write-benchmark-rows=0",
+		"app.metrics.query-budget=log"
+})
+@ActiveProfiles("perf")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AttachmentTests {
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private AttachmentStorage attachmentStorage;
+
+	@Autowired
+	private AttachmentRepository attachmentRepository;
+
+	@Autowired
+	private BlobStore blobStore;
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private long seller;
+	private long buyer;
+	private long sellerListing;
+	private long attachment;
+	private long cachedAttachment;
+	private String sellerToken;
+	private String buyerToken;
+
+	@BeforeAll
+	void pickIds() {
+		seller = id("SELECT TOP 1 seller_id FROM listings GROUP BY seller_id ORDER BY COUNT(*) DESC, seller_id");
+		buyer = id("SELECT TOP 1 buyer_id FROM orders GROUP BY buyer_id ORDER BY COUNT(*) DESC, buyer_id");
+		sellerListing = id("SELECT MIN(id) FROM listings WHERE seller_id = " + seller + " AND status = 'APPROVED' AND deleted_at IS NULL");
+		attachment = id("SELECT MIN(id) FROM attachments");
+		cachedAttachment = id("SELECT MAX(a.id) FROM attachments a JOIN listings l ON l.id = a.listingId " +
+				"WHERE l.status = 'APPROVED' AND l.deleted_at IS NULL");
+		sellerToken = token(seller);
+		buyerToken = token(buyer);
+	}
+
+	// Perf data rows point at files that do not exist, so a 304 shows the file was never opened; the
+	// second request finds the row in the second-level cache and only reads the listing
+	@Test
+	void conditionalDownloadIsNotModifiedWithoutDisk() throws Exception {
+		String etag = "\"" + jdbcTemplate.queryForObject("SELECT contentHash FROM attachments WHERE id = " + cachedAttachment,
+				String.class) + "\"";
+		MockHttpServletRequestBuilder download = get("/api/attachments/" + cachedAttachment + "/download")
+				.header(HttpHeaders.IF_NONE_MATCH, etag);
+		mockMvc.perform(download).andExpect(status().isNotModified());
+		assertMaxQueries(1, () -> mockMvc.perform(download)
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable")));
+		mockMvc.perform(get("/api/attachments/" + cachedAttachment + "/download").header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+				.andExpect(status().isNotFound());
+	}
+
+	// By id too, files of a pending listing are only served to its seller (a 304 here, the file not existing)
+	@Test
+	void downloadsOfHiddenListingsAreNotFound() throws Exception {
+		long hidden = id("SELECT MIN(a.id) FROM attachments a JOIN listings l ON l.id = a.listingId " +
+				"WHERE l.status = 'PENDING' AND l.deleted_at IS NULL AND l.seller_id <> " + buyer);
+		long hiddenSeller = id("SELECT l.seller_id FROM attachments a JOIN listings l ON l.id = a.listingId WHERE a.id = " + hidden);
+		String etag = "\"" + jdbcTemplate.queryForObject("SELECT contentHash FROM attachments WHERE id = " + hidden,
+				String.class) + "\"";
+		Function<String, MockHttpServletRequestBuilder> download = token -> {
+			MockHttpServletRequestBuilder request = get("/api/attachments/" + hidden + "/download")
+					.header(HttpHeaders.IF_NONE_MATCH, etag);
+			return token == null ? request : auth(request, token);
+		};
+		mockMvc.perform(download.apply(null)).andExpect(status().isNotFound());
+		mockMvc.perform(download.apply(buyerToken)).andExpect(status().isNotFound());
+		mockMvc.perform(download.apply(token(hiddenSeller))).andExpect(status().isNotModified());
+	}
+
+	// Signed URLs need no token and no queries; the perf file does not exist, so a valid signature is a 404
+	// (not a 403) unless the client already has it. Pending listings get no URLs except for their seller.
+	@Test
+	void signedUrlsAreServedWithoutQueries() throws Exception {
+		long approved = id("SELECT MIN(a.listingId) FROM attachments a JOIN listings l ON l.id = a.listingId " +
+				"WHERE l.status = 'APPROVED' AND l.deleted_at IS NULL AND a.type = 'IMAGE'");
+		String body = mockMvc.perform(auth(get("/api/attachments/listing/" + approved), buyerToken))
+				.andReturn().getResponse().getContentAsString();
+		List<String> urls = JsonPath.read(body, "$[?(@.type == 'IMAGE')].urls.thumb");
+		List<String> filePaths = JsonPath.read(body, "$[?(@.type == 'IMAGE')].filePath");
+		String url = urls.get(0);
+		String filePath = filePaths.get(0);
+		String etag = "\"" + filePath.substring(filePath.lastIndexOf('/') + 1, filePath.lastIndexOf('.')) + "-thumb\"";
+
+		assertMaxQueries(0, () -> mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag)));
+		mockMvc.perform(get(url)).andExpect(status().isNotFound());
+		// Another variant's payload under this one's signature
+		List<String> large = JsonPath.read(body, "$[?(@.type == 'IMAGE')].urls.large");
+		String forged = large.get(0).substring(0, large.get(0).lastIndexOf('.')) + url.substring(url.lastIndexOf('.'));
+		mockMvc.perform(get(forged)).andExpect(status().isForbidden());
+
+		long hidden = id("SELECT MIN(a.listingId) FROM attachments a JOIN listings l ON l.id = a.listingId " +
+				"WHERE l.status = 'PENDING' AND l.deleted_at IS NULL AND l.seller_id <> " + buyer);
+		String pendingBody = mockMvc.perform(auth(get("/api/attachments/listing/" + hidden), buyerToken))
+				.andReturn().getResponse().getContentAsString();
+		assertFalse(pendingBody.contains("\"urls\""));
+		String sellerBody = mockMvc.perform(auth(get("/api/attachments/listing/" + hidden),
+				token(id("SELECT seller_id FROM listings WHERE id = " + hidden)))).andReturn().getResponse().getContentAsString();
+		assertTrue(sellerBody.contains("\"urls\""));
+	}
+
+	// Creates racing for a user's last slots get exactly as many sessions as the cap, and past the node's
+	// cap everyone is turned away until a session goes
+	@Test
+	void uploadSessionCapsHoldUnderConcurrentCreates() throws Exception {
+		UploadSessions uploads = new UploadSessions(attachmentStorage, DataSize.ofMegabytes(8), Duration.ofHours(1), 2, 3,
+				new SimpleMeterRegistry());
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		List<String> created = new ArrayList<>();
+		try {
+			List<Future<UploadSessions.Status>> racing = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				racing.add(pool.submit(() -> uploads.create(seller, sellerListing, "clip.mp4", "VIDEO", 1000)));
+			}
+			int tooMany = 0;
+			for (Future<UploadSessions.Status> future : racing) {
+				try {
+					created.add(future.get().uploadId());
+				} catch (ExecutionException e) {
+					assertEquals(429, ((UploadSessions.UploadException) e.getCause()).status());
+					tooMany++;
+				}
+			}
+			assertEquals(2, created.size());
+			assertEquals(14, tooMany);
+
+			created.add(uploads.create(buyer, sellerListing, "clip.mp4", "VIDEO", 1000).uploadId());
+			UploadSessions.UploadException full = assertThrows(UploadSessions.UploadException.class,
+					() -> uploads.create(buyer, sellerListing, "clip.mp4", "VIDEO", 1000));
+			assertEquals(503, full.status());
+			uploads.abort(created.remove(0), seller);
+			created.add(uploads.create(buyer, sellerListing, "clip.mp4", "VIDEO", 1000).uploadId());
+		} finally {
+			pool.shutdown();
+			for (String id : created) {
+				try {
+					uploads.abort(id, seller);
+				} catch (UploadSessions.UploadException e) {
+					uploads.abort(id, buyer);
+				}
+			}
+		}
+	}
+
+	// Chunks PUT in reverse order (and one twice) still make the file, hashed as a whole; every step
+	// is checked against its @QueryBudget
+	@Test
+	void resumableUploadAssemblesChunksInAnyOrder() throws Exception {
+		byte[] file = media(300_000, 48, 0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'i', 's', 'o', 'm');
+		MvcResult created = mockMvc.perform(auth(post("/api/attachments/uploads"), sellerToken).contentType(MediaType.APPLICATION_JSON)
+						.content("{\"listingId\":" + sellerListing + ",\"fileName\":\"clip.mp4\",\"contentType\":\"video/mp4\","
+								+ "\"size\":" + file.length + "}"))
+				.andExpect(status().isCreated()).andReturn();
+		assertWithinQueryBudget("create upload", created);
+		String body = created.getResponse().getContentAsString();
+		String upload = "/api/attachments/uploads/" + JsonPath.read(body, "$.uploadId");
+
+		for (int start : new int[] {200_000, 100_000, 0, 100_000}) {
+			MvcResult chunk = mockMvc.perform(auth(put(upload), sellerToken)
+							.header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + 99_999) + "/" + file.length)
+							.contentType(MediaType.APPLICATION_OCTET_STREAM).content(Arrays.copyOfRange(file, start, start + 100_000)))
+					.andExpect(status().isOk()).andReturn();
+			assertWithinQueryBudget("upload chunk", chunk);
+		}
+		mockMvc.perform(auth(get(upload), buyerToken)).andExpect(status().isNotFound());
+
+		MvcResult completed = mockMvc.perform(auth(post(upload + "/complete"), sellerToken))
+				.andExpect(status().isOk()).andReturn();
+		assertWithinQueryBudget("complete upload", completed);
+		String attachment = completed.getResponse().getContentAsString();
+		assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(file)),
+				JsonPath.read(attachment, "$.contentHash"));
+		mockMvc.perform(get((String) JsonPath.read(attachment, "$.urls.original")))
+				.andExpect(status().isOk())
+				.andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, file.length));
+		mockMvc.perform(auth(delete("/api/attachments/" + JsonPath.read(attachment, "$.id")), sellerToken))
+				.andExpect(status().isNoContent());
+	}
+
+	// Types come from the files' first bytes, whatever the parts claim, and what is over the limits is
+	// dropped before anything is written
+	@Test
+	void multipartUploadIsSniffedAndLimited() throws Exception {
+		MockMultipartHttpServletRequestBuilder upload = multipart("/api/attachments");
+		for (int i = 0; i < 6; i++) {
+			upload.file(new MockMultipartFile("files", "photo" + i + ".jpg", "application/octet-stream",
+					media(20_000, i, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)));
+		}
+		upload.file(new MockMultipartFile("files", "clip.jpg", "image/jpeg",
+				media(50_000, 6, 0, 0, 0, 0x18, 'f', 't', 'y', 'p', 'm', 'p', '4', '2')));
+		upload.file(new MockMultipartFile("files", "notes.jpg", "image/jpeg", "not a photo".getBytes()));
+		upload.param("listingId", String.valueOf(sellerListing)).header("Authorization", "Bearer " + sellerToken);
+		MvcResult result = mockMvc.perform(upload).andExpect(status().isOk()).andReturn();
+		assertWithinQueryBudget("upload files", result);
+		String body = result.getResponse().getContentAsString();
+
+		List<String> types = JsonPath.read(body, "$[*].contentType");
+		assertEquals(List.of("image/png", "image/png", "image/png", "image/png", "image/png", "video/mp4"), types);
+		assertEquals("VIDEO", JsonPath.read(body, "$[5].type"));
+		for (Object id : JsonPath.<List<Object>>read(body, "$[*].id")) {
+			mockMvc.perform(auth(delete("/api/attachments/" + id), sellerToken)).andExpect(status().isNoContent());
+		}
+	}
+
+	// Unreferenced files are quarantined by one pass and deleted by a later one; referenced files and their
+	// variants stay, as do temp parts younger than an upload session's expiry
+	@Test
+	void orphanedFilesAreCollectedAfterQuarantine() throws Exception {
+		MockMultipartHttpServletRequestBuilder upload = multipart("/api/attachments");
+		upload.file(new MockMultipartFile("files", "kept.png", "image/png", media(30_000, 50, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)));
+		upload.param("listingId", String.valueOf(sellerListing)).header("Authorization", "Bearer " + sellerToken);
+		String body = mockMvc.perform(upload).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		Path kept = Paths.get((String) JsonPath.read(body, "$[0].filePath"));
+		Path keptVariant = Paths.get(ImageDerivatives.keyOf(kept.toString().replace('\\', '/'), ImageDerivatives.Variant.THUMB));
+		Path orphan = kept.resolveSibling("e".repeat(64));
+		Path orphanVariant = Paths.get(ImageDerivatives.keyOf(orphan.toString().replace('\\', '/'), ImageDerivatives.Variant.THUMB));
+		Path stalePart = attachmentStorage.temp().resolve("upload-stale.part");
+		Path freshPart = attachmentStorage.temp().resolve("session-fresh.part");
+		FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(3)));
+		for (Path file : List.of(keptVariant, orphan, orphanVariant, stalePart, freshPart)) {
+			Files.write(file, new byte[1000]);
+		}
+		for (Path file : List.of(kept, keptVariant, orphan, orphanVariant, stalePart)) {
+			Files.setLastModifiedTime(file, old);
+		}
+		long deletedListing = id("SELECT listingId FROM attachments WHERE id = " + (attachment + 100));
+		jdbcTemplate.update("UPDATE listings SET status = 'INACTIVE', deleted_at = '2000-01-01' WHERE id = " + deletedListing);
+
+		// No grace period, and only listings deleted before 2001 are old enough. Its own registry, as the
+		// application's collector has registered the same gauge already
+		OrphanCollector collector = new OrphanCollector(attachmentStorage, attachmentRepository, blobStore, jdbcTemplate,
+				Duration.ZERO, Duration.ofDays(1), Duration.between(Instant.parse("2001-01-01T00:00:00Z"), Instant.now()),
+				10_000, meterRegistry);
+		collector.collect();
+		assertTrue(Files.exists(orphan) && Files.exists(orphanVariant));
+		assertFalse(Files.exists(stalePart));
+		assertTrue(Files.exists(freshPart));
+		assertEquals(0L, id("SELECT COUNT(*) FROM attachments WHERE listingId = " + deletedListing));
+
+		collector.collect();
+		assertFalse(Files.exists(orphan) || Files.exists(orphanVariant));
+		assertTrue(Files.exists(kept) && Files.exists(keptVariant) && Files.exists(freshPart));
+		assertTrue(reclaimed("orphan") >= 2000);
+
+		Files.delete(freshPart);
+		mockMvc.perform(auth(delete("/api/attachments/" + JsonPath.read(body, "$[0].id")), sellerToken))
+				.andExpect(status().isNoContent());
+		assertFalse(Files.exists(kept) || Files.exists(keptVariant));
+	}
+
+	private double reclaimed(String source) {
+		Counter counter = meterRegistry.find("attachment.gc.reclaimed").tag("source", source).counter();
+		return counter == null ? 0 : counter.count();
+	}
+
+	private static byte[] media(int size, long seed, int... magic) {
+		byte[] file = new byte[size];
+		new Random(seed).nextBytes(file);
+		for (int i = 0; i < magic.length; i++) file[i] = (byte) magic[i];
+		return file;
+	}
+
+	private long id(String sql) {
+		return jdbcTemplate.queryForObject(sql, Long.class);
+	}
+
+	private String token(long userId) {
+		return jwtService.generateToken(userRepository.findById(userId).orElseThrow());
+	}
+
+	private static MockHttpServletRequestBuilder auth(MockHttpServletRequestBuilder request, String token) {
+		return request.header("Authorization", "Bearer " + token);
+	}
+}
@@ -0,0 +1,30 @@
+package com.iheartev.api;
+
+import com.iheartev.api.metrics.CountingStatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// CountingStatementInspector that also hands the SQL Hibernate prepares on this thread to capture(), so
+// tests can look at the statements a repository method really issues
+public class CapturingStatementInspector extends CountingStatementInspector {
+	private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+	@Override
+	public String inspect(String sql) {
+		List<String> captured = CAPTURED.get();
+		if (captured != null) captured.add(sql);
+		return super.inspect(sql);
+	}
+
+	static List<String> capture(Runnable work) {
+		List<String> captured = new ArrayList<>();
+		CAPTURED.set(captured);
+		try {
+			work.run();
+		} finally {
+			CAPTURED.remove();
+		}
+		return captured;
+	}
+}
@@ -0,0 +1,53 @@
+package com.iheartev.api;
+
+import com.iheartev.api.metrics.QueryStats;
+import com.iheartev.api.metrics.RequestMetricsInterceptor;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Query-count assertions on top of the same per-thread QueryStats the @QueryBudget check uses.
+// For MockMvc requests they come from the attributes RequestMetricsInterceptor leaves on the request,
+// as the per-thread stats are reset when it completes.
+final class QueryBudgetAssertions {
+
+	private QueryBudgetAssertions() {
+	}
+
+	// Runs work (repository/service code) and fails when it ran more than max statements
+	static <T> T assertMaxQueries(int max, ThrowingSupplier<T> work) {
+		QueryStats stats = QueryStats.current();
+		stats.reset();
+		T result;
+		try {
+			result = work.get();
+		} catch (Throwable e) {
+			return fail(e);
+		}
+		long statements = stats.statements();
+		assertTrue(statements <= max, () -> "ran " + statements + " statements, expected at most " + max);
+		return result;
+	}
+
+	static void assertMaxQueries(int max, Executable work) {
+		assertMaxQueries(max, () -> {
+			work.execute();
+			return null;
+		});
+	}
+
+	// After a MockMvc request: fails when it ran more statements than its handler's @QueryBudget
+	static void assertWithinQueryBudget(String request, MvcResult result) {
+		Object budget = result.getRequest().getAttribute(RequestMetricsInterceptor.BUDGET_ATTRIBUTE);
+		Object statements = result.getRequest().getAttribute(RequestMetricsInterceptor.STATEMENTS_ATTRIBUTE);
+		assertNotNull(budget, () -> request + " was not handled");
+		assertNotEquals(QueryStats.NO_BUDGET, budget, () -> request + " has no @QueryBudget");
+		assertTrue((Long) statements <= (Integer) budget, () -> request + " ran " + statements
+				+ " statements, over its @QueryBudget of " + budget);
+	}
+}
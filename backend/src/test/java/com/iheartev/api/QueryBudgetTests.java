@@ -0,0 +1,451 @@
+package com.iheartev.api;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.iheartev.api.admin.AdminController;
+import com.iheartev.api.admin.BulkModerationRequest;
+import com.iheartev.api.listing.Listing;
+import com.iheartev.api.listing.ListingRepository;
+import com.iheartev.api.metrics.QueryBudgetExceededException;
+import com.iheartev.api.metrics.QueryStats;
+import com.iheartev.api.report.MetricRollup;
+import com.iheartev.api.report.MetricRollupRepository;
+import com.iheartev.api.report.RollupService;
+import com.iheartev.api.report.RollupWatermarkRepository;
+import com.iheartev.api.security.JwtService;
+import com.iheartev.api.transaction.Order;
+import com.iheartev.api.transaction.OrderRepository;
+import com.iheartev.api.user.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.AdditionalAnswers;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static com.iheartev.api.QueryBudgetAssertions.assertMaxQueries;
+import static com.iheartev.api.QueryBudgetAssertions.assertWithinQueryBudget;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Every endpoint against a (reduced) perf profile data set, checked against its @QueryBudget. Runs on
+// H2 without SQL Server. Ids are picked to be the worst case for per-row queries: the seller with the
+// most listings, the buyer with the most orders, and so on.
+// The "classpath:" cache URI only resolves once embedded Tomcat has registered its URL handler, which
+// a MockMvc context never starts; a plain resource name is looked up on the class path directly.
+@SpringBootTest(properties = {
+		"spring.jpa.properties.hibernate.javax.cache.uri=ehcache.xml",
+		"app.perf.users=2000",
+		"app.perf.listings=20000",
+		"app.perf.write-benchmark-rows=0",
+		"app.metrics.query-budget=log"
+})
+@ActiveProfiles("perf")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTests {
+	private static final String LISTING = "{\"type\":\"CAR\",\"brand\":\"VinFast\",\"model\":\"VF 8\",\"year\":2023,"
+			+ "\"price\":32000,\"batteryCapacityKWh\":87,\"mileageKm\":12000}";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private JwtService jwtService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ListingRepository listingRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private RollupService rollupService;
+
+	@Autowired
+	private RollupWatermarkRepository watermarkRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MetricRollupRepository metricRollupRepository;
+
+	private long seller;
+	private long buyer;
+	private long order;
+	private long listing;
+	private long activeListing;
+	private long reviewer;
+	private long review;
+	private long sellerListing;
+	private long deletableListing;
+	private long[] pending;
+	private long pendingOrder;
+	private long pendingOrderBuyer;
+	private long pendingOrderSeller;
+	private long cancellableOrder;
+	private long closedOrder;
+	private long closedOrderBuyer;
+	private long attachment;
+	private String pendingOrderBuyerToken;
+	private String pendingOrderSellerToken;
+	private String cancellableOrderBuyerToken;
+	private String closedOrderBuyerToken;
+	private String sellerToken;
+	private String buyerToken;
+	private String reviewerToken;
+	private String adminToken;
+
+	@BeforeAll
+	void pickIds() {
+		seller = id("SELECT TOP 1 seller_id FROM listings GROUP BY seller_id ORDER BY COUNT(*) DESC, seller_id");
+		buyer = id("SELECT TOP 1 buyer_id FROM orders GROUP BY buyer_id ORDER BY COUNT(*) DESC, buyer_id");
+		order = id("SELECT MIN(id) FROM orders WHERE buyer_id = " + buyer);
+		listing = id("SELECT TOP 1 listingId FROM attachments GROUP BY listingId ORDER BY COUNT(*) DESC, listingId");
+		activeListing = id("SELECT MIN(id) FROM listings WHERE status = 'ACTIVE' AND deleted_at IS NULL AND seller_id <> " + buyer);
+		review = id("SELECT MIN(id) FROM reviews");
+		reviewer = id("SELECT reviewer_id FROM reviews WHERE id = " + review);
+		sellerListing = id("SELECT MIN(id) FROM listings WHERE seller_id = " + seller + " AND status = 'APPROVED' AND deleted_at IS NULL");
+		deletableListing = id("SELECT MIN(l.id) FROM listings l WHERE l.seller_id = " + seller + " AND l.status = 'APPROVED' " +
+				"AND l.deleted_at IS NULL AND l.id > " + sellerListing + " AND NOT EXISTS (SELECT 1 FROM orders o " +
+				"WHERE o.listing_id = l.id AND o.status NOT IN ('CANCELLED', 'CLOSED'))");
+		pending = jdbcTemplate.queryForList("SELECT TOP 5 id FROM listings WHERE status = 'PENDING' AND deleted_at IS NULL " +
+				"ORDER BY id", Long.class).stream().mapToLong(Long::longValue).toArray();
+		pendingOrder = id("SELECT MIN(id) FROM orders WHERE status = 'PENDING'");
+		pendingOrderBuyer = id("SELECT buyer_id FROM orders WHERE id = " + pendingOrder);
+		pendingOrderSeller = id("SELECT l.seller_id FROM orders o JOIN listings l ON l.id = o.listing_id WHERE o.id = " + pendingOrder);
+		cancellableOrder = id("SELECT MIN(id) FROM orders WHERE status = 'PENDING' AND id > " + pendingOrder);
+		closedOrder = id("SELECT MIN(id) FROM orders WHERE status = 'CLOSED'");
+		closedOrderBuyer = id("SELECT buyer_id FROM orders WHERE id = " + closedOrder);
+		attachment = id("SELECT MIN(a.id) FROM attachments a JOIN listings l ON l.id = a.listingId " +
+				"WHERE l.status = 'APPROVED' AND l.deleted_at IS NULL");
+		sellerToken = token(seller);
+		buyerToken = token(buyer);
+		reviewerToken = token(reviewer);
+		adminToken = token(1);
+		pendingOrderBuyerToken = token(pendingOrderBuyer);
+		pendingOrderSellerToken = token(pendingOrderSeller);
+		cancellableOrderBuyerToken = token(id("SELECT buyer_id FROM orders WHERE id = " + cancellableOrder));
+		closedOrderBuyerToken = token(closedOrderBuyer);
+	}
+
+	Stream<Arguments> requests() {
+		return Stream.of(
+				Arguments.of("browse", get("/api/listings")),
+				Arguments.of("browse by brand", get("/api/listings").param("brand", "vinfast").param("page", "3")),
+				Arguments.of("listing detail", get("/api/listings/" + listing)),
+				Arguments.of("listing attachments", auth(get("/api/attachments/listing/" + listing), buyerToken)),
+				Arguments.of("seller profile", auth(get("/api/sellers/" + seller + "/profile"), buyerToken)),
+				Arguments.of("seller current listings", auth(get("/api/sellers/" + seller + "/listings/current"), buyerToken)),
+				Arguments.of("seller sold listings", auth(get("/api/sellers/" + seller + "/listings/sold"), buyerToken)),
+				Arguments.of("seller reviews", auth(get("/api/sellers/" + seller + "/reviews"), buyerToken)),
+				Arguments.of("buyer profile", auth(get("/api/buyers/" + buyer + "/profile"), sellerToken)),
+				Arguments.of("my profile", auth(get("/api/me/profile"), sellerToken)),
+				Arguments.of("my listings", auth(get("/api/me/listings"), sellerToken)),
+				Arguments.of("my orders", auth(get("/api/me/orders"), buyerToken)),
+				Arguments.of("my favorites", auth(get("/api/me/favorites"), buyerToken)),
+				Arguments.of("orders", auth(get("/api/orders"), buyerToken)),
+				Arguments.of("order detail", auth(get("/api/orders/" + order), buyerToken)),
+				Arguments.of("order insights", auth(get("/api/orders/" + order + "/ai/insights"), buyerToken)),
+				Arguments.of("review", auth(get("/api/reviews/" + review), reviewerToken)),
+				Arguments.of("favorite check", auth(get("/api/favorites/listing/" + listing + "/check"), buyerToken)),
+				Arguments.of("banks", auth(get("/api/banks"), buyerToken)),
+				Arguments.of("validate token", auth(get("/api/auth/validate"), buyerToken)),
+				Arguments.of("login", post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"email\":\"perf-user-" + buyer + "@iheartev.local\",\"password\":\"Password123!\"}")),
+				Arguments.of("add favorite", auth(post("/api/favorites/" + activeListing), buyerToken)),
+				Arguments.of("buy now", auth(post("/api/orders/buy-now/" + activeListing), buyerToken)),
+				Arguments.of("admin pending queue", auth(get("/api/admin/listings/pending"), adminToken)),
+				Arguments.of("admin summary", auth(get("/api/admin/reports/summary"), adminToken)),
+				Arguments.of("admin timeseries", auth(get("/api/admin/reports/timeseries")
+						.param("from", "2025-01-01T00:00:00Z").param("to", "2025-06-01T00:00:00Z"), adminToken)),
+				Arguments.of("admin cache stats", auth(get("/api/admin/cache/stats"), adminToken)),
+				Arguments.of("attachment download", get("/api/attachments/" + attachment + "/download")),
+				Arguments.of("remove favorite", auth(delete("/api/favorites/listing/" + activeListing), buyerToken)),
+				Arguments.of("register", post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+						.content("{\"email\":\"budget-test@iheartev.local\",\"fullName\":\"Budget Test\",\"password\":\"Password123!\"}")),
+				Arguments.of("update my profile", auth(put("/api/me/profile"), sellerToken)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"fullName\":\"Perf Seller\"}")),
+				Arguments.of("create listing", auth(post("/api/listings"), sellerToken)
+						.contentType(MediaType.APPLICATION_JSON).content(LISTING)),
+				Arguments.of("update listing", auth(put("/api/listings/" + sellerListing), sellerToken)
+						.contentType(MediaType.APPLICATION_JSON).content(LISTING)),
+				Arguments.of("delete listing", auth(delete("/api/listings/" + deletableListing), sellerToken)),
+				Arguments.of("admin verify", auth(post("/api/admin/listings/" + pending[0] + "/verify"), adminToken)),
+				Arguments.of("admin approve", auth(post("/api/admin/listings/" + pending[1] + "/approve"), adminToken)),
+				Arguments.of("admin reject", auth(post("/api/admin/listings/" + pending[2] + "/reject"), adminToken)),
+				Arguments.of("admin bulk moderation", auth(post("/api/admin/listings/bulk"), adminToken)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"decisions\":[{\"id\":" + pending[3]
+								+ ",\"action\":\"APPROVE\"},{\"id\":" + pending[4] + ",\"action\":\"REJECT\"}]}")),
+				Arguments.of("confirm payment", auth(post("/api/orders/" + pendingOrder + "/confirm-payment"), pendingOrderBuyerToken)),
+				Arguments.of("confirm received", auth(post("/api/orders/" + pendingOrder + "/confirm-received"), pendingOrderSellerToken)),
+				Arguments.of("create review", auth(post("/api/reviews"), closedOrderBuyerToken)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"orderId\":" + closedOrder + ",\"rating\":5}")),
+				Arguments.of("update review", auth(put("/api/reviews/" + review), reviewerToken)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"rating\":4,\"comment\":\"ok\"}")),
+				Arguments.of("cancel order", auth(post("/api/orders/" + cancellableOrder + "/cancel"), cancellableOrderBuyerToken)
+						.contentType(MediaType.APPLICATION_JSON).content("{\"reason\":\"changed my mind\"}")),
+				Arguments.of("delete review", auth(delete("/api/reviews/" + review), reviewerToken)),
+				Arguments.of("delete attachment", auth(delete("/api/attachments/" + attachment), sellerToken))
+		);
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("requests")
+	void staysWithinQueryBudget(String name, MockHttpServletRequestBuilder request) throws Exception {
+		MvcResult result = mockMvc.perform(request).andReturn();
+		int status = result.getResponse().getStatus();
+		assertTrue(status < 500 || name.equals("order insights"), () -> name + " answered " + status);
+		assertWithinQueryBudget(name, result);
+	}
+
+	// The next page starts after the last listing of this one; half a cursor is refused
+	@Test
+	void pendingQueuePagesByCursor() throws Exception {
+		String first = mockMvc.perform(auth(get("/api/admin/listings/pending").param("size", "3"), adminToken))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		List<Integer> firstIds = JsonPath.read(first, "$[*].id");
+		String afterCreatedAt = JsonPath.read(first, "$[2].createdAt");
+		String next = mockMvc.perform(auth(get("/api/admin/listings/pending").param("size", "3")
+						.param("afterCreatedAt", afterCreatedAt).param("afterId", String.valueOf(firstIds.get(2))), adminToken))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		List<Integer> nextIds = JsonPath.read(next, "$[*].id");
+		assertEquals(3, nextIds.size());
+		assertTrue(nextIds.stream().noneMatch(firstIds::contains));
+		mockMvc.perform(auth(get("/api/admin/listings/pending").param("afterId", String.valueOf(firstIds.get(2))), adminToken))
+				.andExpect(status().isBadRequest());
+	}
+
+	// A row that commits after its hour was rolled up is still counted while it is inside the lag window
+	@Test
+	void rollupRecountsLateRows() {
+		Instant now = Instant.now();
+		jdbcTemplate.update("DELETE FROM rollup_watermarks WHERE name = 'metric_rollups'");
+		jdbcTemplate.update("INSERT INTO rollup_watermarks (name, processed_until) VALUES ('metric_rollups', ?)",
+				Timestamp.from(now.minus(Duration.ofMinutes(30))));
+		rollupService.refresh();
+		long late = id("SELECT MAX(id) FROM listings WHERE status = 'INACTIVE'");
+		jdbcTemplate.update("UPDATE listings SET brand = 'Late Commit', created_at = ? WHERE id = ?",
+				Timestamp.from(now.minus(Duration.ofMinutes(90))), late);
+		rollupService.refresh();
+		long counted = metricRollupRepository.findSeries("HOUR", now.minus(Duration.ofHours(3)), now.plusSeconds(3600),
+				"Late Commit", null).stream().mapToLong(MetricRollup::getNewListings).sum();
+		assertEquals(1, counted);
+	}
+
+	// Two nodes' first runs both find no watermark row; neither fails on inserting it. The data set's first
+	// listing is taken to be an hour old, so the runs do not backfill all of it
+	@Test
+	void firstRollupsRaceForTheWatermark() throws Exception {
+		ListingRepository recentListings = mock(ListingRepository.class, AdditionalAnswers.delegatesTo(listingRepository));
+		doReturn(Instant.now().minus(Duration.ofHours(1))).when(recentListings).findEarliestCreatedAt();
+		List<RollupService> nodes = List.of(
+				new RollupService(recentListings, orderRepository, metricRollupRepository, watermarkRepository,
+						transactionManager, "Asia/Ho_Chi_Minh", Duration.ofHours(2)),
+				new RollupService(recentListings, orderRepository, metricRollupRepository, watermarkRepository,
+						transactionManager, "Asia/Ho_Chi_Minh", Duration.ofHours(2)));
+		jdbcTemplate.update("DELETE FROM rollup_watermarks WHERE name = 'metric_rollups'");
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<?>> runs = nodes.stream().<Future<?>>map(node -> pool.submit(node::refresh)).toList();
+			for (Future<?> run : runs) run.get();
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(1L, id("SELECT COUNT(*) FROM rollup_watermarks WHERE name = 'metric_rollups'"));
+		assertTrue(rollupService.getProcessedUntil().isPresent());
+	}
+
+	// A bulk-max-decisions beyond what one statement's parameters can hold is capped at 2000
+	@Test
+	void bulkDecisionsAreCappedBelowTheParameterLimit() {
+		AdminController admin = new AdminController(listingRepository, 5000);
+		ResponseEntity<?> tooMany = admin.bulkModerate(decisions(2001));
+		assertEquals(400, tooMany.getStatusCode().value());
+		ResponseEntity<?> most = admin.bulkModerate(decisions(2000));
+		assertEquals(200, most.getStatusCode().value());
+		assertEquals(2000, ((Map<?, ?>) most.getBody()).get("requested"));
+	}
+
+	// Ids no listing has
+	private static BulkModerationRequest decisions(int count) {
+		return new BulkModerationRequest(LongStream.rangeClosed(1, count)
+				.mapToObj(i -> new BulkModerationRequest.Decision(-i, "APPROVE")).toList());
+	}
+
+	// Listings without payment info share a NULL payment_info_id, which the unique index has to allow
+	@Test
+	void importCreatesEveryRow() throws Exception {
+		MvcResult result = mockMvc.perform(auth(post("/api/listings/import"), sellerToken)
+						.contentType("application/x-ndjson").content(LISTING + "\n" + LISTING + "\n" + LISTING + "\n"))
+				.andExpect(status().is2xxSuccessful()).andReturn();
+		assertWithinQueryBudget("import listings", result);
+		String body = result.getResponse().getContentAsString();
+		assertEquals(3, (Integer) JsonPath.read(body, "$.created"));
+		assertEquals(0, (Integer) JsonPath.read(body, "$.failed"));
+	}
+
+	// Same counter for repository code: one statement, seller and payment info included
+	@Test
+	void sellerListingsAreOneQuery() {
+		List<Listing> listings = assertMaxQueries(1, () -> listingRepository.findBySellerIdAndStatusOrderById(seller, "APPROVED"));
+		assertMaxQueries(0, () -> listings.forEach(l -> l.getPaymentInfo().getPaymentMethod()));
+	}
+
+	// The budget ends with the request, so the thread's next work is neither limited by it nor counted
+	// against it; orders come in id order
+	@Test
+	void budgetEndsWithTheRequest() throws Exception {
+		String body = mockMvc.perform(auth(get("/api/me/orders"), buyerToken))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		assertEquals(QueryStats.NO_BUDGET, QueryStats.current().budget());
+		assertEquals(0, QueryStats.current().statements());
+		List<Integer> ids = JsonPath.read(body, "$[*].id");
+		assertEquals(ids.stream().sorted().toList(), ids);
+	}
+
+	// One statement per IN_LIST_CHUNK ids, to stay under SQL Server's 2100 parameters
+	@Test
+	void ordersByIdAreFetchedInChunks() {
+		List<Long> ids = jdbcTemplate.queryForList("SELECT TOP 2500 id FROM orders ORDER BY id", Long.class);
+		assertTrue(ids.size() > OrderRepository.IN_LIST_CHUNK * 2);
+		Map<Long, Order> orders = assertMaxQueries(3, () -> orderRepository.mapByIdWithRelations(ids));
+		assertEquals(ids.size(), orders.size());
+	}
+
+	// The access log is written after RequestMetricsInterceptor has reset the thread's QueryStats, so it must
+	// still see the handler's statements (the record comes from the access log's own thread)
+	@Test
+	void accessLogRecordsTheHandlersQueries() throws Exception {
+		ListAppender<ILoggingEvent> appender = new ListAppender<>();
+		appender.start();
+		Logger access = (Logger) LoggerFactory.getLogger("access");
+		access.addAppender(appender);
+		try {
+			String path = "/api/sellers/" + seller + "/profile";
+			mockMvc.perform(auth(get(path), buyerToken)).andExpect(status().isOk());
+			Map<String, Object> record = null;
+			for (int i = 0; i < 100 && record == null; i++) {
+				List<ILoggingEvent> events;
+				synchronized (appender) {
+					events = new ArrayList<>(appender.list);
+				}
+				record = events.stream()
+						.map(e -> e.getKeyValuePairs().stream().collect(Collectors.toMap(kv -> kv.key, kv -> kv.value)))
+						.filter(kv -> path.equals(kv.get("path")))
+						.findFirst().orElse(null);
+				if (record == null) Thread.sleep(50);
+			}
+			assertNotNull(record, "No access log record for " + path);
+			assertTrue((Long) record.get("queries") > 0);
+			assertTrue((Double) record.get("jdbcMs") > 0);
+		} finally {
+			access.detachAppender(appender);
+		}
+	}
+
+	// An export without rows still names its columns, and text a spreadsheet would run as a formula comes
+	// out prefixed with '
+	@Test
+	void csvExportIsSafeToOpen() throws Exception {
+		String empty = export(get("/api/admin/export/listings.csv").param("status", "NO_SUCH_STATUS"));
+		// H2 reports the labels in upper case
+		assertTrue(empty.toLowerCase().startsWith("id,type,brand,model,"), empty);
+		assertEquals(1, empty.lines().count());
+
+		long listing = id("SELECT MIN(id) FROM listings WHERE deleted_at IS NULL");
+		Map<String, Object> original = jdbcTemplate.queryForMap("SELECT brand, model FROM listings WHERE id = " + listing);
+		Instant created = jdbcTemplate.queryForObject("SELECT created_at FROM listings WHERE id = " + listing, Timestamp.class).toInstant();
+		jdbcTemplate.update("UPDATE listings SET brand = '=1+1', model = '-2+3' WHERE id = " + listing);
+		try {
+			String csv = export(get("/api/admin/export/listings.csv")
+					.param("from", created.toString()).param("to", created.plusMillis(1).toString()));
+			String line = csv.lines().filter(l -> l.startsWith(listing + ",")).findFirst().orElseThrow();
+			assertTrue(line.contains(",'=1+1,'-2+3,"), line);
+		} finally {
+			jdbcTemplate.update("UPDATE listings SET brand = ?, model = ? WHERE id = ?",
+					original.get("brand"), original.get("model"), listing);
+		}
+	}
+
+	@Test
+	void failModeStopsAtTheFirstStatementOverBudget() {
+		QueryStats stats = QueryStats.current();
+		stats.reset();
+		stats.limit(1, true);
+		try {
+			listingRepository.countBySellerId(seller);
+			Exception e = assertThrows(Exception.class, () -> listingRepository.countBySellerId(seller));
+			assertInstanceOf(QueryBudgetExceededException.class, NestedExceptionUtils.getMostSpecificCause(e));
+		} finally {
+			stats.reset();
+		}
+	}
+
+	// Exports stream on an async dispatch
+	private String export(MockHttpServletRequestBuilder request) throws Exception {
+		MvcResult started = mockMvc.perform(auth(request, adminToken)).andExpect(request().asyncStarted()).andReturn();
+		return mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+	}
+
+	private long id(String sql) {
+		return jdbcTemplate.queryForObject(sql, Long.class);
+	}
+
+	private String token(long userId) {
+		return jwtService.generateToken(userRepository.findById(userId).orElseThrow());
+	}
+
+	private static MockHttpServletRequestBuilder auth(MockHttpServletRequestBuilder request, String token) {
+		return request.header("Authorization", "Bearer " + token);
+	}
+}
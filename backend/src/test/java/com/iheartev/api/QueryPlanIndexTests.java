@@ -0,0 +1,208 @@
+package com.iheartev.api;
+
+import com.iheartev.api.attachment.AttachmentRepository;
+import com.iheartev.api.listing.ListingRepository;
+import com.iheartev.api.social.FavoriteRepository;
+import com.iheartev.api.social.ReviewRepository;
+import com.iheartev.api.transaction.OrderRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Seeds a few thousand rows per table, runs each hot repository method, and checks that the plan SQL
+// Server cached for the statement Hibernate issued (captured by CapturingStatementInspector) goes
+// through the expected index from db/migration/V3__hot_query_indexes.sql. Seeded ids live far above
+// anything real and are removed again afterwards. Skipped when the SQL Server of DB_URL is not reachable.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.iheartev.api.CapturingStatementInspector")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIf("sqlServerReachable")
+class QueryPlanIndexTests {
+	private static final long BASE = 9_000_000_000L;
+	private static final int ROWS = 20_000;
+	private static final int USERS = 200;
+	private static final String NUMBERS =
+			"(SELECT TOP (" + ROWS + ") ROW_NUMBER() OVER (ORDER BY (SELECT NULL)) AS n " +
+			"FROM sys.all_columns a CROSS JOIN sys.all_columns b) t";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ListingRepository listingRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private ReviewRepository reviewRepository;
+
+	@Autowired
+	private FavoriteRepository favoriteRepository;
+
+	@Autowired
+	private AttachmentRepository attachmentRepository;
+
+	static boolean sqlServerReachable() {
+		String url = System.getenv().getOrDefault("DB_URL",
+				"jdbc:sqlserver://localhost:1433;databaseName=iheartev;trustServerCertificate=true");
+		try (Connection ignored = DriverManager.getConnection(url + ";loginTimeout=3",
+				System.getenv().getOrDefault("DB_USER", "sa"), System.getenv().getOrDefault("DB_PASSWORD", "12345"))) {
+			return true;
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	@BeforeAll
+	void seed() {
+		cleanUp();
+		jdbcTemplate.execute("INSERT INTO users (id, email, password, fullName, role, enabled) " +
+				"SELECT " + BASE + " + n, CONCAT('plan-test-', n, '@iheartev.local'), 'x', 'Plan Test', 'MEMBER', 1 " +
+				"FROM " + NUMBERS + " WHERE n <= " + USERS);
+		jdbcTemplate.execute("INSERT INTO listings (id, seller_id, type, brand, model, year, price, status, " +
+				"created_at, approved_at, deleted_at, edited_after_rejection) " +
+				"SELECT " + BASE + " + n, " + BASE + " + 1 + n % " + USERS + ", 'CAR', 'PlanTest', 'M', 2022, 1000, " +
+				"CASE n % 20 WHEN 0 THEN 'PENDING' WHEN 1 THEN 'REJECTED' ELSE 'APPROVED' END, " +
+				"DATEADD(HOUR, n, CAST('2023-01-01T00:00:00+00:00' AS DATETIMEOFFSET)), " +
+				"CASE WHEN n % 20 > 1 THEN DATEADD(HOUR, n + 1, CAST('2023-01-01T00:00:00+00:00' AS DATETIMEOFFSET)) END, " +
+				"CASE WHEN n % 50 = 7 THEN DATEADD(HOUR, n + 2, CAST('2023-01-01T00:00:00+00:00' AS DATETIMEOFFSET)) END, 0 " +
+				"FROM " + NUMBERS);
+		jdbcTemplate.execute("INSERT INTO orders (id, listing_id, buyer_id, amount, status, created_at, updated_at, " +
+				"closed_at, cancelled_at, buyer_payment_confirmed, seller_payment_received) " +
+				"SELECT " + BASE + " + n, " + BASE + " + n, " + BASE + " + 1 + (n * 7) % " + USERS + ", 1000, " +
+				"CASE n % 4 WHEN 0 THEN 'CLOSED' WHEN 1 THEN 'CANCELLED' ELSE 'PENDING' END, " +
+				"DATEADD(HOUR, n, CAST('2023-01-01T00:00:00+00:00' AS DATETIMEOFFSET)), " +
+				"DATEADD(HOUR, n, CAST('2023-01-01T00:00:00+00:00' AS DATETIMEOFFSET)), " +
+				"CASE WHEN n % 4 = 0 THEN DATEADD(HOUR, n + 3, CAST('2023-01-01T00:00:00+00:00' AS DATETIMEOFFSET)) END, " +
+				"CASE WHEN n % 4 = 1 THEN DATEADD(HOUR, n + 3, CAST('2023-01-01T00:00:00+00:00' AS DATETIMEOFFSET)) END, 0, 0 " +
+				"FROM " + NUMBERS);
+		jdbcTemplate.execute("INSERT INTO reviews (id, reviewer_id, reviewee_id, order_id, rating, created_at, updated_at, edit_count) " +
+				"SELECT " + BASE + " + n, " + BASE + " + 1 + (n * 7) % " + USERS + ", " + BASE + " + 1 + n % " + USERS + ", " +
+				BASE + " + n, 5, SYSDATETIMEOFFSET(), SYSDATETIMEOFFSET(), 0 FROM " + NUMBERS);
+		jdbcTemplate.execute("INSERT INTO favorites (id, user_id, listing_id) " +
+				"SELECT " + BASE + " + n, " + BASE + " + 1 + n % " + USERS + ", " + BASE + " + n FROM " + NUMBERS);
+		jdbcTemplate.execute("INSERT INTO attachments (id, listingId, fileName, filePath, type, fileSize) " +
+				"SELECT " + BASE + " + n, " + BASE + " + n, 'plan.jpg', 'plan.jpg', 'IMAGE', 1 FROM " + NUMBERS);
+		for (String table : new String[] {"users", "listings", "orders", "reviews", "favorites", "attachments"}) {
+			jdbcTemplate.execute("UPDATE STATISTICS " + table + " WITH FULLSCAN");
+		}
+	}
+
+	@AfterAll
+	void cleanUp() {
+		String range = " BETWEEN " + (BASE + 1) + " AND " + (BASE + ROWS);
+		jdbcTemplate.update("DELETE FROM attachments WHERE id" + range);
+		jdbcTemplate.update("DELETE FROM favorites WHERE id" + range);
+		jdbcTemplate.update("DELETE FROM reviews WHERE id" + range);
+		jdbcTemplate.update("DELETE FROM orders WHERE id" + range);
+		jdbcTemplate.update("DELETE FROM listings WHERE id" + range);
+		jdbcTemplate.update("DELETE FROM users WHERE id" + range);
+	}
+
+	// Each repository method as the application calls it
+	Stream<Arguments> hotQueries() {
+		long user = BASE + 42;
+		long listing = BASE + 4242;
+		Instant from = Instant.parse("2023-06-01T00:00:00Z");
+		Instant to = Instant.parse("2023-06-02T00:00:00Z");
+		return Stream.of(
+				Arguments.of("ListingRepository.findPendingQueue",
+						(Runnable) () -> listingRepository.findPendingQueue(PageRequest.of(0, 50)),
+						"ix_listings_live_status_created"),
+				Arguments.of("ListingRepository.findPendingQueueAfter",
+						(Runnable) () -> listingRepository.findPendingQueueAfter(from, listing, PageRequest.of(0, 50)),
+						"ix_listings_live_status_created"),
+				Arguments.of("ListingRepository.findBySellerIdAndStatusOrderById",
+						(Runnable) () -> listingRepository.findBySellerIdAndStatusOrderById(user, "APPROVED"),
+						"ix_listings_seller_status"),
+				Arguments.of("ListingRepository.findCreatedBetween",
+						(Runnable) () -> listingRepository.findCreatedBetween(from, to),
+						"ix_listings_created_at"),
+				Arguments.of("ListingRepository.findApprovedBetween",
+						(Runnable) () -> listingRepository.findApprovedBetween(from, to),
+						"ix_listings_approved_at"),
+				Arguments.of("ListingRepository.findEarliestCreatedAt",
+						(Runnable) listingRepository::findEarliestCreatedAt,
+						"ix_listings_created_at"),
+				Arguments.of("OrderRepository.findActiveOrdersByListingId",
+						(Runnable) () -> orderRepository.findActiveOrdersByListingId(listing),
+						"ix_orders_listing_status"),
+				Arguments.of("OrderRepository.findByBuyerIdAndStatusWithRelations",
+						(Runnable) () -> orderRepository.findByBuyerIdAndStatusWithRelations(user, "PENDING"),
+						"ix_orders_buyer_id"),
+				Arguments.of("OrderRepository.findCreatedBetween",
+						(Runnable) () -> orderRepository.findCreatedBetween(from, to),
+						"ix_orders_created_at"),
+				Arguments.of("OrderRepository.findClosedBetween",
+						(Runnable) () -> orderRepository.findClosedBetween(from, to),
+						"ix_orders_closed_at"),
+				Arguments.of("OrderRepository.findCancelledBetween",
+						(Runnable) () -> orderRepository.findCancelledBetween(from, to),
+						"ix_orders_cancelled_at"),
+				Arguments.of("ReviewRepository.findByRevieweeIdWithUsers",
+						(Runnable) () -> reviewRepository.findByRevieweeIdWithUsers(user),
+						"ix_reviews_reviewee_id"),
+				Arguments.of("ReviewRepository.findFirstByOrderIdAndReviewerIdOrderById",
+						(Runnable) () -> reviewRepository.findFirstByOrderIdAndReviewerIdOrderById(listing, user),
+						"ix_reviews_order_reviewer"),
+				Arguments.of("FavoriteRepository.findByUserAndListingId",
+						(Runnable) () -> favoriteRepository.findByUserAndListingId(user, listing),
+						"uk_favorites_user_listing|UK[0-9a-z]+|ix_favorites_user_id"),
+				Arguments.of("FavoriteRepository.findByListingId",
+						(Runnable) () -> favoriteRepository.findByListingId(listing),
+						"ix_favorites_listing_id"),
+				Arguments.of("AttachmentRepository.findByListingId",
+						(Runnable) () -> attachmentRepository.findByListingId(listing),
+						"ix_attachments_listing_id"));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("hotQueries")
+	void hotQueryUsesIndex(String name, Runnable query, String expectedIndex) {
+		// The first statement is the query itself; any after it load associations
+		List<String> statements = CapturingStatementInspector.capture(query);
+		assertFalse(statements.isEmpty(), name + " issued no SQL");
+		String plan = cachedPlan(statements.get(0));
+		Pattern index = Pattern.compile("Index=\"\\[(" + expectedIndex + ")\\]\"", Pattern.CASE_INSENSITIVE);
+		assertTrue(index.matcher(plan).find(), name + " does not use " + expectedIndex + ":\n" + statements.get(0) + "\n" + plan);
+	}
+
+	// The plan SQL Server compiled when the statement ran, looked up in the plan cache by its text as
+	// mssql-jdbc sends it (each ? outside a literal becomes @P0, @P1, ...)
+	private String cachedPlan(String sql) {
+		StringBuilder text = new StringBuilder();
+		boolean quoted = false;
+		int parameter = 0;
+		for (char c : sql.toCharArray()) {
+			if (c == '\'') quoted = !quoted;
+			if (c == '?' && !quoted) text.append("@P").append(parameter++);
+			else text.append(c);
+		}
+		List<String> plans = jdbcTemplate.queryForList("SELECT TOP 1 CAST(qp.query_plan AS NVARCHAR(MAX)) " +
+				"FROM sys.dm_exec_cached_plans cp CROSS APPLY sys.dm_exec_sql_text(cp.plan_handle) st " +
+				"CROSS APPLY sys.dm_exec_query_plan(cp.plan_handle) qp WHERE CHARINDEX(?, st.text) > 0",
+				String.class, text.toString());
+		assertFalse(plans.isEmpty(), "No cached plan for " + text);
+		return plans.get(0);
+	}
+}
@@ -0,0 +1,293 @@
+package com.iheartev.api;
+
+import com.iheartev.api.storage.BlobStore;
+import com.iheartev.api.storage.S3BlobStore;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.checksums.ResponseChecksumValidation;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// S3BlobStore against a small in-process stand-in for S3 (path-style, the subset of the API the store
+// uses), so it runs without MinIO or AWS. The client is set up the way StorageConfig sets it up.
+class S3BlobStoreTests {
+	private static final long MB = 1024 * 1024;
+
+	@TempDir
+	Path dir;
+
+	private S3StandIn s3;
+	private S3BlobStore store;
+
+	@BeforeEach
+	void start() throws IOException {
+		s3 = new S3StandIn();
+		URI endpoint = URI.create("http://127.0.0.1:" + s3.port());
+		var credentials = StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test"));
+		S3Client client = S3Client.builder()
+				.region(Region.AP_SOUTHEAST_1)
+				.credentialsProvider(credentials)
+				.endpointOverride(endpoint)
+				.forcePathStyle(true)
+				.requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+				.responseChecksumValidation(ResponseChecksumValidation.WHEN_REQUIRED)
+				.build();
+		S3Presigner presigner = S3Presigner.builder()
+				.region(Region.AP_SOUTHEAST_1)
+				.credentialsProvider(credentials)
+				.endpointOverride(endpoint)
+				.serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+				.build();
+		store = new S3BlobStore(client, presigner, "attachments", 5 * MB, 8 * MB, 4, Duration.ofMinutes(10));
+	}
+
+	@AfterEach
+	void stop() {
+		store.close();
+		s3.stop();
+	}
+
+	@Test
+	void smallFileIsOneUploadAndReadsBack() throws IOException {
+		byte[] content = random(300_000);
+		Path source = write(content);
+
+		store.put("uploads/ab/cd/small", source, "image/jpeg");
+
+		assertFalse(Files.exists(source));
+		assertEquals(0, s3.parts.get());
+		assertTrue(store.exists("uploads/ab/cd/small"));
+		try (InputStream in = store.open("uploads/ab/cd/small")) {
+			assertArrayEquals(content, in.readAllBytes());
+		}
+		store.delete("uploads/ab/cd/small");
+		assertFalse(store.exists("uploads/ab/cd/small"));
+		assertThrows(NoSuchFileException.class, () -> store.open("uploads/ab/cd/small"));
+	}
+
+	@Test
+	void largeFileIsSentInPartsAndReassembled() throws IOException {
+		byte[] content = random((int) (23 * MB));
+
+		store.put("uploads/ab/cd/video", write(content), "video/mp4");
+
+		assertEquals(5, s3.parts.get());
+		assertTrue(s3.uploads.isEmpty());
+		assertArrayEquals(content, s3.objects.get("uploads/ab/cd/video"));
+	}
+
+	@Test
+	void downloadUrlServesTheObjectWithoutTheApi() throws Exception {
+		byte[] content = random(50_000);
+		store.put("uploads/ab/cd/photo", write(content), "image/jpeg");
+
+		URI uri = store.downloadUrl("uploads/ab/cd/photo", "image/jpeg", "inline; filename=\"photo.jpg\"").orElseThrow().uri();
+
+		assertTrue(uri.getQuery().contains("X-Amz-Signature="));
+		assertTrue(uri.getQuery().contains("response-content-disposition=inline; filename=\"photo.jpg\""));
+		HttpResponse<byte[]> response = HttpClient.newHttpClient()
+				.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofByteArray());
+		assertEquals(200, response.statusCode());
+		assertArrayEquals(content, response.body());
+	}
+
+	@Test
+	void listPagesThroughKeysInOrder() throws IOException {
+		for (String key : List.of("uploads/ab/cd/b", "uploads/ab/cd/a.thumb.jpg", "uploads/ab/cd/a", "uploads/ab/ce/c", "other/d")) {
+			store.put(key, write(random(1000)), "image/jpeg");
+		}
+
+		List<BlobStore.Blob> first = store.list("uploads/", null, 2);
+		List<BlobStore.Blob> rest = store.list("uploads/", first.get(1).key(), 10);
+
+		assertEquals(List.of("uploads/ab/cd/a", "uploads/ab/cd/a.thumb.jpg"), first.stream().map(BlobStore.Blob::key).toList());
+		assertEquals(List.of("uploads/ab/cd/b", "uploads/ab/ce/c"), rest.stream().map(BlobStore.Blob::key).toList());
+		assertEquals(1000, rest.get(0).size());
+	}
+
+	private Path write(byte[] content) throws IOException {
+		return Files.write(Files.createTempFile(dir, "blob-", ".part"), content);
+	}
+
+	private static byte[] random(int size) {
+		byte[] bytes = new byte[size];
+		new Random(size).nextBytes(bytes);
+		return bytes;
+	}
+
+	// Path-style bucket "attachments": PUT/GET/HEAD/DELETE of objects, listing, and the multipart upload calls.
+	// Signatures are not checked; aws-chunked bodies are decoded.
+	static class S3StandIn {
+		final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+		final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+		final AtomicInteger parts = new AtomicInteger();
+		private final HttpServer server;
+
+		S3StandIn() throws IOException {
+			server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+			server.setExecutor(Executors.newCachedThreadPool());
+			server.createContext("/attachments", this::handle);
+			server.start();
+		}
+
+		int port() {
+			return server.getAddress().getPort();
+		}
+
+		void stop() {
+			server.stop(0);
+		}
+
+		private void handle(HttpExchange exchange) throws IOException {
+			String path = exchange.getRequestURI().getPath();
+			String key = path.length() > "/attachments/".length() ? path.substring("/attachments/".length()) : "";
+			Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+			byte[] body = body(exchange);
+			String uploadId = query.get("uploadId");
+			switch (exchange.getRequestMethod()) {
+				case "POST" -> {
+					if (query.containsKey("uploads")) {
+						String id = UUID.randomUUID().toString();
+						uploads.put(id, new TreeMap<>());
+						reply(exchange, 200, "<InitiateMultipartUploadResult><Bucket>attachments</Bucket><Key>" + key
+								+ "</Key><UploadId>" + id + "</UploadId></InitiateMultipartUploadResult>");
+					} else {
+						ByteArrayOutputStream object = new ByteArrayOutputStream();
+						for (byte[] part : uploads.remove(uploadId).values()) {
+							object.write(part);
+						}
+						objects.put(key, object.toByteArray());
+						reply(exchange, 200, "<CompleteMultipartUploadResult><Key>" + key + "</Key></CompleteMultipartUploadResult>");
+					}
+				}
+				case "PUT" -> {
+					if (uploadId != null) {
+						Map<Integer, byte[]> upload = uploads.get(uploadId);
+						synchronized (upload) {
+							upload.put(Integer.parseInt(query.get("partNumber")), body);
+						}
+						parts.incrementAndGet();
+					} else {
+						objects.put(key, body);
+					}
+					exchange.getResponseHeaders().add("ETag", "\"" + UUID.randomUUID() + "\"");
+					reply(exchange, 200, null);
+				}
+				case "HEAD" -> {
+					byte[] object = objects.get(key);
+					if (object != null) exchange.getResponseHeaders().add("Content-Length", String.valueOf(object.length));
+					exchange.sendResponseHeaders(object == null ? 404 : 200, -1);
+					exchange.close();
+				}
+				case "GET" -> {
+					if (query.containsKey("list-type")) {
+						reply(exchange, 200, list(query));
+						return;
+					}
+					byte[] object = objects.get(key);
+					if (object == null) {
+						reply(exchange, 404, "<Error><Code>NoSuchKey</Code></Error>");
+					} else {
+						exchange.sendResponseHeaders(200, object.length);
+						exchange.getResponseBody().write(object);
+						exchange.close();
+					}
+				}
+				case "DELETE" -> {
+					if (uploadId != null) uploads.remove(uploadId);
+					else objects.remove(key);
+					reply(exchange, 204, null);
+				}
+				default -> reply(exchange, 405, null);
+			}
+		}
+
+		// ListObjectsV2: prefix, start-after and max-keys, keys in order
+		private String list(Map<String, String> query) {
+			String prefix = URLDecoder.decode(query.getOrDefault("prefix", ""), StandardCharsets.UTF_8);
+			String startAfter = URLDecoder.decode(query.getOrDefault("start-after", ""), StandardCharsets.UTF_8);
+			int maxKeys = Integer.parseInt(query.getOrDefault("max-keys", "1000"));
+			StringBuilder xml = new StringBuilder("<ListBucketResult><Name>attachments</Name><IsTruncated>false</IsTruncated>");
+			new TreeMap<>(objects).entrySet().stream()
+					.filter(e -> e.getKey().startsWith(prefix) && e.getKey().compareTo(startAfter) > 0)
+					.limit(maxKeys)
+					.forEach(e -> xml.append("<Contents><Key>").append(e.getKey()).append("</Key><LastModified>")
+							.append(Instant.now()).append("</LastModified><Size>").append(e.getValue().length)
+							.append("</Size></Contents>"));
+			return xml.append("</ListBucketResult>").toString();
+		}
+
+		private static void reply(HttpExchange exchange, int status, String xml) throws IOException {
+			byte[] bytes = xml == null ? new byte[0] : xml.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+			if (bytes.length > 0) exchange.getResponseBody().write(bytes);
+			exchange.close();
+		}
+
+		// Signed streaming uploads frame the payload as "<hex size>;chunk-signature=...\r\n<bytes>\r\n"
+		private static byte[] body(HttpExchange exchange) throws IOException {
+			byte[] raw = exchange.getRequestBody().readAllBytes();
+			String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+			if (sha == null || !sha.startsWith("STREAMING-")) return raw;
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			int i = 0;
+			while (true) {
+				int eol = i;
+				while (raw[eol] != '\r') eol++;
+				int size = Integer.parseInt(new String(raw, i, eol - i, StandardCharsets.US_ASCII).split(";")[0], 16);
+				if (size == 0) return out.toByteArray();
+				out.write(raw, eol + 2, size);
+				i = eol + 2 + size + 2;
+			}
+		}
+
+		private static Map<String, String> query(String raw) {
+			Map<String, String> query = new TreeMap<>();
+			if (raw == null) return query;
+			for (String pair : raw.split("&")) {
+				int eq = pair.indexOf('=');
+				query.put(eq < 0 ? pair : pair.substring(0, eq), eq < 0 ? "" : pair.substring(eq + 1));
+			}
+			return query;
+		}
+	}
+}
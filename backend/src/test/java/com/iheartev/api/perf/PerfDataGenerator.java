@@ -0,0 +1,503 @@
+package com.iheartev.api.perf;
+
+import com.iheartev.api.payment.BankService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+// Deterministic synthetic data set for the "perf" profile: the same seed and sizes always produce the
+// same rows. Seller activity and listing popularity are Zipf-distributed, statuses follow roughly
+// the production mix, and brands/models are what the Vietnamese market actually trades.
+// Rows are written with plain JDBC batches on one connection (no JPA), indexes are created after
+// the load, and sequences are moved past the generated ids so the application can keep inserting.
+@Component
+@Profile("perf")
+@Order(1)
+public class PerfDataGenerator implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(PerfDataGenerator.class);
+    // Password123!, same hash as the seed data
+    private static final String PASSWORD_HASH = "$2a$10$F8kQ3nYmuAiLp3chCrB8J.WAtc9XtcZJls2NuOpej7EMkKU7ct4dq";
+    private static final Duration HISTORY = Duration.ofDays(730);
+
+    private static final String[] FAMILY_NAMES = {"Nguyễn", "Trần", "Lê", "Phạm", "Hoàng", "Huỳnh", "Phan", "Vũ",
+            "Võ", "Đặng", "Bùi", "Đỗ", "Hồ", "Ngô", "Dương", "Lý"};
+    private static final double[] FAMILY_WEIGHTS = {38, 11, 9.5, 7, 5.1, 5, 4.5, 3.9, 3.9, 2.1, 2, 1.4, 1.3, 1.3, 1, 0.5};
+    private static final String[] MIDDLE_NAMES = {"Văn", "Thị", "Minh", "Ngọc", "Quốc", "Thanh", "Hoàng", "Đức", "Thu", "Gia"};
+    private static final String[] GIVEN_NAMES = {"An", "Bình", "Châu", "Dũng", "Giang", "Hà", "Hải", "Hạnh", "Hùng", "Hương",
+            "Khánh", "Lan", "Linh", "Long", "Mai", "Nam", "Ngân", "Phúc", "Quân", "Sơn", "Tâm", "Thảo", "Trang", "Tuấn", "Việt", "Vy"};
+
+    private record Brand(String name, String type, double weight, String[] models,
+                         int minKWh, int maxKWh, double basePrice) {}
+
+    private static final Brand[] BRANDS = {
+            new Brand("VinFast", "EV", 40, new String[]{"VF e34", "VF 3", "VF 5", "VF 6", "VF 7", "VF 8", "VF 9"}, 18, 123, 30000),
+            new Brand("VinFast", "EV", 12, new String[]{"Klara S", "Evo200", "Feliz S", "Vento S", "Theon S"}, 2, 4, 1300),
+            new Brand("Dat Bike", "EV", 5, new String[]{"Weaver 200", "Weaver++", "Quantum"}, 4, 6, 2200),
+            new Brand("Yadea", "EV", 5, new String[]{"Odora S", "Voltguard", "G5"}, 1, 3, 900),
+            new Brand("Pega", "EV", 2, new String[]{"eSH", "NewTech", "X-Men Plus"}, 1, 2, 700),
+            new Brand("Selex", "EV", 1, new String[]{"Camel", "Camel 2"}, 2, 4, 1500),
+            new Brand("Wuling", "EV", 6, new String[]{"Mini EV", "Bingo"}, 9, 38, 12000),
+            new Brand("BYD", "EV", 5, new String[]{"Atto 3", "Dolphin", "Seal", "M6"}, 44, 82, 32000),
+            new Brand("Hyundai", "EV", 4, new String[]{"Ioniq 5", "Kona Electric"}, 39, 77, 40000),
+            new Brand("Kia", "EV", 3, new String[]{"EV6", "EV9", "Niro EV"}, 64, 99, 50000),
+            new Brand("MG", "EV", 2, new String[]{"MG4", "ZS EV"}, 50, 64, 28000),
+            new Brand("Tesla", "EV", 2, new String[]{"Model 3", "Model Y", "Model S"}, 57, 100, 45000),
+            new Brand("Mercedes-Benz", "EV", 1.5, new String[]{"EQB", "EQE", "EQS"}, 66, 108, 90000),
+            new Brand("BMW", "EV", 1.5, new String[]{"i4", "iX3", "iX"}, 74, 105, 80000),
+            new Brand("Porsche", "EV", 0.5, new String[]{"Taycan"}, 79, 105, 120000),
+            new Brand("Nissan", "EV", 1, new String[]{"Leaf"}, 40, 62, 15000),
+            new Brand("VinES", "BATTERY", 9, new String[]{"LFP Pack 42kWh", "NMC Pack 87.7kWh", "Scooter LFP 3.5kWh"}, 3, 88, 4000),
+            new Brand("CATL", "BATTERY", 7, new String[]{"LFP Module", "NMC 811 Module", "Qilin Pack"}, 5, 100, 5000),
+            new Brand("LG Energy Solution", "BATTERY", 4, new String[]{"NCM Pouch Module", "E63 Cell Pack"}, 5, 80, 4500),
+            new Brand("Samsung SDI", "BATTERY", 2, new String[]{"Gen5 Prismatic", "21700 Pack"}, 2, 60, 4200),
+            new Brand("BYD", "BATTERY", 2, new String[]{"Blade Battery"}, 30, 85, 4800),
+            new Brand("Gotion", "BATTERY", 1, new String[]{"LFP JTM Pack"}, 10, 70, 3500),
+    };
+
+    // Listing status mix. ACTIVE predates the approval workflow and V2 moves old rows off it, but it is still
+    // live: buy-now only accepts ACTIVE listings and a cancelled order puts its listing back to ACTIVE
+    // (OrderController), and the listing/seller queries read it, so the data set keeps a share of it.
+    private static final String[] STATUSES = {"APPROVED", "PENDING", "REJECTED", "SOLD", "INACTIVE", "ACTIVE"};
+    private static final double[] STATUS_WEIGHTS = {60, 8, 4, 14, 6, 8};
+    private static final String[] CONDITIONS = {"new", "used", "verified"};
+    private static final double[] CONDITION_WEIGHTS = {15, 65, 20};
+    private static final double[] RATING_WEIGHTS = {7, 6, 12, 30, 45}; // 1..5 stars
+
+    private final DataSource dataSource;
+    private final List<BankService.Bank> banks;
+
+    @Value("${app.perf.generate:true}")
+    private boolean generate;
+    @Value("${app.perf.seed:42}")
+    private long seed;
+    @Value("${app.perf.users:50000}")
+    private int userCount;
+    @Value("${app.perf.listings:500000}")
+    private int listingCount;
+    @Value("${app.perf.favorites-per-user:20}")
+    private int favoritesPerUser;
+    @Value("${app.perf.attachments-per-listing:3}")
+    private int attachmentsPerListing;
+    @Value("${app.perf.batch-size:1000}")
+    private int batchSize;
+    // Newest timestamp in the data set; history goes back two years from here
+    @Value("${app.perf.anchor:2025-06-01T00:00:00Z}")
+    private Instant anchor;
+
+    public PerfDataGenerator(DataSource dataSource, BankService bankService) {
+        this.dataSource = dataSource;
+        this.banks = bankService.getAllBanks();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        try (Connection con = dataSource.getConnection()) {
+            paymentInfoUniqueWhenSet(con);
+        }
+        if (!generate) return;
+        long started = System.nanoTime();
+        long rows;
+        try (Connection con = dataSource.getConnection()) {
+            con.setAutoCommit(false);
+            rows = generateUsers(con);
+            rows += generateListings(con);
+            rows += generateFavorites(con);
+            long indexStart = System.nanoTime();
+            ScriptUtils.executeSqlScript(con, new ClassPathResource("perf/indexes.sql"));
+            resetSequences(con);
+            con.commit();
+            logger.info("perf: indexes and sequences in {} ms", (System.nanoTime() - indexStart) / 1_000_000);
+        }
+        long ms = (System.nanoTime() - started) / 1_000_000;
+        logger.info("perf: generated {} rows in {} s ({} rows/s, seed {})", rows, ms / 1000, rows * 1000 / Math.max(ms, 1), seed);
+    }
+
+    // Hibernate maps the one-to-one as a plain unique constraint on listings.payment_info_id, which in
+    // MSSQLServer mode H2 lets only one NULL into, so every listing after the first without payment info
+    // failed. V1 has a unique index filtered to non-NULL values; NULLS DISTINCT is the same rule. The
+    // foreign key goes too and comes back after, or H2 keeps the old index for it and the new constraint reuses it.
+    private static void paymentInfoUniqueWhenSet(Connection con) throws SQLException {
+        List<String> constraints = new ArrayList<>();
+        try (Statement statement = con.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT c.CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS c " +
+                     "JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE k ON k.CONSTRAINT_SCHEMA = c.CONSTRAINT_SCHEMA " +
+                     "AND k.CONSTRAINT_NAME = c.CONSTRAINT_NAME " +
+                     "WHERE c.TABLE_NAME = 'LISTINGS' AND c.CONSTRAINT_TYPE IN ('UNIQUE', 'FOREIGN KEY') " +
+                     "AND k.COLUMN_NAME = 'PAYMENT_INFO_ID' ORDER BY c.CONSTRAINT_TYPE")) {
+            while (rs.next()) constraints.add(rs.getString(1));
+        }
+        try (Statement statement = con.createStatement()) {
+            // Foreign keys sort first
+            for (String constraint : constraints) {
+                statement.execute("ALTER TABLE listings DROP CONSTRAINT \"" + constraint + "\"");
+            }
+            statement.execute("ALTER TABLE listings ADD CONSTRAINT uk_listings_payment_info UNIQUE NULLS DISTINCT (payment_info_id)");
+            statement.execute("ALTER TABLE listings ADD CONSTRAINT fk_listings_payment_info " +
+                    "FOREIGN KEY (payment_info_id) REFERENCES payment_info (id)");
+        }
+    }
+
+    private long generateUsers(Connection con) throws SQLException {
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+        try (Batch users = new Batch(con, "INSERT INTO users (id, email, phone, password, fullName, role, enabled) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int id = 1; id <= userCount; id++) {
+                String fullName = pick(random, FAMILY_NAMES, FAMILY_WEIGHTS) + " "
+                        + MIDDLE_NAMES[random.nextInt(MIDDLE_NAMES.length)] + " "
+                        + GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)];
+                users.set(1, (long) id)
+                     .set(2, id == 1 ? "perf-admin@iheartev.local" : "perf-user-" + id + "@iheartev.local")
+                     .set(3, "09" + String.format("%08d", random.nextInt(100_000_000)))
+                     .set(4, PASSWORD_HASH)
+                     .set(5, fullName)
+                     .set(6, id == 1 ? "ADMIN" : "MEMBER")
+                     .set(7, Boolean.TRUE)
+                     .add();
+            }
+            log("users", users.count, started);
+            return users.count;
+        }
+    }
+
+    // One pass over listings writes each listing's payment info, attachments, orders and reviews too
+    private long generateListings(Connection con) throws SQLException {
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        Zipf sellers = new Zipf(userCount - 1, 1.1);
+        int[] sellerOf = permutation(userCount - 1, 2, new SplittableRandom(seed + 2));
+        double[] brandWeights = Arrays.stream(BRANDS).mapToDouble(Brand::weight).toArray();
+        long orderId = 0;
+        long reviewId = 0;
+        long attachmentId = 0;
+
+        try (Batch payments = new Batch(con, "INSERT INTO payment_info (id, paymentMethod, bankCode, bankName, " +
+                     "accountNumber, amount, transactionContent) VALUES (?, ?, ?, ?, ?, ?, ?)");
+             Batch listings = new Batch(con, payments, "INSERT INTO listings (id, seller_id, type, brand, model, year, mileage_km, " +
+                     "battery_capacitykwh, condition_label, description, price, status, created_at, approved_at, deleted_at, " +
+                     "edited_after_rejection, payment_info_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch attachments = new Batch(con, "INSERT INTO attachments (id, listingId, fileName, filePath, type, fileSize, contentType, " +
+                     "contentHash, uploadedAt) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch orders = new Batch(con, listings, "INSERT INTO orders (id, listing_id, buyer_id, amount, status, created_at, updated_at, " +
+                     "cancelled_by, cancellation_reason, cancelled_at, buyer_payment_confirmed, buyer_payment_confirmed_at, " +
+                     "seller_payment_received, seller_payment_received_at, closed_at, buyer_review_id, seller_review_id) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             Batch reviews = new Batch(con, "INSERT INTO reviews (id, reviewer_id, reviewee_id, order_id, rating, comment, " +
+                     "created_at, updated_at, edit_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+
+            for (int id = 1; id <= listingCount; id++) {
+                long sellerId = sellerOf[sellers.sample(random) - 1];
+                Brand brand = BRANDS[pickIndex(random, brandWeights)];
+                String model = brand.models()[random.nextInt(brand.models().length)];
+                String status = pick(random, STATUSES, STATUS_WEIGHTS);
+                int age = (int) Math.min(7, Math.floor(-Math.log(1 - random.nextDouble()) * 2.2));
+                int year = anchorYear() - age;
+                boolean ev = "EV".equals(brand.type());
+                Integer mileage = ev ? (age == 0 ? random.nextInt(3000) : age * (6000 + random.nextInt(14000))) : null;
+                int kwh = brand.minKWh() + random.nextInt(brand.maxKWh() - brand.minKWh() + 1);
+                double price = Math.round(brand.basePrice() * Math.pow(0.85, age) * (0.8 + random.nextDouble() * 0.4) / 10) * 10.0;
+                String condition = age == 0 ? "new" : pick(random, CONDITIONS, CONDITION_WEIGHTS);
+
+                // Newer listings are more frequent (marketplace growth); pending ones are at most a few days old
+                Instant createdAt = "PENDING".equals(status)
+                        ? anchor.minusSeconds(random.nextLong(3 * 86_400L))
+                        : anchor.minusSeconds((long) (HISTORY.toSeconds() * (1 - Math.sqrt(random.nextDouble()))));
+                boolean approved = !"PENDING".equals(status) && !"REJECTED".equals(status);
+                Instant approvedAt = approved ? createdAt.plusSeconds(600 + random.nextLong(2 * 86_400L)) : null;
+                Instant deletedAt = "INACTIVE".equals(status) ? createdAt.plusSeconds(86_400L + random.nextLong(60 * 86_400L)) : null;
+
+                boolean vietQr = random.nextInt(100) < 55;
+                BankService.Bank bank = banks.get(random.nextInt(banks.size()));
+                payments.set(1, (long) id)
+                        .set(2, vietQr ? "VIETQR" : "CASH")
+                        .set(3, vietQr ? bank.getCode() : null)
+                        .set(4, vietQr ? bank.getShortName() : null)
+                        .set(5, vietQr ? String.valueOf(1_000_000_000L + random.nextLong(9_000_000_000L)) : null)
+                        .set(6, vietQr ? price : null)
+                        .set(7, vietQr ? "IHEARTEV " + id : null)
+                        .add();
+
+                listings.set(1, (long) id)
+                        .set(2, sellerId)
+                        .set(3, brand.type())
+                        .set(4, brand.name())
+                        .set(5, model)
+                        .set(6, year)
+                        .set(7, mileage)
+                        .set(8, kwh)
+                        .set(9, condition)
+                        .set(10, brand.name() + " " + model + " " + year + ", " + condition
+                                + (mileage != null ? ", " + mileage + " km" : "") + ", " + kwh + " kWh.")
+                        .set(11, price)
+                        .set(12, status)
+                        .set(13, utc(createdAt))
+                        .set(14, utc(approvedAt))
+                        .set(15, utc(deletedAt))
+                        .set(16, "REJECTED".equals(status) && random.nextInt(100) < 30)
+                        .set(17, (long) id)
+                        .add();
+
+                int images = (int) Math.min(8, Math.round(-Math.log(1 - random.nextDouble()) * attachmentsPerListing));
+                for (int n = 1; n <= images; n++) {
+                    boolean video = random.nextInt(100) < 5;
+                    attachments.set(1, ++attachmentId)
+                               .set(2, (long) id)
+                               .set(3, (video ? "VID_" : "IMG_") + (1000 + random.nextInt(9000)) + (video ? ".mp4" : ".jpg"))
+                               .set(4, "perf/" + id + "/" + n + (video ? ".mp4" : ".jpg"))
+                               .set(5, video ? "VIDEO" : "IMAGE")
+                               .set(6, video ? 5_000_000L + random.nextLong(45_000_000L) : 150_000L + random.nextLong(2_850_000L))
+                               .set(7, video ? "video/mp4" : "image/jpeg")
+                               // Stand-in for the SHA-256, derived from the id so the random sequence is unchanged
+                               .set(8, String.format("%064x", attachmentId))
+                               .set(9, utc(createdAt))
+                               .add();
+                }
+
+                if (approvedAt == null) continue;
+                // Some buyers back out before a sale; sold listings end with one closed order,
+                // a few approved listings have an order still in progress
+                int cancelled = random.nextInt(100) < 20 ? 1 + random.nextInt(2) : 0;
+                boolean sold = "SOLD".equals(status);
+                boolean inProgress = "APPROVED".equals(status) && random.nextInt(100) < 6;
+                Instant t = approvedAt;
+                for (int c = 0; c < cancelled + (sold || inProgress ? 1 : 0); c++) {
+                    t = t.plusSeconds(3600 + random.nextLong(7 * 86_400L));
+                    if (t.isAfter(anchor)) break;
+                    long buyerId = 2 + random.nextInt(userCount - 1);
+                    if (buyerId == sellerId) buyerId = buyerId == userCount ? 2 : buyerId + 1;
+                    boolean isCancel = c < cancelled;
+                    boolean closed = !isCancel && sold;
+                    boolean buyerPaid = closed || (!isCancel && random.nextBoolean());
+                    Instant end = t.plusSeconds(3600 + random.nextLong(3 * 86_400L));
+                    long oid = ++orderId;
+                    Long buyerReview = null;
+                    Long sellerReview = null;
+                    if (closed && random.nextInt(100) < 70) {
+                        buyerReview = ++reviewId;
+                        addReview(reviews, random, buyerReview, buyerId, sellerId, oid, end);
+                    }
+                    if (closed && random.nextInt(100) < 45) {
+                        sellerReview = ++reviewId;
+                        addReview(reviews, random, sellerReview, sellerId, buyerId, oid, end);
+                    }
+                    orders.set(1, oid)
+                          .set(2, (long) id)
+                          .set(3, buyerId)
+                          .set(4, price)
+                          .set(5, isCancel ? "CANCELLED" : closed ? "CLOSED" : "PENDING")
+                          .set(6, utc(t))
+                          .set(7, utc(isCancel || closed ? end : t))
+                          .set(8, isCancel ? (random.nextBoolean() ? "BUYER" : "SELLER") : null)
+                          .set(9, isCancel ? "Đổi ý" : null)
+                          .set(10, isCancel ? utc(end) : null)
+                          .set(11, buyerPaid)
+                          .set(12, buyerPaid ? utc(t.plusSeconds(1800)) : null)
+                          .set(13, closed)
+                          .set(14, closed ? utc(end.minusSeconds(600)) : null)
+                          .set(15, closed ? utc(end) : null)
+                          .set(16, buyerReview)
+                          .set(17, sellerReview)
+                          .add();
+                }
+            }
+            log("payment_info", payments.count, started);
+            log("listings", listings.count, started);
+            log("attachments", attachments.count, started);
+            log("orders", orders.count, started);
+            log("reviews", reviews.count, started);
+            return payments.count + listings.count + attachments.count + orders.count + reviews.count;
+        }
+    }
+
+    private void addReview(Batch reviews, SplittableRandom random, long id, long reviewerId, long revieweeId,
+                           long orderId, Instant closedAt) throws SQLException {
+        int rating = pickIndex(random, RATING_WEIGHTS) + 1;
+        Instant at = closedAt.plusSeconds(600 + random.nextLong(5 * 86_400L));
+        reviews.set(1, id)
+               .set(2, reviewerId)
+               .set(3, revieweeId)
+               .set(4, orderId)
+               .set(5, rating)
+               .set(6, rating >= 4 ? "Giao dịch nhanh, xe đúng mô tả." : rating == 3 ? "Tạm ổn." : "Không như mô tả.")
+               .set(7, utc(at))
+               .set(8, utc(at))
+               .set(9, 0)
+               .add();
+    }
+
+    // Popular listings collect most favorites (Zipf over a shuffled listing order)
+    private long generateFavorites(Connection con) throws SQLException {
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed + 3);
+        Zipf popularity = new Zipf(listingCount, 0.9);
+        int[] listingOf = permutation(listingCount, 1, new SplittableRandom(seed + 4));
+        long favoriteId = 0;
+        try (Batch favorites = new Batch(con, "INSERT INTO favorites (id, user_id, listing_id) VALUES (?, ?, ?)")) {
+            Set<Integer> seen = new HashSet<>();
+            for (int userId = 2; userId <= userCount; userId++) {
+                int count = (int) Math.min(200, Math.round(-Math.log(1 - random.nextDouble()) * favoritesPerUser));
+                seen.clear();
+                for (int i = 0; i < count; i++) {
+                    int listingId = listingOf[popularity.sample(random) - 1];
+                    if (!seen.add(listingId)) continue;
+                    favorites.set(1, ++favoriteId).set(2, (long) userId).set(3, (long) listingId).add();
+                }
+            }
+            log("favorites", favorites.count, started);
+            return favorites.count;
+        }
+    }
+
+    // The pooled optimizer hands out the 50 ids ending at the value it reads, so restart at MAX(id) + 50
+    private void resetSequences(Connection con) throws SQLException {
+        String[][] sequences = {{"users", "users_seq"}, {"payment_info", "payment_info_seq"}, {"listings", "listings_seq"},
+                {"orders", "orders_seq"}, {"reviews", "reviews_seq"}, {"favorites", "favorites_seq"},
+                {"attachments", "attachments_seq"}};
+        try (Statement st = con.createStatement()) {
+            for (String[] s : sequences) {
+                long max;
+                try (var rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + s[0])) {
+                    rs.next();
+                    max = rs.getLong(1);
+                }
+                st.execute("ALTER SEQUENCE " + s[1] + " RESTART WITH " + (max + 50));
+            }
+        }
+    }
+
+    private int anchorYear() {
+        return anchor.atOffset(ZoneOffset.UTC).getYear();
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant == null ? null : instant.atOffset(ZoneOffset.UTC);
+    }
+
+    private static void log(String table, long rows, long startedNanos) {
+        long ms = (System.nanoTime() - startedNanos) / 1_000_000;
+        logger.info("perf: {} {} rows ({} ms since pass start)", table, rows, ms);
+    }
+
+    private static <T> T pick(SplittableRandom random, T[] values, double[] weights) {
+        return values[pickIndex(random, weights)];
+    }
+
+    private static int pickIndex(SplittableRandom random, double[] weights) {
+        double total = 0;
+        for (double w : weights) total += w;
+        double r = random.nextDouble() * total;
+        for (int i = 0; i < weights.length; i++) {
+            r -= weights[i];
+            if (r < 0) return i;
+        }
+        return weights.length - 1;
+    }
+
+    // Shuffled ids first..first+n-1, so Zipf rank 1 is not simply the lowest id
+    private static int[] permutation(int n, int first, SplittableRandom random) {
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) ids[i] = first + i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+        return ids;
+    }
+
+    // Zipf(s) over ranks 1..n via the cumulative distribution and binary search
+    static final class Zipf {
+        private final double[] cdf;
+
+        Zipf(int n, double s) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int k = 1; k <= n; k++) {
+                sum += 1 / Math.pow(k, s);
+                cdf[k - 1] = sum;
+            }
+            for (int k = 0; k < n; k++) cdf[k] /= sum;
+        }
+
+        int sample(SplittableRandom random) {
+            int i = Arrays.binarySearch(cdf, random.nextDouble());
+            return (i >= 0 ? i : -i - 1) + 1;
+        }
+    }
+
+    // One prepared statement; flushes every batchSize rows and commits with it. A batch for a child
+    // table flushes its parent first so foreign keys always point at rows that are already written.
+    private final class Batch implements AutoCloseable {
+        private final Connection con;
+        private final Batch parent;
+        private final PreparedStatement ps;
+        long count;
+
+        Batch(Connection con, String sql) throws SQLException {
+            this(con, null, sql);
+        }
+
+        Batch(Connection con, Batch parent, String sql) throws SQLException {
+            this.con = con;
+            this.parent = parent;
+            this.ps = con.prepareStatement(sql);
+        }
+
+        Batch set(int index, Object value) throws SQLException {
+            if (value == null) {
+                ps.setNull(index, Types.NULL);
+            } else {
+                ps.setObject(index, value);
+            }
+            return this;
+        }
+
+        void add() throws SQLException {
+            ps.addBatch();
+            if (++count % batchSize == 0) {
+                flush();
+            }
+        }
+
+        void flush() throws SQLException {
+            if (parent != null) parent.flush();
+            ps.executeBatch();
+            con.commit();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                ps.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.iheartev.api.perf;
+
+import com.iheartev.api.listing.Listing;
+import com.iheartev.api.payment.PaymentInfo;
+import com.iheartev.api.user.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+// Measures the JPA insert path used by ListingImportService (pooled sequence ids, chunked
+// transactions) with JDBC batching off (batch size 1) and on (hibernate.jdbc.batch_size),
+// after PerfDataGenerator has filled the database. Rows are inserted for seller 2 as PENDING.
+@Component
+@Profile("perf")
+@Order(2)
+public class PerfWriteBenchmark implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(PerfWriteBenchmark.class);
+    private static final int CHUNK = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.perf.write-benchmark-rows:0}")
+    private int rows;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
+
+    public PerfWriteBenchmark(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (rows <= 0) return;
+        // First pass warms up the JIT and the sequence allocators; only the second pair is reported
+        insert(Math.min(rows, 2_000), jdbcBatchSize);
+        for (int batchSize : new int[] {1, jdbcBatchSize}) {
+            long started = System.nanoTime();
+            insert(rows, batchSize);
+            long ms = Math.max((System.nanoTime() - started) / 1_000_000, 1);
+            logger.info("perf: write path, jdbc batch size {}: {} listings (+ payment info) in {} ms, {} rows/s",
+                    batchSize, rows, ms, rows * 2L * 1000 / ms);
+        }
+    }
+
+    private void insert(int count, int batchSize) {
+        for (int done = 0; done < count; done += CHUNK) {
+            int size = Math.min(CHUNK, count - done);
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+                User seller = entityManager.getReference(User.class, 2L);
+                Instant now = Instant.now();
+                Listing[] listings = new Listing[size];
+                for (int i = 0; i < size; i++) {
+                    PaymentInfo paymentInfo = new PaymentInfo();
+                    paymentInfo.setPaymentMethod("CASH");
+                    entityManager.persist(paymentInfo);
+                    Listing listing = new Listing();
+                    listing.setSeller(seller);
+                    listing.setType("EV");
+                    listing.setBrand("VinFast");
+                    listing.setModel("VF 5");
+                    listing.setYear(2024);
+                    listing.setPrice(15000.0);
+                    listing.setStatus("PENDING");
+                    listing.setCreatedAt(now);
+                    listing.setEditedAfterRejection(false);
+                    listing.setPaymentInfo(paymentInfo);
+                    listings[i] = listing;
+                }
+                // Payment infos first, then listings, so each table goes out as one batch
+                for (Listing listing : listings) {
+                    entityManager.persist(listing);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+}
@@ -0,0 +1,24 @@
+-- H2 counterpart of db/migration/V3__hot_query_indexes.sql for the "perf" profile.
+-- Applied by PerfDataGenerator after the bulk load (H2 has no filtered or INCLUDE indexes,
+-- so those become plain indexes on the same key columns).
+
+CREATE INDEX IF NOT EXISTS ix_listings_live_status_created ON listings (status, created_at, id);
+CREATE INDEX IF NOT EXISTS ix_listings_seller_status ON listings (seller_id, status);
+CREATE INDEX IF NOT EXISTS ix_listings_created_at ON listings (created_at);
+CREATE INDEX IF NOT EXISTS ix_listings_approved_at ON listings (approved_at);
+
+CREATE INDEX IF NOT EXISTS ix_orders_listing_status ON orders (listing_id, status);
+CREATE INDEX IF NOT EXISTS ix_orders_buyer_id ON orders (buyer_id);
+CREATE INDEX IF NOT EXISTS ix_orders_created_at ON orders (created_at);
+CREATE INDEX IF NOT EXISTS ix_orders_closed_at ON orders (closed_at);
+CREATE INDEX IF NOT EXISTS ix_orders_cancelled_at ON orders (cancelled_at);
+
+CREATE INDEX IF NOT EXISTS ix_reviews_reviewee_id ON reviews (reviewee_id);
+CREATE INDEX IF NOT EXISTS ix_reviews_order_reviewer ON reviews (order_id, reviewer_id);
+
+CREATE INDEX IF NOT EXISTS ix_favorites_listing_id ON favorites (listing_id);
+
+CREATE INDEX IF NOT EXISTS ix_attachments_listing_id ON attachments (listingId);
+CREATE INDEX IF NOT EXISTS ix_attachments_file_path ON attachments (filePath);
+
+ANALYZE;
@@ -7,6 +7,13 @@ import { adminService } from '../services/adminService';
 import { useAuthGuard } from '../hooks/useAuthGuard';
 import { MaterialCommunityIcons as Icon } from '@expo/vector-icons';
 
+const PAGE_SIZE = 50;
+// Bulk outcomes after which a listing is no longer in the queue
+const SETTLED_OUTCOMES = ['APPROVED', 'REJECTED', 'DELETED', 'NOT_PENDING', 'SOFT_DELETED', 'NOT_FOUND'];
+
+const isNearBottom = ({ layoutMeasurement, contentOffset, contentSize }) =>
+  layoutMeasurement.height + contentOffset.y >= contentSize.height - 200;
+
 export default function AdminScreen({ navigation }) {
   const { isAuthenticated, role } = useAuth();
   const [summary, setSummary] = useState({});
@@ -14,6 +21,10 @@ export default function AdminScreen({ navigation }) {
   const [loading, setLoading] = useState(true);
   const [refreshing, setRefreshing] = useState(false);
   const [processingId, setProcessingId] = useState(null);
+  const [hasMore, setHasMore] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
+  const [selectedIds, setSelectedIds] = useState([]);
+  const [bulkProcessing, setBulkProcessing] = useState(false);
 
   useAuthGuard(true);
 
@@ -30,10 +41,13 @@ export default function AdminScreen({ navigation }) {
     try {
       const [summaryRes, pendingRes] = await Promise.all([
         adminService.getSummaryReport(),
-        adminService.getPendingListings()
+        adminService.getPendingListings(undefined, PAGE_SIZE)
       ]);
+      const page = Array.isArray(pendingRes) ? pendingRes : [];
       setSummary(summaryRes || {});
-      setPendingListings(Array.isArray(pendingRes) ? pendingRes : []);
+      setPendingListings(page);
+      setHasMore(page.length === PAGE_SIZE);
+      setSelectedIds([]);
     } catch (error) {
       if (error.sessionExpired) {
         Alert.alert('Phiên đăng nhập hết hạn', 'Phiên đăng nhập đã hết hạn. Vui lòng đăng nhập lại.', [
@@ -54,6 +68,78 @@ export default function AdminScreen({ navigation }) {
     }
   }, [isAuthenticated, role]);
 
+  // The queue is keyset-paginated: the next page starts after the last listing shown
+  const loadMore = async () => {
+    if (!hasMore || loadingMore || pendingListings.length === 0) return;
+    const last = pendingListings[pendingListings.length - 1];
+    setLoadingMore(true);
+    try {
+      const res = await adminService.getPendingListings({ afterCreatedAt: last.createdAt, afterId: last.id }, PAGE_SIZE);
+      const page = Array.isArray(res) ? res : [];
+      setPendingListings((current) => {
+        const shown = new Set(current.map((l) => l.id));
+        return current.concat(page.filter((l) => !shown.has(l.id)));
+      });
+      setHasMore(page.length === PAGE_SIZE);
+    } catch (error) {
+      console.error('Error loading more listings:', error);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
+  // Drops moderated listings in place so the pages already loaded stay
+  const removeModerated = async (ids) => {
+    setPendingListings((current) => current.filter((l) => !ids.includes(l.id)));
+    setSelectedIds((current) => current.filter((id) => !ids.includes(id)));
+    try {
+      setSummary((await adminService.getSummaryReport()) || {});
+    } catch (error) {
+      console.error('Error loading summary:', error);
+    }
+  };
+
+  const toggleSelected = (listingId) => {
+    setSelectedIds((current) =>
+      current.includes(listingId) ? current.filter((id) => id !== listingId) : [...current, listingId]);
+  };
+
+  const runBulk = async (action) => {
+    setBulkProcessing(true);
+    try {
+      const result = await adminService.bulkModerate(selectedIds.map((id) => ({ id, action })));
+      const results = result.results || [];
+      const settled = results.filter((r) => SETTLED_OUTCOMES.includes(r.outcome)).map((r) => r.id);
+      const conflicted = results.length - settled.length;
+      Alert.alert(
+        'Đã xử lý',
+        `Duyệt: ${result.approved || 0}, từ chối: ${result.rejected || 0}, xóa: ${result.deleted || 0}` +
+          (conflicted > 0 ? `\n${conflicted} tin đăng vừa bị thay đổi, vui lòng thử lại.` : '')
+      );
+      await removeModerated(settled);
+    } catch (error) {
+      console.error('Error moderating listings:', error);
+      Alert.alert('Lỗi', error.response?.data?.error || 'Không thể xử lý các tin đăng đã chọn');
+    } finally {
+      setBulkProcessing(false);
+    }
+  };
+
+  const handleBulk = (action) => {
+    if (action === 'APPROVE') {
+      runBulk(action);
+      return;
+    }
+    Alert.alert(
+      'Từ chối tin đăng',
+      `Bạn có chắc chắn muốn từ chối ${selectedIds.length} tin đăng đã chọn?`,
+      [
+        { text: 'Hủy', style: 'cancel' },
+        { text: 'Từ chối', style: 'destructive', onPress: () => runBulk(action) }
+      ]
+    );
+  };
+
   const onRefresh = async () => {
     setRefreshing(true);
     await loadData();
@@ -65,7 +151,7 @@ export default function AdminScreen({ navigation }) {
     try {
       await adminService.approveListing(listingId);
       Alert.alert('Thành công', 'Tin đăng đã được duyệt');
-      await loadData();
+      await removeModerated([listingId]);
     } catch (error) {
       console.error('Error approving listing:', error);
       Alert.alert('Lỗi', error.response?.data?.error || 'Không thể duyệt tin đăng');
@@ -92,7 +178,7 @@ export default function AdminScreen({ navigation }) {
               } else {
                 Alert.alert('Tin đăng đã bị từ chối', 'Người bán có thể chỉnh sửa và gửi lại tin đăng một lần.');
               }
-              await loadData();
+              await removeModerated([listingId]);
             } catch (error) {
               console.error('Error rejecting listing:', error);
               Alert.alert('Lỗi', error.response?.data?.error || 'Không thể từ chối tin đăng');
@@ -154,6 +240,10 @@ export default function AdminScreen({ navigation }) {
         style={styles.scrollView}
         contentContainerStyle={styles.scrollContent}
         refreshControl={<RefreshControl refreshing={refreshing} onRefresh={onRefresh} />}
+        onScroll={({ nativeEvent }) => {
+          if (isNearBottom(nativeEvent)) loadMore();
+        }}
+        scrollEventThrottle={200}
       >
         <View style={styles.headerSection}>
           <Icon name="shield-check" size={48} color="#6200ee" />
@@ -214,13 +304,45 @@ export default function AdminScreen({ navigation }) {
 
         {pendingListings.length > 0 && (
           <View style={styles.pendingSection}>
-            <Text style={styles.sectionTitle}>Tin đăng chờ duyệt ({pendingListings.length})</Text>
+            <Text style={styles.sectionTitle}>
+              Tin đăng chờ duyệt ({summary.pendingListings ?? pendingListings.length})
+            </Text>
+            {selectedIds.length > 0 && (
+              <View style={styles.bulkBar}>
+                <Text style={styles.bulkBarText}>Đã chọn {selectedIds.length}</Text>
+                <TouchableOpacity
+                  style={[styles.actionButton, styles.approveButton]}
+                  onPress={() => handleBulk('APPROVE')}
+                  disabled={bulkProcessing}
+                >
+                  <Icon name="check-all" size={18} color="white" />
+                  <Text style={styles.actionButtonText}>Duyệt</Text>
+                </TouchableOpacity>
+                <TouchableOpacity
+                  style={[styles.actionButton, styles.rejectButton]}
+                  onPress={() => handleBulk('REJECT')}
+                  disabled={bulkProcessing}
+                >
+                  <Icon name="close" size={18} color="white" />
+                  <Text style={styles.actionButtonText}>Từ chối</Text>
+                </TouchableOpacity>
+              </View>
+            )}
             {pendingListings.map((listing) => (
               <View key={listing.id} style={styles.pendingCard}>
                 <View style={styles.pendingCardContent}>
-                  <Text style={styles.pendingCardTitle}>
-                    {listing.brand} {listing.model} ({listing.year})
-                  </Text>
+                  <View style={styles.pendingCardHeader}>
+                    <Text style={styles.pendingCardTitle}>
+                      {listing.brand} {listing.model} ({listing.year})
+                    </Text>
+                    <TouchableOpacity onPress={() => toggleSelected(listing.id)} disabled={bulkProcessing}>
+                      <Icon
+                        name={selectedIds.includes(listing.id) ? 'checkbox-marked' : 'checkbox-blank-outline'}
+                        size={24}
+                        color="#6200ee"
+                      />
+                    </TouchableOpacity>
+                  </View>
                   <Text style={styles.pendingCardPrice}>
                     {new Intl.NumberFormat('vi-VN', { style: 'currency', currency: 'VND' }).format(listing.price)}
                   </Text>
@@ -266,6 +388,7 @@ export default function AdminScreen({ navigation }) {
                 </View>
               </View>
             ))}
+            {loadingMore && <ActivityIndicator style={styles.loadingMore} color="#6200ee" />}
           </View>
         )}
 
@@ -429,6 +552,26 @@ const styles = StyleSheet.create({
     marginBottom: 12,
     paddingHorizontal: 4,
   },
+  bulkBar: {
+    flexDirection: 'row',
+    alignItems: 'center',
+    gap: 8,
+    backgroundColor: 'white',
+    borderRadius: 12,
+    padding: 12,
+    marginBottom: 12,
+    borderWidth: 1,
+    borderColor: '#6200ee',
+  },
+  bulkBarText: {
+    flex: 1,
+    fontSize: 14,
+    fontWeight: '600',
+    color: '#333',
+  },
+  loadingMore: {
+    marginVertical: 12,
+  },
   pendingCard: {
     backgroundColor: 'white',
     borderRadius: 12,
@@ -445,7 +588,14 @@ const styles = StyleSheet.create({
   pendingCardContent: {
     marginBottom: 12,
   },
+  pendingCardHeader: {
+    flexDirection: 'row',
+    justifyContent: 'space-between',
+    alignItems: 'flex-start',
+    gap: 8,
+  },
   pendingCardTitle: {
+    flex: 1,
     fontSize: 16,
     fontWeight: '600',
     color: '#333',
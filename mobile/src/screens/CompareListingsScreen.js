@@ -28,7 +28,7 @@ export default function CompareListingsScreen({ route, navigation }) {
             if (attachments && attachments.length > 0) {
               const firstAttachment = attachments[0];
               if (firstAttachment.type === 'IMAGE') {
-                imagesMap[listing.id] = attachmentService.getAttachmentUrl(firstAttachment.id);
+                imagesMap[listing.id] = attachmentService.getAttachmentUrl(firstAttachment, 'medium');
               }
             }
           } catch (error) {
@@ -842,7 +842,7 @@ export default function EditListingScreen({ route, navigation }) {
                       <Image 
                         source={{ 
                           uri: attachment.isExisting 
-                            ? attachmentService.getAttachmentUrl(attachment.id)
+                            ? attachmentService.getAttachmentUrl(attachment, 'thumb')
                             : attachment.uri 
                         }} 
                         style={[styles.attachmentThumbnail, isMarkedForDelete && styles.attachmentThumbnailDeleted]} 
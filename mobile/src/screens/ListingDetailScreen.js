@@ -175,7 +175,7 @@ export default function ListingDetailScreen({ route, navigation }) {
               // Generate thumbnail asynchronously
               (async () => {
                 try {
-                  const videoUrl = attachmentService.getAttachmentUrl(videoAttachment.id);
+                  const videoUrl = attachmentService.getAttachmentUrl(videoAttachment);
                   const thumbnail = await VideoThumbnails.getThumbnailAsync(videoUrl, {
                     time: 1000,
                     quality: 0.8,
@@ -589,7 +589,7 @@ export default function ListingDetailScreen({ route, navigation }) {
                 <View key={attachment.id} style={styles.carouselItem}>
                   {attachment.type === 'IMAGE' ? (
                     <Image 
-                      source={{ uri: attachmentService.getAttachmentUrl(attachment.id) }}
+                      source={{ uri: attachmentService.getAttachmentUrl(attachment, 'large') }}
                       style={styles.carouselImage}
                       resizeMode="cover"
                     />
@@ -599,7 +599,7 @@ export default function ListingDetailScreen({ route, navigation }) {
                       activeOpacity={0.9}
                       onPress={() => {
                         navigation.navigate('VideoPlayer', {
-                          videoUrl: attachmentService.getAttachmentUrl(attachment.id),
+                          videoUrl: attachmentService.getAttachmentUrl(attachment),
                           attachmentId: attachment.id,
                         });
                       }}
@@ -627,7 +627,7 @@ export default function ListingDetailScreen({ route, navigation }) {
                                 videoRefs.current[attachment.id] = ref;
                               }
                             }}
-                            source={{ uri: attachmentService.getAttachmentUrl(attachment.id) }}
+                            source={{ uri: attachmentService.getAttachmentUrl(attachment) }}
                             style={styles.carouselVideo}
                             resizeMode="cover"
                             shouldPlay={index === currentImageIndex}
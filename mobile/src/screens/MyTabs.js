@@ -92,11 +92,11 @@ function MyListings({ navigation }) {
               const firstAttachment = attachments[0];
               if (firstAttachment.type === 'IMAGE') {
                 // Use image directly
-                imagesMap[listing.id] = attachmentService.getAttachmentUrl(firstAttachment.id);
+                imagesMap[listing.id] = attachmentService.getAttachmentUrl(firstAttachment, 'medium');
               } else if (firstAttachment.type === 'VIDEO') {
                 // Generate thumbnail for video
                 try {
-                  const videoUrl = attachmentService.getAttachmentUrl(firstAttachment.id);
+                  const videoUrl = attachmentService.getAttachmentUrl(firstAttachment);
                   const thumbnail = await VideoThumbnails.getThumbnailAsync(videoUrl, {
                     time: 1000,
                     quality: 0.8,
@@ -107,7 +107,7 @@ function MyListings({ navigation }) {
                   // Fallback: try to find an image attachment
                   const imageAttachment = attachments.find(a => a.type === 'IMAGE');
                   if (imageAttachment) {
-                    imagesMap[listing.id] = attachmentService.getAttachmentUrl(imageAttachment.id);
+                    imagesMap[listing.id] = attachmentService.getAttachmentUrl(imageAttachment, 'medium');
                   }
                 }
               }
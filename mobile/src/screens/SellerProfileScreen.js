@@ -40,7 +40,7 @@ export default function SellerProfileScreen({ route, navigation }) {
             const attachments = await attachmentService.getAttachmentsByListing(listing.id);
             const imageAttachment = attachments.find(a => a.type === 'IMAGE');
             if (imageAttachment) {
-              imagesMap[listing.id] = attachmentService.getAttachmentUrl(imageAttachment.id);
+              imagesMap[listing.id] = attachmentService.getAttachmentUrl(imageAttachment, 'medium');
             }
           } catch (error) {
             console.error(`Error loading image for listing ${listing.id}:`, error);
@@ -11,8 +11,15 @@ export const adminService = {
     return response.data;
   },
 
-  async getPendingListings() {
-    const response = await api.get('/api/admin/listings/pending');
+  async getPendingListings(cursor, size) {
+    // cursor: { afterCreatedAt, afterId } taken from the last listing of the previous page
+    const response = await api.get('/api/admin/listings/pending', { params: { ...cursor, size } });
+    return response.data;
+  },
+
+  async bulkModerate(decisions) {
+    // decisions: [{ id, action: 'APPROVE' | 'REJECT' }]
+    const response = await api.post('/api/admin/listings/bulk', { decisions });
     return response.data;
   },
 
@@ -87,10 +87,18 @@ export const attachmentService = {
     return response.data;
   },
 
-  getAttachmentUrl(attachmentId) {
+  // variant: 'original', or 'thumb' (320px) / 'medium' (800px) / 'large' (1600px) for images.
+  // Uses the signed URL from the attachment response when there is one (no token or DB lookup on the server).
+  getAttachmentUrl(attachment, variant = 'original') {
     // Get base URL from api instance
     const baseURL = api.defaults.baseURL || 'http://localhost:8080';
-    return `${baseURL}/api/attachments/${attachmentId}/download`;
+    const signed = attachment?.urls?.[variant] || attachment?.urls?.original;
+    if (signed) {
+      return `${baseURL}${signed}`;
+    }
+    const attachmentId = typeof attachment === 'object' ? attachment.id : attachment;
+    const query = variant !== 'original' && attachment?.type === 'IMAGE' ? `?variant=${variant}` : '';
+    return `${baseURL}/api/attachments/${attachmentId}/download${query}`;
   },
 
   async deleteAttachment(attachmentId) {